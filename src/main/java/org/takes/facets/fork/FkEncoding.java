@@ -24,13 +24,10 @@
 package org.takes.facets.fork;
 
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.Iterator;
-import java.util.regex.Pattern;
 import lombok.EqualsAndHashCode;
 import org.takes.Request;
 import org.takes.Response;
+import org.takes.misc.AcceptEncoding;
 import org.takes.misc.EnglishLowerCase;
 import org.takes.misc.Opt;
 import org.takes.rq.RqHeaders;
@@ -51,6 +48,11 @@ import org.takes.rq.RqHeaders;
  * <p>Empty string as an encoding means that the fork should match
  * in any case.
  *
+ * <p>Quality values are respected, so {@code "gzip;q=0"} doesn't match
+ * "gzip", while {@code "*"} matches any encoding not mentioned
+ * explicitly, see {@link AcceptEncoding}. In order to pick the best
+ * of many encodings use {@link org.takes.tk.TkEncoded}.
+ *
  * <p>The class is immutable and thread-safe.
  * @author Yegor Bugayenko (yegor256@gmail.com)
  * @version $Id$
@@ -60,11 +62,6 @@ import org.takes.rq.RqHeaders;
 @EqualsAndHashCode
 public final class FkEncoding implements Fork {
 
-    /**
-     * Accept-Encoding separator.
-     */
-    private static final Pattern ENCODING_SEP = Pattern.compile("\\s*,\\s*");
-
     /**
      * Encoding we can deliver (or empty string).
      */
@@ -87,23 +84,11 @@ public final class FkEncoding implements Fork {
 
     @Override
     public Opt<Response> route(final Request req) throws IOException {
-        final Iterator<String> headers =
-            new RqHeaders.Base(req).header("Accept-Encoding").iterator();
         final Opt<Response> resp;
-        if (this.encoding.isEmpty()) {
+        if (this.encoding.isEmpty() || new AcceptEncoding(
+            new RqHeaders.Base(req).header("Accept-Encoding")
+        ).accepts(this.encoding)) {
             resp = new Opt.Single<Response>(this.origin);
-        } else if (headers.hasNext()) {
-            final Collection<String> items = Arrays.asList(
-                ENCODING_SEP.split(
-                    new EnglishLowerCase(headers.next().trim())
-                        .string()
-                )
-            );
-            if (items.contains(this.encoding)) {
-                resp = new Opt.Single<Response>(this.origin);
-            } else {
-                resp = new Opt.Empty<Response>();
-            }
         } else {
             resp = new Opt.Empty<Response>();
         }
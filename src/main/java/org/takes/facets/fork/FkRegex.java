@@ -199,10 +199,19 @@ public final class FkRegex implements Fork {
 
     @Override
     public Opt<Response> route(final Request req) throws IOException {
-        String path = new RqHref.Base(req).href().path();
-        if (path.length() > 1 && path.charAt(path.length() - 1) == '/') {
-            path = path.substring(0, path.length() - 1);
-        }
+        return this.route(req, FkRegex.path(req));
+    }
+
+    /**
+     * Route this request, when its path is already known.
+     * @param req Request
+     * @param path Path of the request, without trailing slash
+     * @return Response or empty, if the path doesn't match
+     * @throws IOException If fails
+     * @since 2.0
+     */
+    Opt<Response> route(final Request req, final String path)
+        throws IOException {
         final Matcher matcher = this.pattern.matcher(path);
         final Opt<Response> resp;
         if (matcher.matches()) {
@@ -217,6 +226,31 @@ public final class FkRegex implements Fork {
         return resp;
     }
 
+    /**
+     * The pattern.
+     * @return Pattern
+     * @since 2.0
+     */
+    Pattern pattern() {
+        return this.pattern;
+    }
+
+    /**
+     * Path of the request, without trailing slash, as it is matched
+     * against patterns.
+     * @param req Request
+     * @return Path
+     * @throws IOException If fails
+     * @since 2.0
+     */
+    static String path(final Request req) throws IOException {
+        String path = new RqHref.Base(req).href().path();
+        if (path.length() > 1 && path.charAt(path.length() - 1) == '/') {
+            path = path.substring(0, path.length() - 1);
+        }
+        return path;
+    }
+
     /**
      * Request with a matcher inside.
      *
@@ -0,0 +1,229 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.takes.facets.fork;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import lombok.EqualsAndHashCode;
+import org.takes.Request;
+import org.takes.Response;
+import org.takes.misc.Opt;
+
+/**
+ * Fork by many regular expressions at once, indexed by a prefix tree.
+ *
+ * <p>{@link TkFork} asks its forks one by one, and every {@link FkRegex}
+ * parses the URI of the request and runs its regular expression. With
+ * hundreds of routes that is hundreds of URI parsings and regex matches
+ * per request. This fork takes the same {@link FkRegex} routes and
+ * compiles the literal beginnings of their patterns into a prefix tree.
+ * The path of the request is computed once and walked through the tree,
+ * which gives the few routes that may possibly match it. Only they run
+ * their regular expressions, in the order they were declared:
+ *
+ * <pre> Take take = new TkFork(
+ *   new FkTree(
+ *     new FkRegex("/", new TkHome()),
+ *     new FkRegex("/account", new TkAccount()),
+ *     new FkRegex("/user/([a-z]+)", new TkUser())
+ *   )
+ * );</pre>
+ *
+ * <p>The result is exactly the same as with a {@link TkFork} of the same
+ * routes, including the {@link RqRegex} matcher given to the route.
+ *
+ * <p>The class is immutable and thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@EqualsAndHashCode
+public final class FkTree implements Fork {
+
+    /**
+     * Characters that stop the literal part of a pattern.
+     */
+    private static final String SPECIAL = "[](){}.*+?^$";
+
+    /**
+     * Characters that make the previous character optional or repeated.
+     */
+    private static final String QUANTIFIERS = "*+?{";
+
+    /**
+     * Routes, in the order of declaration.
+     */
+    private final List<FkRegex> routes;
+
+    /**
+     * Root of the tree.
+     */
+    private final FkTree.Node root;
+
+    /**
+     * Ctor.
+     * @param rts Routes
+     */
+    public FkTree(final FkRegex... rts) {
+        this(Arrays.asList(rts));
+    }
+
+    /**
+     * Ctor.
+     * @param rts Routes
+     */
+    public FkTree(final List<FkRegex> rts) {
+        this.routes = Collections.unmodifiableList(new ArrayList<>(rts));
+        this.root = new FkTree.Node();
+        for (int idx = 0; idx < this.routes.size(); ++idx) {
+            FkTree.add(this.root, this.routes.get(idx).pattern(), idx);
+        }
+    }
+
+    @Override
+    public Opt<Response> route(final Request req) throws IOException {
+        final String path = FkRegex.path(req);
+        final List<Integer> candidates = new ArrayList<>(0);
+        FkTree.Node node = this.root;
+        int depth = 0;
+        while (node != null) {
+            candidates.addAll(node.prefixed);
+            if (depth == path.length()) {
+                candidates.addAll(node.exact);
+                break;
+            }
+            node = node.children.get(
+                Character.toLowerCase(path.charAt(depth))
+            );
+            ++depth;
+        }
+        Collections.sort(candidates);
+        Opt<Response> response = new Opt.Empty<>();
+        for (final Integer idx : candidates) {
+            response = this.routes.get(idx).route(req, path);
+            if (response.has()) {
+                break;
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Add a pattern to the tree.
+     * @param root Root of the tree
+     * @param ptn Pattern
+     * @param idx Position of the route
+     */
+    private static void add(final FkTree.Node root, final Pattern ptn,
+        final int idx) {
+        final String src = ptn.pattern();
+        final StringBuilder literal = new StringBuilder(src.length());
+        boolean exact = (ptn.flags()
+            & (Pattern.COMMENTS | Pattern.LITERAL | Pattern.CANON_EQ)) == 0
+            && src.indexOf('|') < 0;
+        int pos = 0;
+        while (exact && pos < src.length()) {
+            final char chr = src.charAt(pos);
+            int step = 1;
+            char next = chr;
+            if (chr == '\\') {
+                if (pos + 1 < src.length()
+                    && !Character.isLetterOrDigit(src.charAt(pos + 1))) {
+                    next = src.charAt(pos + 1);
+                    step = 2;
+                } else {
+                    exact = false;
+                }
+            } else if (FkTree.SPECIAL.indexOf(chr) >= 0) {
+                exact = false;
+            }
+            if (pos + step < src.length() && FkTree.QUANTIFIERS.indexOf(
+                src.charAt(pos + step)
+            ) >= 0) {
+                exact = false;
+            }
+            if (exact) {
+                literal.append(Character.toLowerCase(next));
+                pos += step;
+            }
+        }
+        FkTree.Node node = root;
+        for (int chr = 0; chr < literal.length(); ++chr) {
+            node = node.child(literal.charAt(chr));
+        }
+        if (exact) {
+            node.exact.add(idx);
+        } else {
+            node.prefixed.add(idx);
+        }
+    }
+
+    /**
+     * Node of the tree.
+     */
+    private static final class Node {
+        /**
+         * Children by the next character of the path, in lower case.
+         */
+        private final Map<Character, FkTree.Node> children;
+        /**
+         * Routes whose literal prefix ends here and a regular
+         * expression follows.
+         */
+        private final List<Integer> prefixed;
+        /**
+         * Routes whose patterns are literal and end here.
+         */
+        private final List<Integer> exact;
+        /**
+         * Ctor.
+         */
+        Node() {
+            this.children = new HashMap<>(0);
+            this.prefixed = new ArrayList<>(0);
+            this.exact = new ArrayList<>(0);
+        }
+        /**
+         * Get or create a child.
+         * @param chr Character
+         * @return Child node
+         */
+        public FkTree.Node child(final char chr) {
+            FkTree.Node node = this.children.get(chr);
+            if (node == null) {
+                node = new FkTree.Node();
+                this.children.put(chr, node);
+            }
+            return node;
+        }
+    }
+
+}
@@ -0,0 +1,279 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.takes.http;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.util.concurrent.TimeUnit;
+import lombok.EqualsAndHashCode;
+
+/**
+ * Back-end that adapts the number of sockets in flight to their latency.
+ *
+ * <p>While sockets are processed within the target latency and at least
+ * half of the limit is in use, the limit grows by one for every full
+ * limit of sockets. As soon as a socket is slower or fails, the limit is
+ * multiplied by the backoff ratio (additive increase, multiplicative
+ * decrease). A socket over the limit is given to {@link Overload} at once,
+ * by default answered with 503, so the load that the take and its
+ * downstream services can't handle is shed before it queues up.
+ *
+ * <p>The latency is the time the original back spends on a socket, so
+ * this back must be inside {@link BkParallel} and not around it, for
+ * example {@code new BkParallel(new BkAdaptive(new BkSafe(new
+ * BkBasic(take)), 100L))}. With persistent connections the latency
+ * includes the time the connection stays idle, so either keep the target
+ * above the idle timeout of {@link KeepAlive} or serve one request per
+ * connection.
+ *
+ * <p>{@link #limit()}, {@link #inflight()} and {@link #rejected()} tell
+ * how it is doing.
+ *
+ * <p>The class is immutable and thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@EqualsAndHashCode(callSuper = true)
+public final class BkAdaptive extends BkWrap {
+
+    /**
+     * State of the limit.
+     */
+    private final BkAdaptive.Limit state;
+
+    /**
+     * Ctor, answering sockets over the limit with 503.
+     * @param back Original back
+     * @param latency Target latency, in milliseconds
+     */
+    public BkAdaptive(final Back back, final long latency) {
+        this(back, latency, Overload.UNAVAILABLE);
+    }
+
+    /**
+     * Ctor, starting with 20 sockets in flight, between 1 and 1000,
+     * backing off by 10%.
+     * @param back Original back
+     * @param latency Target latency, in milliseconds
+     * @param overload What to do with sockets over the limit
+     */
+    public BkAdaptive(final Back back, final long latency,
+        final Overload overload) {
+        this(
+            back, overload,
+            // @checkstyle MagicNumber (1 line)
+            new BkAdaptive.Limit(latency, 20, 1, 1000, 0.9d)
+        );
+    }
+
+    /**
+     * Ctor.
+     * @param back Original back
+     * @param latency Target latency, in milliseconds
+     * @param initial Initial limit
+     * @param min Minimal limit
+     * @param max Maximal limit
+     * @param backoff Ratio to multiply the limit by, when it's exceeded
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    public BkAdaptive(final Back back, final long latency, final int initial,
+        final int min, final int max, final double backoff) {
+        this(
+            back, Overload.UNAVAILABLE,
+            new BkAdaptive.Limit(latency, initial, min, max, backoff)
+        );
+    }
+
+    /**
+     * Ctor.
+     * @param back Original back
+     * @param overload What to do with sockets over the limit
+     * @param limit State of the limit
+     */
+    private BkAdaptive(final Back back, final Overload overload,
+        final BkAdaptive.Limit limit) {
+        super(
+            new Back() {
+                @Override
+                public void accept(final Socket socket) throws IOException {
+                    if (limit.acquire()) {
+                        final long start = System.nanoTime();
+                        boolean failed = true;
+                        try {
+                            back.accept(socket);
+                            failed = false;
+                        } finally {
+                            limit.release(System.nanoTime() - start, failed);
+                        }
+                    } else {
+                        overload.reject(back, socket);
+                    }
+                }
+            }
+        );
+        this.state = limit;
+    }
+
+    /**
+     * Maximum number of sockets in flight now.
+     * @return Limit
+     */
+    public int limit() {
+        return this.state.current();
+    }
+
+    /**
+     * Sockets in flight now.
+     * @return Number of sockets
+     */
+    public int inflight() {
+        return this.state.inflight();
+    }
+
+    /**
+     * Sockets rejected so far, because the limit was reached.
+     * @return Number of sockets
+     */
+    public long rejected() {
+        return this.state.rejected();
+    }
+
+    /**
+     * Limit of sockets in flight, with AIMD.
+     */
+    private static final class Limit {
+        /**
+         * Target latency, in nanoseconds.
+         */
+        private final long target;
+        /**
+         * Minimal limit.
+         */
+        private final int min;
+        /**
+         * Maximal limit.
+         */
+        private final int max;
+        /**
+         * Backoff ratio.
+         */
+        private final double backoff;
+        /**
+         * Current limit.
+         */
+        private double limit;
+        /**
+         * Sockets in flight.
+         */
+        private int flight;
+        /**
+         * Sockets rejected.
+         */
+        private long dropped;
+        /**
+         * Ctor.
+         * @param latency Target latency, in milliseconds
+         * @param initial Initial limit
+         * @param low Minimal limit
+         * @param high Maximal limit
+         * @param ratio Backoff ratio
+         * @checkstyle ParameterNumberCheck (3 lines)
+         */
+        Limit(final long latency, final int initial, final int low,
+            final int high, final double ratio) {
+            if (low < 1 || low > high || initial < low || initial > high) {
+                throw new IllegalArgumentException(
+                    String.format(
+                        "limits must be 1 <= %d <= %d <= %d",
+                        low, initial, high
+                    )
+                );
+            }
+            if (ratio <= 0.0d || ratio >= 1.0d) {
+                throw new IllegalArgumentException(
+                    String.format("backoff must be in (0, 1): %f", ratio)
+                );
+            }
+            this.target = TimeUnit.MILLISECONDS.toNanos(latency);
+            this.min = low;
+            this.max = high;
+            this.backoff = ratio;
+            this.limit = (double) initial;
+        }
+        /**
+         * Take a place in flight.
+         * @return TRUE if there is a place, FALSE if the limit is reached
+         */
+        synchronized boolean acquire() {
+            final boolean free = this.flight < (int) this.limit;
+            if (free) {
+                ++this.flight;
+            } else {
+                ++this.dropped;
+            }
+            return free;
+        }
+        /**
+         * Give the place back and adjust the limit.
+         * @param nanos How long the socket was processed
+         * @param failed TRUE if the original back failed
+         */
+        synchronized void release(final long nanos, final boolean failed) {
+            if (failed || nanos > this.target) {
+                this.limit = Math.max(
+                    (double) this.min, Math.floor(this.limit * this.backoff)
+                );
+            } else if (this.flight << 1 >= (int) this.limit) {
+                this.limit = Math.min(
+                    (double) this.max, this.limit + 1.0d / this.limit
+                );
+            }
+            --this.flight;
+        }
+        /**
+         * Current limit.
+         * @return Limit
+         */
+        synchronized int current() {
+            return (int) this.limit;
+        }
+        /**
+         * Sockets in flight.
+         * @return Number of sockets
+         */
+        synchronized int inflight() {
+            return this.flight;
+        }
+        /**
+         * Sockets rejected.
+         * @return Number of sockets
+         */
+        synchronized long rejected() {
+            return this.dropped;
+        }
+    }
+}
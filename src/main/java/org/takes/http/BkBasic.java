@@ -23,6 +23,7 @@
  */
 package org.takes.http;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -32,21 +33,70 @@ import java.io.OutputStream;
 import java.io.PrintStream;
 import java.net.HttpURLConnection;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Iterator;
 import lombok.EqualsAndHashCode;
 import org.takes.HttpException;
 import org.takes.Request;
 import org.takes.Response;
 import org.takes.Take;
+import org.takes.misc.Buffers;
+import org.takes.misc.EnglishLowerCase;
 import org.takes.misc.Utf8PrintStream;
-import org.takes.rq.RqLive;
+import org.takes.rq.RqBulk;
+import org.takes.rq.RqFramed;
+import org.takes.rq.RqHeaders;
+import org.takes.rq.RqIndexed;
+import org.takes.rq.RqLimited;
+import org.takes.rq.RqRequestLine;
 import org.takes.rq.RqWithHeaders;
+import org.takes.rs.RsChunked;
 import org.takes.rs.RsPrint;
 import org.takes.rs.RsText;
+import org.takes.rs.RsWithHeader;
 import org.takes.rs.RsWithStatus;
+import org.takes.rs.RsWithoutHeader;
 
 /**
  * Basic back-end.
  *
+ * <p>Responses to HTTP/1.1 requests that have neither
+ * {@code Content-Length} nor {@code Transfer-Encoding} are sent with
+ * chunked transfer coding, by {@link RsChunked}, so that the client
+ * knows where they end, without buffering them. Takes must not chunk
+ * responses themselves, since HTTP/1.0 clients don't expect that.
+ *
+ * <p>Requests are read within the given {@link Limits}. A request that
+ * breaks them is answered with 413, 414 or 431 right away, without
+ * calling the take, and the connection is closed.
+ *
+ * <p>Given a {@link KeepAlive}, connections are persistent, as RFC 7230
+ * says: HTTP/1.1 ones unless
+ * the client sends {@code Connection: close}, HTTP/1.0 ones only if
+ * it sends {@code Connection: keep-alive}. The body of every request
+ * ends where the request ends (see {@link RqFramed}) and the part of
+ * it that the take didn't read is skipped, so pipelined requests are
+ * read one after another from the same stream and answered in order.
+ * The connection is closed when the client closes it or sends nothing
+ * for a while, or when too many requests are served through it, see
+ * {@link KeepAlive}. Persistence must be asked for, since
+ * {@link FtBasic} and {@link FtSecure} accept connections one by one, in
+ * one thread, and an idle persistent connection would stop all other
+ * clients there. Use it with a parallel back, like {@link BkParallel}:
+ *
+ * <pre> new FtBasic(
+ *   new BkParallel(
+ *     new BkBasic(take, new Limits(), new KeepAlive()), 4
+ *   ),
+ *   8080
+ * ).start(Exit.NEVER);</pre>
+ *
+ * <p>Without it, only pipelined requests, which have already arrived with
+ * the first one, are answered, and the connection is closed as soon as
+ * there are no more of them.
+ *
  * <p>The class is immutable and thread-safe.
  *
  * @author Yegor Bugayenko (yegor256@gmail.com)
@@ -78,65 +128,461 @@ public final class BkBasic implements Back {
      */
      public static final String REMOTEPORT = "X-Takes-RemotePort";
 
+    /**
+     * Version of HTTP with persistent connections by default.
+     */
+    private static final String HTTP11 = "HTTP/1.1";
+
+    /**
+     * Connection header name.
+     */
+    private static final String CONNECTION = "Connection";
+
+    /**
+     * Connection option to close.
+     */
+    private static final String CLOSE = "close";
+
+    /**
+     * Connection option to keep alive.
+     */
+    private static final String KEEP = "keep-alive";
+
     /**
      * Take.
      */
     private final Take take;
 
+    /**
+     * Limits of requests.
+     */
+    private final Limits limits;
+
+    /**
+     * Lifetime of persistent connections.
+     */
+    private final KeepAlive alive;
+
     /**
      * Ctor.
      * @param tks Take
      */
     public BkBasic(final Take tks) {
+        this(tks, new Limits());
+    }
+
+    /**
+     * Ctor, not waiting for requests which haven't arrived yet.
+     * @param tks Take
+     * @param lmts Limits of requests
+     * @since 2.0
+     */
+    public BkBasic(final Take tks, final Limits lmts) {
+        // @checkstyle MagicNumber (1 line)
+        this(tks, lmts, new KeepAlive(-1, 100));
+    }
+
+    /**
+     * Ctor.
+     * @param tks Take
+     * @param lmts Limits of requests
+     * @param keep Lifetime of persistent connections
+     * @since 2.0
+     */
+    public BkBasic(final Take tks, final Limits lmts, final KeepAlive keep) {
         this.take = tks;
+        this.limits = lmts;
+        this.alive = keep;
     }
 
-    @SuppressWarnings ("PMD.AvoidInstantiatingObjectsInLoops")
     @Override
     public void accept(final Socket socket) throws IOException {
         try (
-            final InputStream input = socket.getInputStream();
+            final InputStream input = new BufferedInputStream(
+                socket.getInputStream()
+            );
             final BufferedOutputStream output = new BufferedOutputStream(
                 socket.getOutputStream()
             )
         ) {
-            while (true) {
-                this.print(
-                    BkBasic.addSocketHeaders(
-                        new RqLive(input),
-                        socket
-                    ),
-                    output
-                );
-                if (input.available() <= 0) {
-                    break;
-                }
+            socket.setSoTimeout(Math.max(this.alive.idle(), 0));
+            this.serve(socket, input, output);
+        }
+    }
+
+    /**
+     * Serve HTTP/1.x requests from the connection, until it is closed.
+     * @param socket Socket of the connection
+     * @param input Input stream of the socket, which supports marks
+     * @param output Output stream of the socket
+     * @throws IOException If fails
+     */
+    @SuppressWarnings ("PMD.AvoidInstantiatingObjectsInLoops")
+    void serve(final Socket socket, final InputStream input,
+        final OutputStream output) throws IOException {
+        final WritableByteChannel channel = BkBasic.channel(socket, output);
+        int count = 0;
+        boolean open = BkBasic.waiting(input);
+        while (open) {
+            ++count;
+            try {
+                open = this.exchange(
+                    socket, input, output, channel,
+                    count < this.alive.requests()
+                ) && this.next(input);
+            } catch (final SocketTimeoutException ex) {
+                open = false;
             }
         }
     }
 
+    /**
+     * Read one request from the connection and print the response,
+     * answering a request that can't be read with its HTTP error.
+     * @param socket Socket of the connection
+     * @param input Input stream of the connection, which supports marks
+     * @param output Output stream of the connection
+     * @param channel Channel of the same destination, for files
+     * @param more TRUE if more requests may go through the connection
+     * @return TRUE if the connection may be reused
+     * @throws IOException If fails
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    boolean exchange(final Socket socket, final InputStream input,
+        final OutputStream output, final WritableByteChannel channel,
+        final boolean more) throws IOException {
+        boolean reuse = false;
+        try {
+            final Request req = this.request(input);
+            reuse = this.print(
+                new RqIndexed(BkBasic.addSocketHeaders(req, socket)),
+                output,
+                channel,
+                more && BkBasic.persistent(req)
+            ) && BkBasic.drained(req);
+        } catch (final HttpException ex) {
+            BkBasic.reject(ex, output);
+        }
+        return reuse;
+    }
+
+    /**
+     * Is the next request coming?
+     * @param input Input stream, which supports marks
+     * @return TRUE if it is, without waiting for it if the idle timeout
+     *  is negative
+     * @throws IOException If fails
+     */
+    private boolean next(final InputStream input) throws IOException {
+        return (this.alive.idle() >= 0 || input.available() > 0)
+            && BkBasic.waiting(input);
+    }
+
+    /**
+     * Answer a request that can't be read, closing the connection.
+     * @param err Why the request can't be read, with its status
+     * @param output Output stream of the connection
+     * @throws IOException If fails
+     */
+    private static void reject(final HttpException err,
+        final OutputStream output) throws IOException {
+        new RsPrint(
+            new RsWithHeader(
+                BkBasic.failure(err, err.code()),
+                "Connection: close"
+            )
+        ).print(output);
+    }
+
+    /**
+     * Read the next request from the stream, within the limits.
+     * @param input Input stream
+     * @return Request, which body ends where the request ends
+     * @throws IOException If fails or the request breaks the limits
+     */
+    private Request request(final InputStream input) throws IOException {
+        return new RqFramed(
+            new RqLimited(
+                new RqBulk(
+                    input,
+                    this.limits.head(),
+                    this.limits.headers(),
+                    this.limits.line()
+                ),
+                this.limits.body()
+            )
+        );
+    }
+
     /**
      * Print response to output stream, safely.
+     *
+     * <p>The response goes out with {@code Connection: close} if the
+     * connection is not persistent or can't be reused after this
+     * response, for example when the response has a body of unknown
+     * length for an HTTP/1.0 client. HTTP/1.0 clients get
+     * {@code Connection: keep-alive} otherwise. The response to HEAD goes
+     * without body, since the client doesn't read it and it would be taken
+     * for the beginning of the next response.
+     *
      * @param req Request
      * @param output Output
+     * @param channel Channel of the same destination, for files
+     * @param persistent TRUE if the client wants the connection to stay
+     * @return TRUE if the connection may be reused
      * @throws IOException If fails
      */
     @SuppressWarnings("PMD.AvoidCatchingThrowable")
-    private void print(final Request req, final OutputStream output)
+    boolean print(final Request req, final OutputStream output,
+        final WritableByteChannel channel, final boolean persistent)
         throws IOException {
+        Response res;
         try {
-            new RsPrint(this.take.act(req)).print(output);
+            res = this.take.act(req);
         } catch (final HttpException ex) {
-            new RsPrint(BkBasic.failure(ex, ex.code())).print(output);
+            res = BkBasic.failure(ex, ex.code());
+            // @checkstyle IllegalCatchCheck (1 line)
+        } catch (final Throwable ex) {
+            res = BkBasic.failure(ex, HttpURLConnection.HTTP_INTERNAL_ERROR);
+        }
+        boolean reuse = false;
+        try {
+            final Response framed = BkBasic.framed(req, res);
+            reuse = persistent && BkBasic.reusable(req, framed);
+            new RsPrint(
+                BkBasic.bodiless(req, BkBasic.connection(req, framed, reuse))
+            ).print(output, channel);
+        } catch (final HttpException ex) {
+            reuse = false;
+            new RsPrint(
+                BkBasic.connection(req, BkBasic.failure(ex, ex.code()), false)
+            ).print(output);
             // @checkstyle IllegalCatchCheck (7 lines)
         } catch (final Throwable ex) {
+            reuse = false;
             new RsPrint(
-                BkBasic.failure(
-                    ex,
-                    HttpURLConnection.HTTP_INTERNAL_ERROR
+                BkBasic.connection(
+                    req,
+                    BkBasic.failure(
+                        ex,
+                        HttpURLConnection.HTTP_INTERNAL_ERROR
+                    ),
+                    false
                 )
             ).print(output);
         }
+        return reuse;
+    }
+
+    /**
+     * Wait for the next request.
+     * @param input Input stream, which supports marks
+     * @return TRUE if it's coming, FALSE if the connection is closed
+     *  or idle for too long
+     * @throws IOException If fails
+     */
+    private static boolean waiting(final InputStream input)
+        throws IOException {
+        boolean more;
+        input.mark(1);
+        try {
+            more = input.read() >= 0;
+            input.reset();
+        } catch (final SocketTimeoutException ex) {
+            more = false;
+        }
+        return more;
+    }
+
+    /**
+     * Read the rest of the body, which the take didn't read, so that
+     * the next request starts at the right byte.
+     * @param req Request with framed body
+     * @return TRUE if the body is read to the end
+     */
+    private static boolean drained(final Request req) {
+        final byte[] buf = Buffers.SHARED.take();
+        boolean drained;
+        try {
+            final InputStream body = req.body();
+            int read = 0;
+            while (read >= 0) {
+                read = body.read(buf);
+            }
+            drained = true;
+        } catch (final IOException ex) {
+            drained = false;
+        } finally {
+            Buffers.SHARED.give(buf);
+        }
+        return drained;
+    }
+
+    /**
+     * Does the client want the connection to stay open after
+     * the request?
+     * @param req Request
+     * @return TRUE if it does
+     * @throws IOException If fails
+     */
+    private static boolean persistent(final Request req) throws IOException {
+        boolean keep = BkBasic.HTTP11.equals(BkBasic.version(req));
+        boolean close = false;
+        for (final String header : new RqHeaders.Base(req).header(
+            BkBasic.CONNECTION
+        )) {
+            for (final String token : header.split(",")) {
+                final String lower = new EnglishLowerCase(token.trim())
+                    .string();
+                keep |= BkBasic.KEEP.equals(lower);
+                close |= BkBasic.CLOSE.equals(lower);
+            }
+        }
+        return keep && !close;
+    }
+
+    /**
+     * Can the connection be reused after the response?
+     * @param req Request
+     * @param res Response, with framed body
+     * @return TRUE if it can
+     * @throws IOException If fails
+     */
+    private static boolean reusable(final Request req, final Response res)
+        throws IOException {
+        boolean known = BkBasic.HTTP11.equals(BkBasic.version(req))
+            || "HEAD".equals(new RqRequestLine.Base(req).method());
+        boolean close = false;
+        for (final String header : res.head()) {
+            final String lower = new EnglishLowerCase(header).string();
+            known |= lower.startsWith("content-length:");
+            close |= lower.startsWith("connection:")
+                && lower.contains(BkBasic.CLOSE);
+        }
+        return known && !close;
+    }
+
+    /**
+     * Tell the client whether the connection stays open.
+     * @param req Request
+     * @param res Response
+     * @param keep TRUE if it stays open
+     * @return Response with Connection header, if it's needed
+     * @throws IOException If fails
+     */
+    private static Response connection(final Request req, final Response res,
+        final boolean keep) throws IOException {
+        Response result = res;
+        if (!keep) {
+            result = new RsWithHeader(
+                new RsWithoutHeader(res, BkBasic.CONNECTION),
+                BkBasic.CONNECTION,
+                BkBasic.CLOSE
+            );
+        } else if (!BkBasic.HTTP11.equals(BkBasic.version(req))) {
+            result = new RsWithHeader(
+                new RsWithoutHeader(res, BkBasic.CONNECTION),
+                BkBasic.CONNECTION,
+                BkBasic.KEEP
+            );
+        }
+        return result;
+    }
+
+    /**
+     * Version of HTTP, which is the last word of the Request-Line.
+     *
+     * <p>Unlike {@link RqRequestLine.Base#version()}, it doesn't fail
+     * on a broken Request-Line, since it's needed to answer it.
+     *
+     * @param req Request
+     * @return Version or empty string
+     * @throws IOException If fails
+     */
+    private static String version(final Request req) throws IOException {
+        final Iterator<String> head = req.head().iterator();
+        String version = "";
+        if (head.hasNext()) {
+            final String line = head.next().trim();
+            version = line.substring(line.lastIndexOf(' ') + 1);
+        }
+        return version;
+    }
+
+    /**
+     * Drop the body of the response to HEAD, keeping its head as is.
+     * @param req Request
+     * @param res Response
+     * @return Response without body, if the request is HEAD
+     * @throws IOException If fails
+     */
+    private static Response bodiless(final Request req, final Response res)
+        throws IOException {
+        Response result = res;
+        if ("HEAD".equals(new RqRequestLine.Base(req).method())) {
+            result = new Response() {
+                @Override
+                public Iterable<String> head() throws IOException {
+                    return res.head();
+                }
+                @Override
+                public InputStream body() {
+                    return new ByteArrayInputStream(new byte[0]);
+                }
+            };
+        }
+        return result;
+    }
+
+    /**
+     * Make sure the client can find the end of the response.
+     * @param req Request
+     * @param res Response
+     * @return Response with chunked body, if its length is unknown
+     * @throws IOException If fails
+     */
+    private static Response framed(final Request req, final Response res)
+        throws IOException {
+        final RqRequestLine line = new RqRequestLine.Base(req);
+        Response framed = res;
+        if (BkBasic.HTTP11.equals(line.version())
+            && !"HEAD".equals(line.method())) {
+            boolean known = false;
+            for (final String header : res.head()) {
+                final String lower = new EnglishLowerCase(header).string();
+                if (lower.startsWith("content-length:")
+                    || lower.startsWith("transfer-encoding:")) {
+                    known = true;
+                    break;
+                }
+            }
+            if (!known) {
+                framed = new RsChunked(res);
+            }
+        }
+        return framed;
+    }
+
+    /**
+     * Channel to send files to the socket.
+     *
+     * <p>Only a socket opened by a {@link java.nio.channels.SocketChannel}
+     * has a channel that can take files without copying them; for other
+     * sockets the channel writes to the output.
+     *
+     * @param socket Socket
+     * @param output Output of the socket
+     * @return Channel
+     */
+    private static WritableByteChannel channel(final Socket socket,
+        final OutputStream output) {
+        final WritableByteChannel channel;
+        if (socket.getChannel() == null) {
+            channel = Channels.newChannel(output);
+        } else {
+            channel = socket.getChannel();
+        }
+        return channel;
     }
 
     /**
@@ -165,7 +611,7 @@ public final class BkBasic implements Back {
      * @return Request with custom headers
      */
     @SuppressWarnings("PMD.AvoidDuplicateLiterals")
-    private static Request addSocketHeaders(final Request req,
+    static Request addSocketHeaders(final Request req,
         final Socket socket) {
         return new RqWithHeaders(
             req,
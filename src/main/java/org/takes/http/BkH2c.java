@@ -0,0 +1,319 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.takes.http;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import lombok.EqualsAndHashCode;
+import org.takes.Request;
+import org.takes.Response;
+import org.takes.Take;
+import org.takes.http.h2.H2Connection;
+import org.takes.misc.EnglishLowerCase;
+import org.takes.misc.Opt;
+import org.takes.rq.RqLimited;
+
+/**
+ * HTTP/2 back-end without TLS, also serving HTTP/1.x.
+ *
+ * <p>A connection that starts with the preface of HTTP/2 is served as
+ * HTTP/2 right away, since the client knows that the server speaks it,
+ * see RFC 7540 section 3.4. An HTTP/1.1 request without body that asks
+ * for {@code Upgrade: h2c} and has {@code HTTP2-Settings} is answered
+ * with 101 and the connection goes on as HTTP/2, with the request as its
+ * first stream, see RFC 7540 section 3.2. Any other connection is served
+ * by {@link BkBasic}.
+ *
+ * <p>HTTP/2 streams of the connection are multiplexed, see
+ * {@link H2Connection}. Requests of both protocols get the same headers
+ * with the addresses of the socket, and the same {@link Limits}. The
+ * connection is closed if the client sends nothing for
+ * {@link KeepAlive#idle()} milliseconds while no requests are in
+ * progress.
+ *
+ * <p>The class is immutable and thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@EqualsAndHashCode
+public final class BkH2c implements Back {
+
+    /**
+     * Connection preface of HTTP/2, up to its first empty line.
+     */
+    private static final byte[] PRIOR = Arrays.copyOf(
+        H2Connection.PREFACE.getBytes(StandardCharsets.US_ASCII),
+        H2Connection.PREFACE.indexOf("\r\n\r\n") + 4
+    );
+
+    /**
+     * End of head of HTTP/1.x request.
+     */
+    private static final byte[] END = {'\r', '\n', '\r', '\n'};
+
+    /**
+     * Take.
+     */
+    private final Take take;
+
+    /**
+     * Limits of requests.
+     */
+    private final Limits limits;
+
+    /**
+     * How long connections live.
+     */
+    private final KeepAlive alive;
+
+    /**
+     * Ctor.
+     * @param tks Take
+     */
+    public BkH2c(final Take tks) {
+        this(tks, new Limits(), new KeepAlive());
+    }
+
+    /**
+     * Ctor.
+     * @param tks Take
+     * @param lmts Limits of requests
+     * @param keep How long connections live
+     */
+    public BkH2c(final Take tks, final Limits lmts, final KeepAlive keep) {
+        this.take = tks;
+        this.limits = lmts;
+        this.alive = keep;
+    }
+
+    @Override
+    public void accept(final Socket socket) throws IOException {
+        try (
+            final InputStream input = new BufferedInputStream(
+                socket.getInputStream()
+            );
+            final BufferedOutputStream output = new BufferedOutputStream(
+                socket.getOutputStream()
+            )
+        ) {
+            socket.setSoTimeout(Math.max(this.alive.idle(), 0));
+            final byte[] head = BkH2c.peek(input, this.limits.head());
+            if (Arrays.equals(head, BkH2c.PRIOR)) {
+                this.connection(socket, input, output).serve();
+            } else {
+                final List<String> lines = BkH2c.lines(head);
+                final Opt<byte[]> settings = BkH2c.settings(lines);
+                if (settings.has()) {
+                    BkH2c.skip(input, head.length);
+                    output.write(
+                        new StringBuilder(0)
+                            .append("HTTP/1.1 101 Switching Protocols\r\n")
+                            .append("Connection: Upgrade\r\n")
+                            .append("Upgrade: h2c\r\n\r\n")
+                            .toString()
+                            .getBytes(StandardCharsets.US_ASCII)
+                    );
+                    output.flush();
+                    this.connection(socket, input, output).serve(
+                        lines, settings.get()
+                    );
+                } else {
+                    new BkBasic(this.take, this.limits, this.alive).serve(
+                        socket, input, output
+                    );
+                }
+            }
+        }
+    }
+
+    /**
+     * Make HTTP/2 connection.
+     * @param socket Socket
+     * @param input Input of the socket
+     * @param output Output of the socket
+     * @return Connection
+     */
+    private H2Connection connection(final Socket socket,
+        final InputStream input, final OutputStream output) {
+        final Take origin = this.take;
+        final long body = this.limits.body();
+        return new H2Connection(
+            new Take() {
+                @Override
+                public Response act(final Request req) throws IOException {
+                    return origin.act(
+                        new RqLimited(
+                            BkBasic.addSocketHeaders(req, socket), body
+                        )
+                    );
+                }
+            },
+            this.limits,
+            input,
+            output
+        );
+    }
+
+    /**
+     * Read the bytes of the stream up to the first empty line, and
+     * return the stream back to where it was.
+     * @param input Input stream, which supports marks
+     * @param limit How many bytes to read at most
+     * @return Bytes read
+     * @throws IOException If fails
+     */
+    private static byte[] peek(final InputStream input, final int limit)
+        throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        input.mark(limit);
+        try {
+            int matched = 0;
+            int octet = 0;
+            while (matched < BkH2c.END.length && octet >= 0
+                && baos.size() < limit) {
+                octet = input.read();
+                if (octet >= 0) {
+                    baos.write(octet);
+                    if (octet == BkH2c.END[matched]) {
+                        ++matched;
+                    } else if (octet == BkH2c.END[0]) {
+                        matched = 1;
+                    } else {
+                        matched = 0;
+                    }
+                }
+            }
+        } catch (final SocketTimeoutException ex) {
+            baos.reset();
+        } finally {
+            input.reset();
+        }
+        return baos.toByteArray();
+    }
+
+    /**
+     * Lines of the head of HTTP/1.x request.
+     * @param head Bytes of the head
+     * @return Lines, or empty list if the head is not complete
+     */
+    private static List<String> lines(final byte[] head) {
+        final List<String> lines = new LinkedList<>();
+        final String text = new String(head, StandardCharsets.ISO_8859_1);
+        if (text.endsWith("\r\n\r\n")) {
+            Collections.addAll(lines, text.trim().split("\r\n"));
+        }
+        return lines;
+    }
+
+    /**
+     * Settings of HTTP/2, if the request asks for an upgrade to h2c.
+     * @param lines Lines of the head of the request
+     * @return Payload of {@code HTTP2-Settings}, if the request has it
+     */
+    private static Opt<byte[]> settings(final List<String> lines) {
+        Opt<byte[]> settings = new Opt.Empty<>();
+        final List<String> values = BkH2c.values(lines, "http2-settings");
+        final List<String> body = BkH2c.values(lines, "transfer-encoding");
+        body.addAll(BkH2c.values(lines, "content-length"));
+        body.removeAll(Collections.singleton("0"));
+        if (!lines.isEmpty() && lines.get(0).endsWith(" HTTP/1.1")
+            && values.size() == 1 && body.isEmpty()
+            && BkH2c.values(lines, "upgrade").contains("h2c")
+            && BkH2c.values(lines, "connection").contains("upgrade")) {
+            try {
+                final byte[] payload = Base64.getUrlDecoder().decode(
+                    values.get(0)
+                );
+                if (payload.length % 6 == 0) {
+                    settings = new Opt.Single<>(payload);
+                }
+            } catch (final IllegalArgumentException ex) {
+                settings = new Opt.Empty<>();
+            }
+        }
+        return settings;
+    }
+
+    /**
+     * Values of the header, split by commas.
+     * @param lines Lines of the head
+     * @param name Name of the header, in lower case
+     * @return Values, in lower case, except {@code HTTP2-Settings}
+     */
+    private static List<String> values(final List<String> lines,
+        final String name) {
+        final List<String> values = new LinkedList<>();
+        for (final String line : lines.subList(
+            Math.min(1, lines.size()), lines.size()
+        )) {
+            final int colon = line.indexOf(':');
+            if (colon > 0 && name.equals(
+                new EnglishLowerCase(line.substring(0, colon).trim()).string()
+            )) {
+                for (final String value : line.substring(colon + 1)
+                    .split(",")) {
+                    if ("http2-settings".equals(name)) {
+                        values.add(value.trim());
+                    } else {
+                        values.add(new EnglishLowerCase(value.trim()).string());
+                    }
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Skip bytes of the stream.
+     * @param input Input stream
+     * @param bytes How many bytes to skip
+     * @throws IOException If fails
+     */
+    private static void skip(final InputStream input, final int bytes)
+        throws IOException {
+        long left = (long) bytes;
+        while (left > 0L) {
+            final long skipped = input.skip(left);
+            if (skipped <= 0L) {
+                throw new IOException("stream ended in the head");
+            }
+            left -= skipped;
+        }
+    }
+}
@@ -25,15 +25,30 @@ package org.takes.http;
 
 import java.io.IOException;
 import java.net.Socket;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import lombok.EqualsAndHashCode;
 
 /**
  * Parallel back-end.
  *
+ * <p>Sockets wait for a free thread in a queue. When the queue is full,
+ * the socket is given to {@link Overload}, which by default answers
+ * with 503 at once, so that a spike of traffic is shed quickly instead
+ * of piling up sockets that time out anyway. The queue is unbounded
+ * unless its size is given to the constructor.
+ *
+ * <p>{@link #queued()}, {@link #dispatched()}, {@link #waited()} and
+ * {@link #rejected()} tell how the queue is doing.
+ *
  * <p>
  * The class is immutable and thread-safe.
  *
@@ -44,6 +59,11 @@ import lombok.EqualsAndHashCode;
 @EqualsAndHashCode(callSuper = true)
 public final class BkParallel extends BkWrap {
 
+    /**
+     * Statistics of the queue.
+     */
+    private final BkParallel.Stats stats;
+
     /**
      * Ctor.
      *
@@ -60,13 +80,23 @@ public final class BkParallel extends BkWrap {
      * @param threads Threads total
      */
     public BkParallel(final Back back, final int threads) {
-        this(
-            back,
-            Executors.newFixedThreadPool(
-                threads,
-                new BkParallel.Threads()
-            )
-        );
+        this(back, threads, Integer.MAX_VALUE, Overload.UNAVAILABLE);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param back Original back
+     * @param threads Threads total
+     * @param queue Maximum number of sockets waiting for a thread, zero
+     *  means that a socket is only accepted if a thread is free
+     * @param overload What to do with a socket when the queue is full
+     * @since 2.0
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    public BkParallel(final Back back, final int threads, final int queue,
+        final Overload overload) {
+        this(back, BkParallel.executor(threads, queue), overload);
     }
 
     /**
@@ -77,25 +107,149 @@ public final class BkParallel extends BkWrap {
      * @since 0.9
      */
     public BkParallel(final Back back, final ExecutorService svc) {
+        this(back, svc, Overload.UNAVAILABLE);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param back Original back
+     * @param svc Executor service
+     * @param overload What to do with a socket the service rejects
+     * @since 2.0
+     */
+    public BkParallel(final Back back, final ExecutorService svc,
+        final Overload overload) {
+        this(back, svc, overload, new BkParallel.Stats());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param back Original back
+     * @param svc Executor service
+     * @param overload What to do with a socket the service rejects
+     * @param stats Statistics of the queue
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    private BkParallel(final Back back, final ExecutorService svc,
+        final Overload overload, final BkParallel.Stats stats) {
         super(
             new Back() {
                 @Override
-                public void accept(final Socket socket) {
-                    svc.execute(
-                        new Runnable() {
-                            @Override
-                            public void run() {
-                                try {
-                                    back.accept(socket);
-                                } catch (final IOException ex) {
-                                    throw new IllegalStateException(ex);
+                public void accept(final Socket socket) throws IOException {
+                    final long queued = System.nanoTime();
+                    stats.queued.incrementAndGet();
+                    try {
+                        svc.execute(
+                            new Runnable() {
+                                @Override
+                                public void run() {
+                                    stats.start(queued);
+                                    try {
+                                        back.accept(socket);
+                                    } catch (final IOException ex) {
+                                        throw new IllegalStateException(ex);
+                                    }
                                 }
                             }
-                        }
-                    );
+                        );
+                    } catch (final RejectedExecutionException ex) {
+                        stats.queued.decrementAndGet();
+                        stats.rejected.incrementAndGet();
+                        overload.reject(back, socket);
+                    }
                 }
             }
         );
+        this.stats = stats;
+    }
+
+    /**
+     * Sockets waiting for a thread now.
+     * @return Number of sockets
+     * @since 2.0
+     */
+    public int queued() {
+        return this.stats.queued.get();
+    }
+
+    /**
+     * Sockets that got a thread so far.
+     * @return Number of sockets
+     * @since 2.0
+     */
+    public long dispatched() {
+        return this.stats.dispatched.get();
+    }
+
+    /**
+     * Total time the dispatched sockets spent in the queue.
+     * @return Milliseconds
+     * @since 2.0
+     */
+    public long waited() {
+        return TimeUnit.NANOSECONDS.toMillis(this.stats.waited.get());
+    }
+
+    /**
+     * Sockets rejected so far, because the queue was full.
+     * @return Number of sockets
+     * @since 2.0
+     */
+    public long rejected() {
+        return this.stats.rejected.get();
+    }
+
+    /**
+     * Make a pool of threads with a queue of sockets.
+     * @param threads Threads total
+     * @param queue Maximum number of waiting sockets
+     * @return Executor service
+     */
+    private static ExecutorService executor(final int threads,
+        final int queue) {
+        final BlockingQueue<Runnable> tasks;
+        if (queue == 0) {
+            tasks = new SynchronousQueue<>();
+        } else {
+            tasks = new LinkedBlockingQueue<>(queue);
+        }
+        return new ThreadPoolExecutor(
+            threads, threads, 0L, TimeUnit.MILLISECONDS, tasks,
+            new BkParallel.Threads()
+        );
+    }
+
+    /**
+     * Statistics of the queue.
+     */
+    private static final class Stats {
+        /**
+         * Sockets in the queue.
+         */
+        private final AtomicInteger queued = new AtomicInteger();
+        /**
+         * Sockets taken from the queue.
+         */
+        private final AtomicLong dispatched = new AtomicLong();
+        /**
+         * Nanoseconds spent in the queue by the dispatched sockets.
+         */
+        private final AtomicLong waited = new AtomicLong();
+        /**
+         * Sockets rejected.
+         */
+        private final AtomicLong rejected = new AtomicLong();
+        /**
+         * A socket is taken from the queue.
+         * @param since When it was put into the queue, in nanoseconds
+         */
+        private void start(final long since) {
+            this.queued.decrementAndGet();
+            this.dispatched.incrementAndGet();
+            this.waited.addAndGet(System.nanoTime() - since);
+        }
     }
 
     /**
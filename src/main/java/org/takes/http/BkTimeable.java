@@ -25,15 +25,23 @@ package org.takes.http;
 
 import java.io.IOException;
 import java.net.Socket;
-import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.TimeUnit;
 import lombok.EqualsAndHashCode;
 
 /**
  * Back decorator with maximum lifetime.
  *
+ * <p>When a socket is processed longer than the latency, it is closed,
+ * so the client gets no answer and the original back fails as soon as it
+ * touches the socket. The thread is not interrupted: a take that runs
+ * for long without touching the socket should stop by itself when
+ * {@link #deadline()} passes, which is what {@link FtCli} tells it in
+ * {@code X-Takes-Deadline} header.
+ *
+ * <p>Deadlines are kept on a timer wheel, see {@link Deadlines}, which
+ * this thread drives, so it must be started, as before.
+ *
  * <p>The class is immutable and thread-safe.
  * @author Dmitry Zaytsev (dmitry.zaytsev@gmail.com)
  * @version $Id$
@@ -51,9 +59,13 @@ public final class BkTimeable extends Thread implements Back {
      */
     private final long latency;
     /**
-     * Threads storage.
+     * Deadlines of sockets.
+     */
+    private final Deadlines wheel;
+    /**
+     * Deadlines of the threads that process sockets now.
      */
-    private final ConcurrentMap<Thread, Long> threads;
+    private final ConcurrentMap<Thread, Deadlines.Timeout> threads;
 
     /**
      * Ctor.
@@ -62,47 +74,58 @@ public final class BkTimeable extends Thread implements Back {
      */
     public BkTimeable(final Back back, final long msec) {
         super();
-        this.threads = new ConcurrentHashMap<Thread, Long>(1);
+        this.threads = new ConcurrentHashMap<>(1);
         this.back = back;
         this.latency = msec;
+        this.wheel = new Deadlines();
     }
 
     @Override
     public void run() {
-        while (true) {
-            this.check();
-            try {
-                TimeUnit.SECONDS.sleep(1L);
-            } catch (final InterruptedException ex) {
-                Thread.currentThread().interrupt();
-                throw new IllegalStateException(ex);
-            }
-        }
+        this.wheel.run();
     }
 
     @Override
     public void accept(final Socket socket) throws IOException {
-        this.threads.put(
-            Thread.currentThread(),
-            System.currentTimeMillis()
+        final Deadlines.Timeout timeout = this.wheel.schedule(
+            this.latency,
+            new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        socket.close();
+                    } catch (final IOException ex) {
+                        assert ex != null;
+                    }
+                }
+            }
         );
-        this.back.accept(socket);
+        final Thread thread = Thread.currentThread();
+        this.threads.put(thread, timeout);
+        try {
+            this.back.accept(socket);
+        } finally {
+            this.threads.remove(thread);
+            timeout.cancel();
+        }
     }
 
     /**
-     * Checking threads storage and interrupt long running threads.
+     * Deadline of the socket the current thread processes.
+     * @return Milliseconds since the epoch, or {@link Long#MAX_VALUE}
+     *  if there is no deadline
+     * @since 2.0
      */
-    private void check() {
-        for (final Map.Entry<Thread, Long> entry
-            : this.threads.entrySet()) {
-            final long time = System.currentTimeMillis();
-            if (time - entry.getValue() > this.latency) {
-                final Thread thread = entry.getKey();
-                if (thread.isAlive()) {
-                    thread.interrupt();
-                }
-                this.threads.remove(thread);
-            }
+    public long deadline() {
+        final Deadlines.Timeout timeout = this.threads.get(
+            Thread.currentThread()
+        );
+        final long time;
+        if (timeout == null) {
+            time = Long.MAX_VALUE;
+        } else {
+            time = timeout.deadline();
         }
+        return time;
     }
 }
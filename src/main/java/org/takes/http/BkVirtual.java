@@ -0,0 +1,179 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.takes.http;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import lombok.EqualsAndHashCode;
+
+/**
+ * Back-end that runs every socket on its own virtual thread.
+ *
+ * <p>On Java 21 and later every accepted socket is dispatched to a new
+ * virtual thread, so blocking takes scale to thousands of in-flight
+ * requests. On older runtimes, where virtual threads are not available,
+ * a fixed pool of platform threads is used instead, four per processor,
+ * or fewer if the limit below is lower.
+ *
+ * <p>The number of sockets processed at the same time is limited, by the
+ * limit given or by the size of the pool of platform threads, whichever
+ * is lower. When the limit is reached, {@link #accept(Socket)} blocks
+ * until one of the running sockets is done, which slows down the front.
+ *
+ * <p>The class is immutable and thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@EqualsAndHashCode(callSuper = true)
+public final class BkVirtual extends BkWrap {
+
+    /**
+     * Ctor.
+     * @param back Original back
+     */
+    public BkVirtual(final Back back) {
+        this(back, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Ctor.
+     * @param back Original back
+     * @param limit Maximum number of sockets processed concurrently
+     */
+    public BkVirtual(final Back back, final int limit) {
+        this(
+            back,
+            BkVirtual.executor(BkVirtual.slots(limit)),
+            new Semaphore(BkVirtual.slots(limit))
+        );
+    }
+
+    /**
+     * Ctor.
+     * @param back Original back
+     * @param svc Executor service
+     * @param slots Concurrency slots
+     */
+    private BkVirtual(final Back back, final ExecutorService svc,
+        final Semaphore slots) {
+        super(
+            new Back() {
+                @Override
+                public void accept(final Socket socket) {
+                    try {
+                        slots.acquire();
+                    } catch (final InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException(ex);
+                    }
+                    try {
+                        svc.execute(
+                            new Runnable() {
+                                @Override
+                                public void run() {
+                                    try {
+                                        back.accept(socket);
+                                    } catch (final IOException ex) {
+                                        throw new IllegalStateException(ex);
+                                    } finally {
+                                        slots.release();
+                                    }
+                                }
+                            }
+                        );
+                    } catch (final RejectedExecutionException ex) {
+                        slots.release();
+                        throw ex;
+                    }
+                }
+            }
+        );
+    }
+
+    /**
+     * Are virtual threads supported by the runtime?
+     * @return TRUE if they are, FALSE if platform threads are used
+     */
+    private static boolean supported() {
+        boolean yes;
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            yes = true;
+        } catch (final NoSuchMethodException ex) {
+            yes = false;
+        }
+        return yes;
+    }
+
+    /**
+     * How many sockets may be processed at the same time.
+     * @param limit Maximum number requested
+     * @return The limit, if virtual threads are supported, or the size
+     *  of the pool of platform threads otherwise
+     */
+    private static int slots(final int limit) {
+        final int slots;
+        if (BkVirtual.supported()) {
+            slots = limit;
+        } else {
+            slots = Math.min(
+                limit, Runtime.getRuntime().availableProcessors() << 2
+            );
+        }
+        return slots;
+    }
+
+    /**
+     * Make an executor with a virtual thread per task, if the runtime
+     * supports them, or a fixed pool of platform threads.
+     * @param threads Size of the pool of platform threads
+     * @return Executor service
+     */
+    private static ExecutorService executor(final int threads) {
+        final ExecutorService svc;
+        if (BkVirtual.supported()) {
+            try {
+                svc = ExecutorService.class.cast(
+                    Executors.class.getMethod(
+                        "newVirtualThreadPerTaskExecutor"
+                    ).invoke(null)
+                );
+            } catch (final NoSuchMethodException | IllegalAccessException
+                | InvocationTargetException ex) {
+                throw new IllegalStateException(ex);
+            }
+        } else {
+            svc = Executors.newFixedThreadPool(threads);
+        }
+        return svc;
+    }
+
+}
@@ -0,0 +1,291 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.takes.http;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deadlines on a hashed timer wheel.
+ *
+ * <p>Every deadline goes into the bucket of its tick, one of a fixed ring
+ * of buckets, so scheduling and cancelling take constant time, however
+ * many deadlines are pending. {@link #run()} moves through the ring, one
+ * tick at a time, and runs the tasks whose deadlines have passed, in its
+ * own thread, so they must be short, like closing a socket. While nothing
+ * is scheduled, the thread sleeps.
+ *
+ * <p>The class is mutable and thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class Deadlines implements Runnable {
+
+    /**
+     * Length of a tick, in nanoseconds.
+     */
+    private final long tick;
+
+    /**
+     * Buckets, each one is a ring of deadlines around its head.
+     */
+    private final Deadlines.Timeout[] buckets;
+
+    /**
+     * When the wheel started, in nanoseconds.
+     */
+    private final long start;
+
+    /**
+     * The last tick processed.
+     */
+    private long done;
+
+    /**
+     * Deadlines pending.
+     */
+    private int pending;
+
+    /**
+     * Ctor, with ticks of one millisecond and 512 buckets.
+     */
+    public Deadlines() {
+        // @checkstyle MagicNumber (1 line)
+        this(1L, 512);
+    }
+
+    /**
+     * Ctor.
+     * @param msec Length of a tick, in milliseconds
+     * @param size Number of buckets, a power of two
+     */
+    public Deadlines(final long msec, final int size) {
+        if (msec < 1L) {
+            throw new IllegalArgumentException(
+                String.format("tick must be positive: %d", msec)
+            );
+        }
+        if (size < 1 || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException(
+                String.format(
+                    "number of buckets must be a power of 2: %d", size
+                )
+            );
+        }
+        this.tick = TimeUnit.MILLISECONDS.toNanos(msec);
+        this.buckets = new Deadlines.Timeout[size];
+        for (int idx = 0; idx < size; ++idx) {
+            this.buckets[idx] = new Deadlines.Timeout(this, 0L, 0L, null);
+        }
+        this.start = System.nanoTime();
+    }
+
+    /**
+     * Run the task once the time is out, unless cancelled before.
+     * @param msec Time, in milliseconds
+     * @param task Task
+     * @return Timeout, to cancel it
+     */
+    public Deadlines.Timeout schedule(final long msec, final Runnable task) {
+        final long nanos = TimeUnit.MILLISECONDS.toNanos(Math.max(msec, 0L));
+        final long ticks = nanos / this.tick + Long.signum(nanos % this.tick);
+        final long now = System.currentTimeMillis();
+        final long deadline;
+        if (msec >= Long.MAX_VALUE - now) {
+            deadline = Long.MAX_VALUE;
+        } else {
+            deadline = now + msec;
+        }
+        synchronized (this) {
+            final Deadlines.Timeout timeout = new Deadlines.Timeout(
+                this,
+                Math.max(
+                    this.done + 1L,
+                    this.ticks() + ticks
+                ),
+                deadline,
+                task
+            );
+            timeout.link(
+                this.buckets[(int) timeout.due & this.buckets.length - 1]
+            );
+            ++this.pending;
+            this.notifyAll();
+            return timeout;
+        }
+    }
+
+    /**
+     * Run the tasks when their time is out, till the thread is interrupted.
+     */
+    @Override
+    public void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                for (final Runnable task : this.expired()) {
+                    task.run();
+                }
+            }
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Wait for the next tick and take the tasks whose time is out.
+     * @return Tasks
+     * @throws InterruptedException If interrupted
+     */
+    private Collection<Runnable> expired() throws InterruptedException {
+        synchronized (this) {
+            while (this.pending == 0) {
+                this.wait();
+            }
+        }
+        final long next = this.start + (this.done + 1L) * this.tick;
+        final long sleep = next - System.nanoTime();
+        if (sleep > 0L) {
+            TimeUnit.NANOSECONDS.sleep(sleep);
+        }
+        final Collection<Runnable> tasks = new ArrayList<>(0);
+        synchronized (this) {
+            final long now = this.ticks();
+            final long last = Math.min(now, this.done + this.buckets.length);
+            for (long idx = this.done + 1L; idx <= last; ++idx) {
+                final Deadlines.Timeout head =
+                    this.buckets[(int) idx & this.buckets.length - 1];
+                Deadlines.Timeout timeout = head.next;
+                while (timeout != head) {
+                    final Deadlines.Timeout following = timeout.next;
+                    if (timeout.due <= now) {
+                        timeout.unlink();
+                        --this.pending;
+                        tasks.add(timeout.task);
+                    }
+                    timeout = following;
+                }
+            }
+            this.done = Math.max(this.done, now);
+        }
+        return tasks;
+    }
+
+    /**
+     * Ticks since the start.
+     * @return Ticks
+     */
+    private long ticks() {
+        return (System.nanoTime() - this.start) / this.tick;
+    }
+
+    /**
+     * Scheduled task.
+     *
+     * <p>The class is mutable and thread-safe.
+     */
+    public static final class Timeout {
+        /**
+         * Wheel.
+         */
+        private final Deadlines wheel;
+        /**
+         * Tick when it's due.
+         */
+        private final long due;
+        /**
+         * Deadline, in milliseconds since the epoch.
+         */
+        private final long deadline;
+        /**
+         * Task.
+         */
+        private final Runnable task;
+        /**
+         * Previous one in the bucket.
+         */
+        private Deadlines.Timeout prev;
+        /**
+         * Next one in the bucket.
+         */
+        private Deadlines.Timeout next;
+        /**
+         * Ctor.
+         * @param whl Wheel
+         * @param tck Tick when it's due
+         * @param time Deadline, in milliseconds since the epoch
+         * @param tsk Task
+         * @checkstyle ParameterNumberCheck (3 lines)
+         */
+        Timeout(final Deadlines whl, final long tck, final long time,
+            final Runnable tsk) {
+            this.wheel = whl;
+            this.due = tck;
+            this.deadline = time;
+            this.task = tsk;
+            this.prev = this;
+            this.next = this;
+        }
+        /**
+         * Deadline.
+         * @return Milliseconds since the epoch
+         */
+        public long deadline() {
+            return this.deadline;
+        }
+        /**
+         * Cancel it, unless the task already ran.
+         */
+        public void cancel() {
+            synchronized (this.wheel) {
+                if (this.next != this) {
+                    this.unlink();
+                    --this.wheel.pending;
+                }
+            }
+        }
+        /**
+         * Put it into the bucket.
+         * @param head Head of the bucket
+         */
+        private void link(final Deadlines.Timeout head) {
+            this.prev = head.prev;
+            this.next = head;
+            head.prev.next = this;
+            head.prev = this;
+        }
+        /**
+         * Take it from its bucket.
+         */
+        private void unlink() {
+            this.prev.next = this.next;
+            this.next.prev = this.prev;
+            this.prev = this;
+            this.next = this;
+        }
+    }
+}
@@ -24,8 +24,10 @@
 package org.takes.http;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.SocketTimeoutException;
+import java.nio.channels.ServerSocketChannel;
 import java.util.concurrent.TimeUnit;
 import lombok.EqualsAndHashCode;
 import org.takes.Take;
@@ -33,6 +35,21 @@ import org.takes.Take;
 /**
  * Basic front.
  *
+ * <p>The back accepts connections in the thread of the front, one by one.
+ * That's why connections must not be persistent here, unless the back is
+ * parallel: a persistent connection, idle between requests, would stop
+ * all other clients. {@link BkBasic} doesn't wait for new requests,
+ * unless it is given a {@link KeepAlive}; use it with {@link BkParallel}
+ * then.
+ *
+ * <p>The server socket opened by the ctors that take a port comes from
+ * a {@link ServerSocketChannel}, so accepted sockets have channels and
+ * {@link BkBasic} sends files to them with
+ * {@link java.nio.channels.FileChannel#transferTo(long, long,
+ * java.nio.channels.WritableByteChannel)}, without copying them. Sockets
+ * given to the ctor, like SSL ones of {@link FtSecure}, are served by
+ * copying.
+ *
  * <p>The class is immutable and thread-safe.
  *
  * @author Yegor Bugayenko (yegor256@gmail.com)
@@ -60,7 +77,7 @@ public final class FtBasic implements Front {
      */
     public FtBasic(final Take tks) throws IOException {
         // @checkstyle MagicNumber (1 line)
-        this(new BkSafe(new BkBasic(tks)), 80);
+        this(tks, 80);
     }
 
     /**
@@ -80,7 +97,7 @@ public final class FtBasic implements Front {
      * @throws IOException If fails
      */
     public FtBasic(final Back bck, final int port) throws IOException {
-        this(bck, new ServerSocket(port));
+        this(bck, FtBasic.listen(port));
     }
 
     /**
@@ -106,6 +123,18 @@ public final class FtBasic implements Front {
         }
     }
 
+    /**
+     * Open a server socket through a {@link ServerSocketChannel}.
+     * @param port Port, zero for any free one
+     * @return Server socket
+     * @throws IOException If fails
+     */
+    static ServerSocket listen(final int port) throws IOException {
+        final ServerSocket server = ServerSocketChannel.open().socket();
+        server.bind(new InetSocketAddress(port));
+        return server;
+    }
+
     /**
      * Make a loop cycle.
      * @param server Server socket
@@ -25,6 +25,7 @@ package org.takes.http;
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
 import lombok.EqualsAndHashCode;
 import org.takes.Request;
 import org.takes.Response;
@@ -50,6 +51,36 @@ import org.takes.rq.RqWithHeader;
  * work in the foreground. The server will be started at a random TCP
  * port and its number will be saved to {@code /tmp/port.txt} file.</p>
  *
+ * <p>With {@code --threads=virtual} every request runs on its own virtual
+ * thread (see {@link BkVirtual}) and {@code --concurrency} limits
+ * how many of them may run at the same time. Before Java 21, which has
+ * no virtual threads, requests run on a fixed pool of four platform
+ * threads per processor instead, and no more of them run at the same
+ * time than there are threads in the pool.</p>
+ *
+ * <p>Requests are limited by {@code --max-head} (bytes of the head,
+ * 64 KB by default), {@code --max-headers} (100 by default),
+ * {@code --max-line} (bytes in a line of the head, 8 KB by default) and
+ * {@code --max-body} (bytes of the body, unlimited by default); see
+ * {@link Limits}.</p>
+ *
+ * <p>Connections are kept open for {@code --idle-timeout} milliseconds
+ * after a response (5000 by default) and serve up to
+ * {@code --max-requests} requests (100 by default); see
+ * {@link KeepAlive}.</p>
+ *
+ * <p>Up to {@code --queue} sockets wait for a free thread (no limit by
+ * default). When the queue is full, {@code --overload} decides what to do
+ * with the next one: {@code unavailable} answers with 503 and
+ * {@code Retry-After} of {@code --retry-after} seconds (the default),
+ * {@code close} closes the socket and {@code caller} processes it in the
+ * thread that accepted it; see {@link BkParallel} and {@link Overload}.</p>
+ *
+ * <p>With {@code --max-latency} a connection that takes longer than
+ * that many milliseconds is closed, and every connection serves only one
+ * request, which gets its deadline in {@code X-Takes-Deadline} header;
+ * see {@link BkTimeable}.</p>
+ *
  * <p>The class is immutable and thread-safe.
  *
  * @author Yegor Bugayenko (yegor256@gmail.com)
@@ -106,19 +137,17 @@ public final class FtCli implements Front {
         } else {
             tks = this.take;
         }
-        final BkTimeable timeable = new BkTimeable(
-            new BkSafe(new BkBasic(tks)),
-            this.options.maxLatency()
-        );
-        timeable.setDaemon(true);
-        timeable.start();
-        final Front front = new FtBasic(
-            new BkParallel(
-                timeable,
-                this.options.threads()
-            ),
-            this.options.socket()
-        );
+        final Back timeable = this.timeable(tks);
+        final Back back;
+        if (this.options.isVirtual()) {
+            back = new BkVirtual(timeable, this.options.concurrency());
+        } else {
+            back = new BkParallel(
+                timeable, this.options.threads(),
+                this.options.queue(), this.options.overload()
+            );
+        }
+        final Front front = new FtBasic(back, this.options.socket());
         if (this.options.isDaemon()) {
             final Thread thread = new Thread(
                 new Runnable() {
@@ -139,6 +168,70 @@ public final class FtCli implements Front {
         }
     }
 
+    /**
+     * Create the back that processes sockets within the max latency,
+     * if there is one.
+     *
+     * <p>With a max latency, every connection serves one request, so that
+     * the deadline of the connection is the deadline of the request, and
+     * the take gets it in {@code X-Takes-Deadline} header, in milliseconds
+     * since the epoch.
+     *
+     * @param tks Take
+     * @return Back
+     */
+    private Back timeable(final Take tks) {
+        final long latency = this.options.maxLatency();
+        final Back back;
+        if (latency == Long.MAX_VALUE) {
+            back = new BkSafe(
+                new BkBasic(
+                    tks, this.options.limits(), this.options.keepAlive()
+                )
+            );
+        } else {
+            final AtomicReference<BkTimeable> ref = new AtomicReference<>();
+            final BkTimeable timeable = new BkTimeable(
+                new BkSafe(this.deadlined(tks, ref)), latency
+            );
+            ref.set(timeable);
+            timeable.setDaemon(true);
+            timeable.start();
+            back = timeable;
+        }
+        return back;
+    }
+
+    /**
+     * Create the back that tells the take its deadline and serves one
+     * request per connection.
+     * @param tks Take
+     * @param ref The back that knows the deadline
+     * @return Back
+     */
+    private Back deadlined(final Take tks,
+        final AtomicReference<BkTimeable> ref) {
+        return new BkBasic(
+            new Take() {
+                @Override
+                public Response act(final Request request)
+                    throws IOException {
+                    return tks.act(
+                        new RqWithHeader(
+                            request,
+                            String.format(
+                                "X-Takes-Deadline: %d",
+                                ref.get().deadline()
+                            )
+                        )
+                    );
+                }
+            },
+            this.options.limits(),
+            new KeepAlive(this.options.keepAlive().idle(), 1)
+        );
+    }
+
     /**
      * Create exit.
      * @param exit Original exit
@@ -0,0 +1,86 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.takes.http;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import lombok.EqualsAndHashCode;
+import org.takes.Take;
+
+/**
+ * HTTP/2 front without TLS (h2c).
+ *
+ * <p>Clients may start HTTP/2 right away or upgrade to it from HTTP/1.1,
+ * the others are served by HTTP/1.x, see {@link BkH2c}. Connections are
+ * served in parallel, by {@link BkParallel}.
+ *
+ * <p>The class is immutable and thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@EqualsAndHashCode
+public final class FtH2c implements Front {
+
+    /**
+     * The original front.
+     */
+    private final Front front;
+
+    /**
+     * Ctor.
+     * @param tks Take
+     * @param prt Port
+     * @throws IOException If fails
+     */
+    public FtH2c(final Take tks, final int prt) throws IOException {
+        this(new BkParallel(new BkSafe(new BkH2c(tks))), prt);
+    }
+
+    /**
+     * Ctor.
+     * @param bck Back
+     * @param port Port
+     * @throws IOException If fails
+     */
+    public FtH2c(final Back bck, final int port) throws IOException {
+        this(bck, FtBasic.listen(port));
+    }
+
+    /**
+     * Ctor.
+     * @param bck Back
+     * @param skt Server socket
+     */
+    public FtH2c(final Back bck, final ServerSocket skt) {
+        this.front = new FtBasic(bck, skt);
+    }
+
+    @Override
+    public void start(final Exit exit) throws IOException {
+        this.front.start(exit);
+    }
+}
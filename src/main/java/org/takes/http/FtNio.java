@@ -0,0 +1,708 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.takes.http;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import lombok.EqualsAndHashCode;
+import org.takes.Take;
+
+/**
+ * Front on top of a NIO selector.
+ *
+ * <p>Unlike {@link FtBasic}, which hands every accepted socket to a
+ * {@link Back} and keeps a thread busy for as long as the connection
+ * lives, this front parks idle keep-alive connections in a
+ * {@link Selector}. A connection is dispatched to a worker thread only
+ * when the head of its next request has fully arrived. When the response
+ * is printed, the connection returns to the selector, unless the client
+ * asked to close it.
+ *
+ * <p>The idle timeout of the {@link KeepAlive} limits everything a client
+ * may keep a worker or the selector waiting for: a connection is closed
+ * if the head of its next request doesn't arrive in time, and a worker
+ * gives up reading a body which doesn't come. Once the head has arrived,
+ * the request is read and answered by {@link BkBasic}, within the same
+ * {@link Limits}: requests which can't be read are answered with 400,
+ * 414 or 431, and the body ends where the request ends, whether it's
+ * framed by {@code Content-Length} or chunked.
+ *
+ * <pre> new FtNio(new TkText("hello, world!"), 8080).start(Exit.NEVER);</pre>
+ *
+ * <p>The class is immutable and thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@EqualsAndHashCode
+@SuppressWarnings("PMD.TooManyMethods")
+public final class FtNio implements Front {
+
+    /**
+     * Back to print responses with.
+     */
+    private final BkBasic back;
+
+    /**
+     * Server channel.
+     */
+    private final ServerSocketChannel channel;
+
+    /**
+     * Worker threads.
+     */
+    private final ExecutorService service;
+
+    /**
+     * Persistence of connections.
+     */
+    private final KeepAlive alive;
+
+    /**
+     * Limits of requests.
+     */
+    private final Limits limits;
+
+    /**
+     * Ctor.
+     * @param tks Take
+     * @param port Port
+     * @throws IOException If fails
+     */
+    public FtNio(final Take tks, final int port) throws IOException {
+        this(tks, FtNio.bind(port));
+    }
+
+    /**
+     * Ctor.
+     * @param tks Take
+     * @param chnl Server channel
+     */
+    public FtNio(final Take tks, final ServerSocketChannel chnl) {
+        this(tks, chnl, Runtime.getRuntime().availableProcessors() << 2);
+    }
+
+    /**
+     * Ctor.
+     * @param tks Take
+     * @param chnl Server channel
+     * @param threads Total worker threads
+     */
+    public FtNio(final Take tks, final ServerSocketChannel chnl,
+        final int threads) {
+        this(tks, chnl, Executors.newFixedThreadPool(threads));
+    }
+
+    /**
+     * Ctor.
+     * @param tks Take
+     * @param chnl Server channel
+     * @param svc Executor service for workers
+     */
+    public FtNio(final Take tks, final ServerSocketChannel chnl,
+        final ExecutorService svc) {
+        this(tks, chnl, svc, new KeepAlive());
+    }
+
+    /**
+     * Ctor.
+     * @param tks Take
+     * @param chnl Server channel
+     * @param svc Executor service for workers
+     * @param keep Persistence of connections
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    public FtNio(final Take tks, final ServerSocketChannel chnl,
+        final ExecutorService svc, final KeepAlive keep) {
+        this(tks, chnl, svc, keep, new Limits());
+    }
+
+    /**
+     * Ctor.
+     * @param tks Take
+     * @param chnl Server channel
+     * @param svc Executor service for workers
+     * @param keep Persistence of connections
+     * @param lmts Limits of requests
+     * @checkstyle ParameterNumberCheck (4 lines)
+     */
+    public FtNio(final Take tks, final ServerSocketChannel chnl,
+        final ExecutorService svc, final KeepAlive keep, final Limits lmts) {
+        this.back = new BkBasic(tks, lmts, keep);
+        this.channel = chnl;
+        this.service = svc;
+        this.alive = keep;
+        this.limits = lmts;
+    }
+
+    @Override
+    public void start(final Exit exit) throws IOException {
+        final Queue<FtNio.Connection> returned = new ConcurrentLinkedQueue<>();
+        final Queue<FtNio.Parked> parked = new LinkedList<>();
+        try (Selector selector = Selector.open()) {
+            this.channel.configureBlocking(false);
+            this.channel.register(selector, SelectionKey.OP_ACCEPT);
+            do {
+                selector.select(TimeUnit.SECONDS.toMillis(1L));
+                this.loop(selector, returned, parked);
+                this.expire(selector, parked);
+            } while (!exit.ready());
+            for (final SelectionKey key : selector.keys()) {
+                if (key.attachment() != null) {
+                    FtNio.Connection.class.cast(key.attachment()).close();
+                }
+            }
+        } finally {
+            this.channel.close();
+            this.service.shutdown();
+            for (final FtNio.Connection conn : returned) {
+                conn.close();
+            }
+        }
+    }
+
+    /**
+     * Make a loop cycle.
+     * @param selector Selector
+     * @param returned Connections returned by workers
+     * @param parked Connections waiting for heads, in order of parking
+     * @throws IOException If fails
+     */
+    private void loop(final Selector selector,
+        final Queue<FtNio.Connection> returned,
+        final Queue<FtNio.Parked> parked) throws IOException {
+        final Collection<FtNio.Connection> ready = new LinkedList<>();
+        FtNio.Connection conn = returned.poll();
+        while (conn != null) {
+            if (conn.complete()) {
+                ready.add(conn);
+            } else {
+                conn.channel().configureBlocking(false);
+                conn.channel().register(selector, SelectionKey.OP_READ, conn);
+                this.park(conn, parked);
+            }
+            conn = returned.poll();
+        }
+        final Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+            final SelectionKey key = keys.next();
+            keys.remove();
+            if (key.isValid() && key.isAcceptable()) {
+                this.accept(selector, parked);
+            } else if (key.isValid() && key.isReadable()) {
+                FtNio.read(key, ready);
+            }
+        }
+        if (!ready.isEmpty()) {
+            selector.selectNow();
+        }
+        for (final FtNio.Connection next : ready) {
+            next.channel().configureBlocking(true);
+            next.channel().socket().setSoTimeout(
+                Math.max(this.alive.idle(), 0)
+            );
+            this.service.execute(
+                new FtNio.Exchange(
+                    this.back, next, this.alive.requests(), returned, selector
+                )
+            );
+        }
+    }
+
+    /**
+     * Close connections which wait for the head of a request for too long.
+     *
+     * <p>All connections wait for the same idle timeout, so the ones
+     * parked earlier expire earlier and only the head of the queue is
+     * checked. Connections which were dispatched to workers after they
+     * were parked are just removed from the queue.
+     *
+     * @param selector Selector
+     * @param parked Connections waiting for heads, in order of parking
+     */
+    private void expire(final Selector selector,
+        final Queue<FtNio.Parked> parked) {
+        final long now = System.currentTimeMillis();
+        while (!parked.isEmpty()) {
+            final FtNio.Parked head = parked.peek();
+            if (head.waiting()) {
+                if (now - head.since() <= (long) this.alive.idle()) {
+                    break;
+                }
+                final SelectionKey key = head.connection().channel()
+                    .keyFor(selector);
+                if (key != null) {
+                    key.cancel();
+                }
+                head.connection().close();
+            }
+            parked.poll();
+        }
+    }
+
+    /**
+     * Accept a new connection.
+     * @param selector Selector
+     * @param parked Connections waiting for heads, in order of parking
+     * @throws IOException If fails
+     */
+    private void accept(final Selector selector,
+        final Queue<FtNio.Parked> parked) throws IOException {
+        final SocketChannel client = this.channel.accept();
+        if (client != null) {
+            client.configureBlocking(false);
+            final FtNio.Connection conn = new FtNio.Connection(
+                client, this.limits.head()
+            );
+            client.register(selector, SelectionKey.OP_READ, conn);
+            this.park(conn, parked);
+        }
+    }
+
+    /**
+     * Let the connection wait for the head of the next request.
+     * @param conn Connection
+     * @param parked Connections waiting for heads, in order of parking
+     */
+    private void park(final FtNio.Connection conn,
+        final Queue<FtNio.Parked> parked) {
+        final long since = conn.park();
+        if (this.alive.idle() > 0) {
+            parked.add(new FtNio.Parked(conn, since));
+        }
+    }
+
+    /**
+     * Read from a connection which is ready for it.
+     * @param key Selection key
+     * @param ready Connections with complete heads
+     */
+    private static void read(final SelectionKey key,
+        final Collection<FtNio.Connection> ready) {
+        final FtNio.Connection conn =
+            FtNio.Connection.class.cast(key.attachment());
+        boolean alive;
+        try {
+            alive = conn.fill();
+        } catch (final IOException ex) {
+            alive = false;
+        }
+        if (!alive) {
+            key.cancel();
+            conn.close();
+        } else if (conn.complete()) {
+            key.cancel();
+            conn.dispatch();
+            ready.add(conn);
+        }
+    }
+
+    /**
+     * Open a server channel.
+     * @param port Port
+     * @return Channel
+     * @throws IOException If fails
+     */
+    private static ServerSocketChannel bind(final int port)
+        throws IOException {
+        final ServerSocketChannel chnl = ServerSocketChannel.open();
+        chnl.bind(new InetSocketAddress(port));
+        return chnl;
+    }
+
+    /**
+     * One request/response exchange, performed by a worker thread.
+     */
+    private static final class Exchange implements Runnable {
+        /**
+         * Back.
+         */
+        private final BkBasic back;
+        /**
+         * Connection.
+         */
+        private final FtNio.Connection conn;
+        /**
+         * Maximum number of requests through one connection.
+         */
+        private final int max;
+        /**
+         * Where to return the connection to.
+         */
+        private final Queue<FtNio.Connection> returned;
+        /**
+         * Selector to wake up.
+         */
+        private final Selector selector;
+        /**
+         * Ctor.
+         * @param bck Back
+         * @param connection Connection
+         * @param requests Maximum number of requests through a connection
+         * @param queue Queue of returned connections
+         * @param slctr Selector
+         * @checkstyle ParameterNumberCheck (4 lines)
+         */
+        Exchange(final BkBasic bck, final FtNio.Connection connection,
+            final int requests, final Queue<FtNio.Connection> queue,
+            final Selector slctr) {
+            this.back = bck;
+            this.conn = connection;
+            this.max = requests;
+            this.returned = queue;
+            this.selector = slctr;
+        }
+        @Override
+        public void run() {
+            try {
+                if (this.exchange()) {
+                    this.returned.add(this.conn);
+                    this.selector.wakeup();
+                } else {
+                    this.conn.close();
+                }
+            } catch (final IOException ex) {
+                this.conn.close();
+            }
+        }
+        /**
+         * Read one request and print one response.
+         * @return TRUE if the connection may be reused
+         * @throws IOException If fails
+         */
+        private boolean exchange() throws IOException {
+            final OutputStream output = new BufferedOutputStream(
+                Channels.newOutputStream(this.conn.channel())
+            );
+            final boolean reuse = this.back.exchange(
+                this.conn.channel().socket(),
+                this.conn.input(),
+                output,
+                this.conn.channel(),
+                this.conn.count() < this.max
+            );
+            output.flush();
+            return reuse;
+        }
+    }
+
+    /**
+     * Connection which started to wait for a head at some moment.
+     */
+    private static final class Parked {
+        /**
+         * Connection.
+         */
+        private final FtNio.Connection conn;
+        /**
+         * When it started to wait, in milliseconds.
+         */
+        private final long start;
+        /**
+         * Ctor.
+         * @param connection Connection
+         * @param time When it started to wait
+         */
+        Parked(final FtNio.Connection connection, final long time) {
+            this.conn = connection;
+            this.start = time;
+        }
+        /**
+         * The connection.
+         * @return Connection
+         */
+        public FtNio.Connection connection() {
+            return this.conn;
+        }
+        /**
+         * When it started to wait.
+         * @return Milliseconds
+         */
+        public long since() {
+            return this.start;
+        }
+        /**
+         * Is the connection still waiting since that moment?
+         * @return TRUE if it wasn't dispatched or parked again since then
+         */
+        public boolean waiting() {
+            return this.conn.parked() == this.start;
+        }
+    }
+
+    /**
+     * Client connection with its own read buffer.
+     */
+    private static final class Connection {
+        /**
+         * Client channel.
+         */
+        private final SocketChannel chnl;
+        /**
+         * Buffered bytes.
+         */
+        private byte[] buffer;
+        /**
+         * Position of the first unread byte.
+         */
+        private int start;
+        /**
+         * Position after the last buffered byte.
+         */
+        private int end;
+        /**
+         * Marked position, or -1 if there is no mark.
+         */
+        private int mark;
+        /**
+         * Maximum size of a head.
+         */
+        private final int max;
+        /**
+         * Requests read so far.
+         */
+        private int requests;
+        /**
+         * When the connection started to wait for a head, in milliseconds,
+         * or -1 if it doesn't wait.
+         */
+        private long since;
+        /**
+         * Ctor.
+         * @param client Client channel
+         * @param head Maximum size of a head, in bytes
+         */
+        Connection(final SocketChannel client, final int head) {
+            this.chnl = client;
+            // @checkstyle MagicNumber (1 line)
+            this.buffer = new byte[Math.min(1024, head)];
+            this.since = -1L;
+            this.mark = -1;
+            this.max = head;
+        }
+        /**
+         * Count the next request.
+         * @return How many requests were read through the connection
+         *  before this one
+         */
+        public int count() {
+            final int count = this.requests;
+            ++this.requests;
+            return count;
+        }
+        /**
+         * The connection starts to wait for the head of the next request.
+         * @return When it started, in milliseconds
+         */
+        public long park() {
+            this.since = System.currentTimeMillis();
+            return this.since;
+        }
+        /**
+         * The connection stops waiting and goes to a worker.
+         */
+        public void dispatch() {
+            this.since = -1L;
+        }
+        /**
+         * When the connection started to wait for the head.
+         * @return Milliseconds, or -1 if it doesn't wait
+         */
+        public long parked() {
+            return this.since;
+        }
+        /**
+         * The channel.
+         * @return Channel
+         */
+        public SocketChannel channel() {
+            return this.chnl;
+        }
+        /**
+         * Read more bytes from the channel, without blocking.
+         * @return FALSE if the channel is closed
+         * @throws IOException If fails
+         */
+        public boolean fill() throws IOException {
+            if (this.end == this.buffer.length) {
+                this.compact();
+            }
+            final int read = this.chnl.read(
+                ByteBuffer.wrap(
+                    this.buffer, this.end, this.buffer.length - this.end
+                )
+            );
+            if (read > 0) {
+                this.end += read;
+            }
+            return read >= 0;
+        }
+        /**
+         * Is there a complete request head in the buffer, or more bytes
+         * than a head may take?
+         * @return TRUE if the head can be read without waiting
+         */
+        public boolean complete() {
+            return this.end - this.start >= this.max || this.length() > 0;
+        }
+        /**
+         * Length of the request head in the buffer.
+         * @return Length, including the empty line, or -1 if the head
+         *  is not complete yet
+         */
+        private int length() {
+            int length = -1;
+            for (int pos = this.start; pos + 3 < this.end; ++pos) {
+                if (this.buffer[pos] == '\r' && this.buffer[pos + 1] == '\n'
+                    && this.buffer[pos + 2] == '\r'
+                    && this.buffer[pos + 3] == '\n') {
+                    length = pos + 4 - this.start;
+                    break;
+                }
+            }
+            return length;
+        }
+        /**
+         * Input stream, which reads buffered bytes first and then
+         * reads the channel, which must be in blocking mode. The channel
+         * is read through its socket, in order to respect the timeout
+         * of the socket, which the channel itself ignores. The stream
+         * supports marks within the buffered bytes, so that the head can
+         * be read from the buffer and the body starts right after it.
+         * @return Stream
+         */
+        public InputStream input() {
+            return new InputStream() {
+                @Override
+                public int read() throws IOException {
+                    final byte[] one = new byte[1];
+                    final int read = this.read(one, 0, 1);
+                    final int data;
+                    if (read < 0) {
+                        data = -1;
+                    } else {
+                        // @checkstyle MagicNumber (1 line)
+                        data = one[0] & 0xff;
+                    }
+                    return data;
+                }
+                @Override
+                public int read(final byte[] buf, final int off,
+                    final int len) throws IOException {
+                    return Connection.this.read(buf, off, len);
+                }
+                @Override
+                public int available() {
+                    return Connection.this.end - Connection.this.start;
+                }
+                @Override
+                public boolean markSupported() {
+                    return true;
+                }
+                @Override
+                public void mark(final int limit) {
+                    Connection.this.mark = Connection.this.start;
+                }
+                @Override
+                public void reset() throws IOException {
+                    if (Connection.this.mark < 0) {
+                        throw new IOException("the mark is not valid");
+                    }
+                    Connection.this.start = Connection.this.mark;
+                }
+            };
+        }
+        /**
+         * Close it quietly.
+         */
+        public void close() {
+            try {
+                this.chnl.close();
+            } catch (final IOException ex) {
+                assert ex != null;
+            }
+        }
+        /**
+         * Read bytes, buffered ones first.
+         * @param buf Buffer
+         * @param off Offset
+         * @param len Length
+         * @return Bytes read or -1
+         * @throws IOException If fails
+         */
+        private int read(final byte[] buf, final int off, final int len)
+            throws IOException {
+            final int read;
+            if (len == 0) {
+                read = 0;
+            } else if (this.end > this.start) {
+                read = Math.min(len, this.end - this.start);
+                System.arraycopy(this.buffer, this.start, buf, off, read);
+                this.start += read;
+            } else {
+                this.mark = -1;
+                read = this.chnl.socket().getInputStream().read(
+                    buf, off, len
+                );
+            }
+            return read;
+        }
+        /**
+         * Move unread bytes to the beginning of the buffer, growing it
+         * if it is full.
+         */
+        private void compact() {
+            this.mark = -1;
+            final int size = this.end - this.start;
+            if (size == this.buffer.length) {
+                this.buffer = Arrays.copyOf(this.buffer, size << 1);
+            } else {
+                System.arraycopy(this.buffer, this.start, this.buffer, 0, size);
+            }
+            this.start = 0;
+            this.end = size;
+        }
+    }
+
+}
@@ -176,7 +176,7 @@ public final class FtRemote implements Front {
      * @throws IOException If fails
      */
     private static ServerSocket random() throws IOException {
-        final ServerSocket skt = new ServerSocket(0);
+        final ServerSocket skt = FtBasic.listen(0);
         skt.setReuseAddress(true);
         return skt;
     }
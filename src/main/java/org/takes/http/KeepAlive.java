@@ -0,0 +1,95 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.takes.http;
+
+import lombok.EqualsAndHashCode;
+
+/**
+ * How long a persistent connection may live.
+ *
+ * <p>{@link BkBasic} keeps the connection open after a response,
+ * until the client sends no new request for {@link #idle()}
+ * milliseconds, or until {@link #requests()} requests are served
+ * through it. The last response goes out with {@code Connection: close}.
+ * With a negative idle timeout it doesn't wait at all: it answers
+ * pipelined requests which have already arrived and closes the connection
+ * when there are no more of them. That's what {@link BkBasic} does by
+ * default, since {@link FtBasic} and {@link FtSecure} serve connections
+ * one by one, in one thread.
+ *
+ * <p>The class is immutable and thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@EqualsAndHashCode
+public final class KeepAlive {
+
+    /**
+     * Idle timeout, in milliseconds.
+     */
+    private final int timeout;
+
+    /**
+     * Maximum number of requests.
+     */
+    private final int max;
+
+    /**
+     * Ctor, with five seconds of idle timeout and 100 requests.
+     */
+    public KeepAlive() {
+        // @checkstyle MagicNumber (1 line)
+        this(5000, 100);
+    }
+
+    /**
+     * Ctor.
+     * @param idle Idle timeout, in milliseconds, zero means no timeout,
+     *  negative means no waiting for requests which haven't arrived yet
+     * @param requests Maximum number of requests per connection
+     */
+    public KeepAlive(final int idle, final int requests) {
+        this.timeout = idle;
+        this.max = requests;
+    }
+
+    /**
+     * How long to wait for the next request.
+     * @return Milliseconds
+     */
+    public int idle() {
+        return this.timeout;
+    }
+
+    /**
+     * How many requests may be served through one connection.
+     * @return Number of requests
+     */
+    public int requests() {
+        return this.max;
+    }
+}
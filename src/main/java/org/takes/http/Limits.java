@@ -0,0 +1,122 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.takes.http;
+
+import lombok.EqualsAndHashCode;
+
+/**
+ * Limits of what a client may send in one request.
+ *
+ * <p>{@link BkBasic} enforces them while reading the socket. A head
+ * that is too long, has too many headers or too long lines is answered
+ * with HTTP 431, a too long Request-Line with HTTP 414, and a body that
+ * is too long with HTTP 413. A declared {@code Content-Length} is
+ * checked before the request goes to the take.
+ *
+ * <p>The class is immutable and thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@EqualsAndHashCode
+public final class Limits {
+
+    /**
+     * Maximum size of the head, in bytes.
+     */
+    private final int hsize;
+
+    /**
+     * Maximum number of headers.
+     */
+    private final int count;
+
+    /**
+     * Maximum length of a line of the head, in bytes.
+     */
+    private final int width;
+
+    /**
+     * Maximum size of the body, in bytes.
+     */
+    private final long bsize;
+
+    /**
+     * Ctor, with default limits: 64 KB of head, 100 headers,
+     * 8 KB per line and no limit for the body.
+     */
+    public Limits() {
+        // @checkstyle MagicNumber (1 line)
+        this(65536, 100, 8192, Long.MAX_VALUE);
+    }
+
+    /**
+     * Ctor.
+     * @param head Maximum size of the head, in bytes
+     * @param headers Maximum number of headers
+     * @param line Maximum length of a line of the head, in bytes
+     * @param body Maximum size of the body, in bytes
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    public Limits(final int head, final int headers, final int line,
+        final long body) {
+        this.hsize = head;
+        this.count = headers;
+        this.width = line;
+        this.bsize = body;
+    }
+
+    /**
+     * Maximum size of the head.
+     * @return Bytes
+     */
+    public int head() {
+        return this.hsize;
+    }
+
+    /**
+     * Maximum number of headers.
+     * @return Number of headers
+     */
+    public int headers() {
+        return this.count;
+    }
+
+    /**
+     * Maximum length of a line of the head.
+     * @return Bytes
+     */
+    public int line() {
+        return this.width;
+    }
+
+    /**
+     * Maximum size of the body.
+     * @return Bytes
+     */
+    public long body() {
+        return this.bsize;
+    }
+}
@@ -93,7 +93,7 @@ final class Options {
         }
         final ServerSocket socket;
         if (port.matches("\\d+")) {
-            socket = new ServerSocket(Integer.parseInt(port));
+            socket = FtBasic.listen(Integer.parseInt(port));
         } else {
             final File file = new File(port);
             if (file.exists()) {
@@ -104,12 +104,12 @@ final class Options {
                     // @checkstyle MagicNumber (1 line)
                     final char[] chars = new char[8];
                     final int length = reader.read(chars);
-                    socket = new ServerSocket(
+                    socket = FtBasic.listen(
                         Integer.parseInt(new String(chars, 0, length))
                     );
                 }
             } else {
-                socket = new ServerSocket(0);
+                socket = FtBasic.listen(0);
                 try (Writer writer = new Utf8OutputStreamWriter(
                     new FileOutputStream(file)
                     )
@@ -135,14 +135,7 @@ final class Options {
      * @return Port number
      */
     public long lifetime() {
-        final String value = this.map.get("lifetime");
-        final long msec;
-        if (value == null) {
-            msec = Long.MAX_VALUE;
-        } else {
-            msec = Long.parseLong(value);
-        }
-        return msec;
+        return this.number("lifetime", Long.MAX_VALUE, 0L, Long.MAX_VALUE);
     }
 
     /**
@@ -150,29 +143,146 @@ final class Options {
      * @return Threads
      */
     public int threads() {
-        final String value = this.map.get("threads");
+        final int def = Runtime.getRuntime().availableProcessors() << 2;
         final int threads;
-        if (value == null) {
-            threads = Runtime.getRuntime().availableProcessors() << 2;
+        if (this.isVirtual()) {
+            threads = def;
         } else {
-            threads = Integer.parseInt(value);
+            threads = this.integer("threads", def, 1);
         }
         return threads;
     }
 
+    /**
+     * Shall we run every request on its own virtual thread?
+     * @return TRUE if {@code --threads=virtual} is specified
+     * @since 2.0
+     */
+    public boolean isVirtual() {
+        return "virtual".equals(this.map.get("threads"));
+    }
+
+    /**
+     * Get the maximum number of requests processed concurrently.
+     * @return Concurrency limit
+     * @since 2.0
+     */
+    public int concurrency() {
+        return this.integer("concurrency", Integer.MAX_VALUE, 1);
+    }
+
+    /**
+     * Get the maximum number of sockets waiting for a thread.
+     * @return Size of the queue
+     * @since 2.0
+     */
+    public int queue() {
+        return this.integer("queue", Integer.MAX_VALUE, 0);
+    }
+
+    /**
+     * Get what to do with sockets when the queue is full.
+     * @return Overload
+     * @since 2.0
+     */
+    public Overload overload() {
+        final String value = this.map.get("overload");
+        final Overload overload;
+        if (value == null || "unavailable".equals(value)) {
+            overload = new Overload.Unavailable(
+                this.integer("retry-after", 1, 0)
+            );
+        } else if ("close".equals(value)) {
+            overload = Overload.CLOSE;
+        } else if ("caller".equals(value)) {
+            overload = Overload.CALLER;
+        } else {
+            throw new IllegalArgumentException(
+                String.format(
+                    "--overload must be unavailable, close or caller: '%s'",
+                    value
+                )
+            );
+        }
+        return overload;
+    }
+
+    /**
+     * Get the limits of requests.
+     * @return Limits
+     * @since 2.0
+     */
+    public Limits limits() {
+        final Limits def = new Limits();
+        return new Limits(
+            this.integer("max-head", def.head(), 1),
+            this.integer("max-headers", def.headers(), 1),
+            this.integer("max-line", def.line(), 1),
+            this.number("max-body", def.body(), 0L, Long.MAX_VALUE)
+        );
+    }
+
+    /**
+     * Get the lifetime of persistent connections.
+     * @return Keep-alive
+     * @since 2.0
+     */
+    public KeepAlive keepAlive() {
+        final KeepAlive def = new KeepAlive();
+        return new KeepAlive(
+            this.integer("idle-timeout", def.idle(), 0),
+            this.integer("max-requests", def.requests(), 1)
+        );
+    }
+
     /**
      * Get the max latency in milliseconds.
      * @return Latency
      */
     public long maxLatency() {
-        final String value = this.map.get("max-latency");
-        final long msec;
+        return this.number("max-latency", Long.MAX_VALUE, 0L, Long.MAX_VALUE);
+    }
+
+    /**
+     * Get the integer value of an option.
+     * @param name Name of the option
+     * @param def Default value
+     * @param min Minimum value
+     * @return Value
+     */
+    private int integer(final String name, final int def, final int min) {
+        return (int) this.number(name, def, min, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Get the numeric value of an option.
+     * @param name Name of the option
+     * @param def Default value
+     * @param min Minimum value, not negative
+     * @param max Maximum value
+     * @return Value
+     * @throws IllegalArgumentException If the value is not a number
+     *  or out of the range
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    private long number(final String name, final long def, final long min,
+        final long max) {
+        final String value = this.map.get(name);
+        final long number;
         if (value == null) {
-            msec = Long.MAX_VALUE;
+            number = def;
+        } else if (value.matches("\\d{1,18}")
+            && Long.parseLong(value) >= min && Long.parseLong(value) <= max) {
+            number = Long.parseLong(value);
         } else {
-            msec = Long.parseLong(value);
+            throw new IllegalArgumentException(
+                String.format(
+                    "--%s must be a number from %d to %d: '%s'",
+                    name, min, max, value
+                )
+            );
         }
-        return msec;
+        return number;
     }
 
     /**
@@ -0,0 +1,124 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.takes.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.Socket;
+import lombok.EqualsAndHashCode;
+import org.takes.rs.RsPrint;
+import org.takes.rs.RsWithHeaders;
+import org.takes.rs.RsWithStatus;
+
+/**
+ * What to do with a socket that a busy back can't queue.
+ *
+ * <p>All implementations of this interface must be immutable and thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public interface Overload {
+
+    /**
+     * Answer with 503 and ask to retry in a second.
+     */
+    Overload UNAVAILABLE = new Overload.Unavailable(1);
+
+    /**
+     * Close the socket without an answer.
+     */
+    Overload CLOSE = new Overload() {
+        @Override
+        public void reject(final Back back, final Socket socket)
+            throws IOException {
+            socket.close();
+        }
+    };
+
+    /**
+     * Process the socket in the thread that accepted it, which slows
+     * down the front.
+     */
+    Overload CALLER = new Overload() {
+        @Override
+        public void reject(final Back back, final Socket socket)
+            throws IOException {
+            back.accept(socket);
+        }
+    };
+
+    /**
+     * Deal with the socket.
+     * @param back Back that would process the socket
+     * @param socket Socket
+     * @throws IOException If fails
+     */
+    void reject(Back back, Socket socket) throws IOException;
+
+    /**
+     * Answer with 503 Service Unavailable and close the socket.
+     *
+     * <p>The request is not read, the answer only carries
+     * {@code Retry-After} and {@code Connection: close}.
+     *
+     * @since 2.0
+     */
+    @EqualsAndHashCode
+    final class Unavailable implements Overload {
+        /**
+         * Seconds to wait before retry.
+         */
+        private final int seconds;
+        /**
+         * Ctor.
+         * @param retry Seconds to wait before retry
+         */
+        public Unavailable(final int retry) {
+            this.seconds = retry;
+        }
+        @Override
+        public void reject(final Back back, final Socket socket)
+            throws IOException {
+            try (final Socket sock = socket) {
+                final InputStream input = sock.getInputStream();
+                final long ready = (long) input.available();
+                if (ready > 0L) {
+                    input.skip(ready);
+                }
+                new RsPrint(
+                    new RsWithHeaders(
+                        new RsWithStatus(HttpURLConnection.HTTP_UNAVAILABLE),
+                        String.format("Retry-After: %d", this.seconds),
+                        "Connection: close",
+                        "Content-Length: 0"
+                    )
+                ).print(sock.getOutputStream());
+            }
+        }
+    }
+}
@@ -0,0 +1,1551 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.takes.http.h2;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.takes.HttpException;
+import org.takes.Request;
+import org.takes.Response;
+import org.takes.Take;
+import org.takes.http.Limits;
+import org.takes.misc.Buffers;
+import org.takes.misc.EnglishLowerCase;
+import org.takes.misc.Utf8PrintStream;
+import org.takes.rs.RsText;
+import org.takes.rs.RsWithStatus;
+
+/**
+ * HTTP/2 connection without TLS, RFC 7540.
+ *
+ * <p>Frames are read on the thread that serves the connection and every
+ * stream is answered on a thread of its own, so that streams are
+ * multiplexed: a slow take doesn't hold the others, and responses go
+ * out frame by frame, as they are ready, within the windows of flow
+ * control the client gives. Header blocks are compressed by HPACK,
+ * RFC 7541.
+ *
+ * <p>Every stream is an ordinary {@link Request} to the take: its head
+ * starts with a line like {@code GET /index.html HTTP/2}, followed by
+ * {@code host} (from {@code :authority}) and the other fields, and its
+ * body is the payload of DATA frames. The response of the take is sent
+ * as HEADERS, with {@code :status} taken from its first line and without
+ * connection-specific headers, and DATA.
+ *
+ * <p>The server never pushes, and ignores priorities, which are only
+ * advice, see RFC 7540 section 5.3. Head of a request is limited by
+ * {@link Limits#head()} and {@link Limits#headers()}, those that break
+ * the limits get 431.
+ *
+ * <p>The class is mutable and thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ * @checkstyle ClassDataAbstractionCouplingCheck (1000 lines)
+ * @checkstyle ClassFanOutComplexityCheck (1000 lines)
+ * @checkstyle MagicNumberCheck (1000 lines)
+ * @checkstyle CyclomaticComplexityCheck (1000 lines)
+ * @checkstyle ExecutableStatementCountCheck (1000 lines)
+ * @checkstyle MultipleStringLiteralsCheck (1000 lines)
+ */
+@SuppressWarnings(
+    {
+        "PMD.TooManyMethods",
+        "PMD.GodClass",
+        "PMD.ExcessiveImports",
+        "PMD.AvoidUsingVolatile"
+    }
+)
+public final class H2Connection {
+
+    /**
+     * Connection preface of the client.
+     */
+    public static final String PREFACE = "PRI * HTTP/2.0\r\n\r\nSM\r\n\r\n";
+
+    /**
+     * Initial window of flow control.
+     */
+    static final int WINDOW = 65535;
+
+    /**
+     * Initial maximum size of a frame.
+     */
+    private static final int FRAME = 16384;
+
+    /**
+     * Maximum number of streams open at the same time.
+     */
+    private static final int STREAMS = 100;
+
+    /**
+     * Size of the dynamic tables of HPACK.
+     */
+    private static final int TABLE = 4096;
+
+    /**
+     * Frame DATA.
+     */
+    private static final int DATA = 0x0;
+
+    /**
+     * Frame HEADERS.
+     */
+    private static final int HEADERS = 0x1;
+
+    /**
+     * Frame PRIORITY.
+     */
+    private static final int PRIORITY = 0x2;
+
+    /**
+     * Frame RST_STREAM.
+     */
+    private static final int RST_STREAM = 0x3;
+
+    /**
+     * Frame SETTINGS.
+     */
+    private static final int SETTINGS = 0x4;
+
+    /**
+     * Frame PUSH_PROMISE.
+     */
+    private static final int PUSH_PROMISE = 0x5;
+
+    /**
+     * Frame PING.
+     */
+    private static final int PING = 0x6;
+
+    /**
+     * Frame GOAWAY.
+     */
+    private static final int GOAWAY = 0x7;
+
+    /**
+     * Frame WINDOW_UPDATE.
+     */
+    private static final int WINDOW_UPDATE = 0x8;
+
+    /**
+     * Frame CONTINUATION.
+     */
+    private static final int CONTINUATION = 0x9;
+
+    /**
+     * Flag END_STREAM.
+     */
+    private static final int END_STREAM = 0x1;
+
+    /**
+     * Flag ACK.
+     */
+    private static final int ACK = 0x1;
+
+    /**
+     * Flag END_HEADERS.
+     */
+    private static final int END_HEADERS = 0x4;
+
+    /**
+     * Flag PADDED.
+     */
+    private static final int PADDED = 0x8;
+
+    /**
+     * Flag PRIORITY.
+     */
+    private static final int PRIORITIZED = 0x20;
+
+    /**
+     * Setting SETTINGS_HEADER_TABLE_SIZE.
+     */
+    private static final int TABLE_SIZE = 0x1;
+
+    /**
+     * Setting SETTINGS_ENABLE_PUSH.
+     */
+    private static final int ENABLE_PUSH = 0x2;
+
+    /**
+     * Setting SETTINGS_MAX_CONCURRENT_STREAMS.
+     */
+    private static final int MAX_STREAMS = 0x3;
+
+    /**
+     * Setting SETTINGS_INITIAL_WINDOW_SIZE.
+     */
+    private static final int INITIAL_WINDOW = 0x4;
+
+    /**
+     * Setting SETTINGS_MAX_FRAME_SIZE.
+     */
+    private static final int MAX_FRAME = 0x5;
+
+    /**
+     * Setting SETTINGS_MAX_HEADER_LIST_SIZE.
+     */
+    private static final int MAX_LIST = 0x6;
+
+    /**
+     * Connection-specific headers, which HTTP/2 doesn't allow.
+     */
+    private static final Collection<String> SPECIFIC = new HashSet<>(
+        Arrays.asList(
+            "connection", "keep-alive", "proxy-connection",
+            "transfer-encoding", "upgrade"
+        )
+    );
+
+    /**
+     * Empty payload.
+     */
+    private static final byte[] EMPTY = new byte[0];
+
+    /**
+     * Take.
+     */
+    private final Take take;
+
+    /**
+     * Limits of requests.
+     */
+    private final Limits limits;
+
+    /**
+     * Input of the connection.
+     */
+    private final DataInputStream input;
+
+    /**
+     * Output of the connection, also the lock of writing.
+     */
+    private final OutputStream output;
+
+    /**
+     * HPACK decoder, used by the reader only.
+     */
+    private final HpackDecoder decoder;
+
+    /**
+     * HPACK encoder, guarded by the output.
+     */
+    private final HpackEncoder encoder;
+
+    /**
+     * Open streams.
+     */
+    private final Map<Integer, H2Stream> streams;
+
+    /**
+     * Threads of the streams.
+     */
+    private final ExecutorService exec;
+
+    /**
+     * Lock of flow control.
+     */
+    private final Object lock;
+
+    /**
+     * Credit we may still use to send DATA, guarded by the lock.
+     */
+    private long window;
+
+    /**
+     * Credit the client may still use to send DATA, guarded by the lock.
+     */
+    private int received;
+
+    /**
+     * Bytes read by takes but not credited back, guarded by the lock.
+     */
+    private int consumed;
+
+    /**
+     * Initial window of new streams, SETTINGS_INITIAL_WINDOW_SIZE of
+     * the client.
+     */
+    private volatile long initial;
+
+    /**
+     * Maximum size of frames we send, SETTINGS_MAX_FRAME_SIZE of the client.
+     */
+    private volatile int frame;
+
+    /**
+     * No more frames will come from the client.
+     */
+    private volatile boolean finished;
+
+    /**
+     * The highest stream the client opened, used by the reader only.
+     */
+    private int last;
+
+    /**
+     * Stream which header block is being read, or zero.
+     */
+    private int pending;
+
+    /**
+     * Flags of HEADERS of the block being read.
+     */
+    private int flags;
+
+    /**
+     * Fragments of the header block being read.
+     */
+    private ByteArrayOutputStream fragments;
+
+    /**
+     * Ctor.
+     * @param tks Take
+     * @param lmts Limits of requests
+     * @param inpt Input of the connection
+     * @param outpt Output of the connection
+     */
+    public H2Connection(final Take tks, final Limits lmts,
+        final InputStream inpt, final OutputStream outpt) {
+        this.take = tks;
+        this.limits = lmts;
+        this.input = new DataInputStream(inpt);
+        this.output = outpt;
+        this.decoder = new HpackDecoder(H2Connection.TABLE);
+        this.encoder = new HpackEncoder(H2Connection.TABLE);
+        this.streams = new ConcurrentHashMap<>(0);
+        this.exec = Executors.newCachedThreadPool();
+        this.lock = new Object();
+        this.window = (long) H2Connection.WINDOW;
+        this.received = H2Connection.WINDOW;
+        this.initial = (long) H2Connection.WINDOW;
+        this.frame = H2Connection.FRAME;
+    }
+
+    /**
+     * Serve the connection, which starts with the preface of the client,
+     * until it is closed.
+     * @throws IOException If fails
+     */
+    public void serve() throws IOException {
+        this.send(H2Connection.SETTINGS, 0, 0, this.settings());
+        this.loop();
+    }
+
+    /**
+     * Serve the connection, upgraded from HTTP/1.1, until it is closed.
+     *
+     * <p>The request that asked for the upgrade becomes stream 1, which
+     * is already half-closed, see RFC 7540 section 3.2. Its head loses
+     * the headers of the upgrade and its version becomes HTTP/2.
+     *
+     * @param head Head of the request that asked for the upgrade
+     * @param settings Payload of {@code HTTP2-Settings} of the request
+     * @throws IOException If fails
+     */
+    public void serve(final Iterable<String> head, final byte[] settings)
+        throws IOException {
+        if (settings.length % 6 != 0) {
+            throw new H2Exception(
+                H2Exception.FRAME_SIZE, "broken HTTP2-Settings"
+            );
+        }
+        this.apply(settings);
+        this.send(H2Connection.SETTINGS, 0, 0, this.settings());
+        final List<String> lines = new LinkedList<>();
+        final Iterator<String> iter = head.iterator();
+        final String[] parts = iter.next().split(" ", 3);
+        lines.add(String.format("%s %s HTTP/2", parts[0], parts[1]));
+        while (iter.hasNext()) {
+            final String line = iter.next();
+            final String name = new EnglishLowerCase(
+                line.substring(0, Math.max(line.indexOf(':'), 0)).trim()
+            ).string();
+            if (!H2Connection.SPECIFIC.contains(name)
+                && !"http2-settings".equals(name)) {
+                lines.add(line);
+            }
+        }
+        final H2Stream stream = new H2Stream(
+            this, 1, this.initial, H2Connection.WINDOW
+        );
+        stream.end();
+        this.last = 1;
+        this.streams.put(1, stream);
+        this.start(stream, lines, this.take);
+        this.loop();
+    }
+
+    /**
+     * The take has read bytes of a body.
+     * @param stream Stream
+     * @param bytes How many bytes
+     * @param credit Credit to give to the stream, or zero
+     * @throws IOException If fails
+     */
+    void consumed(final int stream, final int bytes, final int credit)
+        throws IOException {
+        int conn = 0;
+        synchronized (this.lock) {
+            this.consumed += bytes;
+            if (this.consumed >= H2Connection.WINDOW >> 1) {
+                conn = this.consumed;
+                this.received += conn;
+                this.consumed = 0;
+            }
+        }
+        if (conn > 0) {
+            this.send(
+                H2Connection.WINDOW_UPDATE, 0, 0, H2Connection.int32(conn)
+            );
+        }
+        if (credit > 0) {
+            this.send(
+                H2Connection.WINDOW_UPDATE, 0, stream,
+                H2Connection.int32(credit)
+            );
+        }
+    }
+
+    /**
+     * Read frames, until the client closes the connection.
+     * @throws IOException If fails
+     */
+    private void loop() throws IOException {
+        boolean aborted = true;
+        try {
+            this.preface();
+            H2Connection.Frame next = this.next();
+            if (next != null && next.type() != H2Connection.SETTINGS) {
+                throw new H2Exception(
+                    H2Exception.PROTOCOL, "SETTINGS expected after preface"
+                );
+            }
+            while (next != null) {
+                this.dispatch(next);
+                next = this.next();
+            }
+            aborted = false;
+        } catch (final H2Exception ex) {
+            this.goaway(ex.code(), ex.getLocalizedMessage());
+        } finally {
+            this.finish(aborted);
+        }
+    }
+
+    /**
+     * Read connection preface of the client.
+     * @throws IOException If fails
+     */
+    private void preface() throws IOException {
+        final byte[] expected = H2Connection.PREFACE.getBytes(
+            StandardCharsets.US_ASCII
+        );
+        final byte[] actual = new byte[expected.length];
+        this.input.readFully(actual);
+        if (!Arrays.equals(expected, actual)) {
+            throw new H2Exception(
+                H2Exception.PROTOCOL, "invalid connection preface"
+            );
+        }
+    }
+
+    /**
+     * Read next frame.
+     *
+     * <p>The connection is closed, with GOAWAY, if the client sends nothing
+     * for too long while there are no open streams.
+     *
+     * @return Frame, or NULL if the connection is closed
+     * @throws IOException If fails
+     */
+    private H2Connection.Frame next() throws IOException {
+        int first = -2;
+        while (first == -2) {
+            try {
+                first = this.input.read();
+            } catch (final SocketTimeoutException ex) {
+                if (this.streams.isEmpty()) {
+                    this.goaway(H2Exception.NONE, "idle connection");
+                    first = -1;
+                }
+            }
+        }
+        H2Connection.Frame next = null;
+        if (first >= 0) {
+            final byte[] head = new byte[8];
+            this.input.readFully(head);
+            final int length = first << 16
+                | (int) H2Connection.uint(head, 0, 2);
+            if (length > H2Connection.FRAME) {
+                throw new H2Exception(
+                    H2Exception.FRAME_SIZE,
+                    String.format("frame of %d bytes is too big", length)
+                );
+            }
+            final byte[] payload = new byte[length];
+            this.input.readFully(payload);
+            next = new H2Connection.Frame(
+                head[2] & 0xff, head[3] & 0xff,
+                (int) (H2Connection.uint(head, 4, 4) & 0x7fffffffL),
+                payload
+            );
+        }
+        return next;
+    }
+
+    /**
+     * Process the frame.
+     *
+     * <p>Unknown frames are ignored, see RFC 7540 section 4.1.
+     *
+     * @param frm Frame
+     * @throws IOException If fails
+     */
+    private void dispatch(final H2Connection.Frame frm) throws IOException {
+        if (this.pending != 0
+            && (frm.type() != H2Connection.CONTINUATION
+            || frm.stream() != this.pending)) {
+            throw new H2Exception(
+                H2Exception.PROTOCOL, "CONTINUATION expected"
+            );
+        }
+        try {
+            switch (frm.type()) {
+                case H2Connection.DATA:
+                    this.data(frm);
+                    break;
+                case H2Connection.HEADERS:
+                    this.headers(frm);
+                    break;
+                case H2Connection.PRIORITY:
+                    this.priority(frm);
+                    break;
+                case H2Connection.RST_STREAM:
+                    this.reset(frm);
+                    break;
+                case H2Connection.SETTINGS:
+                    this.settings(frm);
+                    break;
+                case H2Connection.PUSH_PROMISE:
+                    throw new H2Exception(
+                        H2Exception.PROTOCOL, "PUSH_PROMISE from client"
+                    );
+                case H2Connection.PING:
+                    this.ping(frm);
+                    break;
+                case H2Connection.GOAWAY:
+                    H2Connection.control(frm, -1);
+                    break;
+                case H2Connection.WINDOW_UPDATE:
+                    this.update(frm);
+                    break;
+                case H2Connection.CONTINUATION:
+                    this.continuation(frm);
+                    break;
+                default:
+                    break;
+            }
+        } catch (final H2Exception ex) {
+            if (ex.stream() == 0) {
+                throw ex;
+            }
+            this.reset(ex.stream(), ex.code());
+        }
+    }
+
+    /**
+     * Process DATA.
+     * @param frm Frame
+     * @throws IOException If fails
+     */
+    private void data(final H2Connection.Frame frm) throws IOException {
+        final byte[] payload = frm.payload();
+        final int pad = this.padding(frm);
+        synchronized (this.lock) {
+            if (payload.length > this.received) {
+                throw new H2Exception(
+                    H2Exception.FLOW, "connection window exceeded"
+                );
+            }
+            this.received -= payload.length;
+        }
+        final H2Stream stream = this.streams.get(frm.stream());
+        if (stream == null) {
+            this.consumed(0, payload.length, 0);
+            if (frm.stream() > this.last) {
+                throw new H2Exception(
+                    H2Exception.PROTOCOL, "DATA on idle stream"
+                );
+            }
+        } else {
+            int off = 0;
+            if (frm.flag(H2Connection.PADDED) != 0) {
+                off = 1;
+            }
+            final byte[] data;
+            if (off + pad == 0) {
+                data = payload;
+            } else {
+                data = Arrays.copyOfRange(payload, off, payload.length - pad);
+            }
+            try {
+                stream.receive(data, payload.length);
+            } catch (final H2Exception ex) {
+                this.consumed(0, payload.length, 0);
+                throw ex;
+            }
+            if (off + pad > 0) {
+                this.consumed(0, off + pad, 0);
+            }
+            if (frm.flag(H2Connection.END_STREAM) != 0) {
+                stream.end();
+            }
+        }
+    }
+
+    /**
+     * Process HEADERS.
+     * @param frm Frame
+     * @throws IOException If fails
+     */
+    private void headers(final H2Connection.Frame frm) throws IOException {
+        if (frm.stream() % 2 == 0) {
+            throw new H2Exception(
+                H2Exception.PROTOCOL,
+                String.format("client can't open stream %d", frm.stream())
+            );
+        }
+        final byte[] payload = frm.payload();
+        final int pad = this.padding(frm);
+        int off = 0;
+        if (frm.flag(H2Connection.PADDED) != 0) {
+            off = 1;
+        }
+        if (frm.flag(H2Connection.PRIORITIZED) != 0) {
+            off += 5;
+        }
+        if (off + pad > payload.length) {
+            throw new H2Exception(H2Exception.PROTOCOL, "broken HEADERS");
+        }
+        this.fragments = new ByteArrayOutputStream(payload.length);
+        this.fragments.write(payload, off, payload.length - off - pad);
+        this.pending = frm.stream();
+        this.flags = frm.flags();
+        if (frm.flag(H2Connection.END_HEADERS) != 0) {
+            this.block();
+        }
+    }
+
+    /**
+     * Process CONTINUATION.
+     * @param frm Frame
+     * @throws IOException If fails
+     */
+    private void continuation(final H2Connection.Frame frm)
+        throws IOException {
+        if (this.pending == 0) {
+            throw new H2Exception(
+                H2Exception.PROTOCOL, "CONTINUATION without HEADERS"
+            );
+        }
+        this.fragments.write(frm.payload(), 0, frm.payload().length);
+        if (this.fragments.size() > this.limits.head() << 1) {
+            throw new H2Exception(
+                H2Exception.CALM, "header block is too big"
+            );
+        }
+        if (frm.flag(H2Connection.END_HEADERS) != 0) {
+            this.block();
+        }
+    }
+
+    /**
+     * Process complete header block.
+     *
+     * <p>Header blocks of streams that are closed already are decoded,
+     * to keep HPACK tables in sync, and ignored.
+     *
+     * @throws IOException If fails
+     */
+    private void block() throws IOException {
+        final int stream = this.pending;
+        final boolean end = (this.flags & H2Connection.END_STREAM) != 0;
+        final List<String[]> fields = this.decoder.decode(
+            this.fragments.toByteArray()
+        );
+        this.pending = 0;
+        this.fragments = null;
+        final H2Stream open = this.streams.get(stream);
+        if (open != null) {
+            if (!end) {
+                throw new H2Exception(
+                    H2Exception.PROTOCOL, stream, "trailers without END_STREAM"
+                );
+            }
+            open.end();
+        } else if (stream > this.last) {
+            this.last = stream;
+            this.open(stream, end, fields);
+        }
+    }
+
+    /**
+     * Open new stream and start the take for it.
+     * @param ident Stream
+     * @param end The request has no body
+     * @param fields Fields of the header block
+     * @throws IOException If fails
+     */
+    private void open(final int ident, final boolean end,
+        final List<String[]> fields) throws IOException {
+        if (this.streams.size() >= H2Connection.STREAMS) {
+            throw new H2Exception(
+                H2Exception.REFUSED, ident, "too many open streams"
+            );
+        }
+        final List<String> head = H2Connection.head(ident, fields);
+        long size = 0L;
+        for (final String[] field : fields) {
+            size += (long) HpackTable.size(field[0], field[1]);
+        }
+        Take tks = this.take;
+        if (size > (long) this.limits.head()
+            || fields.size() > this.limits.headers()) {
+            tks = new Take() {
+                @Override
+                public Response act(final Request req) throws IOException {
+                    // @checkstyle MagicNumber (1 line)
+                    throw new HttpException(431, "request head is too big");
+                }
+            };
+        }
+        final H2Stream stream = new H2Stream(
+            this, ident, this.initial, H2Connection.WINDOW
+        );
+        if (end) {
+            stream.end();
+        }
+        this.streams.put(ident, stream);
+        this.start(stream, head, tks);
+    }
+
+    /**
+     * Process PRIORITY, which is ignored.
+     * @param frm Frame
+     * @throws H2Exception If it is broken
+     */
+    private void priority(final H2Connection.Frame frm) throws H2Exception {
+        if (frm.stream() == 0) {
+            throw new H2Exception(H2Exception.PROTOCOL, "PRIORITY of stream 0");
+        }
+        if (frm.payload().length != 5) {
+            throw new H2Exception(
+                H2Exception.FRAME_SIZE, frm.stream(), "broken PRIORITY"
+            );
+        }
+    }
+
+    /**
+     * Process RST_STREAM.
+     * @param frm Frame
+     * @throws IOException If fails
+     */
+    private void reset(final H2Connection.Frame frm) throws IOException {
+        if (frm.stream() == 0 || frm.stream() > this.last) {
+            throw new H2Exception(
+                H2Exception.PROTOCOL,
+                String.format("RST_STREAM of idle stream %d", frm.stream())
+            );
+        }
+        if (frm.payload().length != 4) {
+            throw new H2Exception(H2Exception.FRAME_SIZE, "broken RST_STREAM");
+        }
+        this.cancel(frm.stream());
+    }
+
+    /**
+     * Process SETTINGS.
+     * @param frm Frame
+     * @throws IOException If fails
+     */
+    private void settings(final H2Connection.Frame frm) throws IOException {
+        if (frm.flag(H2Connection.ACK) == 0) {
+            H2Connection.control(frm, 6);
+            this.apply(frm.payload());
+            this.send(
+                H2Connection.SETTINGS, H2Connection.ACK, 0,
+                H2Connection.EMPTY
+            );
+        } else {
+            H2Connection.control(frm, 0);
+        }
+    }
+
+    /**
+     * Process PING.
+     * @param frm Frame
+     * @throws IOException If fails
+     */
+    private void ping(final H2Connection.Frame frm) throws IOException {
+        H2Connection.control(frm, 8);
+        if (frm.payload().length != 8) {
+            throw new H2Exception(H2Exception.FRAME_SIZE, "broken PING");
+        }
+        if (frm.flag(H2Connection.ACK) == 0) {
+            this.send(
+                H2Connection.PING, H2Connection.ACK, 0, frm.payload()
+            );
+        }
+    }
+
+    /**
+     * Process WINDOW_UPDATE.
+     * @param frm Frame
+     * @throws IOException If fails
+     */
+    private void update(final H2Connection.Frame frm) throws IOException {
+        if (frm.payload().length != 4) {
+            throw new H2Exception(
+                H2Exception.FRAME_SIZE, "broken WINDOW_UPDATE"
+            );
+        }
+        final long inc = H2Connection.uint(frm.payload(), 0, 4) & 0x7fffffffL;
+        if (inc == 0L) {
+            throw new H2Exception(
+                H2Exception.PROTOCOL, frm.stream(), "zero WINDOW_UPDATE"
+            );
+        }
+        synchronized (this.lock) {
+            if (frm.stream() == 0) {
+                this.window += inc;
+                if (this.window > (long) Integer.MAX_VALUE) {
+                    throw new H2Exception(
+                        H2Exception.FLOW, "connection window overflow"
+                    );
+                }
+            } else {
+                final H2Stream stream = this.streams.get(frm.stream());
+                if (stream != null) {
+                    stream.window(inc);
+                    if (stream.window() > (long) Integer.MAX_VALUE) {
+                        throw new H2Exception(
+                            H2Exception.FLOW, frm.stream(),
+                            "stream window overflow"
+                        );
+                    }
+                }
+            }
+            this.lock.notifyAll();
+        }
+    }
+
+    /**
+     * Apply SETTINGS of the client.
+     * @param payload Payload of SETTINGS
+     * @throws H2Exception If they are wrong
+     */
+    private void apply(final byte[] payload) throws H2Exception {
+        for (int pos = 0; pos < payload.length; pos += 6) {
+            final int ident = (int) H2Connection.uint(payload, pos, 2);
+            final long value = H2Connection.uint(payload, pos + 2, 4);
+            if (ident == H2Connection.TABLE_SIZE) {
+                synchronized (this.output) {
+                    this.encoder.limit(
+                        (int) Math.min(value, (long) Integer.MAX_VALUE)
+                    );
+                }
+            } else if (ident == H2Connection.ENABLE_PUSH && value > 1L) {
+                throw new H2Exception(
+                    H2Exception.PROTOCOL, "invalid SETTINGS_ENABLE_PUSH"
+                );
+            } else if (ident == H2Connection.INITIAL_WINDOW) {
+                this.resize(value);
+            } else if (ident == H2Connection.MAX_FRAME) {
+                if (value < (long) H2Connection.FRAME || value > 0xffffffL) {
+                    throw new H2Exception(
+                        H2Exception.PROTOCOL, "invalid SETTINGS_MAX_FRAME_SIZE"
+                    );
+                }
+                this.frame = (int) value;
+            }
+        }
+    }
+
+    /**
+     * Change initial window of streams.
+     * @param value New initial window
+     * @throws H2Exception If it is too big
+     */
+    private void resize(final long value) throws H2Exception {
+        if (value > (long) Integer.MAX_VALUE) {
+            throw new H2Exception(
+                H2Exception.FLOW, "invalid SETTINGS_INITIAL_WINDOW_SIZE"
+            );
+        }
+        synchronized (this.lock) {
+            final long delta = value - this.initial;
+            this.initial = value;
+            for (final H2Stream stream : this.streams.values()) {
+                stream.window(delta);
+                if (stream.window() > (long) Integer.MAX_VALUE) {
+                    throw new H2Exception(
+                        H2Exception.FLOW, "stream window overflow"
+                    );
+                }
+            }
+            this.lock.notifyAll();
+        }
+    }
+
+    /**
+     * Length of padding of DATA or HEADERS.
+     * @param frm Frame
+     * @return Length of padding
+     * @throws H2Exception If the frame is broken
+     */
+    private int padding(final H2Connection.Frame frm) throws H2Exception {
+        if (frm.stream() == 0) {
+            throw new H2Exception(
+                H2Exception.PROTOCOL, "DATA or HEADERS on stream 0"
+            );
+        }
+        int pad = 0;
+        if (frm.flag(H2Connection.PADDED) != 0) {
+            if (frm.payload().length == 0) {
+                throw new H2Exception(H2Exception.FRAME_SIZE, "no padding");
+            }
+            pad = frm.payload()[0] & 0xff;
+            if (pad >= frm.payload().length) {
+                throw new H2Exception(
+                    H2Exception.PROTOCOL, "padding is too long"
+                );
+            }
+        }
+        return pad;
+    }
+
+    /**
+     * Start the take for the stream, in a thread of its own.
+     * @param stream Stream
+     * @param head Head of the request
+     * @param tks Take
+     */
+    private void start(final H2Stream stream, final List<String> head,
+        final Take tks) {
+        final Request req = new Request() {
+            @Override
+            public Iterable<String> head() {
+                return head;
+            }
+            @Override
+            public InputStream body() {
+                return stream.body();
+            }
+        };
+        final boolean bodiless = head.get(0).startsWith("HEAD ");
+        this.exec.execute(
+            new Runnable() {
+                @Override
+                public void run() {
+                    int code = H2Exception.NONE;
+                    try {
+                        H2Connection.this.respond(
+                            stream, H2Connection.response(tks, req), bodiless
+                        );
+                    } catch (final IOException ex) {
+                        code = H2Exception.INTERNAL;
+                    }
+                    H2Connection.this.close(stream, code);
+                }
+            }
+        );
+    }
+
+    /**
+     * Send the response to the stream.
+     * @param stream Stream
+     * @param res Response
+     * @param bodiless Send no body, the request is HEAD
+     * @throws IOException If fails
+     */
+    private void respond(final H2Stream stream, final Response res,
+        final boolean bodiless) throws IOException {
+        final List<String[]> fields = H2Connection.fields(res.head());
+        final byte[] buf = Buffers.SHARED.take();
+        try (final InputStream body = res.body()) {
+            int read = 0;
+            if (!bodiless) {
+                read = body.read(buf);
+            }
+            this.headers(stream, fields, read <= 0);
+            while (read > 0) {
+                this.data(stream, buf, read);
+                read = body.read(buf);
+                if (read < 0) {
+                    this.send(
+                        H2Connection.DATA, H2Connection.END_STREAM,
+                        stream.ident(), H2Connection.EMPTY
+                    );
+                }
+            }
+        } finally {
+            Buffers.SHARED.give(buf);
+        }
+    }
+
+    /**
+     * Stream is done, close it.
+     *
+     * <p>If the client is still sending the request, it is asked to stop,
+     * with RST_STREAM and NO_ERROR, see RFC 7540 section 8.1.
+     *
+     * @param stream Stream
+     * @param code Error code of the stream
+     */
+    private void close(final H2Stream stream, final int code) {
+        this.streams.remove(stream.ident());
+        final int left = stream.discard();
+        try {
+            if (!stream.cancelled()
+                && (code != H2Exception.NONE || !stream.ended())) {
+                this.send(
+                    H2Connection.RST_STREAM, 0, stream.ident(),
+                    H2Connection.int32(code)
+                );
+            }
+            this.consumed(0, left, 0);
+        } catch (final IOException ex) {
+            stream.cancel();
+        }
+    }
+
+    /**
+     * Reset the stream.
+     * @param ident Stream
+     * @param code Error code
+     * @throws IOException If fails
+     */
+    private void reset(final int ident, final int code) throws IOException {
+        this.cancel(ident);
+        this.send(H2Connection.RST_STREAM, 0, ident, H2Connection.int32(code));
+    }
+
+    /**
+     * Cancel the stream, if it is open.
+     * @param ident Stream
+     * @throws IOException If fails
+     */
+    private void cancel(final int ident) throws IOException {
+        final H2Stream stream = this.streams.remove(ident);
+        if (stream != null) {
+            stream.cancel();
+            synchronized (this.lock) {
+                this.lock.notifyAll();
+            }
+            this.consumed(0, stream.discard(), 0);
+        }
+    }
+
+    /**
+     * Send header block, in HEADERS and CONTINUATION frames.
+     * @param stream Stream
+     * @param fields Fields
+     * @param end It is the end of the stream
+     * @throws IOException If fails
+     */
+    private void headers(final H2Stream stream, final List<String[]> fields,
+        final boolean end) throws IOException {
+        synchronized (this.output) {
+            final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            this.encoder.encode(fields, baos);
+            final byte[] block = baos.toByteArray();
+            int type = H2Connection.HEADERS;
+            int flgs = 0;
+            if (end) {
+                flgs = H2Connection.END_STREAM;
+            }
+            int pos = 0;
+            do {
+                final int len = Math.min(block.length - pos, this.frame);
+                if (pos + len == block.length) {
+                    flgs |= H2Connection.END_HEADERS;
+                }
+                this.send(
+                    type, flgs, stream.ident(),
+                    Arrays.copyOfRange(block, pos, pos + len)
+                );
+                pos += len;
+                type = H2Connection.CONTINUATION;
+                flgs = 0;
+            } while (pos < block.length);
+        }
+    }
+
+    /**
+     * Send body, in DATA frames, as flow control allows.
+     * @param stream Stream
+     * @param buf Buffer with the body
+     * @param len Length of the body in the buffer
+     * @throws IOException If fails
+     */
+    private void data(final H2Stream stream, final byte[] buf, final int len)
+        throws IOException {
+        int pos = 0;
+        while (pos < len) {
+            final int granted = this.reserve(
+                stream, Math.min(len - pos, this.frame)
+            );
+            this.send(
+                H2Connection.DATA, 0, stream.ident(),
+                Arrays.copyOfRange(buf, pos, pos + granted)
+            );
+            pos += granted;
+        }
+    }
+
+    /**
+     * Wait for the windows of the stream and the connection, and take
+     * credit from them.
+     * @param stream Stream
+     * @param wanted How many bytes we want to send
+     * @return How many bytes we may send
+     * @throws IOException If the stream or the connection is closed
+     */
+    private int reserve(final H2Stream stream, final int wanted)
+        throws IOException {
+        synchronized (this.lock) {
+            while ((this.window <= 0L || stream.window() <= 0L)
+                && !stream.cancelled() && !this.finished) {
+                try {
+                    this.lock.wait();
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException(
+                        ex.getLocalizedMessage()
+                    );
+                }
+            }
+            if (stream.cancelled()) {
+                throw new IOException("the stream is reset");
+            }
+            if (this.window <= 0L || stream.window() <= 0L) {
+                throw new IOException("the connection is closed");
+            }
+            final int granted = (int) Math.min(
+                (long) wanted, Math.min(this.window, stream.window())
+            );
+            this.window -= (long) granted;
+            stream.window((long) -granted);
+            return granted;
+        }
+    }
+
+    /**
+     * Send GOAWAY.
+     * @param code Error code
+     * @param msg Debug message
+     * @throws IOException If fails
+     */
+    private void goaway(final int code, final String msg) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        baos.write(H2Connection.int32(this.last));
+        baos.write(H2Connection.int32(code));
+        baos.write(msg.getBytes(StandardCharsets.UTF_8));
+        this.send(H2Connection.GOAWAY, 0, 0, baos.toByteArray());
+    }
+
+    /**
+     * Our SETTINGS.
+     * @return Payload of SETTINGS
+     */
+    private byte[] settings() {
+        final byte[] payload = new byte[12];
+        payload[1] = (byte) H2Connection.MAX_STREAMS;
+        System.arraycopy(
+            H2Connection.int32(H2Connection.STREAMS), 0, payload, 2, 4
+        );
+        payload[7] = (byte) H2Connection.MAX_LIST;
+        System.arraycopy(
+            H2Connection.int32(this.limits.head()), 0, payload, 8, 4
+        );
+        return payload;
+    }
+
+    /**
+     * Send a frame.
+     * @param type Type
+     * @param flgs Flags
+     * @param stream Stream
+     * @param payload Payload
+     * @throws IOException If fails
+     */
+    private void send(final int type, final int flgs, final int stream,
+        final byte[] payload) throws IOException {
+        final byte[] head = {
+            (byte) (payload.length >>> 16),
+            (byte) (payload.length >>> 8),
+            (byte) payload.length,
+            (byte) type,
+            (byte) flgs,
+            (byte) (stream >>> 24),
+            (byte) (stream >>> 16),
+            (byte) (stream >>> 8),
+            (byte) stream,
+        };
+        synchronized (this.output) {
+            this.output.write(head);
+            this.output.write(payload);
+            this.output.flush();
+        }
+    }
+
+    /**
+     * The client closed the connection or broke it.
+     *
+     * <p>Streams that are answered already are finished, unless the
+     * connection is broken, but their windows can't grow anymore.
+     *
+     * @param aborted TRUE if the connection is broken
+     */
+    private void finish(final boolean aborted) {
+        this.finished = true;
+        synchronized (this.lock) {
+            this.lock.notifyAll();
+        }
+        for (final H2Stream stream : this.streams.values()) {
+            if (aborted) {
+                stream.cancel();
+            } else {
+                stream.fail(new IOException("the connection is closed"));
+            }
+        }
+        this.exec.shutdown();
+        if (!aborted) {
+            try {
+                this.exec.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                this.exec.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Check frame of the connection, not of a stream.
+     * @param frm Frame
+     * @param size Its length must be a multiple of this, or -1
+     * @throws H2Exception If it is not right
+     */
+    private static void control(final H2Connection.Frame frm, final int size)
+        throws H2Exception {
+        if (frm.stream() != 0) {
+            throw new H2Exception(
+                H2Exception.PROTOCOL,
+                String.format("frame %d of stream %d", frm.type(), frm.stream())
+            );
+        }
+        if (size == 0 && frm.payload().length != 0
+            || size > 0 && frm.payload().length % size != 0) {
+            throw new H2Exception(
+                H2Exception.FRAME_SIZE,
+                String.format("frame %d has wrong length", frm.type())
+            );
+        }
+    }
+
+    /**
+     * Make head of the request from fields of HEADERS.
+     * @param ident Stream
+     * @param fields Fields
+     * @return Head
+     * @throws H2Exception If the request is malformed
+     */
+    private static List<String> head(final int ident,
+        final Iterable<String[]> fields) throws H2Exception {
+        final String[] pseudo = new String[4];
+        final List<String> lines = new LinkedList<>();
+        final StringBuilder cookie = new StringBuilder(0);
+        boolean regular = false;
+        boolean host = false;
+        for (final String[] field : fields) {
+            final String name = field[0];
+            if (!name.equals(new EnglishLowerCase(name).string())) {
+                throw H2Connection.malformed(ident, "uppercase field name");
+            }
+            if (name.startsWith(":")) {
+                final int idx = Arrays.asList(
+                    ":method", ":scheme", ":path", ":authority"
+                ).indexOf(name);
+                if (regular || idx < 0 || pseudo[idx] != null) {
+                    throw H2Connection.malformed(ident, name);
+                }
+                pseudo[idx] = field[1];
+            } else {
+                regular = true;
+                if (H2Connection.SPECIFIC.contains(name)
+                    || "te".equals(name) && !"trailers".equals(field[1])) {
+                    throw H2Connection.malformed(ident, name);
+                }
+                if ("cookie".equals(name)) {
+                    if (cookie.length() > 0) {
+                        cookie.append("; ");
+                    }
+                    cookie.append(field[1]);
+                } else {
+                    host = host || "host".equals(name);
+                    lines.add(String.format("%s: %s", name, field[1]));
+                }
+            }
+        }
+        if (pseudo[0] == null || pseudo[1] == null || pseudo[2] == null
+            || pseudo[2].isEmpty()) {
+            throw H2Connection.malformed(ident, "no :method, :scheme or :path");
+        }
+        if (pseudo[3] != null && !host) {
+            lines.add(0, String.format("host: %s", pseudo[3]));
+        }
+        if (cookie.length() > 0) {
+            lines.add(String.format("cookie: %s", cookie));
+        }
+        lines.add(0, String.format("%s %s HTTP/2", pseudo[0], pseudo[2]));
+        return lines;
+    }
+
+    /**
+     * Make fields of HEADERS from head of the response.
+     * @param head Head
+     * @return Fields
+     * @throws IOException If the head is broken
+     */
+    private static List<String[]> fields(final Iterable<String> head)
+        throws IOException {
+        final Iterator<String> lines = head.iterator();
+        final String[] status = lines.next().split(" ", 3);
+        if (status.length < 2 || !status[1].matches("[1-9][0-9]{2}")) {
+            throw new IOException(
+                String.format("invalid status line: %s", status[0])
+            );
+        }
+        final List<String[]> fields = new LinkedList<>();
+        fields.add(new String[] {":status", status[1]});
+        while (lines.hasNext()) {
+            final String line = lines.next();
+            final int colon = line.indexOf(':');
+            if (colon > 0) {
+                final String name = new EnglishLowerCase(
+                    line.substring(0, colon).trim()
+                ).string();
+                if (!H2Connection.SPECIFIC.contains(name)) {
+                    fields.add(
+                        new String[] {name, line.substring(colon + 1).trim()}
+                    );
+                }
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Run the take, making failure responses from its exceptions.
+     * @param tks Take
+     * @param req Request
+     * @return Response
+     * @throws IOException If fails
+     */
+    @SuppressWarnings("PMD.AvoidCatchingThrowable")
+    private static Response response(final Take tks, final Request req)
+        throws IOException {
+        Response res;
+        try {
+            res = tks.act(req);
+        } catch (final HttpException ex) {
+            res = H2Connection.failure(ex, ex.code());
+            // @checkstyle IllegalCatchCheck (1 line)
+        } catch (final Throwable ex) {
+            res = H2Connection.failure(
+                ex, HttpURLConnection.HTTP_INTERNAL_ERROR
+            );
+        }
+        return res;
+    }
+
+    /**
+     * Make a failure response.
+     * @param err Error
+     * @param code HTTP error code
+     * @return Response
+     * @throws IOException If something goes wrong
+     */
+    private static Response failure(final Throwable err, final int code)
+        throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (PrintStream stream = new Utf8PrintStream(baos, false)) {
+            err.printStackTrace(stream);
+        }
+        return new RsWithStatus(
+            new RsText(new ByteArrayInputStream(baos.toByteArray())),
+            code
+        );
+    }
+
+    /**
+     * Malformed request, RFC 7540 section 8.1.2.6.
+     * @param ident Stream
+     * @param why What is wrong
+     * @return Error of the stream
+     */
+    private static H2Exception malformed(final int ident, final String why) {
+        return new H2Exception(
+            H2Exception.PROTOCOL, ident,
+            String.format("malformed request: %s", why)
+        );
+    }
+
+    /**
+     * Read unsigned big-endian integer.
+     * @param bytes Bytes
+     * @param pos Position
+     * @param len Length
+     * @return Integer
+     */
+    private static long uint(final byte[] bytes, final int pos,
+        final int len) {
+        long value = 0L;
+        for (int idx = pos; idx < pos + len; ++idx) {
+            value = value << 8 | (long) (bytes[idx] & 0xff);
+        }
+        return value;
+    }
+
+    /**
+     * Write 32-bit big-endian integer.
+     * @param value Integer
+     * @return Bytes
+     */
+    private static byte[] int32(final int value) {
+        return new byte[] {
+            (byte) (value >>> 24),
+            (byte) (value >>> 16),
+            (byte) (value >>> 8),
+            (byte) value,
+        };
+    }
+
+    /**
+     * Frame.
+     */
+    private static final class Frame {
+        /**
+         * Type.
+         */
+        private final int kind;
+        /**
+         * Flags.
+         */
+        private final int bits;
+        /**
+         * Stream.
+         */
+        private final int ident;
+        /**
+         * Payload.
+         */
+        private final byte[] bytes;
+        /**
+         * Ctor.
+         * @param type Type
+         * @param flgs Flags
+         * @param stream Stream
+         * @param payload Payload
+         * @checkstyle ParameterNumberCheck (3 lines)
+         */
+        Frame(final int type, final int flgs, final int stream,
+            final byte[] payload) {
+            this.kind = type;
+            this.bits = flgs;
+            this.ident = stream;
+            this.bytes = payload;
+        }
+        /**
+         * Type.
+         * @return Type
+         */
+        public int type() {
+            return this.kind;
+        }
+        /**
+         * Flags.
+         * @return Flags
+         */
+        public int flags() {
+            return this.bits;
+        }
+        /**
+         * The flag, if it is set.
+         * @param flag Flag
+         * @return The flag or zero
+         */
+        public int flag(final int flag) {
+            return this.bits & flag;
+        }
+        /**
+         * Stream.
+         * @return Stream
+         */
+        public int stream() {
+            return this.ident;
+        }
+        /**
+         * Payload.
+         * @return Payload
+         */
+        public byte[] payload() {
+            return this.bytes;
+        }
+    }
+}
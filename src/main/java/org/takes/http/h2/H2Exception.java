@@ -0,0 +1,144 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.takes.http.h2;
+
+import java.io.IOException;
+
+/**
+ * HTTP/2 error, of a stream or of the whole connection.
+ *
+ * <p>An error of a stream is reported by RST_STREAM and the connection
+ * goes on, an error of the connection is reported by GOAWAY and the
+ * connection is closed, see RFC 7540 section 5.4.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@SuppressWarnings("PMD.OnlyOneConstructorShouldDoInitialization")
+final class H2Exception extends IOException {
+
+    /**
+     * Serialization marker.
+     */
+    private static final long serialVersionUID = 4862375493020764158L;
+
+    /**
+     * Graceful shutdown, NO_ERROR.
+     */
+    static final int NONE = 0x0;
+
+    /**
+     * PROTOCOL_ERROR.
+     */
+    static final int PROTOCOL = 0x1;
+
+    /**
+     * INTERNAL_ERROR.
+     */
+    static final int INTERNAL = 0x2;
+
+    /**
+     * FLOW_CONTROL_ERROR.
+     */
+    static final int FLOW = 0x3;
+
+    /**
+     * STREAM_CLOSED.
+     */
+    static final int CLOSED = 0x5;
+
+    /**
+     * FRAME_SIZE_ERROR.
+     */
+    static final int FRAME_SIZE = 0x6;
+
+    /**
+     * REFUSED_STREAM.
+     */
+    static final int REFUSED = 0x7;
+
+    /**
+     * CANCEL.
+     */
+    static final int CANCEL = 0x8;
+
+    /**
+     * COMPRESSION_ERROR.
+     */
+    static final int COMPRESSION = 0x9;
+
+    /**
+     * ENHANCE_YOUR_CALM.
+     */
+    static final int CALM = 0xb;
+
+    /**
+     * Error code, from RFC 7540 section 7.
+     */
+    private final int error;
+
+    /**
+     * Stream, or zero if the connection failed.
+     */
+    private final int stream;
+
+    /**
+     * Ctor, for an error of the connection.
+     * @param code Error code
+     * @param msg Message
+     */
+    H2Exception(final int code, final String msg) {
+        this(code, 0, msg);
+    }
+
+    /**
+     * Ctor.
+     * @param code Error code
+     * @param strm Stream, or zero if the connection failed
+     * @param msg Message
+     */
+    H2Exception(final int code, final int strm, final String msg) {
+        super(msg);
+        this.error = code;
+        this.stream = strm;
+    }
+
+    /**
+     * Error code.
+     * @return Code
+     */
+    int code() {
+        return this.error;
+    }
+
+    /**
+     * Stream that failed.
+     * @return Stream, or zero if the whole connection failed
+     */
+    int stream() {
+        return this.stream;
+    }
+}
@@ -0,0 +1,360 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.takes.http.h2;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.LinkedList;
+import java.util.Queue;
+
+/**
+ * HTTP/2 stream of a connection.
+ *
+ * <p>The reader of the connection puts the payload of DATA frames into
+ * the stream and the take reads it from {@link #body()}. Every byte the
+ * take reads is reported back to the connection, which gives the client
+ * credit to send more, see RFC 7540 section 5.2. Credit the client has
+ * for this stream is in {@code received}, credit the server has for it,
+ * in {@code window}; the latter is guarded by the lock of the connection.
+ *
+ * <p>The class is mutable and thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+final class H2Stream {
+
+    /**
+     * Connection.
+     */
+    private final H2Connection connection;
+
+    /**
+     * Stream identifier.
+     */
+    private final int ident;
+
+    /**
+     * Chunks of the body not read yet.
+     */
+    private final Queue<byte[]> chunks;
+
+    /**
+     * Body of the request.
+     */
+    private final InputStream input;
+
+    /**
+     * Credit we may still use to send DATA, guarded by the connection.
+     */
+    private long window;
+
+    /**
+     * Credit the client may still use to send DATA.
+     */
+    private int received;
+
+    /**
+     * Bytes read by the take but not credited back yet.
+     */
+    private int consumed;
+
+    /**
+     * Bytes in chunks.
+     */
+    private int buffered;
+
+    /**
+     * Chunk being read.
+     */
+    private byte[] chunk;
+
+    /**
+     * Position in the chunk.
+     */
+    private int pos;
+
+    /**
+     * The client has sent the whole request.
+     */
+    private boolean ended;
+
+    /**
+     * Why the body can't be read, or NULL.
+     */
+    private IOException failure;
+
+    /**
+     * The stream is reset.
+     */
+    private volatile boolean cancelled;
+
+    /**
+     * Ctor.
+     * @param conn Connection
+     * @param ident Stream identifier
+     * @param initial Initial window of the client
+     * @param recv Initial window of the server
+     * @checkstyle HiddenFieldCheck (3 lines)
+     */
+    H2Stream(final H2Connection conn, final int ident, final long initial,
+        final int recv) {
+        this.connection = conn;
+        this.ident = ident;
+        this.chunks = new LinkedList<>();
+        this.window = initial;
+        this.received = recv;
+        this.chunk = new byte[0];
+        this.input = new H2Stream.Body();
+    }
+
+    /**
+     * Stream identifier.
+     * @return Identifier
+     */
+    public int ident() {
+        return this.ident;
+    }
+
+    /**
+     * Body of the request.
+     * @return Stream
+     */
+    public InputStream body() {
+        return this.input;
+    }
+
+    /**
+     * Credit we may use to send DATA, must be called under the lock
+     * of the connection.
+     * @return Bytes
+     */
+    public long window() {
+        return this.window;
+    }
+
+    /**
+     * Change credit we may use to send DATA, must be called under the
+     * lock of the connection.
+     * @param delta How much to add or to take
+     */
+    public void window(final long delta) {
+        this.window += delta;
+    }
+
+    /**
+     * Accept the payload of a DATA frame.
+     * @param data Payload, without padding
+     * @param length Length of the frame, which counts for flow control
+     * @throws H2Exception If the client has no credit for that
+     */
+    public synchronized void receive(final byte[] data, final int length)
+        throws H2Exception {
+        if (this.ended) {
+            throw new H2Exception(
+                H2Exception.CLOSED, this.ident, "DATA after END_STREAM"
+            );
+        }
+        if (length > this.received) {
+            throw new H2Exception(
+                H2Exception.FLOW, this.ident, "stream window exceeded"
+            );
+        }
+        this.received -= length;
+        this.consumed += length - data.length;
+        if (data.length > 0) {
+            this.chunks.add(data);
+            this.buffered += data.length;
+            this.notifyAll();
+        }
+    }
+
+    /**
+     * The client has sent the whole request.
+     */
+    public synchronized void end() {
+        this.ended = true;
+        this.notifyAll();
+    }
+
+    /**
+     * The client has sent the whole request.
+     * @return TRUE if it has
+     */
+    public synchronized boolean ended() {
+        return this.ended;
+    }
+
+    /**
+     * The body can't be read till the end.
+     * @param err Why
+     */
+    public synchronized void fail(final IOException err) {
+        if (!this.ended && this.failure == null) {
+            this.failure = err;
+        }
+        this.notifyAll();
+    }
+
+    /**
+     * Reset the stream.
+     */
+    public void cancel() {
+        this.cancelled = true;
+        this.fail(new IOException("the stream is reset"));
+    }
+
+    /**
+     * The stream is reset.
+     * @return TRUE if it is
+     */
+    public boolean cancelled() {
+        return this.cancelled;
+    }
+
+    /**
+     * Drop what the take didn't read.
+     * @return How many bytes were dropped
+     */
+    public synchronized int discard() {
+        final int left = this.buffered + this.chunk.length - this.pos;
+        this.chunks.clear();
+        this.buffered = 0;
+        this.chunk = new byte[0];
+        this.pos = 0;
+        return left;
+    }
+
+    /**
+     * Give the client credit for the bytes the take has read.
+     * @param bytes How many bytes were read
+     * @return Credit to send in WINDOW_UPDATE, or zero
+     * @checkstyle MagicNumberCheck (15 lines)
+     */
+    private synchronized int credit(final int bytes) {
+        int credit = 0;
+        if (!this.ended) {
+            this.consumed += bytes;
+            if (this.consumed >= H2Connection.WINDOW >> 1) {
+                credit = this.consumed;
+                this.received += credit;
+                this.consumed = 0;
+            }
+        }
+        return credit;
+    }
+
+    /**
+     * Read from the chunks.
+     * @param buf Buffer
+     * @param off Offset in the buffer
+     * @param len Maximum bytes to read
+     * @return Bytes read or -1 at the end
+     * @throws IOException If fails
+     */
+    private synchronized int next(final byte[] buf, final int off,
+        final int len) throws IOException {
+        while (this.pos == this.chunk.length && this.chunks.isEmpty()
+            && !this.ended && this.failure == null) {
+            try {
+                this.wait();
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException(ex.getLocalizedMessage());
+            }
+        }
+        if (this.pos == this.chunk.length && !this.chunks.isEmpty()) {
+            this.chunk = this.chunks.remove();
+            this.pos = 0;
+            this.buffered -= this.chunk.length;
+        }
+        final int read;
+        if (this.pos < this.chunk.length) {
+            read = Math.min(len, this.chunk.length - this.pos);
+            System.arraycopy(this.chunk, this.pos, buf, off, read);
+            this.pos += read;
+        } else if (this.failure == null) {
+            read = -1;
+        } else {
+            throw new IOException(this.failure);
+        }
+        return read;
+    }
+
+    /**
+     * Body of the request.
+     */
+    private final class Body extends InputStream {
+        @Override
+        public int read() throws IOException {
+            final byte[] buf = new byte[1];
+            final int read = this.read(buf, 0, 1);
+            final int octet;
+            if (read < 0) {
+                octet = -1;
+            } else {
+                octet = buf[0] & 0xff;
+            }
+            return octet;
+        }
+        @Override
+        public int read(final byte[] buf, final int off, final int len)
+            throws IOException {
+            int read = 0;
+            if (len > 0) {
+                read = H2Stream.this.next(buf, off, len);
+                if (read > 0) {
+                    H2Stream.this.connection.consumed(
+                        H2Stream.this.ident, read, H2Stream.this.credit(read)
+                    );
+                }
+            }
+            return read;
+        }
+        /**
+         * {@inheritDoc}
+         *
+         * <p>Without Content-Length the length of the body is unknown till
+         * END_STREAM, so an open stream says that everything is available,
+         * otherwise {@link org.takes.rq.RqLengthAware} would cut the body
+         * at the first DATA frame, or even before it.
+         */
+        @Override
+        public int available() {
+            synchronized (H2Stream.this) {
+                final int avail;
+                if (H2Stream.this.ended || H2Stream.this.failure != null) {
+                    avail = H2Stream.this.buffered
+                        + H2Stream.this.chunk.length - H2Stream.this.pos;
+                } else {
+                    avail = Integer.MAX_VALUE;
+                }
+                return avail;
+            }
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.takes.http.h2;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Decoder of HPACK header blocks, RFC 7541.
+ *
+ * <p>Every header block of the connection must go through the same
+ * decoder, in the order they arrive, since they share its dynamic
+ * table. Names and values are decoded as ISO-8859-1, octet by octet.
+ *
+ * <p>The class is mutable and NOT thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+final class HpackDecoder {
+
+    /**
+     * Dynamic table.
+     */
+    private final HpackTable table;
+
+    /**
+     * Maximum size of the dynamic table the encoder may ask for.
+     */
+    private final int max;
+
+    /**
+     * Huffman code.
+     */
+    private final Huffman huffman;
+
+    /**
+     * Block being decoded.
+     */
+    private byte[] block;
+
+    /**
+     * Position in the block.
+     */
+    private int pos;
+
+    /**
+     * Ctor.
+     * @param capacity Maximum size of the dynamic table
+     */
+    HpackDecoder(final int capacity) {
+        this.table = new HpackTable(capacity);
+        this.max = capacity;
+        this.huffman = new Huffman();
+    }
+
+    /**
+     * Decode header block.
+     * @param bytes Header block
+     * @return Names and values of the fields, in their order
+     * @throws H2Exception If the block is broken
+     */
+    public List<String[]> decode(final byte[] bytes) throws H2Exception {
+        this.block = bytes;
+        this.pos = 0;
+        final List<String[]> fields = new LinkedList<>();
+        while (this.pos < bytes.length) {
+            final int first = bytes[this.pos] & 0xff;
+            if ((first & 0x80) != 0) {
+                fields.add(this.table.field(this.integer(7)));
+            } else if ((first & 0x40) != 0) {
+                final String[] field = this.literal(6);
+                this.table.add(field[0], field[1]);
+                fields.add(field);
+            } else if ((first & 0x20) != 0) {
+                if (!fields.isEmpty()) {
+                    throw new H2Exception(
+                        H2Exception.COMPRESSION,
+                        "HPACK table size update after a field"
+                    );
+                }
+                final int size = this.integer(5);
+                if (size > this.max) {
+                    throw new H2Exception(
+                        H2Exception.COMPRESSION,
+                        String.format("HPACK table size %d is too big", size)
+                    );
+                }
+                this.table.resize(size);
+            } else {
+                fields.add(this.literal(4));
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Read literal field, with the index of its name in the prefix.
+     * @param prefix Bits of the prefix
+     * @return Name and value
+     * @throws H2Exception If fails
+     */
+    private String[] literal(final int prefix) throws H2Exception {
+        final int index = this.integer(prefix);
+        final String name;
+        if (index == 0) {
+            name = this.string();
+        } else {
+            name = this.table.field(index)[0];
+        }
+        return new String[] {name, this.string()};
+    }
+
+    /**
+     * Read string literal.
+     * @return String
+     * @throws H2Exception If fails
+     */
+    private String string() throws H2Exception {
+        this.available(1);
+        final boolean coded = (this.block[this.pos] & 0x80) != 0;
+        final int len = this.integer(7);
+        this.available(len);
+        final String str;
+        if (coded) {
+            str = new String(
+                this.huffman.decode(this.block, this.pos, len),
+                StandardCharsets.ISO_8859_1
+            );
+        } else {
+            str = new String(
+                this.block, this.pos, len, StandardCharsets.ISO_8859_1
+            );
+        }
+        this.pos += len;
+        return str;
+    }
+
+    /**
+     * Read integer, RFC 7541 section 5.1.
+     * @param prefix Bits of the prefix
+     * @return Integer
+     * @throws H2Exception If fails
+     */
+    private int integer(final int prefix) throws H2Exception {
+        this.available(1);
+        final int mask = (1 << prefix) - 1;
+        long value = (long) (this.block[this.pos] & mask);
+        ++this.pos;
+        if (value == (long) mask) {
+            int shift = 0;
+            int octet;
+            do {
+                this.available(1);
+                octet = this.block[this.pos] & 0xff;
+                ++this.pos;
+                value += (long) (octet & 0x7f) << shift;
+                shift += 7;
+                if (shift > 35 || value > (long) Integer.MAX_VALUE) {
+                    throw new H2Exception(
+                        H2Exception.COMPRESSION, "HPACK integer overflow"
+                    );
+                }
+            } while ((octet & 0x80) != 0);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Make sure there are enough bytes left in the block.
+     * @param len How many bytes are needed
+     * @throws H2Exception If there are not enough
+     */
+    private void available(final int len) throws H2Exception {
+        if (len > this.block.length - this.pos) {
+            throw new H2Exception(
+                H2Exception.COMPRESSION, "truncated HPACK header block"
+            );
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.takes.http.h2;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+
+/**
+ * Encoder of HPACK header blocks, RFC 7541.
+ *
+ * <p>Fields found in the table are sent as indexes, the others are added
+ * to the dynamic table, except credentials and cookies, which are never
+ * indexed. Strings are Huffman-coded when it makes them shorter.
+ *
+ * <p>The class is mutable and NOT thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+final class HpackEncoder {
+
+    /**
+     * Fields that are never indexed.
+     */
+    private static final Collection<String> SENSITIVE = new HashSet<>(
+        Arrays.asList(
+            "authorization", "proxy-authorization", "cookie", "set-cookie"
+        )
+    );
+
+    /**
+     * Dynamic table.
+     */
+    private final HpackTable table;
+
+    /**
+     * Maximum size of the dynamic table we want to use.
+     */
+    private final int max;
+
+    /**
+     * Huffman code.
+     */
+    private final Huffman huffman;
+
+    /**
+     * Smallest table size since the last header block, or -1.
+     */
+    private int smallest;
+
+    /**
+     * Ctor.
+     * @param capacity Maximum size of the dynamic table to use
+     */
+    HpackEncoder(final int capacity) {
+        this.table = new HpackTable(capacity);
+        this.max = capacity;
+        this.huffman = new Huffman();
+        this.smallest = -1;
+    }
+
+    /**
+     * Apply the limit of the dynamic table of the decoder.
+     * @param limit SETTINGS_HEADER_TABLE_SIZE of the peer
+     */
+    public void limit(final int limit) {
+        final int size = Math.min(limit, this.max);
+        if (size != this.table.capacity()) {
+            this.table.resize(size);
+            if (this.smallest < 0 || size < this.smallest) {
+                this.smallest = size;
+            }
+        }
+    }
+
+    /**
+     * Encode header block.
+     * @param fields Names and values of the fields
+     * @param out Where to write the block
+     */
+    public void encode(final Iterable<String[]> fields,
+        final ByteArrayOutputStream out) {
+        if (this.smallest >= 0) {
+            HpackEncoder.integer(out, 0x20, 5, this.smallest);
+            if (this.smallest != this.table.capacity()) {
+                HpackEncoder.integer(out, 0x20, 5, this.table.capacity());
+            }
+            this.smallest = -1;
+        }
+        for (final String[] field : fields) {
+            this.encode(field[0], field[1], out);
+        }
+    }
+
+    /**
+     * Encode one field.
+     * @param name Name
+     * @param value Value
+     * @param out Where to write it
+     */
+    private void encode(final String name, final String value,
+        final ByteArrayOutputStream out) {
+        final int index = this.table.find(name, value);
+        if (index > 0) {
+            HpackEncoder.integer(out, 0x80, 7, index);
+        } else {
+            final int known = this.table.find(name);
+            if (HpackEncoder.SENSITIVE.contains(name)) {
+                HpackEncoder.integer(out, 0x10, 4, known);
+            } else if (HpackTable.size(name, value)
+                <= this.table.capacity()) {
+                HpackEncoder.integer(out, 0x40, 6, known);
+                this.table.add(name, value);
+            } else {
+                HpackEncoder.integer(out, 0x00, 4, known);
+            }
+            if (known == 0) {
+                this.string(name, out);
+            }
+            this.string(value, out);
+        }
+    }
+
+    /**
+     * Write string literal.
+     * @param str String
+     * @param out Where to write it
+     */
+    private void string(final String str, final ByteArrayOutputStream out) {
+        final byte[] octets = str.getBytes(StandardCharsets.ISO_8859_1);
+        final int coded = this.huffman.length(octets);
+        if (coded < octets.length) {
+            HpackEncoder.integer(out, 0x80, 7, coded);
+            this.huffman.encode(octets, out);
+        } else {
+            HpackEncoder.integer(out, 0x00, 7, octets.length);
+            out.write(octets, 0, octets.length);
+        }
+    }
+
+    /**
+     * Write integer, RFC 7541 section 5.1.
+     * @param out Where to write it
+     * @param flags Bits above the prefix
+     * @param prefix Bits of the prefix
+     * @param value Integer
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    private static void integer(final ByteArrayOutputStream out,
+        final int flags, final int prefix, final int value) {
+        final int mask = (1 << prefix) - 1;
+        if (value < mask) {
+            out.write(flags | value);
+        } else {
+            out.write(flags | mask);
+            int rest = value - mask;
+            while (rest >= 0x80) {
+                out.write(rest & 0x7f | 0x80);
+                rest >>>= 7;
+            }
+            out.write(rest);
+        }
+    }
+}
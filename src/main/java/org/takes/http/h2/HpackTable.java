@@ -0,0 +1,315 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.takes.http.h2;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Indexing table of HPACK, RFC 7541 section 2.3.
+ *
+ * <p>Indexes 1 to 61 point to the static table, the next ones to the
+ * dynamic table, the most recent field first. Size of a field is the
+ * length of its name and value plus 32.
+ *
+ * <p>The class is mutable and NOT thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+final class HpackTable {
+
+    /**
+     * Static table, RFC 7541 appendix A.
+     */
+    private static final String[][] STATIC = {
+        {":authority", ""},
+        {":method", "GET"},
+        {":method", "POST"},
+        {":path", "/"},
+        {":path", "/index.html"},
+        {":scheme", "http"},
+        {":scheme", "https"},
+        {":status", "200"},
+        {":status", "204"},
+        {":status", "206"},
+        {":status", "304"},
+        {":status", "400"},
+        {":status", "404"},
+        {":status", "500"},
+        {"accept-charset", ""},
+        {"accept-encoding", "gzip, deflate"},
+        {"accept-language", ""},
+        {"accept-ranges", ""},
+        {"accept", ""},
+        {"access-control-allow-origin", ""},
+        {"age", ""},
+        {"allow", ""},
+        {"authorization", ""},
+        {"cache-control", ""},
+        {"content-disposition", ""},
+        {"content-encoding", ""},
+        {"content-language", ""},
+        {"content-length", ""},
+        {"content-location", ""},
+        {"content-range", ""},
+        {"content-type", ""},
+        {"cookie", ""},
+        {"date", ""},
+        {"etag", ""},
+        {"expect", ""},
+        {"expires", ""},
+        {"from", ""},
+        {"host", ""},
+        {"if-match", ""},
+        {"if-modified-since", ""},
+        {"if-none-match", ""},
+        {"if-range", ""},
+        {"if-unmodified-since", ""},
+        {"last-modified", ""},
+        {"link", ""},
+        {"location", ""},
+        {"max-forwards", ""},
+        {"proxy-authenticate", ""},
+        {"proxy-authorization", ""},
+        {"range", ""},
+        {"referer", ""},
+        {"refresh", ""},
+        {"retry-after", ""},
+        {"server", ""},
+        {"set-cookie", ""},
+        {"strict-transport-security", ""},
+        {"transfer-encoding", ""},
+        {"user-agent", ""},
+        {"vary", ""},
+        {"via", ""},
+        {"www-authenticate", ""},
+    };
+
+    /**
+     * Static indexes of names.
+     */
+    private static final Map<String, Integer> NAMES = HpackTable.names();
+
+    /**
+     * Static indexes of fields with values.
+     */
+    private static final Map<String, Integer> FIELDS = HpackTable.fields();
+
+    /**
+     * Overhead of a field in the dynamic table.
+     */
+    private static final int OVERHEAD = 32;
+
+    /**
+     * Dynamic table, the most recent field first.
+     */
+    private final List<String[]> dynamic;
+
+    /**
+     * Size of the dynamic table.
+     */
+    private int size;
+
+    /**
+     * Maximum size of the dynamic table.
+     */
+    private int max;
+
+    /**
+     * Ctor.
+     * @param capacity Maximum size of the dynamic table
+     */
+    HpackTable(final int capacity) {
+        this.dynamic = new ArrayList<>(0);
+        this.max = capacity;
+    }
+
+    /**
+     * Size of the field in the dynamic table.
+     * @param name Name
+     * @param value Value
+     * @return Size
+     */
+    public static int size(final String name, final String value) {
+        return name.length() + value.length() + HpackTable.OVERHEAD;
+    }
+
+    /**
+     * Field at the index.
+     * @param index Index, starting from one
+     * @return Name and value
+     * @throws H2Exception If there is no such index
+     */
+    public String[] field(final int index) throws H2Exception {
+        final String[] field;
+        if (index > 0 && index <= HpackTable.STATIC.length) {
+            field = HpackTable.STATIC[index - 1];
+        } else if (index > HpackTable.STATIC.length
+            && index <= HpackTable.STATIC.length + this.dynamic.size()) {
+            field = this.dynamic.get(index - HpackTable.STATIC.length - 1);
+        } else {
+            throw new H2Exception(
+                H2Exception.COMPRESSION,
+                String.format("invalid HPACK index %d", index)
+            );
+        }
+        return field;
+    }
+
+    /**
+     * Index of the field.
+     * @param name Name
+     * @param value Value
+     * @return Index, or zero if it is not in the table
+     */
+    public int find(final String name, final String value) {
+        int index = 0;
+        final Integer fixed = HpackTable.FIELDS.get(
+            HpackTable.key(name, value)
+        );
+        if (fixed == null) {
+            for (int idx = 0; idx < this.dynamic.size(); ++idx) {
+                final String[] field = this.dynamic.get(idx);
+                if (field[0].equals(name) && field[1].equals(value)) {
+                    index = HpackTable.STATIC.length + idx + 1;
+                    break;
+                }
+            }
+        } else {
+            index = fixed;
+        }
+        return index;
+    }
+
+    /**
+     * Index of a field with the name.
+     * @param name Name
+     * @return Index, or zero if it is not in the table
+     */
+    public int find(final String name) {
+        int index = 0;
+        final Integer fixed = HpackTable.NAMES.get(name);
+        if (fixed == null) {
+            for (int idx = 0; idx < this.dynamic.size(); ++idx) {
+                if (this.dynamic.get(idx)[0].equals(name)) {
+                    index = HpackTable.STATIC.length + idx + 1;
+                    break;
+                }
+            }
+        } else {
+            index = fixed;
+        }
+        return index;
+    }
+
+    /**
+     * Add the field to the dynamic table, evicting old ones.
+     *
+     * <p>A field larger than the whole table only empties it.
+     *
+     * @param name Name
+     * @param value Value
+     */
+    public void add(final String name, final String value) {
+        final int bytes = HpackTable.size(name, value);
+        this.evict(this.max - bytes);
+        if (bytes <= this.max) {
+            this.dynamic.add(0, new String[] {name, value});
+            this.size += bytes;
+        }
+    }
+
+    /**
+     * Change maximum size of the dynamic table.
+     * @param capacity New maximum size
+     */
+    public void resize(final int capacity) {
+        this.max = capacity;
+        this.evict(capacity);
+    }
+
+    /**
+     * Maximum size of the dynamic table.
+     * @return Size
+     */
+    public int capacity() {
+        return this.max;
+    }
+
+    /**
+     * Evict the oldest fields, until the table fits.
+     * @param limit Size to fit into
+     */
+    private void evict(final int limit) {
+        while (this.size > limit && !this.dynamic.isEmpty()) {
+            final String[] field = this.dynamic.remove(
+                this.dynamic.size() - 1
+            );
+            this.size -= HpackTable.size(field[0], field[1]);
+        }
+    }
+
+    /**
+     * Key of the field in the map of static fields.
+     * @param name Name
+     * @param value Value
+     * @return Key
+     */
+    private static String key(final String name, final String value) {
+        return new StringBuilder(name.length() + value.length() + 1)
+            .append(name).append('\n').append(value).toString();
+    }
+
+    /**
+     * Build the map of static names.
+     * @return Map
+     */
+    private static Map<String, Integer> names() {
+        final Map<String, Integer> map = new HashMap<>(0);
+        for (int idx = HpackTable.STATIC.length; idx > 0; --idx) {
+            map.put(HpackTable.STATIC[idx - 1][0], idx);
+        }
+        return map;
+    }
+
+    /**
+     * Build the map of static fields with values.
+     * @return Map
+     */
+    private static Map<String, Integer> fields() {
+        final Map<String, Integer> map = new HashMap<>(0);
+        for (int idx = 1; idx <= HpackTable.STATIC.length; ++idx) {
+            final String[] field = HpackTable.STATIC[idx - 1];
+            if (!field[1].isEmpty()) {
+                map.put(HpackTable.key(field[0], field[1]), idx);
+            }
+        }
+        return map;
+    }
+}
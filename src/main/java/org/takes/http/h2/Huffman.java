@@ -0,0 +1,208 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.takes.http.h2;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Huffman code of HPACK, RFC 7541 appendix B.
+ *
+ * <p>The code is canonical, so the table keeps only the lengths of the
+ * codes of all 256 octets and EOS, and the codes are built from them.
+ *
+ * <p>The class is immutable and thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+final class Huffman {
+
+    /**
+     * Lengths of the codes, in bits, of octets 0..255 and EOS.
+     */
+    private static final int[] LENGTHS = {
+        13, 23, 28, 28, 28, 28, 28, 28, 28, 24, 30, 28, 28, 30, 28, 28,
+        28, 28, 28, 28, 28, 28, 30, 28, 28, 28, 28, 28, 28, 28, 28, 28,
+        6, 10, 10, 12, 13, 6, 8, 11, 10, 10, 8, 11, 8, 6, 6, 6,
+        5, 5, 5, 6, 6, 6, 6, 6, 6, 6, 7, 8, 15, 6, 12, 10,
+        13, 6, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7,
+        7, 7, 7, 7, 7, 7, 7, 7, 8, 7, 8, 13, 19, 13, 14, 6,
+        15, 5, 6, 5, 6, 5, 6, 6, 6, 5, 7, 7, 6, 6, 6, 5,
+        6, 7, 6, 5, 5, 6, 7, 7, 7, 7, 7, 15, 11, 14, 13, 28,
+        20, 22, 20, 20, 22, 22, 22, 23, 22, 23, 23, 23, 23, 23, 24, 23,
+        24, 24, 22, 23, 24, 23, 23, 23, 23, 21, 22, 23, 22, 23, 23, 24,
+        22, 21, 20, 22, 22, 23, 23, 21, 23, 22, 22, 24, 21, 22, 23, 23,
+        21, 21, 22, 21, 23, 22, 23, 23, 20, 22, 22, 22, 23, 22, 22, 23,
+        26, 26, 20, 19, 22, 23, 22, 25, 26, 26, 26, 27, 27, 26, 24, 25,
+        19, 21, 26, 27, 27, 26, 27, 24, 21, 21, 26, 26, 28, 27, 27, 27,
+        20, 24, 20, 21, 22, 21, 21, 23, 22, 22, 25, 25, 24, 24, 26, 23,
+        26, 27, 26, 26, 27, 27, 27, 27, 27, 28, 27, 27, 27, 27, 27, 26,
+        30,
+    };
+
+    /**
+     * End of string symbol.
+     */
+    private static final int EOS = 256;
+
+    /**
+     * Codes of octets 0..255 and EOS.
+     */
+    private static final int[] CODES = Huffman.codes();
+
+    /**
+     * Decoding tree.
+     *
+     * <p>Children of node N are at 2N and 2N+1, for bits 0 and 1. A positive
+     * child is another node, a negative one is a leaf with the symbol
+     * -(child + 1).
+     */
+    private static final int[] TREE = Huffman.tree();
+
+    /**
+     * Length of the octets, once encoded.
+     * @param octets Octets
+     * @return Length in bytes
+     */
+    public int length(final byte[] octets) {
+        long bits = 0L;
+        for (final byte octet : octets) {
+            bits += (long) Huffman.LENGTHS[octet & 0xff];
+        }
+        return (int) ((bits + 7L) >> 3);
+    }
+
+    /**
+     * Encode the octets.
+     * @param octets Octets
+     * @param out Where to write the code
+     */
+    public void encode(final byte[] octets, final ByteArrayOutputStream out) {
+        long current = 0L;
+        int bits = 0;
+        for (final byte octet : octets) {
+            final int sym = octet & 0xff;
+            current = current << Huffman.LENGTHS[sym]
+                | (long) Huffman.CODES[sym];
+            bits += Huffman.LENGTHS[sym];
+            while (bits >= 8) {
+                bits -= 8;
+                out.write((int) (current >> bits));
+            }
+        }
+        if (bits > 0) {
+            out.write((int) (current << 8 - bits | 0xff >>> bits));
+        }
+    }
+
+    /**
+     * Decode the code.
+     * @param src Source
+     * @param off Offset of the code in the source
+     * @param len Length of the code
+     * @return Octets
+     * @throws H2Exception If the code is broken
+     */
+    public byte[] decode(final byte[] src, final int off, final int len)
+        throws H2Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(len << 1);
+        int node = 0;
+        int depth = 0;
+        boolean ones = true;
+        for (int idx = off; idx < off + len; ++idx) {
+            for (int bit = 7; bit >= 0; --bit) {
+                final int one = src[idx] >> bit & 1;
+                final int next = Huffman.TREE[(node << 1) + one];
+                if (next < 0) {
+                    final int sym = -(next + 1);
+                    if (sym == Huffman.EOS) {
+                        throw new H2Exception(
+                            H2Exception.COMPRESSION, "EOS in Huffman code"
+                        );
+                    }
+                    out.write(sym);
+                    node = 0;
+                    depth = 0;
+                    ones = true;
+                } else {
+                    node = next;
+                    ++depth;
+                    ones = ones && one == 1;
+                }
+            }
+        }
+        if (depth > 7 || !ones) {
+            throw new H2Exception(
+                H2Exception.COMPRESSION, "broken padding of Huffman code"
+            );
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Build canonical codes from their lengths.
+     * @return Codes
+     */
+    private static int[] codes() {
+        final int[] codes = new int[Huffman.LENGTHS.length];
+        int code = 0;
+        int prev = 0;
+        for (int len = 1; len <= 30; ++len) {
+            for (int sym = 0; sym < Huffman.LENGTHS.length; ++sym) {
+                if (Huffman.LENGTHS[sym] == len) {
+                    code <<= len - prev;
+                    prev = len;
+                    codes[sym] = code;
+                    ++code;
+                }
+            }
+        }
+        return codes;
+    }
+
+    /**
+     * Build decoding tree from the codes.
+     * @return Tree
+     */
+    private static int[] tree() {
+        final int[] tree = new int[Huffman.LENGTHS.length << 1];
+        int nodes = 1;
+        for (int sym = 0; sym < Huffman.LENGTHS.length; ++sym) {
+            int node = 0;
+            for (int bit = Huffman.LENGTHS[sym] - 1; bit > 0; --bit) {
+                final int pos = (node << 1) + (Huffman.CODES[sym] >> bit & 1);
+                if (tree[pos] == 0) {
+                    tree[pos] = nodes;
+                    ++nodes;
+                }
+                node = tree[pos];
+            }
+            tree[(node << 1) + (Huffman.CODES[sym] & 1)] = -(sym + 1);
+        }
+        return tree;
+    }
+}
@@ -0,0 +1,182 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.takes.misc;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Content codings accepted by a client, according to
+ * {@code Accept-Encoding} HTTP headers.
+ *
+ * <p>Each coding may have a quality value, like {@code "gzip;q=0.8"},
+ * which is 1 if absent. Quality 0 means that the coding is not acceptable.
+ * Asterisk matches all codings not mentioned explicitly and
+ * {@code "identity"} is acceptable, unless excluded, according to
+ * RFC 7231, section 5.3.4. Items with broken quality values are ignored.
+ *
+ * <p>The class is immutable and thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class AcceptEncoding {
+
+    /**
+     * The highest quality.
+     */
+    private static final int BEST = 1000;
+
+    /**
+     * Separator of items.
+     */
+    private static final Pattern ITEMS = Pattern.compile("\\s*,\\s*");
+
+    /**
+     * One item: coding and optional parameters.
+     */
+    private static final Pattern ITEM = Pattern.compile(
+        "([^;\\s]+)\\s*((?:;[^;]*)*)"
+    );
+
+    /**
+     * Quality parameter.
+     */
+    private static final Pattern QUALITY = Pattern.compile(
+        ";\\s*q\\s*=\\s*([^;]*)"
+    );
+
+    /**
+     * Valid quality value.
+     */
+    private static final Pattern QVALUE = Pattern.compile(
+        "0(?:\\.\\d{0,3})?|1(?:\\.0{0,3})?"
+    );
+
+    /**
+     * Values of the headers.
+     */
+    private final Iterable<String> headers;
+
+    /**
+     * Ctor.
+     * @param values Values of Accept-Encoding headers
+     */
+    public AcceptEncoding(final Iterable<String> values) {
+        this.headers = values;
+    }
+
+    /**
+     * Is this coding acceptable?
+     * @param coding Content coding, like "gzip"
+     * @return TRUE if its quality is above zero
+     */
+    public boolean accepts(final String coding) {
+        return this.quality(coding) > 0;
+    }
+
+    /**
+     * Does the client tell the quality of this coding, explicitly or by
+     * asterisk?
+     * @param coding Content coding, like "identity"
+     * @return TRUE if it does
+     */
+    public boolean mentions(final String coding) {
+        final Map<String, Integer> map = this.parse();
+        return map.containsKey(AcceptEncoding.normal(coding))
+            || map.containsKey("*");
+    }
+
+    /**
+     * Quality of the coding.
+     * @param coding Content coding, like "gzip"
+     * @return Quality, in thousandths, from 0 to 1000
+     */
+    public int quality(final String coding) {
+        final Map<String, Integer> map = this.parse();
+        final String name = AcceptEncoding.normal(coding);
+        final int quality;
+        if (map.containsKey(name)) {
+            quality = map.get(name);
+        } else if (map.containsKey("*")) {
+            quality = map.get("*");
+        } else if ("identity".equals(name)) {
+            quality = AcceptEncoding.BEST;
+        } else {
+            quality = 0;
+        }
+        return quality;
+    }
+
+    /**
+     * Parse all headers.
+     * @return Qualities of codings mentioned
+     */
+    private Map<String, Integer> parse() {
+        final Map<String, Integer> map = new HashMap<>(0);
+        for (final String header : this.headers) {
+            final String[] items = AcceptEncoding.ITEMS.split(header.trim());
+            for (final String item : items) {
+                final Matcher matcher = AcceptEncoding.ITEM.matcher(item);
+                if (!matcher.matches()) {
+                    continue;
+                }
+                final Matcher param = AcceptEncoding.QUALITY.matcher(
+                    new EnglishLowerCase(matcher.group(2)).string()
+                );
+                final int quality;
+                if (param.find()) {
+                    final String value = param.group(1).trim();
+                    if (!AcceptEncoding.QVALUE.matcher(value).matches()) {
+                        continue;
+                    }
+                    quality = (int) Math.round(
+                        Double.parseDouble(value) * AcceptEncoding.BEST
+                    );
+                } else {
+                    quality = AcceptEncoding.BEST;
+                }
+                map.put(AcceptEncoding.normal(matcher.group(1)), quality);
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Normalize a coding name.
+     * @param coding Content coding
+     * @return Lower case name, without "x-" prefix of old aliases
+     */
+    private static String normal(final String coding) {
+        String name = new EnglishLowerCase(coding.trim()).string();
+        if ("x-gzip".equals(name) || "x-compress".equals(name)) {
+            name = name.substring(2);
+        }
+        return name;
+    }
+
+}
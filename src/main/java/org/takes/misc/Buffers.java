@@ -0,0 +1,129 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.takes.misc;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Pool of byte buffers, reused by request and response streams.
+ *
+ * <p>Every thread keeps one buffer for itself, which is enough when
+ * a thread copies one stream at a time. Other buffers returned to the
+ * pool go to a global queue, bounded by the number of buffers it may
+ * hold; buffers that don't fit into it are left to the garbage collector.
+ * When both the thread and the queue are empty, a new buffer is
+ * allocated, so {@link #take()} never blocks.
+ *
+ * <p>A buffer taken from the pool must be given back by
+ * {@link #give(byte[])} at most once and must not be used afterwards,
+ * for example:
+ *
+ * <pre> final byte[] buf = Buffers.SHARED.take();
+ * try {
+ *   // read into buf and write from it
+ * } finally {
+ *   Buffers.SHARED.give(buf);
+ * }</pre>
+ *
+ * <p>The class is thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class Buffers {
+
+    /**
+     * The pool shared by all streams, with buffers of 8 KB.
+     */
+    public static final Buffers SHARED = new Buffers(8192, 256);
+
+    /**
+     * Size of a buffer.
+     */
+    private final int size;
+
+    /**
+     * Buffers of threads.
+     */
+    private final ThreadLocal<byte[]> local;
+
+    /**
+     * Buffers available to all threads.
+     */
+    private final BlockingQueue<byte[]> queue;
+
+    /**
+     * Ctor.
+     * @param bytes Size of a buffer
+     * @param max Maximum number of buffers in the global queue
+     */
+    public Buffers(final int bytes, final int max) {
+        this.size = bytes;
+        this.local = new ThreadLocal<>();
+        this.queue = new ArrayBlockingQueue<>(max);
+    }
+
+    /**
+     * Size of buffers of this pool.
+     * @return Bytes
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Take a buffer.
+     * @return Buffer, its content is not cleared
+     */
+    public byte[] take() {
+        byte[] buf = this.local.get();
+        if (buf == null) {
+            buf = this.queue.poll();
+        } else {
+            this.local.remove();
+        }
+        if (buf == null) {
+            buf = new byte[this.size];
+        }
+        return buf;
+    }
+
+    /**
+     * Give the buffer back to the pool.
+     * @param buf Buffer taken by {@link #take()}
+     */
+    public void give(final byte[] buf) {
+        if (buf.length == this.size) {
+            if (this.local.get() == null) {
+                this.local.set(buf);
+            } else {
+                this.queue.offer(buf);
+            }
+        }
+    }
+
+}
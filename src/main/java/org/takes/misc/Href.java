@@ -35,11 +35,17 @@ import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Pattern;
 
 /**
  * HTTP URI/HREF.
  *
+ * <p>The text of the link is parsed lazily. The path is sliced out of
+ * the text without {@link URI}, if it contains nothing that URI would
+ * encode or decode, and query params are decoded only on the first
+ * call of {@link #param(Object)}.
+ *
  * <p>The class is immutable and thread-safe.
  * @author Yegor Bugayenko (yegor256@gmail.com)
  * @version $Id$
@@ -60,19 +66,29 @@ public final class Href implements CharSequence {
     private static final Pattern TRAILING_SLASH = Pattern.compile("/$");
 
     /**
-     * URI (without query and fragment parts).
+     * Characters, which may be in a path as is, without encoding.
+     */
+    private static final String SAFE = "-_.!~*'(),;:$&+=/@";
+
+    /**
+     * Text of the link.
      */
-    private final URI uri;
+    private final String text;
 
     /**
-     * Params.
+     * URI (without query and fragment parts), parsed on demand.
      */
-    private final SortedMap<String, List<String>> params;
+    private final AtomicReference<URI> uri;
 
     /**
-     * Fragment.
+     * Params, parsed on demand.
      */
-    private final Opt<String> fragment;
+    private final AtomicReference<SortedMap<String, List<String>>> params;
+
+    /**
+     * Fragment, parsed on demand.
+     */
+    private final AtomicReference<Opt<String>> fragment;
 
     /**
      * Ctor.
@@ -86,16 +102,10 @@ public final class Href implements CharSequence {
      * @param txt Text of the link
      */
     public Href(final CharSequence txt) {
-        this(Href.createUri(txt.toString()));
-    }
-
-    /**
-     * Ctor.
-     * @param link The link
-     */
-    private Href(final URI link) {
-        this(Href.createBare(link), Href.asMap(link.getRawQuery()),
-            Href.readFragment(link));
+        this.text = txt.toString();
+        this.uri = new AtomicReference<>();
+        this.params = new AtomicReference<>();
+        this.fragment = new AtomicReference<>();
     }
 
     /**
@@ -107,9 +117,10 @@ public final class Href implements CharSequence {
     private Href(final URI link,
         final SortedMap<String, List<String>> map,
         final Opt<String> frgmnt) {
-        this.uri = link;
-        this.params = map;
-        this.fragment = frgmnt;
+        this.text = link.toString();
+        this.uri = new AtomicReference<>(link);
+        this.params = new AtomicReference<>(map);
+        this.fragment = new AtomicReference<>(frgmnt);
     }
 
     @Override
@@ -130,10 +141,11 @@ public final class Href implements CharSequence {
     @Override
     public String toString() {
         final StringBuilder text = new StringBuilder(this.bare());
-        if (!this.params.isEmpty()) {
+        final SortedMap<String, List<String>> map = this.params();
+        if (!map.isEmpty()) {
             boolean first = true;
             for (final Map.Entry<String, List<String>> ent
-                : this.params.entrySet()) {
+                : map.entrySet()) {
                 for (final String value : ent.getValue()) {
                     if (first) {
                         text.append('?');
@@ -148,9 +160,10 @@ public final class Href implements CharSequence {
                 }
             }
         }
-        if (this.fragment.has()) {
+        final Opt<String> frgmnt = this.fragment();
+        if (frgmnt.has()) {
             text.append('#');
-            text.append(this.fragment.get());
+            text.append(frgmnt.get());
         }
         return text.toString();
     }
@@ -161,7 +174,28 @@ public final class Href implements CharSequence {
      * @since 0.9
      */
     public String path() {
-        return this.uri.getPath();
+        final int start = Href.pathStart(this.text);
+        int end = start;
+        while (end >= 0 && end < this.text.length()) {
+            final char chr = this.text.charAt(end);
+            if (chr == '?' || chr == '#') {
+                break;
+            }
+            // @checkstyle MagicNumber (1 line)
+            if (chr > 0x7f || (!Character.isLetterOrDigit(chr)
+                && Href.SAFE.indexOf(chr) < 0)) {
+                end = -1;
+            } else {
+                ++end;
+            }
+        }
+        final String path;
+        if (end < 0) {
+            path = this.uri().getPath();
+        } else {
+            path = this.text.substring(start, end);
+        }
+        return path;
     }
 
     /**
@@ -170,8 +204,9 @@ public final class Href implements CharSequence {
      * @since 0.14
      */
     public String bare() {
-        final StringBuilder text = new StringBuilder(this.uri.toString());
-        if (this.uri.getPath().isEmpty()) {
+        final URI link = this.uri();
+        final StringBuilder text = new StringBuilder(link.toString());
+        if (link.getPath().isEmpty()) {
             text.append('/');
         }
         return text.toString();
@@ -184,14 +219,15 @@ public final class Href implements CharSequence {
      * @since 0.9
      */
     public Iterable<String> param(final Object key) {
-        final List<String> values = this.params.get(key.toString());
+        final SortedMap<String, List<String>> map = this.params();
+        final List<String> values = map.get(key.toString());
         final Iterable<String> iter;
         if (values == null) {
             iter = new VerboseIterable<String>(
                 Collections.<String>emptyList(),
                 String.format(
                     "there are no URI params by name \"%s\" among %d others",
-                    key, this.params.size()
+                    key, map.size()
                 )
             );
         } else {
@@ -215,14 +251,14 @@ public final class Href implements CharSequence {
         return new Href(
             URI.create(
                 new StringBuilder(
-                    Href.TRAILING_SLASH.matcher(this.uri.toString())
+                    Href.TRAILING_SLASH.matcher(this.uri().toString())
                         .replaceAll("")
                 )
                 .append('/')
                 .append(Href.encode(suffix.toString())).toString()
             ),
-            this.params,
-            this.fragment
+            this.params(),
+            this.fragment()
         );
     }
 
@@ -233,12 +269,13 @@ public final class Href implements CharSequence {
      * @return New HREF
      */
     public Href with(final Object key, final Object value) {
-        final SortedMap<String, List<String>> map = new TreeMap<>(this.params);
+        final SortedMap<String, List<String>> map =
+            new TreeMap<>(this.params());
         if (!map.containsKey(key.toString())) {
             map.put(key.toString(), new LinkedList<String>());
         }
         map.get(key.toString()).add(value.toString());
-        return new Href(this.uri, map, this.fragment);
+        return new Href(this.uri(), map, this.fragment());
     }
 
     /**
@@ -247,9 +284,115 @@ public final class Href implements CharSequence {
      * @return New HREF
      */
     public Href without(final Object key) {
-        final SortedMap<String, List<String>> map = new TreeMap<>(this.params);
+        final SortedMap<String, List<String>> map =
+            new TreeMap<>(this.params());
         map.remove(key.toString());
-        return new Href(this.uri, map, this.fragment);
+        return new Href(this.uri(), map, this.fragment());
+    }
+
+    /**
+     * URI without query and fragment, parsed on first call.
+     * @return URI
+     */
+    private URI uri() {
+        if (this.uri.get() == null) {
+            final URI full = Href.createUri(this.text);
+            this.fragment.compareAndSet(null, Href.readFragment(full));
+            this.uri.compareAndSet(null, Href.createBare(full));
+        }
+        return this.uri.get();
+    }
+
+    /**
+     * Query params, decoded on first call.
+     * @return Params
+     */
+    private SortedMap<String, List<String>> params() {
+        if (this.params.get() == null) {
+            SortedMap<String, List<String>> map;
+            try {
+                map = Href.asMap(Href.rawQuery(this.text));
+            } catch (final IllegalArgumentException ex) {
+                map = Href.asMap(Href.createUri(this.text).getRawQuery());
+            }
+            this.params.compareAndSet(null, map);
+        }
+        return this.params.get();
+    }
+
+    /**
+     * Fragment, parsed on first call.
+     * @return Fragment
+     */
+    private Opt<String> fragment() {
+        if (this.fragment.get() == null) {
+            this.uri();
+        }
+        return this.fragment.get();
+    }
+
+    /**
+     * Position of the path in the text of the link, if the link is
+     * hierarchical and its path can be sliced out of it.
+     * @param txt Text of the link
+     * @return Position or -1, if the text must be parsed by URI
+     */
+    private static int pathStart(final String txt) {
+        int start = -1;
+        if (txt.startsWith("//")) {
+            start = Href.authorityEnd(txt, 2);
+        } else if (!txt.isEmpty() && txt.charAt(0) == '/') {
+            start = 0;
+        } else {
+            final int colon = txt.indexOf("://");
+            boolean scheme = colon > 0 && Character.isLetter(txt.charAt(0));
+            for (int pos = 0; scheme && pos < colon; ++pos) {
+                final char chr = txt.charAt(pos);
+                // @checkstyle MagicNumber (1 line)
+                scheme = chr < 0x80 && (Character.isLetterOrDigit(chr)
+                    || chr == '+' || chr == '-' || chr == '.');
+            }
+            if (scheme) {
+                start = Href.authorityEnd(txt, colon + 3);
+            }
+        }
+        return start;
+    }
+
+    /**
+     * Find where the authority ends.
+     * @param txt Text of the link
+     * @param start Where the authority starts
+     * @return Position of the first character after it
+     */
+    private static int authorityEnd(final String txt, final int start) {
+        int end = start;
+        while (end < txt.length() && "/?#".indexOf(txt.charAt(end)) < 0) {
+            ++end;
+        }
+        return end;
+    }
+
+    /**
+     * Slice the raw query out of the text of the link.
+     * @param txt Text of the link
+     * @return Query or NULL if there is none
+     */
+    private static String rawQuery(final String txt) {
+        int end = txt.indexOf('#');
+        if (end < 0) {
+            end = txt.length();
+        }
+        final int start = txt.indexOf('?');
+        final String query;
+        if (Href.pathStart(txt) < 0) {
+            query = Href.createUri(txt).getRawQuery();
+        } else if (start < 0 || start > end) {
+            query = null;
+        } else {
+            query = txt.substring(start + 1, end);
+        }
+        return query;
     }
 
     /**
@@ -0,0 +1,167 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.takes.rq;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import org.takes.HttpException;
+import org.takes.Request;
+import org.takes.misc.EnglishLowerCase;
+import org.takes.misc.Href;
+
+/**
+ * Head of a request with an index of its headers.
+ *
+ * <p>The lines are copied once, when the head is created. The index of
+ * headers by their lower-case names is built on the first call
+ * of {@link #headers()} and then reused by every {@link RqHeaders.Base}
+ * created around the same request. The same way, {@link #href(Request)}
+ * parses the HREF of the request only once for {@link RqHref.Base}.
+ *
+ * <p>The class is immutable and thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+final class IndexedHead extends AbstractList<String> {
+
+    /**
+     * Lines of the head.
+     */
+    private final List<String> lines;
+
+    /**
+     * Index of headers, built on demand.
+     */
+    private volatile Map<String, List<String>> index;
+
+    /**
+     * HREF of the request, built on demand.
+     */
+    private volatile Href link;
+
+    /**
+     * Ctor.
+     * @param head Lines of the head
+     */
+    IndexedHead(final Iterable<String> head) {
+        super();
+        final List<String> copy = new ArrayList<>(0);
+        for (final String line : head) {
+            copy.add(line);
+        }
+        this.lines = Collections.unmodifiableList(copy);
+    }
+
+    @Override
+    public String get(final int idx) {
+        return this.lines.get(idx);
+    }
+
+    @Override
+    public int size() {
+        return this.lines.size();
+    }
+
+    /**
+     * Headers by their lower-case names.
+     * @return Immutable map of headers
+     * @throws HttpException If the head is broken
+     */
+    public Map<String, List<String>> headers() throws HttpException {
+        Map<String, List<String>> map = this.index;
+        if (map == null) {
+            map = IndexedHead.parse(this.lines);
+            this.index = map;
+        }
+        return map;
+    }
+
+    /**
+     * HREF of the request this head belongs to.
+     * @param req The request
+     * @return HREF
+     * @throws IOException If the head is broken
+     */
+    public Href href(final Request req) throws IOException {
+        Href href = this.link;
+        if (href == null) {
+            href = RqHref.Base.parse(req);
+            this.link = href;
+        }
+        return href;
+    }
+
+    /**
+     * Parse headers into a map.
+     * @param head Lines of the head
+     * @return Immutable map of headers by their lower-case names
+     * @throws HttpException If the head is broken
+     */
+    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+    static Map<String, List<String>> parse(final Iterable<String> head)
+        throws HttpException {
+        final Iterator<String> lines = head.iterator();
+        if (!lines.hasNext()) {
+            throw new HttpException(
+                HttpURLConnection.HTTP_BAD_REQUEST,
+                "a valid request must contain at least one line in the head"
+            );
+        }
+        lines.next();
+        final Map<String, List<String>> map = new HashMap<>(0);
+        while (lines.hasNext()) {
+            final String line = lines.next();
+            final int colon = line.indexOf(':');
+            if (colon < 0) {
+                throw new HttpException(
+                    HttpURLConnection.HTTP_BAD_REQUEST,
+                    String.format("invalid HTTP header: \"%s\"", line)
+                );
+            }
+            final String key = new EnglishLowerCase(
+                line.substring(0, colon).trim()
+            ).string();
+            List<String> values = map.get(key);
+            if (values == null) {
+                values = new ArrayList<>(1);
+                map.put(key, values);
+            }
+            values.add(line.substring(colon + 1).trim());
+        }
+        for (final Map.Entry<String, List<String>> ent : map.entrySet()) {
+            ent.setValue(Collections.unmodifiableList(ent.getValue()));
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+}
@@ -0,0 +1,434 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.takes.rq;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import lombok.EqualsAndHashCode;
+import org.takes.HttpException;
+import org.takes.Request;
+
+/**
+ * Live request, with the head read from the stream in bulk.
+ *
+ * <p>Works exactly like {@link RqLive}, but instead of reading the
+ * head byte by byte it reads the stream in blocks and scans them
+ * for line ends, validating characters in the same pass. The stream
+ * is marked before the head is read and then reset to the first byte
+ * after the head, so no bytes of the body (or of the next request
+ * in the same connection) are lost. If the stream doesn't support
+ * marks it is wrapped into a {@link BufferedInputStream}, which then
+ * becomes the body of the request.
+ *
+ * <p>The head is limited while it is read: if it is longer than the
+ * given number of bytes, has too many headers or a too long header line,
+ * HTTP 431 is thrown, while a too long Request-Line causes HTTP 414.
+ * By default the head is limited to 64 KB, 100 headers and 8 KB
+ * per line.
+ *
+ * <p>The class is immutable and thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@EqualsAndHashCode(callSuper = true)
+public final class RqBulk extends RqWrap {
+
+    /**
+     * Status code of a head that is too large.
+     */
+    private static final int HEAD_TOO_LARGE = 431;
+
+    /**
+     * Ctor.
+     * @param input Input stream
+     * @throws IOException If fails
+     */
+    public RqBulk(final InputStream input) throws IOException {
+        // @checkstyle MagicNumber (1 line)
+        this(input, 65536, 100, 8192);
+    }
+
+    /**
+     * Ctor.
+     * @param input Input stream
+     * @param head Maximum size of the head, in bytes
+     * @param headers Maximum number of headers
+     * @param line Maximum length of a line, in bytes
+     * @throws IOException If fails
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    public RqBulk(final InputStream input, final int head, final int headers,
+        final int line) throws IOException {
+        super(
+            RqBulk.parse(
+                RqBulk.markable(input),
+                new RqBulk.Scan(head, headers, line)
+            )
+        );
+    }
+
+    /**
+     * Parse input stream.
+     * @param input Input stream, which supports marks
+     * @param scan Scanner of the head
+     * @return Request
+     * @throws IOException If fails
+     */
+    private static Request parse(final InputStream input,
+        final RqBulk.Scan scan) throws IOException {
+        input.mark(scan.limit());
+        while (!scan.done()) {
+            scan.feed(input);
+        }
+        input.reset();
+        long skip = (long) scan.consumed();
+        while (skip > 0L) {
+            final long skipped = input.skip(skip);
+            if (skipped <= 0L) {
+                throw new IOException("can't skip the head of the request");
+            }
+            skip -= skipped;
+        }
+        final List<String> head = scan.lines();
+        return new Request() {
+            @Override
+            public Iterable<String> head() {
+                return head;
+            }
+            @Override
+            public InputStream body() {
+                return input;
+            }
+        };
+    }
+
+    /**
+     * Make sure the stream supports marks.
+     * @param input Input stream
+     * @return Stream that supports marks
+     */
+    private static InputStream markable(final InputStream input) {
+        final InputStream markable;
+        if (input.markSupported()) {
+            markable = input;
+        } else {
+            markable = new BufferedInputStream(input);
+        }
+        return markable;
+    }
+
+    /**
+     * Scanner of the head.
+     *
+     * <p>The class is mutable and NOT thread-safe.
+     */
+    private static final class Scan {
+        /**
+         * Bytes read so far.
+         */
+        private byte[] buf;
+        /**
+         * Position after the last byte read.
+         */
+        private int end;
+        /**
+         * Position of the next byte to scan.
+         */
+        private int pos;
+        /**
+         * Start of the current segment of the current line.
+         */
+        private int seg;
+        /**
+         * Previous segments of a multi-line header.
+         */
+        private final StringBuilder folded;
+        /**
+         * Lines found.
+         */
+        private final List<String> found;
+        /**
+         * Bytes of the head, including the empty line, or -1 if the end
+         * of the head is not found yet.
+         */
+        private int total;
+        /**
+         * Maximum size of the head.
+         */
+        private final int max;
+        /**
+         * Maximum number of headers.
+         */
+        private final int count;
+        /**
+         * Maximum length of a line.
+         */
+        private final int width;
+        /**
+         * Ctor.
+         * @param head Maximum size of the head, in bytes
+         * @param headers Maximum number of headers
+         * @param line Maximum length of a line, in bytes
+         */
+        Scan(final int head, final int headers, final int line) {
+            // @checkstyle MagicNumber (1 line)
+            this.buf = new byte[Math.min(1024, head)];
+            this.folded = new StringBuilder(0);
+            // @checkstyle MagicNumber (1 line)
+            this.found = new ArrayList<>(16);
+            this.total = -1;
+            this.max = head;
+            this.count = headers;
+            this.width = line;
+        }
+        /**
+         * Maximum size of the head.
+         * @return Bytes
+         */
+        public int limit() {
+            return this.max;
+        }
+        /**
+         * Is the head found?
+         * @return TRUE if it is
+         */
+        public boolean done() {
+            return this.total >= 0;
+        }
+        /**
+         * How many bytes the head takes.
+         * @return Total bytes
+         */
+        public int consumed() {
+            return this.total;
+        }
+        /**
+         * Lines of the head.
+         * @return Lines
+         */
+        public List<String> lines() {
+            return this.found;
+        }
+        /**
+         * Read the next block from the stream and scan it.
+         * @param input Input stream
+         * @throws IOException If fails
+         */
+        public void feed(final InputStream input) throws IOException {
+            if (this.end == this.buf.length) {
+                if (this.buf.length >= this.max) {
+                    throw new HttpException(
+                        RqBulk.HEAD_TOO_LARGE,
+                        String.format(
+                            "HTTP head is longer than %d bytes", this.max
+                        )
+                    );
+                }
+                this.buf = Arrays.copyOf(
+                    this.buf, Math.min(this.buf.length << 1, this.max)
+                );
+            }
+            final int read = input.read(
+                this.buf, this.end, this.buf.length - this.end
+            );
+            if (read < 0) {
+                this.finish();
+            } else {
+                this.end += read;
+                this.scan();
+            }
+        }
+        /**
+         * Scan the bytes read so far, until more bytes are needed.
+         * @throws HttpException If the head is broken
+         */
+        private void scan() throws HttpException {
+            while (this.total < 0 && this.pos < this.end) {
+                final int chr = this.buf[this.pos] & 0xff;
+                if (chr == '\r') {
+                    if (this.pos + 1 >= this.end) {
+                        break;
+                    }
+                    this.lineFeed();
+                    if (this.pos == this.seg && this.folded.length() == 0) {
+                        this.pos += 2;
+                        this.seg = this.pos;
+                        if (!this.found.isEmpty()) {
+                            this.total = this.pos;
+                        }
+                    } else {
+                        if (this.pos + 2 >= this.end) {
+                            break;
+                        }
+                        final int next = this.buf[this.pos + 2];
+                        this.line(next == ' ' || next == '\t');
+                    }
+                } else {
+                    this.legal(chr);
+                    ++this.pos;
+                    this.wide();
+                }
+            }
+        }
+        /**
+         * End of stream reached.
+         * @throws IOException If the head is broken or empty
+         */
+        private void finish() throws IOException {
+            if (this.pos < this.end) {
+                this.lineFeed();
+                this.line(false);
+            } else if (this.seg < this.end || this.folded.length() > 0) {
+                this.folded.append(this.segment(this.end));
+                this.add(this.folded.toString());
+            }
+            if (this.found.isEmpty()) {
+                throw new IOException("empty request");
+            }
+            this.total = this.end;
+        }
+        /**
+         * Finish the current segment, which ends with CRLF at the current
+         * position.
+         * @param fold TRUE if the next line continues this one
+         * @throws HttpException If there are too many lines
+         */
+        private void line(final boolean fold) throws HttpException {
+            if (fold) {
+                this.folded.append(this.segment(this.pos));
+            } else if (this.folded.length() == 0) {
+                this.add(this.segment(this.pos));
+            } else {
+                this.folded.append(this.segment(this.pos));
+                this.add(this.folded.toString());
+                this.folded.setLength(0);
+            }
+            this.pos += 2;
+            this.seg = this.pos;
+        }
+        /**
+         * Add a complete line, if there are not too many of them.
+         * @param text The line
+         * @throws HttpException If there are too many
+         */
+        private void add(final String text) throws HttpException {
+            if (this.found.size() > this.count) {
+                throw new HttpException(
+                    RqBulk.HEAD_TOO_LARGE,
+                    String.format(
+                        "HTTP head has more than %d headers", this.count
+                    )
+                );
+            }
+            this.found.add(text);
+        }
+        /**
+         * Check that the current line is not too long.
+         * @throws HttpException If it is
+         */
+        private void wide() throws HttpException {
+            if (this.pos - this.seg + this.folded.length() > this.width) {
+                final int code;
+                if (this.found.isEmpty()) {
+                    code = HttpURLConnection.HTTP_REQ_TOO_LONG;
+                } else {
+                    code = RqBulk.HEAD_TOO_LARGE;
+                }
+                throw new HttpException(
+                    code,
+                    String.format(
+                        "line #%d of HTTP head is longer than %d bytes",
+                        this.found.size() + 1,
+                        this.width
+                    )
+                );
+            }
+        }
+        /**
+         * Check that the CR at the current position is followed by LF.
+         * @throws HttpException If it is not
+         */
+        private void lineFeed() throws HttpException {
+            if (this.pos + 1 >= this.end || this.buf[this.pos + 1] != '\n') {
+                throw new HttpException(
+                    HttpURLConnection.HTTP_BAD_REQUEST,
+                    String.format(
+                        "there is no LF after CR in header, line #%d: \"%s\"",
+                        this.found.size() + 1,
+                        this.current()
+                    )
+                );
+            }
+        }
+        /**
+         * Check that the character is legal in the head.
+         * @param chr Character
+         * @throws HttpException If it is not
+         */
+        private void legal(final int chr) throws HttpException {
+            // @checkstyle MagicNumber (1 line)
+            if ((chr > 0x7f || chr < 0x20) && chr != '\t') {
+                throw new HttpException(
+                    HttpURLConnection.HTTP_BAD_REQUEST,
+                    String.format(
+                        // @checkstyle LineLength (1 line)
+                        "illegal character 0x%02X in HTTP header line #%d: \"%s\"",
+                        chr,
+                        this.found.size() + 1,
+                        this.current()
+                    )
+                );
+            }
+        }
+        /**
+         * The current line, as read so far.
+         * @return Text
+         */
+        private String current() {
+            return new StringBuilder(this.folded)
+                .append(this.segment(this.pos))
+                .toString();
+        }
+        /**
+         * Text of the current segment, up to the given position.
+         * @param upto Position after the last character
+         * @return Text
+         */
+        private String segment(final int upto) {
+            // All characters are validated to be ASCII, no need for UTF-8
+            return new String(
+                this.buf, this.seg, upto - this.seg,
+                StandardCharsets.ISO_8859_1
+            );
+        }
+    }
+}
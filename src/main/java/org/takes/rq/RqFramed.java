@@ -0,0 +1,394 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.takes.rq;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.util.List;
+import java.util.Locale;
+import lombok.EqualsAndHashCode;
+import org.takes.HttpException;
+import org.takes.Request;
+
+/**
+ * Request decorator, which body ends where the message ends.
+ *
+ * <p>The length of the body is found as RFC 7230, section 3.3.3, says:
+ * a chunked body ends after its last chunk and trailer, otherwise
+ * the body is as long as its {@code Content-Length} header says, and
+ * it's empty when there is no such header. The bytes of the body are not
+ * changed, chunks stay chunked, but nothing is read from the original
+ * stream after the end of the message. Thus, when requests come one
+ * after another through the same connection, the next request starts
+ * right where this body ends, as soon as the body is read to the end.
+ *
+ * <p>HTTP 400 is thrown by the constructor, if the request has both
+ * {@code Transfer-Encoding} and {@code Content-Length} headers, since
+ * such a request can't be framed safely, if the last transfer coding is
+ * not chunked, or if the length is not valid. HTTP 400 is thrown by
+ * the body, when a chunk is broken.
+ *
+ * <p>The body is created once and returned by each call of
+ * {@link #body()}. Closing it doesn't close the original stream, since
+ * the stream belongs to the connection.
+ *
+ * <p>The class is immutable and thread-safe, but its body is not.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@EqualsAndHashCode(callSuper = true)
+public final class RqFramed extends RqWrap {
+
+    /**
+     * Ctor.
+     * @param req Original request
+     * @throws IOException If fails or the request can't be framed
+     */
+    public RqFramed(final Request req) throws IOException {
+        super(RqFramed.framed(req));
+    }
+
+    /**
+     * Frame the body.
+     * @param req Original request
+     * @return Request
+     * @throws IOException If fails
+     */
+    private static Request framed(final Request req) throws IOException {
+        final RqHeaders headers = new RqHeaders.Base(req);
+        final List<String> codings = headers.header("Transfer-Encoding");
+        final List<String> lengths = headers.header("Content-Length");
+        final InputStream body;
+        if (codings.isEmpty()) {
+            body = new RqFramed.Fixed(req.body(), RqFramed.length(lengths));
+        } else if (lengths.isEmpty() && RqFramed.chunked(codings)) {
+            body = new RqFramed.Chunked(req.body());
+        } else {
+            throw new HttpException(
+                HttpURLConnection.HTTP_BAD_REQUEST,
+                String.format(
+                    "can't find the end of the body with %s and %s",
+                    codings, lengths
+                )
+            );
+        }
+        return new Request() {
+            @Override
+            public Iterable<String> head() throws IOException {
+                return req.head();
+            }
+            @Override
+            public InputStream body() {
+                return body;
+            }
+        };
+    }
+
+    /**
+     * Is the last transfer coding chunked?
+     * @param codings Values of Transfer-Encoding headers
+     * @return TRUE if it is
+     */
+    private static boolean chunked(final List<String> codings) {
+        final String last = codings.get(codings.size() - 1);
+        return "chunked".equals(
+            last.substring(last.lastIndexOf(',') + 1)
+                .trim().toLowerCase(Locale.ENGLISH)
+        );
+    }
+
+    /**
+     * Length of the body, from Content-Length headers, which must
+     * all be the same.
+     * @param lengths Values of Content-Length headers
+     * @return Length, zero if there are no headers
+     * @throws HttpException If the length is not valid
+     */
+    private static long length(final List<String> lengths)
+        throws HttpException {
+        long length = 0L;
+        String found = null;
+        for (final String header : lengths) {
+            for (final String value : header.split(",")) {
+                final String trimmed = value.trim();
+                if (!trimmed.matches("\\d{1,18}")
+                    || found != null && !found.equals(trimmed)) {
+                    throw new HttpException(
+                        HttpURLConnection.HTTP_BAD_REQUEST,
+                        String.format(
+                            "invalid Content-Length: %s", lengths
+                        )
+                    );
+                }
+                found = trimmed;
+                length = Long.parseLong(trimmed);
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Body of the given length.
+     */
+    private static final class Fixed extends InputStream {
+        /**
+         * Original stream.
+         */
+        private final InputStream origin;
+        /**
+         * Bytes left.
+         */
+        private long more;
+        /**
+         * Ctor.
+         * @param input Original stream
+         * @param length Length of the body
+         */
+        Fixed(final InputStream input, final long length) {
+            super();
+            this.origin = input;
+            this.more = length;
+        }
+        @Override
+        public int read() throws IOException {
+            int data = -1;
+            if (this.more > 0L) {
+                data = this.origin.read();
+                if (data >= 0) {
+                    --this.more;
+                }
+            }
+            return data;
+        }
+        @Override
+        public int read(final byte[] buf, final int off, final int len)
+            throws IOException {
+            int read = 0;
+            if (this.more <= 0L) {
+                read = -1;
+            } else if (len > 0) {
+                read = this.origin.read(
+                    buf, off, (int) Math.min((long) len, this.more)
+                );
+                if (read > 0) {
+                    this.more -= (long) read;
+                }
+            }
+            return read;
+        }
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(
+                (long) this.origin.available(), this.more
+            );
+        }
+        @Override
+        public void close() {
+            // the stream belongs to the connection
+        }
+    }
+
+    /**
+     * Chunked body, which ends after its last chunk and trailer.
+     *
+     * <p>The class is mutable and NOT thread-safe.
+     */
+    private static final class Chunked extends InputStream {
+        /**
+         * Longest line of chunk size or trailer.
+         */
+        private static final int WIDTH = 8192;
+        /**
+         * Original stream.
+         */
+        private final InputStream origin;
+        /**
+         * Current line of chunk size or trailer.
+         */
+        private final StringBuilder line;
+        /**
+         * Where we are.
+         */
+        private RqFramed.Chunked.Step step;
+        /**
+         * Bytes of the current chunk left.
+         */
+        private long more;
+        /**
+         * Ctor.
+         * @param input Original stream
+         */
+        Chunked(final InputStream input) {
+            super();
+            this.origin = input;
+            this.line = new StringBuilder(0);
+            this.step = RqFramed.Chunked.Step.SIZE;
+        }
+        @Override
+        public int read() throws IOException {
+            int data = -1;
+            if (this.step != RqFramed.Chunked.Step.DONE) {
+                data = this.origin.read();
+                if (data >= 0) {
+                    this.feed(data);
+                }
+            }
+            return data;
+        }
+        @Override
+        public int read(final byte[] buf, final int off, final int len)
+            throws IOException {
+            int read = 0;
+            if (this.step == RqFramed.Chunked.Step.DONE) {
+                read = -1;
+            } else if (len > 0
+                && this.step == RqFramed.Chunked.Step.DATA) {
+                read = this.origin.read(
+                    buf, off, (int) Math.min((long) len, this.more)
+                );
+                if (read > 0) {
+                    this.more -= (long) read;
+                    if (this.more == 0L) {
+                        this.step = RqFramed.Chunked.Step.TAIL;
+                    }
+                }
+            } else if (len > 0) {
+                final int data = this.read();
+                if (data < 0) {
+                    read = -1;
+                } else {
+                    buf[off] = (byte) data;
+                    read = 1;
+                }
+            }
+            return read;
+        }
+        @Override
+        public int available() throws IOException {
+            int available = 0;
+            if (this.step == RqFramed.Chunked.Step.DATA) {
+                available = (int) Math.min(
+                    (long) this.origin.available(), this.more
+                );
+            } else if (this.step != RqFramed.Chunked.Step.DONE) {
+                available = this.origin.available();
+            }
+            return available;
+        }
+        @Override
+        public void close() {
+            // the stream belongs to the connection
+        }
+        /**
+         * Move on by one byte.
+         * @param data The byte
+         * @throws HttpException If the chunk is broken
+         */
+        private void feed(final int data) throws HttpException {
+            if (this.step == RqFramed.Chunked.Step.DATA) {
+                --this.more;
+                if (this.more == 0L) {
+                    this.step = RqFramed.Chunked.Step.TAIL;
+                }
+            } else if (data == '\n') {
+                this.end();
+            } else if (data != '\r') {
+                if (this.line.length() >= RqFramed.Chunked.WIDTH) {
+                    throw RqFramed.Chunked.broken("too long line");
+                }
+                this.line.append((char) data);
+            }
+        }
+        /**
+         * The line is over.
+         * @throws HttpException If the chunk is broken
+         */
+        private void end() throws HttpException {
+            if (this.step == RqFramed.Chunked.Step.SIZE) {
+                final String size = this.line.toString()
+                    .replaceFirst(";.*", "").trim();
+                if (!size.matches("[0-9a-fA-F]{1,15}")) {
+                    throw RqFramed.Chunked.broken(
+                        String.format("invalid chunk size \"%s\"", size)
+                    );
+                }
+                this.more = Long.parseLong(size, 16);
+                if (this.more == 0L) {
+                    this.step = RqFramed.Chunked.Step.TRAILER;
+                } else {
+                    this.step = RqFramed.Chunked.Step.DATA;
+                }
+            } else if (this.step == RqFramed.Chunked.Step.TAIL) {
+                if (this.line.length() > 0) {
+                    throw RqFramed.Chunked.broken("no CRLF after chunk");
+                }
+                this.step = RqFramed.Chunked.Step.SIZE;
+            } else if (this.line.length() == 0) {
+                this.step = RqFramed.Chunked.Step.DONE;
+            }
+            this.line.setLength(0);
+        }
+        /**
+         * Failure to throw when the chunk is broken.
+         * @param msg Message
+         * @return Exception
+         */
+        private static HttpException broken(final String msg) {
+            return new HttpException(
+                HttpURLConnection.HTTP_BAD_REQUEST,
+                String.format("broken chunked body: %s", msg)
+            );
+        }
+        /**
+         * Parts of a chunked body.
+         */
+        private enum Step {
+            /**
+             * Line with the size of a chunk.
+             */
+            SIZE,
+            /**
+             * Data of a chunk.
+             */
+            DATA,
+            /**
+             * CRLF after the data of a chunk.
+             */
+            TAIL,
+            /**
+             * Trailer, after the last chunk.
+             */
+            TRAILER,
+            /**
+             * The end of the body.
+             */
+            DONE
+        }
+    }
+
+}
@@ -33,6 +33,9 @@ import org.takes.Request;
 /**
  * Request decorator, for HTTP request caching.
  *
+ * <p>The whole body is kept in memory, so it's better to limit it,
+ * with the second constructor, if the request comes from the network.
+ *
  * <p>The class is immutable and thread-safe.
  *
  * @author Yegor Bugayenko (yegor256@gmail.com)
@@ -51,6 +54,18 @@ public final class RqGreedy extends RqWrap {
         super(RqGreedy.consume(req));
     }
 
+    /**
+     * Ctor.
+     * @param req Original request
+     * @param max Maximum size of the body, in bytes; longer bodies are
+     *  rejected with HTTP 413
+     * @throws IOException If fails
+     * @since 2.0
+     */
+    public RqGreedy(final Request req, final long max) throws IOException {
+        super(RqGreedy.consume(new RqLimited(req, max)));
+    }
+
     /**
      * Consume the request.
      * @param req Request
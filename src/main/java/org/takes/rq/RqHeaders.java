@@ -27,9 +27,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -124,38 +122,19 @@ public interface RqHeaders extends Request {
             return this.map().keySet();
         }
         /**
-         * Parse them all in a map.
+         * Parse them all in a map, or take the index of the head,
+         * if it's already there (see {@link RqIndexed}).
          *
          * @return Map of them
          * @throws IOException If fails
          */
-        @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
         private Map<String, List<String>> map() throws IOException {
-            final Iterator<String> head = this.head().iterator();
-            if (!head.hasNext()) {
-                throw new HttpException(
-                    HttpURLConnection.HTTP_BAD_REQUEST,
-                    "a valid request must contain at least one line in the head"
-                );
-            }
-            head.next();
-            final Map<String, List<String>> map = new HashMap<>(0);
-            while (head.hasNext()) {
-                final String line = head.next();
-                final String[] parts = line.split(":", 2);
-                if (parts.length < 2) {
-                    throw new HttpException(
-                        HttpURLConnection.HTTP_BAD_REQUEST,
-                        String.format("invalid HTTP header: \"%s\"", line)
-                    );
-                }
-                final String key = new EnglishLowerCase(
-                    parts[0].trim()
-                ).string();
-                if (!map.containsKey(key)) {
-                    map.put(key, new LinkedList<String>());
-                }
-                map.get(key).add(parts[1].trim());
+            final Iterable<String> head = this.head();
+            final Map<String, List<String>> map;
+            if (head instanceof IndexedHead) {
+                map = IndexedHead.class.cast(head).headers();
+            } else {
+                map = IndexedHead.parse(head);
             }
             return map;
         }
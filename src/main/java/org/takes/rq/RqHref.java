@@ -70,10 +70,26 @@ public interface RqHref extends Request {
         }
         @Override
         public Href href() throws IOException {
-            final String uri = new RqRequestLine.Base(this).uri();
-            final Iterator<String> hosts = new RqHeaders.Base(this)
-                .header("host").iterator();
-            final Iterator<String> protos = new RqHeaders.Base(this)
+            final Iterable<String> head = this.head();
+            final Href href;
+            if (head instanceof IndexedHead) {
+                href = ((IndexedHead) head).href(this);
+            } else {
+                href = RqHref.Base.parse(this);
+            }
+            return href;
+        }
+        /**
+         * Parse HREF of the request.
+         * @param req Request
+         * @return HTTP href
+         * @throws IOException If fails
+         */
+        static Href parse(final Request req) throws IOException {
+            final String uri = new RqRequestLine.Base(req).uri();
+            final RqHeaders headers = new RqHeaders.Base(req);
+            final Iterator<String> hosts = headers.header("host").iterator();
+            final Iterator<String> protos = headers
                 .header("x-forwarded-proto").iterator();
             final String host;
             if (hosts.hasNext()) {
@@ -87,7 +103,11 @@ public interface RqHref extends Request {
             } else {
                 proto = "http";
             }
-            return new Href(String.format("%s://%s%s", proto, host, uri));
+            return new Href(
+                new StringBuilder(
+                    proto.length() + host.length() + uri.length() + 3
+                ).append(proto).append("://").append(host).append(uri)
+            );
         }
     }
 
@@ -0,0 +1,86 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.takes.rq;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.EqualsAndHashCode;
+import org.takes.Request;
+
+/**
+ * Request with a head, which is tokenized only once.
+ *
+ * <p>The head of the original request is read on the first call
+ * of {@link #head()} and the same object is returned afterwards.
+ * Every {@link RqHeaders.Base} (and every facet built on top of it, like
+ * {@link RqHref.Base} or cookies) finds the headers already indexed
+ * there, instead of splitting all lines of the head again.
+ * {@link org.takes.http.BkBasic} decorates every request with it.
+ *
+ * <p>The class is immutable and thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@EqualsAndHashCode(callSuper = true)
+public final class RqIndexed extends RqWrap {
+
+    /**
+     * Ctor.
+     * @param req Original request
+     */
+    public RqIndexed(final Request req) {
+        super(RqIndexed.wrap(req));
+    }
+
+    /**
+     * Wrap the request.
+     * @param req Request
+     * @return New request
+     */
+    private static Request wrap(final Request req) {
+        final AtomicReference<IndexedHead> ref = new AtomicReference<>();
+        return new Request() {
+            @Override
+            public Iterable<String> head() throws IOException {
+                if (ref.get() == null) {
+                    final Iterable<String> head = req.head();
+                    if (head instanceof IndexedHead) {
+                        ref.compareAndSet(null, IndexedHead.class.cast(head));
+                    } else {
+                        ref.compareAndSet(null, new IndexedHead(head));
+                    }
+                }
+                return ref.get();
+            }
+            @Override
+            public InputStream body() throws IOException {
+                return req.body();
+            }
+        };
+    }
+
+}
@@ -0,0 +1,165 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.takes.rq;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.util.Iterator;
+import lombok.EqualsAndHashCode;
+import org.takes.HttpException;
+import org.takes.Request;
+
+/**
+ * Request decorator that doesn't let the body be longer than
+ * the given number of bytes.
+ *
+ * <p>If the request declares a longer body in its {@code Content-Length}
+ * header, HTTP 413 is thrown right in the constructor, before anything
+ * is read. Otherwise, HTTP 413 is thrown by the body, as soon as more
+ * bytes than allowed are read from it, which may happen with chunked
+ * bodies or with clients that send more than they declared.
+ *
+ * <p>The class is immutable and thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@EqualsAndHashCode(callSuper = true)
+public final class RqLimited extends RqWrap {
+
+    /**
+     * Ctor.
+     * @param req Original request
+     * @param max Maximum size of the body, in bytes
+     * @throws IOException If fails or the body is declared too long
+     */
+    public RqLimited(final Request req, final long max) throws IOException {
+        super(RqLimited.limited(req, max));
+    }
+
+    /**
+     * Check the declared length and limit the body.
+     * @param req Original request
+     * @param max Maximum size of the body, in bytes
+     * @return Request
+     * @throws IOException If fails or the body is declared too long
+     */
+    private static Request limited(final Request req, final long max)
+        throws IOException {
+        final Iterator<String> hdr = new RqHeaders.Base(req)
+            .header("Content-Length").iterator();
+        if (hdr.hasNext()) {
+            final String length = hdr.next().trim();
+            if (length.matches("\\d{1,18}") && Long.parseLong(length) > max) {
+                throw RqLimited.failure(max);
+            }
+        }
+        return new Request() {
+            @Override
+            public Iterable<String> head() throws IOException {
+                return req.head();
+            }
+            @Override
+            public InputStream body() throws IOException {
+                return new RqLimited.Limited(req.body(), max);
+            }
+        };
+    }
+
+    /**
+     * Failure to send when the body is too long.
+     * @param max Maximum size of the body, in bytes
+     * @return Exception
+     */
+    private static HttpException failure(final long max) {
+        return new HttpException(
+            HttpURLConnection.HTTP_ENTITY_TOO_LARGE,
+            String.format("request body is longer than %d bytes", max)
+        );
+    }
+
+    /**
+     * Stream that fails when too many bytes are read from it.
+     */
+    private static final class Limited extends FilterInputStream {
+        /**
+         * Maximum number of bytes.
+         */
+        private final long max;
+        /**
+         * How many bytes were read.
+         */
+        private long total;
+        /**
+         * Ctor.
+         * @param input Original stream
+         * @param limit Maximum number of bytes
+         */
+        Limited(final InputStream input, final long limit) {
+            super(input);
+            this.max = limit;
+        }
+        @Override
+        public int read() throws IOException {
+            final int data = super.read();
+            if (data >= 0) {
+                this.count(1L);
+            }
+            return data;
+        }
+        @Override
+        public int read(final byte[] buf, final int off, final int len)
+            throws IOException {
+            final int read = super.read(buf, off, len);
+            if (read > 0) {
+                this.count((long) read);
+            }
+            return read;
+        }
+        @Override
+        public long skip(final long num) throws IOException {
+            final long skipped = super.skip(num);
+            this.count(skipped);
+            return skipped;
+        }
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+        /**
+         * Count bytes read.
+         * @param bytes How many
+         * @throws HttpException If there are too many
+         */
+        private void count(final long bytes) throws HttpException {
+            this.total += bytes;
+            if (this.total > this.max) {
+                throw RqLimited.failure(this.max);
+            }
+        }
+    }
+}
@@ -30,6 +30,7 @@ import java.io.OutputStream;
 import java.io.Writer;
 import lombok.EqualsAndHashCode;
 import org.takes.Request;
+import org.takes.misc.Buffers;
 import org.takes.misc.Utf8OutputStreamWriter;
 import org.takes.misc.Utf8String;
 
@@ -119,14 +120,17 @@ public final class RqPrint extends RqWrap {
      */
     public void printBody(final OutputStream output) throws IOException {
         final InputStream input = new RqChunk(new RqLengthAware(this)).body();
-        //@checkstyle MagicNumberCheck (1 line)
-        final byte[] buf = new byte[4096];
-        while (true) {
-            final int bytes = input.read(buf);
-            if (bytes < 0) {
-                break;
+        final byte[] buf = Buffers.SHARED.take();
+        try {
+            while (true) {
+                final int bytes = input.read(buf);
+                if (bytes < 0) {
+                    break;
+                }
+                output.write(buf, 0, bytes);
             }
-            output.write(buf, 0, bytes);
+        } finally {
+            Buffers.SHARED.give(buf);
         }
     }
 
@@ -24,36 +24,45 @@
 package org.takes.rq.form;
 
 import java.io.IOException;
-import java.io.UnsupportedEncodingException;
-import java.net.HttpURLConnection;
-import java.net.URLDecoder;
-import java.nio.charset.Charset;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 import lombok.EqualsAndHashCode;
-import org.takes.HttpException;
 import org.takes.Request;
 import org.takes.misc.EnglishLowerCase;
 import org.takes.misc.Sprintf;
 import org.takes.misc.VerboseIterable;
+import org.takes.rq.RqChunk;
 import org.takes.rq.RqForm;
-import org.takes.rq.RqPrint;
+import org.takes.rq.RqLengthAware;
 import org.takes.rq.RqWrap;
 
 /**
  * Base implementation of {@link RqForm}.
+ *
+ * <p>The body is decoded as UTF-8, straight from the stream, when
+ * parameters are requested for the first time. Bodies longer than
+ * 2 MB or with more than 10000 fields are rejected with HTTP 413,
+ * unless other limits are given to the constructor.
+ *
  * @author Aleksey Popov (alopen@yandex.ru)
  * @version $Id$
  * @since 0.33
  */
-@SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
 @EqualsAndHashCode(callSuper = true)
 public final class RqFormBase extends RqWrap implements RqForm {
 
+    /**
+     * Default maximum length of the body, in bytes.
+     */
+    private static final long MAX_LENGTH = 2L * 1024L * 1024L;
+
+    /**
+     * Default maximum number of fields.
+     */
+    private static final int MAX_FIELDS = 10000;
+
     /**
      * Request.
      */
@@ -64,14 +73,38 @@ public final class RqFormBase extends RqWrap implements RqForm {
      */
     private final List<Map<String, List<String>>> saved;
 
+    /**
+     * Maximum length of the body, in bytes.
+     */
+    private final long length;
+
+    /**
+     * Maximum number of fields.
+     */
+    private final int fields;
+
     /**
      * Ctor.
      * @param request Original request
      */
     public RqFormBase(final Request request) {
+        this(request, RqFormBase.MAX_LENGTH, RqFormBase.MAX_FIELDS);
+    }
+
+    /**
+     * Ctor.
+     * @param request Original request
+     * @param length Maximum length of the body, in bytes
+     * @param fields Maximum number of fields
+     * @since 2.0
+     */
+    public RqFormBase(final Request request, final long length,
+        final int fields) {
         super(request);
         this.saved = new CopyOnWriteArrayList<>();
         this.req = request;
+        this.length = length;
+        this.fields = fields;
     }
 
     @Override
@@ -105,21 +138,6 @@ public final class RqFormBase extends RqWrap implements RqForm {
         return this.map().keySet();
     }
 
-    /**
-     * Decode from URL.
-     * @param txt Text
-     * @return Decoded
-     */
-    private static String decode(final CharSequence txt) {
-        try {
-            return URLDecoder.decode(
-                txt.toString(), Charset.defaultCharset().name()
-            );
-        } catch (final UnsupportedEncodingException ex) {
-            throw new IllegalStateException(ex);
-        }
-    }
-
     /**
      * Create map of request parameters.
      * @return Parameters map or empty map in case of error.
@@ -140,31 +158,8 @@ public final class RqFormBase extends RqWrap implements RqForm {
      * @throws IOException If something fails reading or parsing body
      */
     private Map<String, List<String>> freshMap() throws IOException {
-        final String body = new RqPrint(this.req).printBody();
-        final Map<String, List<String>> map = new HashMap<>(1);
-        // @checkstyle MultipleStringLiteralsCheck (1 line)
-        for (final String pair : body.split("&")) {
-            if (pair.isEmpty()) {
-                continue;
-            }
-            // @checkstyle MultipleStringLiteralsCheck (1 line)
-            final String[] parts = pair.split("=", 2);
-            if (parts.length < 2) {
-                throw new HttpException(
-                    HttpURLConnection.HTTP_BAD_REQUEST,
-                    String.format(
-                        "invalid form body pair: %s", pair
-                    )
-                );
-            }
-            final String key = RqFormBase.decode(
-                new EnglishLowerCase(parts[0].trim()).string()
-            );
-            if (!map.containsKey(key)) {
-                map.put(key, new LinkedList<String>());
-            }
-            map.get(key).add(RqFormBase.decode(parts[1].trim()));
-        }
-        return map;
+        return new UrlEncoded(this.length, this.fields).decode(
+            new RqChunk(new RqLengthAware(this.req)).body()
+        );
     }
 }
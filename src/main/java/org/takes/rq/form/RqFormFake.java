@@ -27,7 +27,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
-import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import org.takes.Request;
 import org.takes.rq.RqForm;
 import org.takes.rq.RqWithBody;
@@ -116,7 +116,7 @@ public final class RqFormFake implements RqForm {
     private static String encode(final CharSequence txt) {
         try {
             return URLEncoder.encode(
-                txt.toString(), Charset.defaultCharset().name()
+                txt.toString(), StandardCharsets.UTF_8.name()
             );
         } catch (final UnsupportedEncodingException ex) {
             throw new IllegalStateException(ex);
@@ -0,0 +1,297 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.takes.rq.form;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.takes.HttpException;
+import org.takes.misc.Buffers;
+import org.takes.misc.EnglishLowerCase;
+
+/**
+ * Decoder of {@code application/x-www-form-urlencoded} bodies.
+ *
+ * <p>Pairs are decoded straight from the bytes of the body, which are read
+ * through a single buffer, as UTF-8. Names and values are trimmed before
+ * decoding, names are converted to lower case. The body must not be
+ * longer than the given number of bytes and must not have more than the
+ * given number of pairs, otherwise HTTP 413 is thrown.
+ *
+ * <p>The class is immutable and thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+final class UrlEncoded {
+
+    /**
+     * Maximum length of the body, in bytes.
+     */
+    private final long max;
+
+    /**
+     * Maximum number of pairs.
+     */
+    private final int fields;
+
+    /**
+     * Ctor.
+     * @param length Maximum length of the body, in bytes
+     * @param count Maximum number of pairs
+     */
+    UrlEncoded(final long length, final int count) {
+        this.max = length;
+        this.fields = count;
+    }
+
+    /**
+     * Decode the body.
+     * @param input The body
+     * @return Immutable map of names and their values
+     * @throws IOException If fails
+     */
+    public Map<String, List<String>> decode(final InputStream input)
+        throws IOException {
+        final byte[] buf = Buffers.SHARED.take();
+        try {
+            return this.decode(input, buf);
+        } finally {
+            Buffers.SHARED.give(buf);
+        }
+    }
+
+    /**
+     * Decode the body through the buffer.
+     * @param input The body
+     * @param buf The buffer
+     * @return Immutable map of names and their values
+     * @throws IOException If fails
+     */
+    private Map<String, List<String>> decode(final InputStream input,
+        final byte[] buf) throws IOException {
+        final Map<String, List<String>> map = new HashMap<>(0);
+        final UrlEncoded.Token token = new UrlEncoded.Token();
+        String name = "";
+        boolean named = false;
+        boolean pair = false;
+        int count = 0;
+        long total = 0L;
+        for (int read = input.read(buf); read >= 0; read = input.read(buf)) {
+            total += (long) read;
+            if (total > this.max) {
+                throw new HttpException(
+                    HttpURLConnection.HTTP_ENTITY_TOO_LARGE,
+                    String.format(
+                        "form body is longer than %d bytes", this.max
+                    )
+                );
+            }
+            for (int idx = 0; idx < read; ++idx) {
+                final byte octet = buf[idx];
+                if (octet == '&') {
+                    if (pair) {
+                        ++count;
+                        this.put(map, count, named, name, token);
+                    }
+                    named = false;
+                    pair = false;
+                } else if (octet == '=' && !named) {
+                    name = new EnglishLowerCase(token.text()).string();
+                    token.reset();
+                    named = true;
+                    pair = true;
+                } else {
+                    token.add(octet);
+                    pair = true;
+                }
+            }
+        }
+        if (pair) {
+            this.put(map, count + 1, named, name, token);
+        }
+        for (final Map.Entry<String, List<String>> ent : map.entrySet()) {
+            if (ent.getValue().size() > 1) {
+                ent.setValue(Collections.unmodifiableList(ent.getValue()));
+            }
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * Put the pair to the map.
+     * @param map The map
+     * @param count Number of the pair
+     * @param named TRUE if there was an equals sign in the pair
+     * @param name Name
+     * @param token Value
+     * @throws IOException If fails
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    private void put(final Map<String, List<String>> map, final int count,
+        final boolean named, final String name, final UrlEncoded.Token token)
+        throws IOException {
+        if (!named) {
+            throw new HttpException(
+                HttpURLConnection.HTTP_BAD_REQUEST,
+                String.format("invalid form body pair: %s", token.text())
+            );
+        }
+        if (count > this.fields) {
+            throw new HttpException(
+                HttpURLConnection.HTTP_ENTITY_TOO_LARGE,
+                String.format(
+                    "form body has more than %d fields", this.fields
+                )
+            );
+        }
+        final String value = token.text();
+        token.reset();
+        final List<String> values = map.get(name);
+        if (values == null) {
+            map.put(name, Collections.singletonList(value));
+        } else if (values.size() == 1) {
+            final List<String> more = new ArrayList<>(2);
+            more.add(values.get(0));
+            more.add(value);
+            map.put(name, more);
+        } else {
+            values.add(value);
+        }
+    }
+
+    /**
+     * Name or value being decoded, reused for all of them.
+     */
+    private static final class Token {
+        /**
+         * Decoded bytes.
+         */
+        // @checkstyle MagicNumber (1 line)
+        private byte[] bytes = new byte[64];
+        /**
+         * How many decoded bytes there are.
+         */
+        private int size;
+        /**
+         * How many decoded bytes are left after trimming.
+         */
+        private int trimmed;
+        /**
+         * Something except spaces was added.
+         */
+        private boolean begun;
+        /**
+         * How many hex digits of an escape are read or -1 if none.
+         */
+        private int escape = -1;
+        /**
+         * Code of the escaped byte.
+         */
+        private int code;
+        /**
+         * Add one byte of the body.
+         * @param octet The byte
+         * @throws IOException If the escape is broken
+         */
+        public void add(final byte octet) throws IOException {
+            if (this.escape >= 0) {
+                // @checkstyle MagicNumber (1 line)
+                final int digit = Character.digit(octet, 16);
+                if (digit < 0) {
+                    throw new HttpException(
+                        HttpURLConnection.HTTP_BAD_REQUEST,
+                        "invalid escape sequence in form body"
+                    );
+                }
+                this.code = (this.code << 4) + digit;
+                ++this.escape;
+                if (this.escape == 2) {
+                    this.put(this.code);
+                    this.trimmed = this.size;
+                    this.escape = -1;
+                }
+            } else if (octet == '%') {
+                this.begun = true;
+                this.escape = 0;
+                this.code = 0;
+            } else if (octet > ' ' || octet < 0) {
+                this.begun = true;
+                if (octet == '+') {
+                    this.put(' ');
+                } else {
+                    this.put(octet);
+                }
+                this.trimmed = this.size;
+            } else if (this.begun) {
+                this.put(octet);
+            }
+        }
+        /**
+         * Decoded text.
+         * @return Text
+         * @throws IOException If the escape is not finished
+         */
+        public String text() throws IOException {
+            if (this.escape >= 0) {
+                throw new HttpException(
+                    HttpURLConnection.HTTP_BAD_REQUEST,
+                    "incomplete escape sequence in form body"
+                );
+            }
+            return new String(
+                this.bytes, 0, this.trimmed, StandardCharsets.UTF_8
+            );
+        }
+        /**
+         * Forget everything.
+         */
+        public void reset() {
+            this.size = 0;
+            this.trimmed = 0;
+            this.begun = false;
+            this.escape = -1;
+        }
+        /**
+         * Append decoded byte.
+         * @param octet The byte
+         */
+        private void put(final int octet) {
+            if (this.size == this.bytes.length) {
+                this.bytes = Arrays.copyOf(this.bytes, this.size << 1);
+            }
+            this.bytes[this.size] = (byte) octet;
+            ++this.size;
+        }
+    }
+}
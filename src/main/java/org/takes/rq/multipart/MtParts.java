@@ -0,0 +1,451 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.takes.rq.multipart;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.takes.HttpException;
+import org.takes.Request;
+import org.takes.misc.Buffers;
+import org.takes.misc.EnglishLowerCase;
+import org.takes.rq.RqHeaders;
+import org.takes.rq.RqLengthAware;
+import org.takes.rq.RqLive;
+import org.takes.rq.RqRequestLine;
+
+/**
+ * Parts of a {@code multipart/form-data} request, read one by one
+ * straight from its body (RFC 2046).
+ *
+ * <p>Nothing is kept in memory or in files, except a small buffer: every
+ * part is a request with the headers of the part and the body, which
+ * is read from the body of the original request, until the boundary.
+ * The parts must be read in order: when the next part is requested,
+ * the rest of the previous one is skipped:
+ *
+ * <pre> final Iterator&lt;Request&gt; parts = new MtParts(req);
+ * while (parts.hasNext()) {
+ *   final Request part = parts.next();
+ *   // read the body of the part, if necessary
+ * }</pre>
+ *
+ * <p>Use {@link RqMtBase} in order to find parts by their names.
+ * Failures of reading are reported as {@link UncheckedIOException}.
+ *
+ * <p>The class is NOT thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@SuppressWarnings("PMD.TooManyMethods")
+public final class MtParts implements Iterator<Request> {
+
+    /**
+     * Pattern to get boundary from header.
+     */
+    private static final Pattern BOUNDARY = Pattern.compile(
+        ".*[^a-z]boundary=([^;]+).*"
+    );
+
+    /**
+     * Carriage return and line feed.
+     */
+    private static final String CRLF = "\r\n";
+
+    /**
+     * Default size of the buffer.
+     */
+    private static final int SIZE = 8192;
+
+    /**
+     * Body of the request.
+     */
+    private final InputStream input;
+
+    /**
+     * Request-Line of the request, which goes first in every part.
+     */
+    private final byte[] line;
+
+    /**
+     * Delimiter of parts: CRLF, two dashes and the boundary.
+     */
+    private final byte[] delimiter;
+
+    /**
+     * Shifts of the Boyer-Moore-Horspool search, for every byte.
+     */
+    private final int[] shifts;
+
+    /**
+     * Buffer.
+     */
+    private final byte[] buf;
+
+    /**
+     * Position of the next byte in the buffer.
+     */
+    private int pos;
+
+    /**
+     * End of the bytes in the buffer.
+     */
+    private int lim;
+
+    /**
+     * Position in the buffer, before which the delimiter doesn't start.
+     */
+    private int scanned;
+
+    /**
+     * The body is over.
+     */
+    private boolean eof;
+
+    /**
+     * The closing delimiter is found or the body is over.
+     */
+    private boolean over;
+
+    /**
+     * The next part is ready to be read.
+     */
+    private boolean ready;
+
+    /**
+     * The part being read, or the preamble.
+     */
+    private MtParts.Part current;
+
+    /**
+     * Ctor.
+     * @param req Original request
+     * @throws IOException If fails
+     */
+    public MtParts(final Request req) throws IOException {
+        this.delimiter = MtParts.delimiter(req);
+        this.shifts = MtParts.shifts(this.delimiter);
+        this.input = new RqLengthAware(req).body();
+        this.line = new RqRequestLine.Base(req).header()
+            .concat(MtParts.CRLF).getBytes(StandardCharsets.UTF_8);
+        this.buf = new byte[Math.max(MtParts.SIZE, this.delimiter.length * 2)];
+        this.buf[0] = '\r';
+        this.buf[1] = '\n';
+        this.lim = 2;
+        this.current = new MtParts.Part();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!this.ready && !this.over) {
+            try {
+                this.advance();
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+        return this.ready;
+    }
+
+    @Override
+    public Request next() {
+        if (!this.hasNext()) {
+            throw new NoSuchElementException("there are no more parts");
+        }
+        this.ready = false;
+        this.current = new MtParts.Part();
+        try {
+            return new RqLive(
+                new SequenceInputStream(
+                    new ByteArrayInputStream(this.line), this.current
+                )
+            );
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Skip the rest of the current part and the delimiter after it.
+     * @throws IOException If fails
+     */
+    private void advance() throws IOException {
+        this.current.drain();
+        if (this.eof && this.pos >= this.lim) {
+            this.over = true;
+        } else {
+            final int first = this.octet();
+            final int second = this.octet();
+            if (second < 0 || first == '-' && second == '-') {
+                this.over = true;
+            } else {
+                int chr = second;
+                while (chr != '\n' && chr >= 0) {
+                    chr = this.octet();
+                }
+                this.ready = chr >= 0;
+                this.over = !this.ready;
+            }
+        }
+    }
+
+    /**
+     * Read bytes of the current part, until the delimiter.
+     * @param bytes Where to read
+     * @param off Offset
+     * @param len Maximum number of bytes
+     * @return How many bytes were read or -1 if the part is over
+     * @throws IOException If fails or the body is over too early
+     */
+    private int content(final byte[] bytes, final int off, final int len)
+        throws IOException {
+        final int border = this.border();
+        int read = -1;
+        if (border > this.pos) {
+            read = Math.min(len, border - this.pos);
+            System.arraycopy(this.buf, this.pos, bytes, off, read);
+            this.pos += read;
+        } else {
+            this.pos += this.delimiter.length;
+        }
+        return read;
+    }
+
+    /**
+     * Position in the buffer, before which the bytes surely belong to
+     * the current part, reading more bytes if necessary.
+     * @return Position of the delimiter or of the first byte that may
+     *  belong to it, which is always after the current position, unless
+     *  the delimiter is right there
+     * @throws IOException If fails or the body is over too early
+     */
+    private int border() throws IOException {
+        int border = -1;
+        while (border < 0) {
+            final int found = this.find();
+            if (found >= 0) {
+                border = found;
+            } else if (this.eof) {
+                if (this.pos >= this.lim) {
+                    throw new HttpException(
+                        HttpURLConnection.HTTP_BAD_REQUEST,
+                        // @checkstyle LineLength (1 line)
+                        "the body is over, but the closing boundary is not found"
+                    );
+                }
+                border = this.lim;
+            } else if (this.lim - this.delimiter.length >= this.pos) {
+                border = this.lim - this.delimiter.length + 1;
+            } else {
+                this.fill();
+            }
+        }
+        return border;
+    }
+
+    /**
+     * Find the delimiter in the buffer, with Boyer-Moore-Horspool
+     * algorithm. The search continues where the previous one stopped.
+     * @return Its position or -1 if it's not there
+     */
+    private int find() {
+        final int last = this.delimiter.length - 1;
+        int idx = Math.max(this.pos, this.scanned);
+        int found = -1;
+        while (idx + last < this.lim) {
+            int mtc = last;
+            while (mtc >= 0 && this.buf[idx + mtc] == this.delimiter[mtc]) {
+                --mtc;
+            }
+            if (mtc < 0) {
+                found = idx;
+                break;
+            }
+            // @checkstyle MagicNumber (1 line)
+            idx += this.shifts[this.buf[idx + last] & 0xff];
+        }
+        this.scanned = idx;
+        return found;
+    }
+
+    /**
+     * Read the next byte after the delimiter.
+     * @return The byte or -1 if the body is over
+     * @throws IOException If fails
+     */
+    private int octet() throws IOException {
+        if (this.pos >= this.lim && !this.eof) {
+            this.fill();
+        }
+        final int next;
+        if (this.pos < this.lim) {
+            next = this.buf[this.pos] & 0xff;
+            ++this.pos;
+        } else {
+            next = -1;
+        }
+        return next;
+    }
+
+    /**
+     * Move the rest of the buffer to its start and read more bytes.
+     * @throws IOException If fails
+     */
+    private void fill() throws IOException {
+        System.arraycopy(this.buf, this.pos, this.buf, 0, this.lim - this.pos);
+        this.lim -= this.pos;
+        this.scanned = Math.max(0, this.scanned - this.pos);
+        this.pos = 0;
+        final int read = this.input.read(
+            this.buf, this.lim, this.buf.length - this.lim
+        );
+        if (read < 0) {
+            this.eof = true;
+        } else {
+            this.lim += read;
+        }
+    }
+
+    /**
+     * Shifts of the Boyer-Moore-Horspool search.
+     * @param pattern The pattern to search for
+     * @return How far to move the search, for every value of the byte
+     *  under the last byte of the pattern
+     */
+    private static int[] shifts(final byte[] pattern) {
+        // @checkstyle MagicNumber (1 line)
+        final int[] table = new int[256];
+        Arrays.fill(table, pattern.length);
+        for (int idx = 0; idx < pattern.length - 1; ++idx) {
+            // @checkstyle MagicNumber (1 line)
+            table[pattern[idx] & 0xff] = pattern.length - 1 - idx;
+        }
+        return table;
+    }
+
+    /**
+     * Delimiter of parts of the request.
+     * @param req Request
+     * @return Delimiter
+     * @throws IOException If fails
+     */
+    private static byte[] delimiter(final Request req) throws IOException {
+        final String header = new RqHeaders.Smart(req).single("Content-Type");
+        if (!new EnglishLowerCase(header).string()
+            .startsWith("multipart/form-data")) {
+            throw new HttpException(
+                HttpURLConnection.HTTP_BAD_REQUEST,
+                String.format(
+                    // @checkstyle LineLength (1 line)
+                    "RqMtBase can only parse multipart/form-data, while Content-Type specifies a different type: \"%s\"",
+                    header
+                )
+            );
+        }
+        final Matcher matcher = MtParts.BOUNDARY.matcher(header);
+        if (!matcher.matches()) {
+            throw new HttpException(
+                HttpURLConnection.HTTP_BAD_REQUEST,
+                String.format(
+                    "boundary is not specified in Content-Type header: \"%s\"",
+                    header
+                )
+            );
+        }
+        return String.format("%s--%s", MtParts.CRLF, matcher.group(1))
+            .getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Body of a part, read until the delimiter.
+     */
+    private final class Part extends InputStream {
+        /**
+         * The part is over.
+         */
+        private boolean done;
+        @Override
+        public int read() throws IOException {
+            final byte[] one = new byte[1];
+            final int read;
+            if (this.read(one, 0, 1) < 0) {
+                read = -1;
+            } else {
+                // @checkstyle MagicNumber (1 line)
+                read = one[0] & 0xff;
+            }
+            return read;
+        }
+        @Override
+        public int read(final byte[] bytes, final int off, final int len)
+            throws IOException {
+            int read = -1;
+            if (!this.done && MtParts.this.current == this) {
+                if (len == 0) {
+                    read = 0;
+                } else {
+                    read = MtParts.this.content(bytes, off, len);
+                    this.done = read < 0;
+                }
+            }
+            return read;
+        }
+        @Override
+        public int available() throws IOException {
+            int available = 0;
+            if (!this.done && MtParts.this.current == this) {
+                available = MtParts.this.border() - MtParts.this.pos;
+            }
+            return available;
+        }
+        /**
+         * Skip the rest of the part.
+         * @throws IOException If fails
+         */
+        public void drain() throws IOException {
+            final byte[] trash = Buffers.SHARED.take();
+            try {
+                int read = 0;
+                while (read >= 0) {
+                    read = this.read(trash, 0, trash.length);
+                }
+            } finally {
+                Buffers.SHARED.give(trash);
+            }
+            this.done = true;
+        }
+    }
+
+}
@@ -23,21 +23,21 @@
  */
 package org.takes.rq.multipart;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.HttpURLConnection;
-import java.nio.ByteBuffer;
-import java.nio.channels.Channels;
-import java.nio.channels.ReadableByteChannel;
-import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
-import java.nio.file.StandardOpenOption;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -45,12 +45,14 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.takes.HttpException;
 import org.takes.Request;
+import org.takes.misc.Buffers;
 import org.takes.misc.EnglishLowerCase;
 import org.takes.misc.Sprintf;
 import org.takes.misc.VerboseIterable;
 import org.takes.rq.RqHeaders;
-import org.takes.rq.RqLengthAware;
 import org.takes.rq.RqMultipart;
+import org.takes.rq.RqSimple;
+import org.takes.rq.RqWithHeader;
 
 /**
  * Request decorator, that decodes FORM data from
@@ -59,6 +61,12 @@ import org.takes.rq.RqMultipart;
  * <p>For {@code application/x-www-form-urlencoded}
  * format use {@link org.takes.rq.RqForm}.
  *
+ * <p>All parts are read by {@link MtParts} in the constructor. Parts
+ * smaller than the threshold, which are usually text fields, are kept in
+ * memory, while bigger ones, usually files, are saved to temporary files,
+ * which are deleted when bodies of the parts are closed. In order to read
+ * parts one by one, without keeping them anywhere, use {@link MtParts}.
+ *
  * <p>It is highly recommended to use {@link org.takes.rq.RqGreedy}
  * decorator before passing request to this class.
  *
@@ -78,12 +86,6 @@ public final class RqMtBase implements RqMultipart {
      * The encoding used to create the request.
      */
     private static final Charset ENCODING = Charset.forName("UTF-8");
-    /**
-     * Pattern to get boundary from header.
-     */
-    private static final Pattern BOUNDARY = Pattern.compile(
-        ".*[^a-z]boundary=([^;]+).*"
-    );
     /**
      * Pattern to get name from header.
      */
@@ -95,17 +97,13 @@ public final class RqMtBase implements RqMultipart {
      */
     private static final String CRLF = "\r\n";
     /**
-     * Map of params and values.
+     * Default maximum size of a part kept in memory.
      */
-    private final Map<String, List<Request>> map;
-    /**
-     * Internal buffer.
-     */
-    private final ByteBuffer buffer;
+    private static final int THRESHOLD = 16 * 1024;
     /**
-     * InputStream based on request body.
+     * Map of params and values.
      */
-    private final InputStream stream;
+    private final Map<String, List<Request>> map;
     /**
      * Original request.
      */
@@ -114,16 +112,21 @@ public final class RqMtBase implements RqMultipart {
      * Ctor.
      * @param req Original request
      * @throws IOException If fails
-     * @checkstyle ExecutableStatementCountCheck (2 lines)
      */
     public RqMtBase(final Request req) throws IOException {
+        this(req, RqMtBase.THRESHOLD);
+    }
+    /**
+     * Ctor.
+     * @param req Original request
+     * @param threshold Maximum size of a part kept in memory, in bytes;
+     *  bigger parts go to temporary files
+     * @throws IOException If fails
+     */
+    public RqMtBase(final Request req, final int threshold)
+        throws IOException {
         this.origin = req;
-        this.stream = new RqLengthAware(req).body();
-        this.buffer = ByteBuffer.allocate(
-            // @checkstyle MagicNumberCheck (1 line)
-            Math.min(8192, this.stream.available())
-        );
-        this.map = this.requests(req);
+        this.map = RqMtBase.requests(req, threshold);
     }
     @Override
     public Iterable<Request> part(final CharSequence name) {
@@ -167,134 +170,86 @@ public final class RqMtBase implements RqMultipart {
     /**
      * Build a request for each part of the origin request.
      * @param req Origin request
+     * @param threshold Maximum size of a part kept in memory
      * @return The requests map that use the part name as a map key
      * @throws IOException If fails
      */
-    private Map<String, List<Request>> requests(
-        final Request req) throws IOException {
-        final String header = new RqHeaders.Smart(req).single("Content-Type");
-        if (!new EnglishLowerCase(header).string()
-            .startsWith("multipart/form-data")) {
-            throw new HttpException(
-                HttpURLConnection.HTTP_BAD_REQUEST,
-                String.format(
-                    // @checkstyle LineLength (1 line)
-                    "RqMtBase can only parse multipart/form-data, while Content-Type specifies a different type: \"%s\"",
-                    header
-                )
-            );
-        }
-        final Matcher matcher = RqMtBase.BOUNDARY.matcher(header);
-        if (!matcher.matches()) {
-            throw new HttpException(
-                HttpURLConnection.HTTP_BAD_REQUEST,
-                String.format(
-                    "boundary is not specified in Content-Type header: \"%s\"",
-                    header
-                )
-            );
-        }
-        final ReadableByteChannel body = Channels.newChannel(this.stream);
-        if (body.read(this.buffer) < 0) {
-            throw new HttpException(
-                HttpURLConnection.HTTP_BAD_REQUEST,
-                "failed to read the request body"
-            );
-        }
-        final byte[] boundary = String.format(
-            "%s--%s", RqMtBase.CRLF, matcher.group(1)
-        ).getBytes(RqMtBase.ENCODING);
-        this.buffer.flip();
-        this.buffer.position(boundary.length - 2);
+    private static Map<String, List<Request>> requests(
+        final Request req, final int threshold) throws IOException {
+        final Iterator<Request> parts = new MtParts(req);
         final Collection<Request> requests = new LinkedList<>();
-        while (this.buffer.hasRemaining()) {
-            final byte data = this.buffer.get();
-            if (data == '-') {
-                break;
+        try {
+            while (parts.hasNext()) {
+                requests.add(RqMtBase.make(parts.next(), threshold));
             }
-            this.buffer.position(this.buffer.position() + 1);
-            requests.add(this.make(boundary, body));
+        } catch (final UncheckedIOException ex) {
+            throw ex.getCause();
         }
         return RqMtBase.asMap(requests);
     }
     /**
      * Make a request.
-     *  Scans the origin request until the boundary reached. Caches
-     *  the  content into a temporary file and returns it as a new request.
-     * @param boundary Boundary
-     * @param body Origin request body
+     *  Reads the part entirely and keeps it in memory, if it's small, or
+     *  in a temporary file otherwise.
+     * @param part The part, read from the origin request
+     * @param threshold Maximum size of a part kept in memory
      * @return Request
      * @throws IOException If fails
      */
-    private Request make(final byte[] boundary,
-        final ReadableByteChannel body) throws IOException {
-        final File file = File.createTempFile(
-            RqMultipart.class.getName(), ".tmp"
-        );
-        try (WritableByteChannel channel = Files.newByteChannel(
-            file.toPath(),
-            StandardOpenOption.READ,
-            StandardOpenOption.WRITE
-        )
-        ) {
-            channel.write(
-                ByteBuffer.wrap(
-                    this.head().iterator().next().getBytes(RqMtBase.ENCODING)
-                )
-            );
-            channel.write(
-                ByteBuffer.wrap(RqMtBase.CRLF.getBytes(RqMtBase.ENCODING))
-            );
-            this.copy(channel, boundary, body);
-        }
-        return new RqTemp(file);
-    }
-    /**
-     * Copy until boundary reached.
-     * @param target Output file channel
-     * @param boundary Boundary
-     * @param body Origin request body
-     * @throws IOException If fails
-     * @checkstyle ExecutableStatementCountCheck (2 lines)
-     */
-    private void copy(final WritableByteChannel target,
-        final byte[] boundary, final ReadableByteChannel body)
+    private static Request make(final Request part, final int threshold)
         throws IOException {
-        int match = 0;
-        boolean cont = true;
-        while (cont) {
-            if (!this.buffer.hasRemaining()) {
-                this.buffer.clear();
-                for (int idx = 0; idx < match; ++idx) {
-                    this.buffer.put(boundary[idx]);
-                }
-                match = 0;
-                if (body.read(this.buffer) == -1) {
-                    break;
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        for (final String line : part.head()) {
+            baos.write(line.getBytes(RqMtBase.ENCODING));
+            baos.write(RqMtBase.CRLF.getBytes(RqMtBase.ENCODING));
+        }
+        baos.write(RqMtBase.CRLF.getBytes(RqMtBase.ENCODING));
+        final int start = baos.size();
+        final InputStream body = part.body();
+        final byte[] buf = Buffers.SHARED.take();
+        final Request request;
+        try {
+            int len = 0;
+            while (len >= 0 && baos.size() <= threshold) {
+                len = body.read(buf);
+                if (len > 0) {
+                    baos.write(buf, 0, len);
                 }
-                this.buffer.flip();
             }
-            final ByteBuffer btarget = this.buffer.slice();
-            final int offset = this.buffer.position();
-            btarget.limit(0);
-            while (this.buffer.hasRemaining()) {
-                final byte data = this.buffer.get();
-                if (data == boundary[match]) {
-                    ++match;
-                } else if (data == boundary[0]) {
-                    match = 1;
-                } else {
-                    match = 0;
-                    btarget.limit(this.buffer.position() - offset);
-                }
-                if (match == boundary.length) {
-                    cont = false;
-                    break;
+            if (len < 0) {
+                final byte[] bytes = baos.toByteArray();
+                request = new RqWithHeader(
+                    new RqSimple(
+                        part.head(),
+                        new RqMtBase.Memory(
+                            bytes, start, bytes.length - start
+                        )
+                    ),
+                    "Content-Length",
+                    String.valueOf(bytes.length)
+                );
+            } else {
+                final File file = File.createTempFile(
+                    RqMultipart.class.getName(), ".tmp"
+                );
+                try (OutputStream output =
+                    Files.newOutputStream(file.toPath())) {
+                    baos.writeTo(output);
+                    while (len >= 0) {
+                        len = body.read(buf);
+                        if (len > 0) {
+                            output.write(buf, 0, len);
+                        }
+                    }
                 }
+                request = new RqTemp(file);
             }
-            target.write(btarget);
+        } finally {
+            Buffers.SHARED.give(buf);
         }
+        return request;
     }
+
     /**
      * Convert a list of requests to a map.
      * @param reqs Requests
@@ -327,6 +282,65 @@ public final class RqMtBase implements RqMultipart {
         return map;
     }
 
+    /**
+     * Body of a part kept in memory, which can't be read after it's closed,
+     * like a body of a part kept in a file.
+     */
+    private static final class Memory extends InputStream {
+        /**
+         * Bytes.
+         */
+        private final InputStream origin;
+        /**
+         * Is it closed?
+         */
+        private volatile boolean closed;
+        /**
+         * Ctor.
+         * @param bytes Bytes
+         * @param off Offset of the body
+         * @param len Length of the body
+         */
+        Memory(final byte[] bytes, final int off, final int len) {
+            super();
+            this.origin = new ByteArrayInputStream(bytes, off, len);
+        }
+        @Override
+        public int read() throws IOException {
+            this.check();
+            return this.origin.read();
+        }
+        @Override
+        public int read(final byte[] bytes, final int off, final int len)
+            throws IOException {
+            this.check();
+            return this.origin.read(bytes, off, len);
+        }
+        @Override
+        public long skip(final long num) throws IOException {
+            this.check();
+            return this.origin.skip(num);
+        }
+        @Override
+        public int available() throws IOException {
+            this.check();
+            return this.origin.available();
+        }
+        @Override
+        public void close() {
+            this.closed = true;
+        }
+        /**
+         * Make sure it's not closed yet.
+         * @throws IOException If it's closed
+         */
+        private void check() throws IOException {
+            if (this.closed) {
+                throw new IOException("Stream Closed");
+            }
+        }
+    }
+
     /**
      * Decorator allowing to close all the parts of the request.
      */
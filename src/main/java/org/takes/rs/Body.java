@@ -58,7 +58,7 @@ interface Body {
      * @throws IOException in case the length of the stream could not be
      *  retrieved.
      */
-    int length() throws IOException;
+    long length() throws IOException;
 
     /**
      * Content of a body based on an {@link java.net.URL}.
@@ -84,13 +84,48 @@ interface Body {
         }
 
         @Override
-        public int length() throws IOException {
+        public long length() throws IOException {
             try (final InputStream input = this.url.openStream()) {
                 return input.available();
             }
         }
     }
 
+    /**
+     * Content of a body based on a file.
+     *
+     * <p>The input is a {@link FileInputStream}, so {@link RsPrint} can
+     * send it with {@link java.nio.channels.FileChannel#transferTo(long,
+     * long, java.nio.channels.WritableByteChannel)}. The length is taken
+     * from the file system, without opening the file.
+     */
+    final class Path implements Body {
+
+        /**
+         * The path of the file.
+         */
+        private final java.nio.file.Path path;
+
+        /**
+         * Constructs a {@code Path} with the specified
+         * {@link java.nio.file.Path}.
+         * @param file The path of the file.
+         */
+        Path(final java.nio.file.Path file) {
+            this.path = file;
+        }
+
+        @Override
+        public InputStream input() throws IOException {
+            return new FileInputStream(this.path.toFile());
+        }
+
+        @Override
+        public long length() throws IOException {
+            return Files.size(this.path);
+        }
+    }
+
     /**
      * Content of a body based on a byte array.
      */
@@ -115,7 +150,7 @@ interface Body {
         }
 
         @Override
-        public int length() {
+        public long length() {
             return this.bytes.length;
         }
     }
@@ -151,7 +186,7 @@ interface Body {
         }
 
         @Override
-        public int length() throws IOException {
+        public long length() throws IOException {
             this.estimate();
             return this.length.get();
         }
@@ -209,8 +244,8 @@ interface Body {
         }
 
         @Override
-        public int length() throws IOException {
-            return (int) this.file().length();
+        public long length() throws IOException {
+            return this.file().length();
         }
 
         // Needed to remove the file once the Stream object is no more used.
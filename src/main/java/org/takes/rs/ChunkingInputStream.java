@@ -0,0 +1,197 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.takes.rs;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Input stream that encodes another one with chunked transfer coding.
+ *
+ * <p>Every portion of bytes read from the origin becomes a chunk, made of
+ * its size in hex, CRLF, the bytes and CRLF; the last chunk is empty.
+ * No more than one buffer of bytes is kept in memory.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ * @checkstyle LineLengthCheck (1 lines)
+ * @link <a href="https://tools.ietf.org/html/rfc7230#section-4.1">Chunked Transfer Coding</a>
+ */
+final class ChunkingInputStream extends InputStream {
+
+    /**
+     * Space left for the size of a chunk and CRLF before its data.
+     */
+    private static final int ROOM = 10;
+
+    /**
+     * Default size of a chunk.
+     */
+    private static final int SIZE = 8192;
+
+    /**
+     * Hex digits.
+     */
+    private static final byte[] HEX = {
+        '0', '1', '2', '3', '4', '5', '6', '7',
+        '8', '9', 'a', 'b', 'c', 'd', 'e', 'f',
+    };
+
+    /**
+     * The stream to encode.
+     */
+    private final InputStream origin;
+
+    /**
+     * Buffer with the current chunk.
+     */
+    private final byte[] buf;
+
+    /**
+     * Position of the next byte to return.
+     */
+    private int pos;
+
+    /**
+     * End of the current chunk in the buffer.
+     */
+    private int end;
+
+    /**
+     * Is the origin over?
+     */
+    private boolean eof;
+
+    /**
+     * Is the last chunk made?
+     */
+    private boolean done;
+
+    /**
+     * Ctor.
+     * @param input The stream to encode
+     */
+    ChunkingInputStream(final InputStream input) {
+        this(input, ChunkingInputStream.SIZE);
+    }
+
+    /**
+     * Ctor.
+     * @param input The stream to encode
+     * @param size Maximum size of a chunk
+     */
+    ChunkingInputStream(final InputStream input, final int size) {
+        super();
+        this.origin = input;
+        this.buf = new byte[size + ChunkingInputStream.ROOM + 2];
+    }
+
+    @Override
+    public int read() throws IOException {
+        final byte[] one = new byte[1];
+        final int read;
+        if (this.read(one, 0, 1) < 0) {
+            read = -1;
+        } else {
+            // @checkstyle MagicNumber (1 line)
+            read = one[0] & 0xff;
+        }
+        return read;
+    }
+
+    @Override
+    public int read(final byte[] bytes, final int off, final int len)
+        throws IOException {
+        if (this.pos == this.end) {
+            this.fill();
+        }
+        final int read;
+        if (this.pos == this.end) {
+            read = -1;
+        } else {
+            read = Math.min(len, this.end - this.pos);
+            System.arraycopy(this.buf, this.pos, bytes, off, read);
+            this.pos += read;
+        }
+        return read;
+    }
+
+    @Override
+    public int available() {
+        return this.end - this.pos;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.origin.close();
+    }
+
+    /**
+     * Make the next chunk.
+     *
+     * <p>The origin is read again while the chunk is less than a half
+     * of the buffer and the origin has more bytes available without
+     * blocking, so a slow origin doesn't delay bytes already read.
+     *
+     * @throws IOException If fails
+     */
+    private void fill() throws IOException {
+        if (!this.done) {
+            final int limit = this.buf.length - ChunkingInputStream.ROOM - 2;
+            int size = 0;
+            while (!this.eof) {
+                final int read = this.origin.read(
+                    this.buf, ChunkingInputStream.ROOM + size, limit - size
+                );
+                if (read < 0) {
+                    this.eof = true;
+                } else {
+                    size += read;
+                    if (size > 0 && (size >= limit / 2
+                        || this.origin.available() <= 0)) {
+                        break;
+                    }
+                }
+            }
+            int start = ChunkingInputStream.ROOM - 2;
+            this.buf[start] = '\r';
+            this.buf[start + 1] = '\n';
+            int rest = size;
+            do {
+                start -= 1;
+                // @checkstyle MagicNumber (2 lines)
+                this.buf[start] = ChunkingInputStream.HEX[rest & 0xf];
+                rest >>>= 4;
+            } while (rest > 0);
+            final int tail = ChunkingInputStream.ROOM + size;
+            this.buf[tail] = '\r';
+            this.buf[tail + 1] = '\n';
+            this.done = size == 0;
+            this.pos = start;
+            this.end = tail + 2;
+        }
+    }
+
+}
@@ -0,0 +1,137 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.takes.rs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterInputStream;
+
+/**
+ * Content coding of a response body, used by {@link RsEncoded}.
+ *
+ * <p>Encoders are supposed to compress the body on the fly, while it's
+ * being read. GZIP and deflate are available out of the box. Other
+ * encoders may be provided by third-party libraries through
+ * {@link java.util.ServiceLoader}, in
+ * {@code META-INF/services/org.takes.rs.Encoder}, and they will be
+ * found by {@link org.takes.tk.TkEncoded}.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public interface Encoder {
+
+    /**
+     * Name of the content coding, like "gzip", as it goes to
+     * {@code Content-Encoding} header.
+     * @return Name, in lower case
+     */
+    String coding();
+
+    /**
+     * Encode the stream.
+     * @param input The stream to encode
+     * @return Encoded stream
+     * @throws IOException If fails
+     */
+    InputStream encode(InputStream input) throws IOException;
+
+    /**
+     * GZIP coding, according to RFC 1952.
+     */
+    final class Gzip implements Encoder {
+        /**
+         * Compression level.
+         */
+        private final int level;
+        /**
+         * Ctor.
+         */
+        public Gzip() {
+            this(Deflater.DEFAULT_COMPRESSION);
+        }
+        /**
+         * Ctor.
+         * @param lvl Compression level, from 0 to 9 or -1 for default
+         */
+        public Gzip(final int lvl) {
+            this.level = lvl;
+        }
+        @Override
+        public String coding() {
+            return "gzip";
+        }
+        @Override
+        public InputStream encode(final InputStream input) {
+            return new GzipInputStream(input, this.level);
+        }
+    }
+
+    /**
+     * Deflate coding, which is "zlib" format of RFC 1950.
+     */
+    final class Deflate implements Encoder {
+        /**
+         * Size of the buffer of the deflater.
+         */
+        private static final int SIZE = 8192;
+        /**
+         * Compression level.
+         */
+        private final int level;
+        /**
+         * Ctor.
+         */
+        public Deflate() {
+            this(Deflater.DEFAULT_COMPRESSION);
+        }
+        /**
+         * Ctor.
+         * @param lvl Compression level, from 0 to 9 or -1 for default
+         */
+        public Deflate(final int lvl) {
+            this.level = lvl;
+        }
+        @Override
+        public String coding() {
+            return "deflate";
+        }
+        @Override
+        public InputStream encode(final InputStream input) {
+            final Deflater deflater = new Deflater(this.level);
+            return new DeflaterInputStream(
+                input, deflater, Encoder.Deflate.SIZE
+            ) {
+                @Override
+                public void close() throws IOException {
+                    deflater.end();
+                    super.close();
+                }
+            };
+        }
+    }
+
+}
@@ -0,0 +1,166 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.takes.rs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterInputStream;
+
+/**
+ * Input stream that compresses another one with GZIP, on the fly.
+ *
+ * <p>The stream is made of GZIP header, the origin compressed by a raw
+ * {@link Deflater} while it's being read and GZIP trailer with CRC-32
+ * and size of the origin, according to RFC 1952. No more than a small
+ * buffer of bytes is kept in memory, no matter how big the origin is.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+final class GzipInputStream extends InputStream {
+
+    /**
+     * Header: magic, deflate method, no flags, no time, no extra flags
+     * and unknown OS, like {@link java.util.zip.GZIPOutputStream} makes.
+     */
+    private static final byte[] HEADER = {
+        // @checkstyle MagicNumber (1 line)
+        (byte) 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0,
+    };
+
+    /**
+     * Size of the buffer of the deflater.
+     */
+    private static final int SIZE = 8192;
+
+    /**
+     * The origin, with checksum.
+     */
+    private final CheckedInputStream origin;
+
+    /**
+     * The deflater.
+     */
+    private final Deflater deflater;
+
+    /**
+     * Compressed origin.
+     */
+    private final InputStream deflated;
+
+    /**
+     * Header or trailer being read.
+     */
+    private byte[] extra;
+
+    /**
+     * Position in the header or trailer.
+     */
+    private int pos;
+
+    /**
+     * Is the compressed origin over?
+     */
+    private boolean finished;
+
+    /**
+     * Ctor.
+     * @param input The stream to compress
+     * @param level Compression level, from 0 to 9 or -1 for default
+     */
+    GzipInputStream(final InputStream input, final int level) {
+        super();
+        this.origin = new CheckedInputStream(input, new CRC32());
+        this.deflater = new Deflater(level, true);
+        this.deflated = new DeflaterInputStream(
+            this.origin, this.deflater, GzipInputStream.SIZE
+        );
+        this.extra = GzipInputStream.HEADER;
+    }
+
+    @Override
+    public int read() throws IOException {
+        final byte[] one = new byte[1];
+        final int read;
+        if (this.read(one, 0, 1) < 0) {
+            read = -1;
+        } else {
+            // @checkstyle MagicNumber (1 line)
+            read = one[0] & 0xff;
+        }
+        return read;
+    }
+
+    @Override
+    public int read(final byte[] bytes, final int off, final int len)
+        throws IOException {
+        int read = -1;
+        while (read < 0) {
+            if (this.pos < this.extra.length) {
+                read = Math.min(len, this.extra.length - this.pos);
+                System.arraycopy(this.extra, this.pos, bytes, off, read);
+                this.pos += read;
+            } else if (this.finished) {
+                break;
+            } else {
+                read = this.deflated.read(bytes, off, len);
+                if (read < 0) {
+                    this.finished = true;
+                    this.extra = this.trailer();
+                    this.pos = 0;
+                }
+            }
+        }
+        return read;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.deflater.end();
+        this.origin.close();
+    }
+
+    /**
+     * Make the trailer: CRC-32 and size of the origin, little-endian.
+     * @return Trailer
+     */
+    private byte[] trailer() {
+        final long crc = this.origin.getChecksum().getValue();
+        final long size = this.deflater.getBytesRead();
+        // @checkstyle MagicNumber (1 line)
+        final byte[] trailer = new byte[8];
+        for (int idx = 0; idx < Integer.BYTES; ++idx) {
+            // @checkstyle MagicNumber (2 lines)
+            trailer[idx] = (byte) (crc >>> (idx * 8));
+            trailer[idx + Integer.BYTES] = (byte) (size >>> (idx * 8));
+        }
+        this.deflater.end();
+        return trailer;
+    }
+
+}
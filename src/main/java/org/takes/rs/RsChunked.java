@@ -0,0 +1,120 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.takes.rs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Locale;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.takes.Response;
+
+/**
+ * Response with chunked transfer coding, as it goes to the wire.
+ *
+ * <p>Transfer coding is a property of an HTTP/1.1 connection, not of
+ * a response: HTTP/1.0 clients don't understand it and HTTP/2 frames
+ * bodies by itself. That's why takes must not use this class. A take
+ * that doesn't know the length of its body simply returns a response
+ * without {@code Content-Length} and {@link org.takes.http.BkBasic}
+ * wraps it into this class, right before printing it to an HTTP/1.1
+ * client. The body goes in chunks, as it's being read, without
+ * buffering. Responses that are chunked already and responses that
+ * can't have a body, with status 1xx, 204 or 304, are left as they are.
+ *
+ * <p>The class is immutable and thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ * @checkstyle LineLengthCheck (1 lines)
+ * @link <a href="https://tools.ietf.org/html/rfc7230#section-4.1">Chunked Transfer Coding</a>
+ */
+@ToString(callSuper = true)
+@EqualsAndHashCode(callSuper = true)
+public final class RsChunked extends RsWrap {
+
+    /**
+     * Ctor.
+     * @param res Original response
+     */
+    public RsChunked(final Response res) {
+        super(
+            new Response() {
+                @Override
+                public Iterable<String> head() throws IOException {
+                    final Iterable<String> head;
+                    if (RsChunked.chunkable(res)) {
+                        head = new RsWithHeader(
+                            new RsWithoutHeader(res, "Content-Length"),
+                            "Transfer-Encoding", "chunked"
+                        ).head();
+                    } else {
+                        head = res.head();
+                    }
+                    return head;
+                }
+                @Override
+                public InputStream body() throws IOException {
+                    final InputStream body;
+                    if (RsChunked.chunkable(res)) {
+                        body = new ChunkingInputStream(res.body());
+                    } else {
+                        body = res.body();
+                    }
+                    return body;
+                }
+            }
+        );
+    }
+
+    /**
+     * Can the body of this response be chunked?
+     * @param res The response
+     * @return TRUE if it may have a body and it's not chunked yet
+     * @throws IOException If fails
+     */
+    private static boolean chunkable(final Response res) throws IOException {
+        final Iterator<String> lines = res.head().iterator();
+        boolean yes = lines.hasNext() && RsChunked.bodily(lines.next());
+        while (yes && lines.hasNext()) {
+            yes = !lines.next().toLowerCase(Locale.ENGLISH)
+                .startsWith("transfer-encoding:");
+        }
+        return yes;
+    }
+
+    /**
+     * May a response with this status line have a body?
+     * @param status Status line, like "HTTP/1.1 200 OK"
+     * @return TRUE if its status is not 1xx, 204 or 304
+     */
+    static boolean bodily(final String status) {
+        final String[] parts = status.split(" ", 3);
+        return parts.length > 1 && !parts[1].startsWith("1")
+            && !"204".equals(parts[1]) && !"304".equals(parts[1]);
+    }
+
+}
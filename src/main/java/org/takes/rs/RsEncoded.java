@@ -0,0 +1,145 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.takes.rs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.takes.Response;
+
+/**
+ * Response with the body encoded on the fly by an {@link Encoder}.
+ *
+ * <p>The length of the encoded body is not known in advance, so it goes
+ * without {@code Content-Length}; the back-end frames it for the wire,
+ * for example {@link org.takes.http.BkBasic} sends it in chunks to
+ * HTTP/1.1 clients.
+ * A strong {@code ETag} becomes weak, since the encoded body is not the
+ * same representation any more, and {@code Accept-Ranges} is removed,
+ * since byte ranges of the encoded body can't be served. Responses that
+ * are already encoded, partial responses, with status 206 or
+ * {@code Content-Range}, and responses that can't have a body, with
+ * status 1xx, 204 or 304, are left as they are:
+ *
+ * <pre> new RsEncoded(new RsWithBody(path), new Encoder.Gzip())</pre>
+ *
+ * <p>The class is immutable and thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString(callSuper = true)
+@EqualsAndHashCode(callSuper = true)
+public final class RsEncoded extends RsWrap {
+
+    /**
+     * Ctor.
+     * @param res Original response
+     * @param encoder Encoder to use
+     */
+    public RsEncoded(final Response res, final Encoder encoder) {
+        super(
+            new Response() {
+                @Override
+                public Iterable<String> head() throws IOException {
+                    final Iterable<String> head;
+                    if (RsEncoded.encodable(res)) {
+                        head = RsEncoded.head(res, encoder.coding());
+                    } else {
+                        head = res.head();
+                    }
+                    return head;
+                }
+                @Override
+                public InputStream body() throws IOException {
+                    final InputStream body;
+                    if (RsEncoded.encodable(res)) {
+                        body = encoder.encode(res.body());
+                    } else {
+                        body = res.body();
+                    }
+                    return body;
+                }
+            }
+        );
+    }
+
+    /**
+     * Can the body of this response be encoded?
+     * @param res The response
+     * @return TRUE if it has a whole body and it's not encoded yet
+     * @throws IOException If fails
+     */
+    private static boolean encodable(final Response res) throws IOException {
+        final Iterator<String> lines = res.head().iterator();
+        boolean yes = false;
+        if (lines.hasNext()) {
+            final String status = lines.next();
+            yes = RsChunked.bodily(status)
+                && !"206".equals(status.split(" ", 3)[1]);
+        }
+        while (yes && lines.hasNext()) {
+            final String lower = lines.next().toLowerCase(Locale.ENGLISH);
+            yes = !lower.startsWith("content-encoding:")
+                && !lower.startsWith("content-range:");
+        }
+        return yes;
+    }
+
+    /**
+     * Make a head of the encoded response.
+     * @param res The response
+     * @param coding Content coding
+     * @return Head
+     * @throws IOException If fails
+     */
+    private static Iterable<String> head(final Response res,
+        final String coding) throws IOException {
+        final List<String> head = new LinkedList<>();
+        for (final String line : res.head()) {
+            final String lower = line.toLowerCase(Locale.ENGLISH);
+            if (lower.startsWith("etag:")) {
+                final String etag = line.substring(line.indexOf(':') + 1)
+                    .trim();
+                if (etag.startsWith("\"")) {
+                    head.add(String.format("ETag: W/%s", etag));
+                } else {
+                    head.add(line);
+                }
+            } else if (!lower.startsWith("content-length:")
+                && !lower.startsWith("accept-ranges:")) {
+                head.add(line);
+            }
+        }
+        head.add(String.format("Content-Encoding: %s", coding));
+        return head;
+    }
+
+}
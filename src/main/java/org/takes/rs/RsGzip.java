@@ -27,23 +27,38 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPOutputStream;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import org.takes.Response;
+import org.takes.misc.Buffers;
 
 /**
  * Response compressed with GZIP, according to RFC 1952.
  *
+ * <p>By default the entire body is compressed in memory, once, and
+ * the response gets its {@code Content-Length}. With
+ * {@link #RsGzip(Response, int, int)} the body is compressed on the fly,
+ * while it's being read, and goes without {@code Content-Length}, since
+ * its length is not known in advance; the back-end frames it for the
+ * wire, for example {@link org.takes.http.BkBasic} sends it in chunks
+ * to HTTP/1.1 clients. Bodies shorter than the threshold and bodies
+ * already encoded are sent as is in this mode:
+ *
+ * <pre> new RsGzip(new RsWithBody(path), Deflater.BEST_SPEED, 1024)</pre>
+ *
  * <p>The class is immutable and thread-safe.
  *
  * @author Yegor Bugayenko (yegor256@gmail.com)
  * @version $Id$
  * @since 0.10
  */
-@ToString(of = "origin")
+@ToString(of = { "origin", "level", "threshold" })
 @EqualsAndHashCode
 public final class RsGzip implements Response {
 
@@ -57,23 +72,90 @@ public final class RsGzip implements Response {
      */
     private final List<Response> zipped;
 
+    /**
+     * Compression level.
+     */
+    private final int level;
+
+    /**
+     * Minimum length of a body to compress, or negative to compress
+     * in memory, without streaming.
+     */
+    private final int threshold;
+
     /**
      * Ctor.
      * @param res Original response
      */
     public RsGzip(final Response res) {
+        this(res, Deflater.DEFAULT_COMPRESSION, -1);
+    }
+
+    /**
+     * Ctor, for streaming compression.
+     * @param res Original response
+     * @param lvl Compression level, from 0 to 9 or -1 for default
+     * @param min Minimum length of a body to compress, in bytes, if
+     *  the length is known
+     */
+    public RsGzip(final Response res, final int lvl, final int min) {
         this.zipped = new CopyOnWriteArrayList<>();
         this.origin = res;
+        this.level = lvl;
+        this.threshold = min;
     }
 
     @Override
     public Iterable<String> head() throws IOException {
-        return this.make().head();
+        final Iterable<String> head;
+        if (this.threshold < 0) {
+            head = this.make().head();
+        } else if (this.compressible()) {
+            head = new RsWithHeader(
+                new RsWithoutHeader(this.origin, "Content-Length"),
+                "Content-Encoding", "gzip"
+            ).head();
+        } else {
+            head = this.origin.head();
+        }
+        return head;
     }
 
     @Override
     public InputStream body() throws IOException {
-        return this.make().body();
+        final InputStream body;
+        if (this.threshold < 0) {
+            body = this.make().body();
+        } else if (this.compressible()) {
+            body = new GzipInputStream(this.origin.body(), this.level);
+        } else {
+            body = this.origin.body();
+        }
+        return body;
+    }
+
+    /**
+     * Shall the body be compressed on the fly?
+     * @return TRUE if it has a body, not encoded yet and not too short
+     * @throws IOException If fails
+     */
+    private boolean compressible() throws IOException {
+        final Iterator<String> head = this.origin.head().iterator();
+        boolean yes = head.hasNext() && RsChunked.bodily(head.next());
+        while (yes && head.hasNext()) {
+            final String line = head.next().toLowerCase(Locale.ENGLISH);
+            if (line.startsWith("content-encoding:")
+                || line.startsWith("transfer-encoding:")) {
+                yes = false;
+            } else if (line.startsWith("content-length:")) {
+                final String length = line.substring(line.indexOf(':') + 1)
+                    .trim();
+                if (length.matches("\\d{1,18}")) {
+                    yes = Long.parseLong(length) >= this.threshold;
+                }
+            }
+        }
+        return yes;
     }
 
     /**
@@ -88,7 +170,7 @@ public final class RsGzip implements Response {
                     new RsWithHeader(
                         new RsWithBody(
                             this.origin,
-                            RsGzip.gzip(this.origin.body())
+                            RsGzip.gzip(this.origin.body(), this.level)
                         ),
                         "Content-Encoding",
                         "gzip"
@@ -100,17 +182,21 @@ public final class RsGzip implements Response {
     }
 
     /**
-     * Gzip input stream.
+     * Compress the entire stream with GZIP, in memory, and close it.
      * @param input Input stream
-     * @return New input stream
+     * @param lvl Compression level, from 0 to 9 or -1 for default
+     * @return Compressed bytes
      * @throws IOException If fails
      */
-    private static byte[] gzip(final InputStream input)
+    public static byte[] gzip(final InputStream input, final int lvl)
         throws IOException {
         final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        // @checkstyle MagicNumberCheck (1 line)
-        final byte[] buf = new byte[4096];
-        final OutputStream gzip = new GZIPOutputStream(baos);
+        final byte[] buf = Buffers.SHARED.take();
+        final OutputStream gzip = new GZIPOutputStream(baos) {
+            {
+                this.def.setLevel(lvl);
+            }
+        };
         try {
             while (true) {
                 final int len = input.read(buf);
@@ -122,6 +208,7 @@ public final class RsGzip implements Response {
         } finally {
             gzip.close();
             input.close();
+            Buffers.SHARED.give(buf);
         }
         return baos.toByteArray();
     }
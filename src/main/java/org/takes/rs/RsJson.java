@@ -25,10 +25,17 @@ package org.takes.rs;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Iterator;
 import javax.json.Json;
 import javax.json.JsonStructure;
+import javax.json.JsonValue;
 import javax.json.JsonWriter;
+import javax.json.stream.JsonGenerator;
+import javax.json.stream.JsonGeneratorFactory;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import org.takes.Response;
@@ -36,6 +43,20 @@ import org.takes.Response;
 /**
  * Response that converts Java object to JSON.
  *
+ * <p>JSON made by {@link RsJson.Source} is printed entirely into memory.
+ * JSON made by a {@link RsJson.Generator} is printed piece by piece, while
+ * the body is being read, so that no more than a piece of it is kept in
+ * memory. For example, this is how a big JSON array of rows can be sent:
+ *
+ * <pre> new RsJson(new RsJson.Array(rows))</pre>
+ *
+ * <p>The length of such a body is not known in advance, so there is no
+ * {@code Content-Length} header and {@link org.takes.http.BkBasic} sends
+ * the body in chunks. Every call of {@code body()} gets a new generator
+ * from the {@link RsJson.Factory} and generates the JSON again, from the
+ * beginning; {@link RsJson.Array} iterates its elements anew for every
+ * body.
+ *
  * <p>The class is immutable and thread-safe.
  *
  * @author Yegor Bugayenko (yegor256@gmail.com)
@@ -71,6 +92,25 @@ public final class RsJson extends RsWrap {
         this(new RsWithBody(RsJson.print(src)));
     }
 
+    /**
+     * Ctor.
+     * @param factory Factory of generators of JSON, piece by piece
+     */
+    public RsJson(final RsJson.Factory factory) {
+        this(
+            new Response() {
+                @Override
+                public Iterable<String> head() {
+                    return Collections.singletonList("HTTP/1.1 200 OK");
+                }
+                @Override
+                public InputStream body() throws IOException {
+                    return new RsJson.Generated(factory.make());
+                }
+            }
+        );
+    }
+
     /**
      * Ctor.
      * @param res Resource
@@ -110,4 +150,195 @@ public final class RsJson extends RsWrap {
         JsonStructure toJson() throws IOException;
     }
 
+    /**
+     * Generator of JSON, piece by piece.
+     *
+     * <p>It is called again and again, while it returns TRUE, and every
+     * time it is supposed to write a small piece of JSON, for example
+     * one element of a big array. It generates one body only, so it may
+     * keep the state of the body in its fields.
+     */
+    public interface Generator {
+        /**
+         * Write the next piece of JSON.
+         * @param gen JSON generator to write to
+         * @return TRUE if there is more to write
+         * @throws IOException If fails
+         */
+        boolean generate(JsonGenerator gen) throws IOException;
+    }
+
+    /**
+     * Factory of generators, which makes a new generator for every body.
+     */
+    public interface Factory {
+        /**
+         * Make a generator for the next body.
+         * @return Generator
+         * @throws IOException If fails
+         */
+        RsJson.Generator make() throws IOException;
+    }
+
+    /**
+     * JSON array, generated element by element.
+     */
+    public static final class Array implements RsJson.Factory {
+        /**
+         * Elements of the array.
+         */
+        private final Iterable<? extends JsonValue> elements;
+        /**
+         * Ctor.
+         * @param items Elements of the array
+         */
+        public Array(final Iterable<? extends JsonValue> items) {
+            this.elements = items;
+        }
+        @Override
+        public RsJson.Generator make() {
+            return new RsJson.Elements(this.elements.iterator());
+        }
+    }
+
+    /**
+     * Generator of a JSON array, writing one element at a time.
+     */
+    private static final class Elements implements RsJson.Generator {
+        /**
+         * Elements not written yet.
+         */
+        private final Iterator<? extends JsonValue> iterator;
+        /**
+         * Is the start of the array written?
+         */
+        private boolean started;
+        /**
+         * Ctor.
+         * @param iter Iterator over the elements
+         */
+        Elements(final Iterator<? extends JsonValue> iter) {
+            this.iterator = iter;
+        }
+        @Override
+        public boolean generate(final JsonGenerator gen) {
+            if (!this.started) {
+                gen.writeStartArray();
+                this.started = true;
+            }
+            final boolean more = this.iterator.hasNext();
+            if (more) {
+                gen.write(this.iterator.next());
+            } else {
+                gen.writeEnd();
+            }
+            return more;
+        }
+    }
+
+    /**
+     * Stream of JSON, made by a generator while it's being read.
+     */
+    private static final class Generated extends InputStream {
+        /**
+         * Factory of JSON generators, found once.
+         */
+        private static final JsonGeneratorFactory FACTORY =
+            Json.createGeneratorFactory(Collections.<String, Object>emptyMap());
+        /**
+         * Generator of JSON.
+         */
+        private final RsJson.Generator origin;
+        /**
+         * Bytes generated and not read yet.
+         */
+        private final RsJson.Buffer buffer;
+        /**
+         * JSON generator writing into the buffer, made on first read.
+         */
+        private JsonGenerator json;
+        /**
+         * Position in the buffer.
+         */
+        private int pos;
+        /**
+         * Is the generator done?
+         */
+        private boolean done;
+        /**
+         * Ctor.
+         * @param gen Generator of JSON
+         */
+        Generated(final RsJson.Generator gen) {
+            super();
+            this.origin = gen;
+            this.buffer = new RsJson.Buffer();
+        }
+        @Override
+        public int read() throws IOException {
+            final byte[] one = new byte[1];
+            final int read;
+            if (this.read(one, 0, 1) < 0) {
+                read = -1;
+            } else {
+                // @checkstyle MagicNumber (1 line)
+                read = one[0] & 0xff;
+            }
+            return read;
+        }
+        @Override
+        public int read(final byte[] bytes, final int off, final int len)
+            throws IOException {
+            while (this.pos >= this.buffer.size() && !this.done) {
+                this.buffer.reset();
+                this.pos = 0;
+                if (this.json == null) {
+                    this.json = RsJson.Generated.FACTORY.createGenerator(
+                        this.buffer, StandardCharsets.UTF_8
+                    );
+                }
+                if (this.origin.generate(this.json)) {
+                    this.json.flush();
+                } else {
+                    this.json.close();
+                    this.done = true;
+                }
+            }
+            final int read;
+            if (this.pos < this.buffer.size()) {
+                read = this.buffer.drain(
+                    bytes, off, this.pos,
+                    Math.min(len, this.buffer.size() - this.pos)
+                );
+                this.pos += read;
+            } else {
+                read = -1;
+            }
+            return read;
+        }
+        @Override
+        public int available() {
+            return this.buffer.size() - this.pos;
+        }
+    }
+
+    /**
+     * Buffer that gives its bytes away without copying them first.
+     */
+    private static final class Buffer extends ByteArrayOutputStream {
+        /**
+         * Copy bytes out of the buffer.
+         * @param bytes Where to copy
+         * @param off Offset in the destination
+         * @param start Position in the buffer
+         * @param len How many bytes to copy
+         * @return How many bytes copied
+         */
+        public int drain(final byte[] bytes, final int off, final int start,
+            final int len) {
+            System.arraycopy(this.buf, start, bytes, off, len);
+            return len;
+        }
+    }
+
 }
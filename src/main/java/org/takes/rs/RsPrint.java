@@ -24,15 +24,18 @@
 package org.takes.rs;
 
 import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.regex.Pattern;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import org.takes.Response;
-import org.takes.misc.Utf8OutputStreamWriter;
+import org.takes.misc.Buffers;
 import org.takes.misc.Utf8String;
 
 /**
@@ -49,19 +52,25 @@ import org.takes.misc.Utf8String;
 public final class RsPrint extends RsWrap {
 
     /**
-     * Pattern for first line.
+     * Pattern for first line, checked by {@link #first(String)}.
      */
     private static final Pattern FIRST = Pattern.compile(
         "HTTP/1\\.1 \\d{3} [a-zA-Z ]+"
     );
 
     /**
-     * Pattern for all other lines in the head.
+     * Pattern for all other lines in the head, checked
+     * by {@link #other(String)}.
      */
     private static final Pattern OTHERS = Pattern.compile(
         "[a-zA-Z0-9\\-]+:\\p{Print}+"
     );
 
+    /**
+     * End of line.
+     */
+    private static final String EOL = "\r\n";
+
     /**
      * Ctor.
      * @param res Original response
@@ -106,12 +115,66 @@ public final class RsPrint extends RsWrap {
 
     /**
      * Print it into output stream.
+     *
+     * <p>The head and the beginning of the body go out together, in one
+     * write, if they fit into the buffer.
+     *
      * @param output Output to print into
      * @throws IOException If fails
      */
     public void print(final OutputStream output) throws IOException {
-        this.printHead(output);
-        this.printBody(output);
+        final byte[] buf = Buffers.SHARED.take();
+        try {
+            RsPrint.printBody(
+                output, buf, this.printHead(output, buf), this.body()
+            );
+        } finally {
+            output.flush();
+            Buffers.SHARED.give(buf);
+        }
+    }
+
+    /**
+     * Print it into output stream, sending the body straight to the
+     * channel, if it is a file bigger than the space left in the buffer.
+     *
+     * <p>The channel must write to the same destination as the output,
+     * for example to the socket the output stream belongs to. The head is
+     * flushed to the output first and then the file is transferred by
+     * {@link FileChannel#transferTo(long, long, WritableByteChannel)},
+     * which, when the channel is a {@link java.nio.channels.SocketChannel},
+     * doesn't copy the content of the file through the memory of JVM.
+     * The file is closed afterwards.
+     *
+     * @param output Output to print into
+     * @param channel Channel of the same destination
+     * @throws IOException If fails
+     * @since 2.0
+     */
+    public void print(final OutputStream output,
+        final WritableByteChannel channel) throws IOException {
+        final byte[] buf = Buffers.SHARED.take();
+        try {
+            final int pos = this.printHead(output, buf);
+            final InputStream body = this.body();
+            if (body instanceof FileInputStream) {
+                try (final FileChannel file =
+                    ((FileInputStream) body).getChannel()) {
+                    if (file.size() - file.position() > buf.length - pos) {
+                        output.write(buf, 0, pos);
+                        output.flush();
+                        RsPrint.transfer(file, channel);
+                    } else {
+                        RsPrint.printBody(output, buf, pos, body);
+                    }
+                }
+            } else {
+                RsPrint.printBody(output, buf, pos, body);
+            }
+        } finally {
+            output.flush();
+            Buffers.SHARED.give(buf);
+        }
     }
 
     /**
@@ -121,7 +184,13 @@ public final class RsPrint extends RsWrap {
      * @since 0.10
      */
     public void printHead(final OutputStream output) throws IOException {
-        this.printHead(new Utf8OutputStreamWriter(output));
+        final byte[] buf = Buffers.SHARED.take();
+        try {
+            output.write(buf, 0, this.printHead(output, buf));
+        } finally {
+            output.flush();
+            Buffers.SHARED.give(buf);
+        }
     }
 
     /**
@@ -131,33 +200,15 @@ public final class RsPrint extends RsWrap {
      * @since 2.0
      */
     public void printHead(final Writer writer) throws IOException {
-        final String eol = "\r\n";
         int pos = 0;
         try {
             for (final String line : this.head()) {
-                if (pos == 0 && !RsPrint.FIRST.matcher(line).matches()) {
-                    throw new IllegalArgumentException(
-                        String.format(
-                            // @checkstyle LineLength (1 line)
-                            "first line of HTTP response \"%s\" doesn't match \"%s\" regular expression, but it should, according to RFC 7230",
-                            line, RsPrint.FIRST
-                        )
-                    );
-                }
-                if (pos > 0 && !RsPrint.OTHERS.matcher(line).matches()) {
-                    throw new IllegalArgumentException(
-                        String.format(
-                            // @checkstyle LineLength (1 line)
-                            "header line #%d of HTTP response \"%s\" doesn't match \"%s\" regular expression, but it should, according to RFC 7230",
-                            pos + 1, line, RsPrint.OTHERS
-                        )
-                    );
-                }
+                RsPrint.validate(pos, line);
                 writer.append(line);
-                writer.append(eol);
+                writer.append(RsPrint.EOL);
                 ++pos;
             }
-            writer.append(eol);
+            writer.append(RsPrint.EOL);
         } finally {
             writer.flush();
         }
@@ -169,20 +220,181 @@ public final class RsPrint extends RsWrap {
      * @throws IOException If fails
      */
     public void printBody(final OutputStream output) throws IOException {
-        final InputStream body = this.body();
-        //@checkstyle MagicNumberCheck (1 line)
-        final byte[] buf = new byte[4096];
+        final byte[] buf = Buffers.SHARED.take();
         try {
-            while (true) {
-                final int bytes = body.read(buf);
-                if (bytes < 0) {
-                    break;
-                }
-                output.write(buf, 0, bytes);
-            }
+            RsPrint.printBody(output, buf, 0, this.body());
         } finally {
             output.flush();
+            Buffers.SHARED.give(buf);
+        }
+    }
+
+    /**
+     * Print head into the buffer, writing it to the output
+     * only when the buffer is full.
+     * @param output Output to print into
+     * @param buf Buffer
+     * @return How many bytes of the buffer are not written yet
+     * @throws IOException If fails
+     */
+    private int printHead(final OutputStream output, final byte[] buf)
+        throws IOException {
+        int pos = 0;
+        int idx = 0;
+        for (final String line : this.head()) {
+            RsPrint.validate(idx, line);
+            pos = RsPrint.append(output, buf, pos, line);
+            pos = RsPrint.append(output, buf, pos, RsPrint.EOL);
+            ++idx;
+        }
+        return RsPrint.append(output, buf, pos, RsPrint.EOL);
+    }
+
+    /**
+     * Print body through the buffer.
+     * @param output Output to print into
+     * @param buf Buffer
+     * @param start How many bytes of the buffer are already taken
+     * @param body Body
+     * @throws IOException If fails
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    private static void printBody(final OutputStream output, final byte[] buf,
+        final int start, final InputStream body) throws IOException {
+        int pos = start;
+        while (true) {
+            if (pos == buf.length) {
+                output.write(buf, 0, pos);
+                pos = 0;
+            }
+            final int bytes = body.read(buf, pos, buf.length - pos);
+            if (bytes < 0) {
+                break;
+            }
+            pos += bytes;
+        }
+        if (pos > 0) {
+            output.write(buf, 0, pos);
         }
     }
 
+    /**
+     * Transfer the rest of the file to the channel.
+     * @param file The file
+     * @param channel The channel
+     * @throws IOException If fails
+     */
+    private static void transfer(final FileChannel file,
+        final WritableByteChannel channel) throws IOException {
+        final long size = file.size();
+        long pos = file.position();
+        while (pos < size) {
+            final long sent = file.transferTo(pos, size - pos, channel);
+            if (sent <= 0) {
+                break;
+            }
+            pos += sent;
+        }
+        file.position(pos);
+    }
+
+    /**
+     * Append ASCII line to the buffer, writing the buffer to the output
+     * when it is full.
+     * @param output Output
+     * @param buf Buffer
+     * @param start How many bytes of the buffer are already taken
+     * @param line Line, already validated
+     * @return How many bytes of the buffer are taken now
+     * @throws IOException If fails
+     */
+    private static int append(final OutputStream output, final byte[] buf,
+        final int start, final String line) throws IOException {
+        int pos = start;
+        for (int idx = 0; idx < line.length(); ++idx) {
+            if (pos == buf.length) {
+                output.write(buf, 0, pos);
+                pos = 0;
+            }
+            buf[pos] = (byte) line.charAt(idx);
+            ++pos;
+        }
+        return pos;
+    }
+
+    /**
+     * Check the line of the head, without regular expressions.
+     * @param idx Position of the line in the head
+     * @param line The line
+     */
+    private static void validate(final int idx, final String line) {
+        if (idx == 0 && !RsPrint.first(line)) {
+            throw new IllegalArgumentException(
+                String.format(
+                    // @checkstyle LineLength (1 line)
+                    "first line of HTTP response \"%s\" doesn't match \"%s\" regular expression, but it should, according to RFC 7230",
+                    line, RsPrint.FIRST
+                )
+            );
+        }
+        if (idx > 0 && !RsPrint.other(line)) {
+            throw new IllegalArgumentException(
+                String.format(
+                    // @checkstyle LineLength (1 line)
+                    "header line #%d of HTTP response \"%s\" doesn't match \"%s\" regular expression, but it should, according to RFC 7230",
+                    idx + 1, line, RsPrint.OTHERS
+                )
+            );
+        }
+    }
+
+    /**
+     * Does the line match {@link #FIRST}?
+     * @param line The line
+     * @return TRUE if it does
+     * @checkstyle MagicNumberCheck (20 lines)
+     */
+    private static boolean first(final String line) {
+        boolean valid = line.length() > 13 && line.startsWith("HTTP/1.1 ")
+            && line.charAt(12) == ' ';
+        for (int pos = 9; valid && pos < 12; ++pos) {
+            final char chr = line.charAt(pos);
+            valid = chr >= '0' && chr <= '9';
+        }
+        for (int pos = 13; valid && pos < line.length(); ++pos) {
+            final char chr = line.charAt(pos);
+            valid = chr == ' ' || RsPrint.letter(chr);
+        }
+        return valid;
+    }
+
+    /**
+     * Does the line match {@link #OTHERS}?
+     * @param line The line
+     * @return TRUE if it does
+     */
+    private static boolean other(final String line) {
+        final int colon = line.indexOf(':');
+        boolean valid = colon > 0 && colon < line.length() - 1;
+        for (int pos = 0; valid && pos < colon; ++pos) {
+            final char chr = line.charAt(pos);
+            valid = chr == '-' || chr >= '0' && chr <= '9'
+                || RsPrint.letter(chr);
+        }
+        for (int pos = colon + 1; valid && pos < line.length(); ++pos) {
+            final char chr = line.charAt(pos);
+            valid = chr >= ' ' && chr <= '~';
+        }
+        return valid;
+    }
+
+    /**
+     * Is it an ASCII letter?
+     * @param chr Character
+     * @return TRUE if it is
+     */
+    private static boolean letter(final char chr) {
+        return chr >= 'a' && chr <= 'z' || chr >= 'A' && chr <= 'Z';
+    }
+
 }
@@ -27,6 +27,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.nio.charset.Charset;
+import java.nio.file.Path;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import org.takes.Response;
@@ -76,6 +77,16 @@ public final class RsWithBody extends RsWrap {
         this(new RsEmpty(), body);
     }
 
+    /**
+     * Constructs a {@code RsWithBody} with the content of the specified
+     * file as body.
+     * @param path Path of the file
+     * @since 2.0
+     */
+    public RsWithBody(final Path path) {
+        this(new RsEmpty(), path);
+    }
+
     /**
      * Constructs a {@code RsWithBody} with the content located at the specified
      * url as body.
@@ -116,6 +127,16 @@ public final class RsWithBody extends RsWrap {
         this(res, new Body.Url(url));
     }
 
+    /**
+     * Ctor.
+     * @param res Original response
+     * @param path Path of the file with body
+     * @since 2.0
+     */
+    public RsWithBody(final Response res, final Path path) {
+        this(res, new Body.Path(path));
+    }
+
     /**
      * Ctor.
      * @param res Original response
@@ -163,12 +184,12 @@ public final class RsWithBody extends RsWrap {
      * @throws IOException if something goes wrong.
      */
     private static Iterable<String> append(final Response res,
-        final int length) throws IOException {
+        final long length) throws IOException {
         final String header = "Content-Length";
         return new RsWithHeader(
             new RsWithoutHeader(res, header),
             header,
-            Integer.toString(length)
+            Long.toString(length)
         ).head();
     }
 
@@ -167,9 +167,12 @@ public final class RsWithStatus extends RsWrap {
         map.put(HttpURLConnection.HTTP_ENTITY_TOO_LARGE, "Entity Too Large");
         map.put(HttpURLConnection.HTTP_REQ_TOO_LONG, "Request Too Long");
         map.put(HttpURLConnection.HTTP_UNSUPPORTED_TYPE, "Unsupported Type");
+        // @checkstyle MagicNumber (1 line)
+        map.put(431, "Request Header Fields Too Large");
         map.put(HttpURLConnection.HTTP_INTERNAL_ERROR, "Internal Error");
         map.put(HttpURLConnection.HTTP_BAD_GATEWAY, "Bad Gateway");
         map.put(HttpURLConnection.HTTP_NOT_IMPLEMENTED, "Not Implemented");
+        map.put(HttpURLConnection.HTTP_UNAVAILABLE, "Service Unavailable");
         return map;
     }
 
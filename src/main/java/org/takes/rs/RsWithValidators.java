@@ -0,0 +1,131 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.takes.rs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Locale;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.takes.Response;
+
+/**
+ * Response decorator, with {@code Last-Modified} and {@code ETag} headers.
+ *
+ * <p>Both headers are made of the metadata of the resource, its length
+ * and the time of its last modification, so the content of the resource
+ * is never read to make them. The entity tag is strong, since it changes
+ * with every modification of the resource. Nothing is added if the time
+ * of modification is unknown, that is zero or less; the entity tag is not
+ * added if the length is unknown.
+ *
+ * <p>The headers are used by {@link org.takes.tk.TkConditional} to answer
+ * conditional and range requests.
+ *
+ * <p>The class is immutable and thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString(callSuper = true)
+@EqualsAndHashCode(callSuper = true)
+public final class RsWithValidators extends RsWrap {
+
+    /**
+     * Format of HTTP dates, see RFC 7231, section 7.1.1.1.
+     */
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter
+        .ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.ENGLISH)
+        .withZone(ZoneOffset.UTC);
+
+    /**
+     * Ctor.
+     * @param res Original response
+     * @param length Length of the resource in bytes
+     * @param modified Time of the last modification, in milliseconds
+     */
+    public RsWithValidators(final Response res, final long length,
+        final long modified) {
+        super(
+            new Response() {
+                @Override
+                public Iterable<String> head() throws IOException {
+                    return new RsWithHeaders(
+                        new RsWithoutHeader(
+                            new RsWithoutHeader(res, "Last-Modified"),
+                            "ETag"
+                        ),
+                        RsWithValidators.headers(length, modified)
+                    ).head();
+                }
+                @Override
+                public InputStream body() throws IOException {
+                    return res.body();
+                }
+            }
+        );
+    }
+
+    /**
+     * Format HTTP date.
+     * @param time Time in milliseconds
+     * @return Date, for example {@code "Sun, 06 Nov 1994 08:49:37 GMT"}
+     */
+    public static String date(final long time) {
+        return RsWithValidators.FORMAT.format(Instant.ofEpochMilli(time));
+    }
+
+    /**
+     * Make headers.
+     * @param length Length of the resource
+     * @param modified Time of the last modification
+     * @return Headers
+     */
+    private static Collection<String> headers(final long length,
+        final long modified) {
+        final Collection<String> headers = new ArrayList<>(2);
+        if (modified > 0L) {
+            headers.add(
+                String.format(
+                    "Last-Modified: %s", RsWithValidators.date(modified)
+                )
+            );
+            if (length >= 0L) {
+                headers.add(
+                    String.format(
+                        "ETag: \"%x-%x\"", length, modified
+                    )
+                );
+            }
+        }
+        return headers;
+    }
+
+}
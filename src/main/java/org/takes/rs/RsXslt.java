@@ -39,6 +39,7 @@ import javax.xml.transform.stream.StreamSource;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import org.takes.Response;
+import org.takes.misc.Buffers;
 import org.takes.misc.Utf8InputStreamReader;
 import org.takes.misc.Utf8OutputStreamWriter;
 import org.takes.misc.Utf8String;
@@ -180,8 +181,7 @@ public final class RsXslt extends RsWrap {
      */
     private static byte[] consume(final InputStream input) throws IOException {
         final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        //@checkstyle MagicNumberCheck (1 line)
-        final byte[] buf = new byte[4096];
+        final byte[] buf = Buffers.SHARED.take();
         try {
             while (true) {
                 final int bytes = input.read(buf);
@@ -192,6 +192,7 @@ public final class RsXslt extends RsWrap {
             }
         } finally {
             input.close();
+            Buffers.SHARED.give(buf);
         }
         return baos.toByteArray();
     }
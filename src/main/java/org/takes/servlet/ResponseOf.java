@@ -34,6 +34,7 @@ import java.util.regex.Pattern;
 import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServletResponse;
 import org.takes.Response;
+import org.takes.misc.Buffers;
 
 /**
  * Takes response as servlet response.
@@ -46,10 +47,6 @@ import org.takes.Response;
  *  and test for validating servlet response after applying takes request.
  */
 final class ResponseOf {
-    /**
-     * Buffer size.
-     */
-    private static final int BUFSIZE = 8192;
     /**
      * Http response first line head pattern.
      */
@@ -85,10 +82,14 @@ final class ResponseOf {
                 final InputStream body = this.rsp.body();
                 final OutputStream out = sresp.getOutputStream()
             ) {
-                final byte[] buff = new byte[ResponseOf.BUFSIZE];
-                // @checkstyle LineLengthCheck (1 line)
-                for (int read = body.read(buff); read >= 0; read = body.read(buff)) {
-                    out.write(buff);
+                final byte[] buff = Buffers.SHARED.take();
+                try {
+                    // @checkstyle LineLengthCheck (1 line)
+                    for (int read = body.read(buff); read >= 0; read = body.read(buff)) {
+                        out.write(buff, 0, read);
+                    }
+                } finally {
+                    Buffers.SHARED.give(buff);
                 }
             }
         } else {
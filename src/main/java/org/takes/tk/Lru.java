@@ -0,0 +1,188 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.takes.tk;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cache limited by the total size of its values, least recently used
+ * go away first.
+ *
+ * <p>Values are found in a concurrent map, without locks. Hits are
+ * recorded in a queue and applied to the order of values later, in
+ * batches, under the lock, which is taken only by writers and, if it's
+ * free, by the reader which fills the batch. The order is thus
+ * approximate: a value read just before the eviction may be evicted as
+ * if it wasn't read.
+ *
+ * <p>The class is thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ * @param <V> Type of values
+ */
+final class Lru<V> {
+
+    /**
+     * How many hits to record before applying them.
+     */
+    private static final int BATCH = 64;
+
+    /**
+     * Maximum total size of values.
+     */
+    private final long max;
+
+    /**
+     * Values.
+     */
+    private final ConcurrentMap<String, V> map;
+
+    /**
+     * Sizes of values in access order, guarded by the lock.
+     */
+    private final Map<String, Long> order;
+
+    /**
+     * Keys found, but not yet moved in the order.
+     */
+    private final Queue<String> hits;
+
+    /**
+     * How many keys are in the queue of hits.
+     */
+    private final AtomicInteger pending;
+
+    /**
+     * Lock of the order.
+     */
+    private final Lock lock;
+
+    /**
+     * Total size of values, guarded by the lock.
+     */
+    private long size;
+
+    /**
+     * Ctor.
+     * @param limit Maximum total size of values
+     */
+    Lru(final long limit) {
+        this.max = limit;
+        this.map = new ConcurrentHashMap<>(0);
+        // @checkstyle MagicNumber (1 line)
+        this.order = new LinkedHashMap<>(16, 0.75f, true);
+        this.hits = new ConcurrentLinkedQueue<>();
+        this.pending = new AtomicInteger();
+        this.lock = new ReentrantLock();
+    }
+
+    /**
+     * Maximum total size of values.
+     * @return Size
+     */
+    public long limit() {
+        return this.max;
+    }
+
+    /**
+     * Find a value.
+     * @param key Key
+     * @return Value or NULL if it's absent
+     */
+    public V get(final String key) {
+        final V value = this.map.get(key);
+        if (value != null) {
+            this.hits.offer(key);
+            if (this.pending.incrementAndGet() >= Lru.BATCH
+                && this.lock.tryLock()) {
+                try {
+                    this.drain();
+                } finally {
+                    this.lock.unlock();
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Put a value and evict the least recently used ones, unless the value
+     * alone is bigger than the cache.
+     * @param key Key
+     * @param value Value
+     * @param bytes Size of the value
+     */
+    public void put(final String key, final V value, final long bytes) {
+        if (bytes <= this.max) {
+            this.lock.lock();
+            try {
+                this.drain();
+                final Long prev = this.order.put(key, bytes);
+                if (prev != null) {
+                    this.size -= prev;
+                }
+                this.size += bytes;
+                this.map.put(key, value);
+                final Iterator<Map.Entry<String, Long>> iter =
+                    this.order.entrySet().iterator();
+                while (this.size > this.max && iter.hasNext()) {
+                    final Map.Entry<String, Long> eldest = iter.next();
+                    if (!eldest.getKey().equals(key)) {
+                        this.size -= eldest.getValue();
+                        this.map.remove(eldest.getKey());
+                        iter.remove();
+                    }
+                }
+            } finally {
+                this.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Move recently found keys to the end of the order.
+     */
+    private void drain() {
+        while (true) {
+            final String key = this.hits.poll();
+            if (key == null) {
+                break;
+            }
+            this.pending.decrementAndGet();
+            this.order.get(key);
+        }
+    }
+
+}
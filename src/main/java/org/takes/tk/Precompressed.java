@@ -0,0 +1,138 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.takes.tk;
+
+import java.io.IOException;
+import org.takes.Request;
+import org.takes.Response;
+import org.takes.misc.AcceptEncoding;
+import org.takes.rq.RqHeaders;
+import org.takes.rs.RsWithHeader;
+import org.takes.rs.RsWithHeaders;
+
+/**
+ * Precompressed variants of a static resource.
+ *
+ * <p>Siblings of a resource with {@code .br} and {@code .gz} suffixes are
+ * supposed to contain the resource compressed with Brotli and GZIP. When
+ * the client accepts the encoding, the sibling is sent as is, with
+ * {@code Content-Encoding} header, and nothing is compressed on the fly.
+ * The encoding with the highest quality in {@code Accept-Encoding} wins,
+ * and only if its quality is higher than the one of identity, like in
+ * {@link TkEncoded}. Brotli is preferred to GZIP of the same quality,
+ * since it's usually smaller.
+ *
+ * <p>The class is immutable and thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+final class Precompressed {
+
+    /**
+     * Encodings and suffixes of siblings, in order of preference.
+     */
+    private static final String[][] CODINGS = {
+        {"br", ".br"},
+        {"gzip", ".gz"},
+    };
+
+    /**
+     * Siblings of the resource.
+     */
+    private final Precompressed.Siblings siblings;
+
+    /**
+     * Ctor.
+     * @param sbl Siblings of the resource
+     */
+    Precompressed(final Precompressed.Siblings sbl) {
+        this.siblings = sbl;
+    }
+
+    /**
+     * Pick the variant acceptable for the request.
+     * @param req Request
+     * @param plain Resource itself, not compressed
+     * @return Response
+     * @throws IOException If fails
+     */
+    public Response pick(final Request req, final Response plain)
+        throws IOException {
+        final AcceptEncoding accept = new AcceptEncoding(
+            new RqHeaders.Base(req).header("Accept-Encoding")
+        );
+        int top = 0;
+        if (accept.mentions("identity")) {
+            top = accept.quality("identity");
+        }
+        String[] best = null;
+        boolean vary = false;
+        for (final String[] coding : Precompressed.CODINGS) {
+            if (this.siblings.exists(coding[1])) {
+                vary = true;
+                final int quality = accept.quality(coding[0]);
+                if (quality > top) {
+                    top = quality;
+                    best = coding;
+                }
+            }
+        }
+        final Response response;
+        if (best != null) {
+            response = new RsWithHeaders(
+                this.siblings.response(best[1]),
+                String.format("Content-Encoding: %s", best[0]),
+                "Vary: Accept-Encoding"
+            );
+        } else if (vary) {
+            response = new RsWithHeader(plain, "Vary", "Accept-Encoding");
+        } else {
+            response = plain;
+        }
+        return response;
+    }
+
+    /**
+     * Siblings of a resource.
+     */
+    interface Siblings {
+        /**
+         * Does the sibling exist?
+         * @param suffix Suffix of the sibling, like ".gz"
+         * @return TRUE if it exists
+         * @throws IOException If fails
+         */
+        boolean exists(String suffix) throws IOException;
+        /**
+         * Response with the sibling.
+         * @param suffix Suffix of the sibling, like ".gz"
+         * @return Response
+         * @throws IOException If fails
+         */
+        Response response(String suffix) throws IOException;
+    }
+
+}
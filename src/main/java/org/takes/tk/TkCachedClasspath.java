@@ -0,0 +1,462 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.takes.tk;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.takes.Request;
+import org.takes.Response;
+import org.takes.Take;
+import org.takes.facets.fork.FkEncoding;
+import org.takes.facets.fork.RsFork;
+import org.takes.rq.RqHref;
+import org.takes.rs.RsEmpty;
+import org.takes.rs.RsWithBody;
+import org.takes.rs.RsWithHeader;
+import org.takes.rs.RsWithValidators;
+
+/**
+ * Take reading resources from classpath and keeping them in memory.
+ *
+ * <p>This "take" works like {@link TkClasspath}, but the content of every
+ * resource found is read only once and then kept in memory, in a
+ * least-recently-used cache limited by the total number of bytes in it:
+ *
+ * <pre> new TkCachedClasspath("/static", 16L * 1024L * 1024L, true);</pre>
+ *
+ * <p>Resources bigger than the cache, together with their compressed
+ * copies, are not cached: their names are remembered and from then on
+ * they are served by {@link TkClasspath}, without reading them into
+ * memory again. When GZIP is enabled, a compressed copy of every cached
+ * resource is made once and sent to clients that accept "gzip" encoding.
+ * Resources in classpath are supposed to never change, so the cache is
+ * never refreshed. Resources found in the cache are served without
+ * locks.
+ *
+ * <p>Numbers of cache hits and misses are available through
+ * {@link #hits()} and {@link #misses()}.
+ *
+ * <p>The class is thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString(callSuper = true)
+@EqualsAndHashCode(callSuper = true)
+public final class TkCachedClasspath extends TkWrap {
+
+    /**
+     * Default size of the cache, in bytes.
+     */
+    private static final long SIZE = 16L * 1024L * 1024L;
+
+    /**
+     * Cache.
+     */
+    private final TkCachedClasspath.Cache cache;
+
+    /**
+     * Ctor.
+     */
+    public TkCachedClasspath() {
+        this("");
+    }
+
+    /**
+     * Ctor.
+     * @param base Base class
+     */
+    public TkCachedClasspath(final Class<?> base) {
+        this(
+            String.format(
+                "/%s", base.getPackage().getName().replace(".", "/")
+            )
+        );
+    }
+
+    /**
+     * Ctor.
+     * @param prefix Prefix
+     */
+    public TkCachedClasspath(final String prefix) {
+        this(prefix, TkCachedClasspath.SIZE, false);
+    }
+
+    /**
+     * Ctor.
+     * @param prefix Prefix
+     * @param max Maximum total size of cached resources, in bytes
+     * @param gzip Keep a GZIP-compressed copy of every resource?
+     */
+    public TkCachedClasspath(final String prefix, final long max,
+        final boolean gzip) {
+        this(prefix, new TkCachedClasspath.Cache(max, gzip));
+    }
+
+    /**
+     * Ctor.
+     * @param prefix Prefix
+     * @param cache Cache
+     */
+    private TkCachedClasspath(final String prefix,
+        final TkCachedClasspath.Cache cache) {
+        super(
+            new Take() {
+                @Override
+                public Response act(final Request request)
+                    throws IOException {
+                    final String name = String.format(
+                        "%s%s", prefix,
+                        new RqHref.Base(request).href().path()
+                    );
+                    final TkCachedClasspath.Resource resource =
+                        cache.get(name);
+                    final Response response;
+                    if (resource == null) {
+                        response = new TkClasspath(prefix).act(request);
+                    } else {
+                        response = new TkConditional(
+                            new Take() {
+                                @Override
+                                public Response act(final Request req) {
+                                    return resource.response(req);
+                                }
+                            }
+                        ).act(request);
+                    }
+                    return response;
+                }
+            }
+        );
+        this.cache = cache;
+    }
+
+    /**
+     * How many times a resource was found in the cache.
+     * @return Number of hits
+     */
+    public long hits() {
+        return this.cache.hits.get();
+    }
+
+    /**
+     * How many times a resource was not found in the cache.
+     * @return Number of misses
+     */
+    public long misses() {
+        return this.cache.misses.get();
+    }
+
+    /**
+     * Resource kept in memory.
+     */
+    private static final class Resource {
+        /**
+         * Content.
+         */
+        private final byte[] content;
+        /**
+         * Head of the response with the content.
+         */
+        private final List<String> head;
+        /**
+         * Compressed content, maybe empty if not compressed.
+         */
+        private final byte[] zipped;
+        /**
+         * Head of the response with the compressed content.
+         */
+        private final List<String> zhead;
+        /**
+         * Ctor.
+         * @param bytes Content
+         * @param gzip Compressed content, empty if there is no copy
+         * @param modified Time of the last modification
+         * @throws IOException If fails
+         */
+        Resource(final byte[] bytes, final byte[] gzip, final long modified)
+            throws IOException {
+            this.content = bytes;
+            this.zipped = gzip;
+            final Response plain = new RsWithValidators(
+                new RsEmpty(), bytes.length, modified
+            );
+            if (gzip.length > 0) {
+                this.head = TkCachedClasspath.Resource.head(
+                    new RsWithHeader(plain, "Vary", "Accept-Encoding"),
+                    bytes
+                );
+                this.zhead = TkCachedClasspath.Resource.head(
+                    new RsWithHeader(
+                        new RsWithHeader(
+                            new RsWithValidators(
+                                new RsEmpty(), this.zipped.length, modified
+                            ),
+                            "Content-Encoding", "gzip"
+                        ),
+                        "Vary", "Accept-Encoding"
+                    ),
+                    this.zipped
+                );
+            } else {
+                this.head = TkCachedClasspath.Resource.head(plain, bytes);
+                this.zhead = this.head;
+            }
+        }
+        /**
+         * How many bytes of memory it takes.
+         * @return Size
+         */
+        public long size() {
+            return (long) this.content.length + (long) this.zipped.length;
+        }
+        /**
+         * Make a response.
+         * @param req Request
+         * @return Response
+         */
+        public Response response(final Request req) {
+            final Response plain = TkCachedClasspath.Resource.response(
+                this.head, this.content
+            );
+            final Response response;
+            if (this.zipped.length == 0) {
+                response = plain;
+            } else {
+                response = new RsFork(
+                    req,
+                    new FkEncoding(
+                        "gzip",
+                        TkCachedClasspath.Resource.response(
+                            this.zhead, this.zipped
+                        )
+                    ),
+                    new FkEncoding("", plain)
+                );
+            }
+            return response;
+        }
+        /**
+         * Make a response with a head made in advance.
+         * @param head Head
+         * @param body Body
+         * @return Response
+         */
+        private static Response response(final Iterable<String> head,
+            final byte[] body) {
+            return new Response() {
+                @Override
+                public Iterable<String> head() {
+                    return head;
+                }
+                @Override
+                public InputStream body() {
+                    return new ByteArrayInputStream(body);
+                }
+            };
+        }
+        /**
+         * Make a head with the length of the body.
+         * @param res Response
+         * @param body Body
+         * @return Head
+         * @throws IOException If fails
+         */
+        private static List<String> head(final Response res,
+            final byte[] body) throws IOException {
+            final List<String> head = new ArrayList<>(0);
+            for (final String line : new RsWithBody(res, body).head()) {
+                head.add(line);
+            }
+            return Collections.unmodifiableList(head);
+        }
+        /**
+         * Compress with GZIP, giving up as soon as the compressed bytes
+         * don't fit into the room left.
+         * @param bytes Bytes
+         * @param room Maximum size of compressed bytes
+         * @return Compressed bytes or NULL if they don't fit
+         * @throws IOException If fails
+         */
+        private static byte[] gzip(final byte[] bytes, final long room)
+            throws IOException {
+            final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            try (final OutputStream gzip = new GZIPOutputStream(baos)) {
+                // @checkstyle MagicNumber (1 line)
+                for (int pos = 0; pos < bytes.length && baos.size() <= room;
+                    pos += 8192) {
+                    // @checkstyle MagicNumber (1 line)
+                    gzip.write(bytes, pos, Math.min(8192, bytes.length - pos));
+                }
+            }
+            byte[] zipped = null;
+            if (baos.size() <= room) {
+                zipped = baos.toByteArray();
+            }
+            return zipped;
+        }
+    }
+
+    /**
+     * Cache of resources, least recently used go away first.
+     */
+    private static final class Cache {
+        /**
+         * Hits.
+         */
+        private final AtomicLong hits;
+        /**
+         * Misses.
+         */
+        private final AtomicLong misses;
+        /**
+         * Make compressed copies?
+         */
+        private final boolean gzip;
+        /**
+         * Resources.
+         */
+        private final Lru<TkCachedClasspath.Resource> lru;
+        /**
+         * Names of resources too big for the cache.
+         */
+        private final Set<String> big;
+        /**
+         * Ctor.
+         * @param limit Maximum total size of resources
+         * @param zip Make compressed copies?
+         */
+        Cache(final long limit, final boolean zip) {
+            this.hits = new AtomicLong();
+            this.misses = new AtomicLong();
+            this.gzip = zip;
+            this.lru = new Lru<>(limit);
+            this.big = Collections.newSetFromMap(
+                new ConcurrentHashMap<String, Boolean>(0)
+            );
+        }
+        /**
+         * Find a resource or load it into the cache.
+         * @param name Name of the resource
+         * @return Resource or NULL if it is absent or was too big
+         *  for the cache before
+         * @throws IOException If fails
+         */
+        public TkCachedClasspath.Resource get(final String name)
+            throws IOException {
+            TkCachedClasspath.Resource resource = this.lru.get(name);
+            if (resource == null) {
+                this.misses.incrementAndGet();
+                if (!this.big.contains(name)) {
+                    resource = this.load(name);
+                }
+            } else {
+                this.hits.incrementAndGet();
+            }
+            return resource;
+        }
+        /**
+         * Read a resource from classpath and put it into the cache,
+         * if it fits there.
+         * @param name Name of the resource
+         * @return Resource or NULL if it is absent or too big to read
+         * @throws IOException If fails
+         */
+        private TkCachedClasspath.Resource load(final String name)
+            throws IOException {
+            final URL url = TkCachedClasspath.class.getResource(name);
+            TkCachedClasspath.Resource resource = null;
+            if (url != null) {
+                final URLConnection conn = url.openConnection();
+                final long length = conn.getContentLengthLong();
+                if (length >= 0L && length <= this.lru.limit()) {
+                    final byte[] bytes;
+                    try (final InputStream input = conn.getInputStream()) {
+                        bytes = TkCachedClasspath.Cache.read(input, length);
+                    }
+                    final long room = this.lru.limit() - bytes.length;
+                    byte[] zipped = new byte[0];
+                    if (this.gzip) {
+                        zipped = TkCachedClasspath.Resource.gzip(bytes, room);
+                    }
+                    if (zipped == null) {
+                        this.big.add(name);
+                        resource = new TkCachedClasspath.Resource(
+                            bytes, new byte[0], conn.getLastModified()
+                        );
+                    } else {
+                        resource = new TkCachedClasspath.Resource(
+                            bytes, zipped, conn.getLastModified()
+                        );
+                        this.lru.put(name, resource, resource.size());
+                    }
+                } else {
+                    this.big.add(name);
+                    conn.getInputStream().close();
+                }
+            }
+            return resource;
+        }
+        /**
+         * Read the entire stream.
+         * @param input Input stream
+         * @param length Length of the content
+         * @return Bytes
+         * @throws IOException If fails
+         */
+        private static byte[] read(final InputStream input, final long length)
+            throws IOException {
+            final ByteArrayOutputStream baos =
+                new ByteArrayOutputStream((int) length);
+            final byte[] buf = new byte[(int) Math.min(
+                // @checkstyle MagicNumber (1 line)
+                Math.max(length, 1L), 8192L
+            )];
+            while (true) {
+                final int len = input.read(buf);
+                if (len < 0) {
+                    break;
+                }
+                baos.write(buf, 0, len);
+            }
+            return baos.toByteArray();
+        }
+    }
+
+}
@@ -26,6 +26,8 @@ package org.takes.tk;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import org.takes.HttpException;
@@ -33,7 +35,9 @@ import org.takes.Request;
 import org.takes.Response;
 import org.takes.Take;
 import org.takes.rq.RqHref;
-import org.takes.rs.RsWithBody;
+import org.takes.rs.RsEmpty;
+import org.takes.rs.RsWithHeader;
+import org.takes.rs.RsWithValidators;
 
 /**
  * Take reading resources from classpath.
@@ -52,6 +56,16 @@ import org.takes.rs.RsWithBody;
  * <p>If such a resource is not found, {@link org.takes.HttpException}
  * will be thrown.
  *
+ * <p>The response has {@code Last-Modified} and {@code ETag} headers,
+ * made of the metadata of the resource, when the class loader knows it,
+ * and {@link TkConditional} answers conditional and range requests
+ * with them.
+ *
+ * <p>With {@link #TkClasspath(String, boolean)} resources with
+ * {@code .br} and {@code .gz} suffixes next to the requested one, if they
+ * exist, are sent instead of it to clients that accept Brotli or GZIP
+ * encoding, so that nothing has to be compressed on every request.
+ *
  * <p>The class is immutable and thread-safe.
  *
  * @author Yegor Bugayenko (yegor256@gmail.com)
@@ -86,25 +100,108 @@ public final class TkClasspath extends TkWrap {
      * @param prefix Prefix
      */
     public TkClasspath(final String prefix) {
+        this(prefix, false);
+    }
+
+    /**
+     * Ctor.
+     * @param prefix Prefix
+     * @param precompressed Send precompressed siblings, when acceptable
+     */
+    public TkClasspath(final String prefix, final boolean precompressed) {
         super(
-            new Take() {
-                @Override
-                public Response act(final Request request) throws IOException {
-                    final String name = String.format(
-                        "%s%s", prefix, new RqHref.Base(request).href().path()
-                    );
-                    final InputStream input = this.getClass()
-                        .getResourceAsStream(name);
-                    if (input == null) {
-                        throw new HttpException(
-                            HttpURLConnection.HTTP_NOT_FOUND,
-                            String.format("%s not found in classpath", name)
+            new TkConditional(
+                new Take() {
+                    @Override
+                    public Response act(final Request request)
+                        throws IOException {
+                        final String name = String.format(
+                            "%s%s", prefix,
+                            new RqHref.Base(request).href().path()
                         );
+                        final URL url = TkClasspath.class.getResource(name);
+                        if (url == null) {
+                            throw new HttpException(
+                                HttpURLConnection.HTTP_NOT_FOUND,
+                                String.format(
+                                    "%s not found in classpath", name
+                                )
+                            );
+                        }
+                        Response response = TkClasspath.response(url);
+                        if (precompressed) {
+                            response = new Precompressed(
+                                TkClasspath.siblings(name)
+                            ).pick(request, response);
+                        }
+                        return response;
                     }
-                    return new RsWithBody(input);
                 }
-            }
+            )
         );
     }
 
+    /**
+     * Response with the content of the resource.
+     *
+     * <p>The resource is opened only when the body is read, since
+     * {@link TkConditional} may answer without it and a precompressed
+     * sibling may be sent instead. Metadata of some URLs, like files,
+     * can't be read without opening them, so that stream is closed
+     * right away.
+     *
+     * @param url The resource
+     * @return Response
+     * @throws IOException If fails
+     */
+    private static Response response(final URL url) throws IOException {
+        final URLConnection conn = url.openConnection();
+        final long length = conn.getContentLengthLong();
+        Response head = new RsWithValidators(
+            new RsEmpty(), length, conn.getLastModified()
+        );
+        conn.getInputStream().close();
+        if (length >= 0L) {
+            head = new RsWithHeader(
+                head, "Content-Length", Long.toString(length)
+            );
+        }
+        final Response meta = head;
+        return new Response() {
+            @Override
+            public Iterable<String> head() throws IOException {
+                return meta.head();
+            }
+            @Override
+            public InputStream body() throws IOException {
+                return url.openStream();
+            }
+        };
+    }
+
+    /**
+     * Siblings of the resource.
+     * @param name Name of the resource
+     * @return Siblings
+     */
+    private static Precompressed.Siblings siblings(final String name) {
+        return new Precompressed.Siblings() {
+            @Override
+            public boolean exists(final String suffix) {
+                return TkClasspath.class.getResource(
+                    String.format("%s%s", name, suffix)
+                ) != null;
+            }
+            @Override
+            public Response response(final String suffix)
+                throws IOException {
+                return TkClasspath.response(
+                    TkClasspath.class.getResource(
+                        String.format("%s%s", name, suffix)
+                    )
+                );
+            }
+        };
+    }
+
 }
@@ -0,0 +1,742 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.takes.tk;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.takes.Request;
+import org.takes.Response;
+import org.takes.Take;
+import org.takes.misc.EnglishLowerCase;
+import org.takes.misc.Opt;
+import org.takes.misc.Utf8String;
+import org.takes.rq.RqHeaders;
+import org.takes.rq.RqMethod;
+
+/**
+ * Take that answers conditional and range requests.
+ *
+ * <p>The decorator reads the {@code ETag}, {@code Last-Modified} and
+ * {@code Content-Length} headers of a "200 OK" response to GET or HEAD,
+ * for example the ones made by {@link org.takes.rs.RsWithValidators},
+ * and, according to RFC 7232 and RFC 7233, returns:
+ *
+ * <ul>
+ *  <li>"304 Not Modified", if {@code If-None-Match} matches the entity
+ *  tag or, without {@code If-None-Match}, the resource was not modified
+ *  after the date in {@code If-Modified-Since};</li>
+ *  <li>"206 Partial Content" with the requested range of the body, or
+ *  with many ranges as {@code multipart/byteranges}, if there is a
+ *  {@code Range} header and {@code If-Range}, when present, matches;</li>
+ *  <li>"416 Range Not Satisfiable", if none of the ranges overlaps
+ *  the body.</li>
+ * </ul>
+ *
+ * <p>Other responses go through as is, with {@code Accept-Ranges}
+ * header, when their length is known. Overlapping and adjacent ranges are
+ * coalesced and all ranges are sent in ascending order, as RFC 7233
+ * allows. A range request with broken syntax is ignored.
+ *
+ * <p>The content of the body is never read to check the conditions and
+ * only the requested ranges are read to answer a range request, skipping
+ * the rest.
+ *
+ * <p>The class is immutable and thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@ToString(callSuper = true)
+@EqualsAndHashCode(callSuper = true)
+@SuppressWarnings("PMD.TooManyMethods")
+public final class TkConditional extends TkWrap {
+
+    /**
+     * End of line.
+     */
+    private static final String EOL = "\r\n";
+
+    /**
+     * Syntax of a {@code Range} header with byte ranges.
+     */
+    private static final Pattern RANGES = Pattern.compile(
+        "bytes=(\\d+-\\d*|-\\d+)( *, *(\\d+-\\d*|-\\d+))*"
+    );
+
+    /**
+     * Headers kept by "304 Not Modified", see RFC 7232, section 4.1.
+     */
+    private static final Collection<String> KEPT = new HashSet<>(
+        Arrays.asList(
+            "cache-control", "content-location", "date", "etag",
+            "expires", "vary", "last-modified"
+        )
+    );
+
+    /**
+     * Ctor.
+     * @param take Original take
+     */
+    public TkConditional(final Take take) {
+        super(
+            new Take() {
+                @Override
+                public Response act(final Request req) throws IOException {
+                    return TkConditional.answer(req, take.act(req));
+                }
+            }
+        );
+    }
+
+    /**
+     * Answer the request.
+     * @param req Request
+     * @param res Response of the origin
+     * @return Response
+     * @throws IOException If fails
+     */
+    private static Response answer(final Request req, final Response res)
+        throws IOException {
+        final List<String> head = new ArrayList<>(0);
+        for (final String line : res.head()) {
+            head.add(line);
+        }
+        final Map<String, String> headers = TkConditional.headers(head);
+        final String method = new RqMethod.Base(req).method();
+        final Response answer;
+        if (head.isEmpty() || !head.get(0).startsWith("HTTP/1.1 200 ")
+            || !RqMethod.GET.equals(method) && !RqMethod.HEAD.equals(method)) {
+            answer = res;
+        } else if (TkConditional.unmodified(req, headers)) {
+            answer = TkConditional.notModified(head);
+        } else if (headers.containsKey("content-length")) {
+            answer = TkConditional.ranged(req, res, head, headers);
+        } else {
+            answer = res;
+        }
+        return answer;
+    }
+
+    /**
+     * Answer with full or partial content.
+     * @param req Request
+     * @param res Response of the origin
+     * @param head Head of the response
+     * @param headers Headers of the response
+     * @return Response
+     * @throws IOException If fails
+     */
+    private static Response ranged(final Request req, final Response res,
+        final List<String> head, final Map<String, String> headers)
+        throws IOException {
+        final RqHeaders.Smart rqh = new RqHeaders.Smart(req);
+        final String range = rqh.single("range", "").trim();
+        final long length = TkConditional.number(headers.get("content-length"));
+        final Response answer;
+        if (length < 0L || !TkConditional.RANGES.matcher(range).matches()
+            || !TkConditional.current(rqh.single("if-range", ""), headers)) {
+            answer = TkConditional.full(res, head);
+        } else {
+            final Opt<List<long[]>> ranges = TkConditional.ranges(
+                range.substring(range.indexOf('=') + 1), length
+            );
+            if (!ranges.has()) {
+                answer = TkConditional.full(res, head);
+            } else if (ranges.get().isEmpty()) {
+                answer = TkConditional.unsatisfiable(length);
+            } else {
+                answer = TkConditional.partial(
+                    res, head, headers.get("content-type"), length,
+                    ranges.get()
+                );
+            }
+        }
+        return answer;
+    }
+
+    /**
+     * Is the resource not modified, according to the request?
+     * @param req Request
+     * @param headers Headers of the response
+     * @return TRUE if it's not modified
+     * @throws IOException If fails
+     */
+    private static boolean unmodified(final Request req,
+        final Map<String, String> headers) throws IOException {
+        final RqHeaders rqh = new RqHeaders.Base(req);
+        final List<String> tags = rqh.header("if-none-match");
+        final boolean unmodified;
+        if (tags.isEmpty()) {
+            final List<String> since = rqh.header("if-modified-since");
+            final long modified = TkConditional.time(
+                headers.get("last-modified")
+            );
+            unmodified = !since.isEmpty() && modified > 0L
+                && modified <= TkConditional.time(since.get(0));
+        } else {
+            unmodified = TkConditional.matches(
+                String.join(",", tags), headers.get("etag")
+            );
+        }
+        return unmodified;
+    }
+
+    /**
+     * Does the {@code If-None-Match} list match the entity tag, by the
+     * weak comparison?
+     * @param tags The list from the header
+     * @param etag Entity tag of the response or NULL
+     * @return TRUE if it does
+     */
+    private static boolean matches(final String tags, final String etag) {
+        boolean matches = "*".equals(tags.trim());
+        if (!matches && etag != null) {
+            final String mine = TkConditional.opaque(etag);
+            for (final String tag : tags.split(",")) {
+                if (TkConditional.opaque(tag.trim()).equals(mine)) {
+                    matches = true;
+                    break;
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Is the representation still the same as the one {@code If-Range}
+     * refers to?
+     * @param cond Value of {@code If-Range}, maybe empty
+     * @param headers Headers of the response
+     * @return TRUE if it is, or if there is no condition
+     */
+    private static boolean current(final String cond,
+        final Map<String, String> headers) {
+        final String value = cond.trim();
+        final boolean current;
+        if (value.isEmpty()) {
+            current = true;
+        } else if (value.startsWith("\"") || value.startsWith("W/")) {
+            final String etag = headers.get("etag");
+            current = etag != null && !etag.startsWith("W/")
+                && etag.equals(value);
+        } else {
+            final long modified = TkConditional.time(
+                headers.get("last-modified")
+            );
+            current = modified > 0L
+                && modified == TkConditional.time(value);
+        }
+        return current;
+    }
+
+    /**
+     * Parse satisfiable ranges, sorted and coalesced.
+     * @param specs Specs of ranges, like {@code "0-99,500-,-10"}
+     * @param length Length of the body
+     * @return Ranges as pairs of first and last positions, or nothing if
+     *  the ranges are broken and must be ignored
+     */
+    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+    private static Opt<List<long[]>> ranges(final String specs,
+        final long length) {
+        final List<long[]> ranges = new ArrayList<>(1);
+        boolean valid = true;
+        for (final String item : specs.split(",")) {
+            final String spec = item.trim();
+            final int dash = spec.indexOf('-');
+            final long first = TkConditional.number(spec.substring(0, dash));
+            final long last = TkConditional.number(spec.substring(dash + 1));
+            if (dash == 0) {
+                if (last > 0L && length > 0L) {
+                    ranges.add(
+                        new long[] {Math.max(0L, length - last), length - 1L}
+                    );
+                }
+            } else if (last >= 0L && last < first || first < 0L) {
+                valid = false;
+                break;
+            } else if (first < length) {
+                long end = length - 1L;
+                if (last >= 0L && last < end) {
+                    end = last;
+                }
+                ranges.add(new long[] {first, end});
+            }
+        }
+        final Opt<List<long[]>> result;
+        if (valid) {
+            result = new Opt.Single<>(TkConditional.coalesced(ranges));
+        } else {
+            result = new Opt.Empty<>();
+        }
+        return result;
+    }
+
+    /**
+     * Sort and coalesce overlapping and adjacent ranges.
+     * @param ranges Ranges
+     * @return Sorted ranges
+     */
+    private static List<long[]> coalesced(final List<long[]> ranges) {
+        Collections.sort(
+            ranges,
+            new Comparator<long[]>() {
+                @Override
+                public int compare(final long[] left, final long[] right) {
+                    return Long.compare(left[0], right[0]);
+                }
+            }
+        );
+        final List<long[]> result = new ArrayList<>(ranges.size());
+        for (final long[] range : ranges) {
+            if (!result.isEmpty()
+                && result.get(result.size() - 1)[1] + 1L >= range[0]) {
+                final long[] prev = result.get(result.size() - 1);
+                prev[1] = Math.max(prev[1], range[1]);
+            } else {
+                result.add(range);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Full response, which accepts ranges.
+     * @param res Response of the origin
+     * @param head Head of the response
+     * @return Response
+     */
+    private static Response full(final Response res, final List<String> head) {
+        final List<String> lines = new ArrayList<>(head.size() + 1);
+        for (final String line : head) {
+            if (!TkConditional.named(line, "accept-ranges")) {
+                lines.add(line);
+            }
+        }
+        lines.add("Accept-Ranges: bytes");
+        return TkConditional.response(
+            lines,
+            new TkConditional.Content() {
+                @Override
+                public InputStream stream() throws IOException {
+                    return res.body();
+                }
+            }
+        );
+    }
+
+    /**
+     * Response "304 Not Modified".
+     * @param head Head of the response
+     * @return Response
+     */
+    private static Response notModified(final List<String> head) {
+        final List<String> lines = new ArrayList<>(head.size());
+        lines.add("HTTP/1.1 304 Not Modified");
+        for (final String line : head.subList(1, head.size())) {
+            final int colon = line.indexOf(':');
+            if (colon > 0 && TkConditional.KEPT.contains(
+                new EnglishLowerCase(line.substring(0, colon).trim()).string()
+            )) {
+                lines.add(line);
+            }
+        }
+        return TkConditional.response(lines, TkConditional.Content.EMPTY);
+    }
+
+    /**
+     * Response "416 Range Not Satisfiable".
+     * @param length Length of the body
+     * @return Response
+     */
+    private static Response unsatisfiable(final long length) {
+        return TkConditional.response(
+            Arrays.asList(
+                "HTTP/1.1 416 Range Not Satisfiable",
+                String.format("Content-Range: bytes */%d", length),
+                "Content-Length: 0"
+            ),
+            TkConditional.Content.EMPTY
+        );
+    }
+
+    /**
+     * Response "206 Partial Content".
+     * @param res Response of the origin
+     * @param head Head of the response
+     * @param type Content type of the response or NULL
+     * @param length Length of the body
+     * @param ranges Ranges, sorted
+     * @return Response
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    private static Response partial(final Response res,
+        final List<String> head, final String type, final long length,
+        final List<long[]> ranges) {
+        final boolean single = ranges.size() == 1;
+        final List<String> lines = new ArrayList<>(head.size() + 2);
+        lines.add("HTTP/1.1 206 Partial Content");
+        for (final String line : head.subList(1, head.size())) {
+            if (!TkConditional.named(line, "content-length")
+                && !TkConditional.named(line, "content-range")
+                && !TkConditional.named(line, "accept-ranges")
+                && (single || !TkConditional.named(line, "content-type"))) {
+                lines.add(line);
+            }
+        }
+        lines.add("Accept-Ranges: bytes");
+        final Response partial;
+        if (single) {
+            final long[] range = ranges.get(0);
+            lines.add(
+                String.format(
+                    "Content-Range: bytes %d-%d/%d",
+                    range[0], range[1], length
+                )
+            );
+            lines.add(
+                String.format("Content-Length: %d", range[1] - range[0] + 1L)
+            );
+            partial = TkConditional.response(
+                lines,
+                new TkConditional.Content() {
+                    @Override
+                    public InputStream stream() throws IOException {
+                        return new TkConditional.Slice(
+                            res.body(), range[0], range[1] - range[0] + 1L
+                        );
+                    }
+                }
+            );
+        } else {
+            partial = TkConditional.multipart(
+                res, lines, type, length, ranges
+            );
+        }
+        return partial;
+    }
+
+    /**
+     * Response "206 Partial Content" with {@code multipart/byteranges}.
+     * @param res Response of the origin
+     * @param lines Head of the response, without content type and length
+     * @param type Content type of the response or NULL
+     * @param length Length of the body
+     * @param ranges Ranges, sorted
+     * @return Response
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    private static Response multipart(final Response res,
+        final List<String> lines, final String type, final long length,
+        final List<long[]> ranges) {
+        final String boundary = String.format(
+            "%016x", ThreadLocalRandom.current().nextLong()
+        );
+        final List<byte[]> parts = new ArrayList<>(ranges.size() + 1);
+        long total = 0L;
+        for (final long[] range : ranges) {
+            final StringBuilder part = new StringBuilder(0);
+            if (!parts.isEmpty()) {
+                part.append(TkConditional.EOL);
+            }
+            part.append("--").append(boundary).append(TkConditional.EOL);
+            if (type != null) {
+                part.append("Content-Type: ").append(type)
+                    .append(TkConditional.EOL);
+            }
+            part.append(
+                String.format(
+                    "Content-Range: bytes %d-%d/%d",
+                    range[0], range[1], length
+                )
+            ).append(TkConditional.EOL).append(TkConditional.EOL);
+            final byte[] bytes = new Utf8String(part.toString()).bytes();
+            parts.add(bytes);
+            total += bytes.length + range[1] - range[0] + 1L;
+        }
+        final byte[] close = new Utf8String(
+            String.format(
+                "%s--%s--%s", TkConditional.EOL, boundary, TkConditional.EOL
+            )
+        ).bytes();
+        total += close.length;
+        lines.add(
+            String.format(
+                "Content-Type: multipart/byteranges; boundary=%s", boundary
+            )
+        );
+        lines.add(String.format("Content-Length: %d", total));
+        return TkConditional.response(
+            lines,
+            new TkConditional.Content() {
+                @Override
+                public InputStream stream() throws IOException {
+                    final InputStream body = res.body();
+                    final List<InputStream> streams = new ArrayList<>(
+                        ranges.size() * 2 + 1
+                    );
+                    long pos = 0L;
+                    for (int idx = 0; idx < ranges.size(); ++idx) {
+                        final long[] range = ranges.get(idx);
+                        streams.add(new ByteArrayInputStream(parts.get(idx)));
+                        streams.add(
+                            new TkConditional.Slice(
+                                body, range[0] - pos,
+                                range[1] - range[0] + 1L
+                            )
+                        );
+                        pos = range[1] + 1L;
+                    }
+                    streams.add(new ByteArrayInputStream(close));
+                    return new SequenceInputStream(
+                        Collections.enumeration(streams)
+                    );
+                }
+            }
+        );
+    }
+
+    /**
+     * Make a response.
+     * @param head Head
+     * @param content Content of the body
+     * @return Response
+     */
+    private static Response response(final Iterable<String> head,
+        final TkConditional.Content content) {
+        return new Response() {
+            @Override
+            public Iterable<String> head() {
+                return head;
+            }
+            @Override
+            public InputStream body() throws IOException {
+                return content.stream();
+            }
+        };
+    }
+
+    /**
+     * Headers of the response by their lower-case names, first values only.
+     * @param head Head of the response
+     * @return Headers
+     */
+    private static Map<String, String> headers(final List<String> head) {
+        final Map<String, String> headers = new HashMap<>(head.size());
+        for (final String line : head) {
+            final int colon = line.indexOf(':');
+            if (colon > 0) {
+                final String name = new EnglishLowerCase(
+                    line.substring(0, colon).trim()
+                ).string();
+                if (!headers.containsKey(name)) {
+                    headers.put(name, line.substring(colon + 1).trim());
+                }
+            }
+        }
+        return headers;
+    }
+
+    /**
+     * Is it a header with this lower-case name?
+     * @param line Line of the head
+     * @param name Name of the header
+     * @return TRUE if it is
+     */
+    private static boolean named(final String line, final String name) {
+        return line.length() > name.length()
+            && line.charAt(name.length()) == ':'
+            && line.regionMatches(true, 0, name, 0, name.length());
+    }
+
+    /**
+     * Opaque part of an entity tag, without weakness indicator.
+     * @param etag Entity tag
+     * @return Opaque tag
+     */
+    private static String opaque(final String etag) {
+        final String tag;
+        if (etag.startsWith("W/")) {
+            tag = etag.substring(2);
+        } else {
+            tag = etag;
+        }
+        return tag;
+    }
+
+    /**
+     * Parse HTTP date.
+     * @param date Date or NULL
+     * @return Time in milliseconds, or -1 if it is not a valid date
+     */
+    private static long time(final String date) {
+        long time = -1L;
+        if (date != null) {
+            try {
+                time = ZonedDateTime.parse(
+                    date.trim(), DateTimeFormatter.RFC_1123_DATE_TIME
+                ).toInstant().toEpochMilli();
+            } catch (final DateTimeParseException ex) {
+                time = -1L;
+            }
+        }
+        return time;
+    }
+
+    /**
+     * Parse non-negative decimal number.
+     * @param text Text or NULL
+     * @return The number, or -1 if it is not a valid number
+     */
+    private static long number(final String text) {
+        long number = -1L;
+        if (text != null && !text.isEmpty()) {
+            try {
+                number = Long.parseLong(text.trim());
+            } catch (final NumberFormatException ex) {
+                number = -1L;
+            }
+        }
+        return number;
+    }
+
+    /**
+     * Content of a body, opened on demand.
+     */
+    private interface Content {
+        /**
+         * No content.
+         */
+        TkConditional.Content EMPTY = new TkConditional.Content() {
+            @Override
+            public InputStream stream() {
+                return new ByteArrayInputStream(new byte[0]);
+            }
+        };
+        /**
+         * Open the content.
+         * @return Stream
+         * @throws IOException If fails
+         */
+        InputStream stream() throws IOException;
+    }
+
+    /**
+     * Part of a stream: skips some bytes and reads no more than a limit.
+     */
+    private static final class Slice extends InputStream {
+        /**
+         * Origin.
+         */
+        private final InputStream origin;
+        /**
+         * How many bytes to skip yet.
+         */
+        private long skip;
+        /**
+         * How many bytes to read yet.
+         */
+        private long left;
+        /**
+         * Ctor.
+         * @param input Origin
+         * @param offset How many bytes to skip
+         * @param length How many bytes to read
+         */
+        Slice(final InputStream input, final long offset, final long length) {
+            super();
+            this.origin = input;
+            this.skip = offset;
+            this.left = length;
+        }
+        @Override
+        public int read() throws IOException {
+            final byte[] buf = new byte[1];
+            final int read;
+            if (this.read(buf, 0, 1) < 0) {
+                read = -1;
+            } else {
+                // @checkstyle MagicNumber (1 line)
+                read = buf[0] & 0xff;
+            }
+            return read;
+        }
+        @Override
+        public int read(final byte[] buf, final int off, final int len)
+            throws IOException {
+            this.seek();
+            final int read;
+            if (this.left <= 0L) {
+                read = -1;
+            } else {
+                read = this.origin.read(
+                    buf, off, (int) Math.min((long) len, this.left)
+                );
+                if (read > 0) {
+                    this.left -= read;
+                }
+            }
+            return read;
+        }
+        /**
+         * Skip the bytes before the slice.
+         * @throws IOException If fails
+         */
+        private void seek() throws IOException {
+            while (this.skip > 0L) {
+                long skipped = this.origin.skip(this.skip);
+                if (skipped <= 0L) {
+                    if (this.origin.read() < 0) {
+                        this.left = 0L;
+                        this.skip = 0L;
+                        break;
+                    }
+                    skipped = 1L;
+                }
+                this.skip -= skipped;
+            }
+        }
+    }
+
+}
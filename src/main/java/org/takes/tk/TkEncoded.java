@@ -0,0 +1,157 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.takes.tk;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.takes.Request;
+import org.takes.Response;
+import org.takes.Take;
+import org.takes.misc.AcceptEncoding;
+import org.takes.misc.Opt;
+import org.takes.rq.RqHeaders;
+import org.takes.rs.Encoder;
+import org.takes.rs.RsEncoded;
+import org.takes.rs.RsWithHeader;
+
+/**
+ * Take that encodes responses with the best content coding
+ * the client accepts.
+ *
+ * <p>Quality values of {@code Accept-Encoding} headers are respected,
+ * see {@link AcceptEncoding}. When qualities are equal, the encoder
+ * that goes first in the list wins. A coding is only used if its quality
+ * is higher than the one the client gives to {@code identity}, if it
+ * gives any. The body is encoded on the fly, by
+ * {@link RsEncoded}, and every response gets
+ * {@code Vary: Accept-Encoding} header:
+ *
+ * <pre> new TkEncoded(take, new Encoder.Gzip(), new Encoder.Deflate())</pre>
+ *
+ * <p>By default encoders found by {@link ServiceLoader} are used first,
+ * since they are supposed to be better than GZIP and deflate, which go
+ * after them.
+ *
+ * <p>The class is immutable and thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@ToString(callSuper = true)
+@EqualsAndHashCode(callSuper = true)
+public final class TkEncoded extends TkWrap {
+
+    /**
+     * Ctor.
+     * @param take Original take
+     */
+    public TkEncoded(final Take take) {
+        this(take, TkEncoded.available());
+    }
+
+    /**
+     * Ctor.
+     * @param take Original take
+     * @param encoders Encoders, in order of preference
+     */
+    public TkEncoded(final Take take, final Encoder... encoders) {
+        this(take, Arrays.asList(encoders));
+    }
+
+    /**
+     * Ctor.
+     * @param take Original take
+     * @param encoders Encoders, in order of preference
+     */
+    public TkEncoded(final Take take, final Iterable<Encoder> encoders) {
+        super(
+            new Take() {
+                @Override
+                public Response act(final Request req) throws IOException {
+                    final Response response = new RsWithHeader(
+                        take.act(req), "Vary", "Accept-Encoding"
+                    );
+                    final Opt<Encoder> best = TkEncoded.best(req, encoders);
+                    final Response encoded;
+                    if (best.has()) {
+                        encoded = new RsEncoded(response, best.get());
+                    } else {
+                        encoded = response;
+                    }
+                    return encoded;
+                }
+            }
+        );
+    }
+
+    /**
+     * Find the best encoder for the request.
+     * @param req Request
+     * @param encoders Encoders, in order of preference
+     * @return Encoder, if the client accepts any
+     * @throws IOException If fails
+     */
+    private static Opt<Encoder> best(final Request req,
+        final Iterable<Encoder> encoders) throws IOException {
+        final AcceptEncoding accept = new AcceptEncoding(
+            new RqHeaders.Base(req).header("Accept-Encoding")
+        );
+        Opt<Encoder> best = new Opt.Empty<>();
+        int top = 0;
+        if (accept.mentions("identity")) {
+            top = accept.quality("identity");
+        }
+        for (final Encoder encoder : encoders) {
+            final int quality = accept.quality(encoder.coding());
+            if (quality > top) {
+                top = quality;
+                best = new Opt.Single<>(encoder);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Encoders found by {@link ServiceLoader}, then GZIP and deflate.
+     * @return Encoders, one per content coding
+     */
+    private static Iterable<Encoder> available() {
+        final Map<String, Encoder> all = new LinkedHashMap<>(0);
+        for (final Encoder encoder : ServiceLoader.load(Encoder.class)) {
+            all.putIfAbsent(encoder.coding(), encoder);
+        }
+        for (final Encoder encoder
+            : Arrays.asList(new Encoder.Gzip(), new Encoder.Deflate())) {
+            all.putIfAbsent(encoder.coding(), encoder);
+        }
+        return all.values();
+    }
+
+}
@@ -24,7 +24,6 @@
 package org.takes.tk;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.net.HttpURLConnection;
 import lombok.EqualsAndHashCode;
@@ -34,7 +33,9 @@ import org.takes.Request;
 import org.takes.Response;
 import org.takes.Take;
 import org.takes.rq.RqHref;
+import org.takes.rs.RsEmpty;
 import org.takes.rs.RsWithBody;
+import org.takes.rs.RsWithValidators;
 
 /**
  * Take reading resources from directory.
@@ -53,6 +54,20 @@ import org.takes.rs.RsWithBody;
  * <p>If such a resource is not found, {@link org.takes.HttpException}
  * will be thrown.
  *
+ * <p>The response has {@code Last-Modified} and {@code ETag} headers,
+ * made of the metadata of the file, and {@link TkConditional} answers
+ * conditional and range requests with them.
+ *
+ * <p>The length of the file is taken from the file system and its content
+ * is sent by {@link org.takes.rs.RsPrint} straight to the socket, with
+ * {@link java.nio.channels.FileChannel#transferTo(long, long,
+ * java.nio.channels.WritableByteChannel)}, when the socket has a channel.
+ *
+ * <p>With {@link #TkFiles(File, boolean)} siblings of the file with
+ * {@code .br} and {@code .gz} suffixes, if they exist, are sent instead
+ * of the file to clients that accept Brotli or GZIP encoding, so that
+ * nothing has to be compressed on every request.
+ *
  * <p>The class is immutable and thread-safe.
  *
  * @author Yegor Bugayenko (yegor256@gmail.com)
@@ -76,25 +91,79 @@ public final class TkFiles extends TkWrap {
      * @param base Base directory
      */
     public TkFiles(final File base) {
+        this(base, false);
+    }
+
+    /**
+     * Ctor.
+     * @param base Base directory
+     * @param precompressed Send precompressed siblings, when acceptable
+     */
+    public TkFiles(final File base, final boolean precompressed) {
         super(
-            new Take() {
-                @Override
-                public Response act(final Request request) throws IOException {
-                    final File file = new File(
-                        base, new RqHref.Base(request).href().path()
-                    );
-                    if (!file.exists()) {
-                        throw new HttpException(
-                            HttpURLConnection.HTTP_NOT_FOUND,
-                            String.format(
-                                "%s not found", file.getAbsolutePath()
-                            )
+            new TkConditional(
+                new Take() {
+                    @Override
+                    public Response act(final Request request)
+                        throws IOException {
+                        final File file = new File(
+                            base, new RqHref.Base(request).href().path()
                         );
+                        if (!file.exists()) {
+                            throw new HttpException(
+                                HttpURLConnection.HTTP_NOT_FOUND,
+                                String.format(
+                                    "%s not found", file.getAbsolutePath()
+                                )
+                            );
+                        }
+                        Response response = TkFiles.response(file);
+                        if (precompressed) {
+                            response = new Precompressed(
+                                TkFiles.siblings(file)
+                            ).pick(request, response);
+                        }
+                        return response;
                     }
-                    return new RsWithBody(new FileInputStream(file));
                 }
-            }
+            )
         );
     }
 
+    /**
+     * Response with the content of the file.
+     * @param file The file
+     * @return Response
+     */
+    private static Response response(final File file) {
+        return new RsWithBody(
+            new RsWithValidators(
+                new RsEmpty(), file.length(), file.lastModified()
+            ),
+            file.toPath()
+        );
+    }
+
+    /**
+     * Siblings of the file.
+     * @param file The file
+     * @return Siblings
+     */
+    private static Precompressed.Siblings siblings(final File file) {
+        return new Precompressed.Siblings() {
+            @Override
+            public boolean exists(final String suffix) {
+                return new File(
+                    String.format("%s%s", file.getPath(), suffix)
+                ).isFile();
+            }
+            @Override
+            public Response response(final String suffix) {
+                return TkFiles.response(
+                    new File(String.format("%s%s", file.getPath(), suffix))
+                );
+            }
+        };
+    }
+
 }
@@ -24,6 +24,12 @@
 package org.takes.tk;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.Deflater;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import org.takes.Request;
@@ -31,11 +37,27 @@ import org.takes.Response;
 import org.takes.Take;
 import org.takes.facets.fork.FkEncoding;
 import org.takes.facets.fork.RsFork;
+import org.takes.rq.RqHref;
+import org.takes.rq.RqMethod;
 import org.takes.rs.RsGzip;
+import org.takes.rs.RsWithBody;
+import org.takes.rs.RsWithHeader;
+import org.takes.rs.RsWithHeaders;
+import org.takes.rs.RsWithoutHeader;
 
 /**
  * Take that compresses responses with GZIP.
  *
+ * <p>With {@link #TkGzip(Take, long)} compressed bodies of responses to
+ * {@code GET} requests are kept in memory, bounded by the given total
+ * size, and found by URI and strong {@code ETag} of the response. A
+ * response which is dynamic, but stable, is compressed only once this way,
+ * while its {@code ETag} stays the same. The compressed response gets
+ * a weak version of the {@code ETag}, since it's not the same
+ * representation any more. Responses without strong {@code ETag} are
+ * compressed every time, as usual. Both compressed and plain responses
+ * get {@code Vary: Accept-Encoding} header in this mode.
+ *
  * <p>The class is immutable and thread-safe.
  *
  * @author Yegor Bugayenko (yegor256@gmail.com)
@@ -66,4 +88,168 @@ public final class TkGzip extends TkWrap {
         );
     }
 
+    /**
+     * Ctor.
+     * @param take Original take
+     * @param max Maximum total size of compressed bodies kept in memory
+     */
+    public TkGzip(final Take take, final long max) {
+        this(take, new Lru<>(max));
+    }
+
+    /**
+     * Ctor.
+     * @param take Original take
+     * @param cache Cache of compressed bodies
+     */
+    private TkGzip(final Take take, final Lru<byte[]> cache) {
+        super(
+            new Take() {
+                @Override
+                public Response act(final Request req) throws IOException {
+                    final Response response = take.act(req);
+                    final Response zipped;
+                    if (RqMethod.GET.equals(new RqMethod.Base(req).method())) {
+                        zipped = new TkGzip.Cached(
+                            response,
+                            new RqHref.Base(req).href().toString(),
+                            cache
+                        );
+                    } else {
+                        zipped = new RsGzip(response);
+                    }
+                    return new RsFork(
+                        req,
+                        new FkEncoding(
+                            "gzip",
+                            new RsWithHeader(zipped, "Vary", "Accept-Encoding")
+                        ),
+                        new FkEncoding(
+                            "",
+                            new RsWithHeader(
+                                response, "Vary", "Accept-Encoding"
+                            )
+                        )
+                    );
+                }
+            }
+        );
+    }
+
+    /**
+     * Response compressed with GZIP, with the body kept in the cache.
+     */
+    private static final class Cached implements Response {
+        /**
+         * Original response.
+         */
+        private final Response origin;
+        /**
+         * URI of the request.
+         */
+        private final String uri;
+        /**
+         * Cache.
+         */
+        private final Lru<byte[]> cache;
+        /**
+         * Compressed response, made once.
+         */
+        private final List<Response> zipped;
+        /**
+         * Ctor.
+         * @param res Original response
+         * @param addr URI of the request
+         * @param cch Cache
+         */
+        Cached(final Response res, final String addr, final Lru<byte[]> cch) {
+            this.origin = res;
+            this.uri = addr;
+            this.cache = cch;
+            this.zipped = new CopyOnWriteArrayList<>();
+        }
+        @Override
+        public Iterable<String> head() throws IOException {
+            return this.make().head();
+        }
+        @Override
+        public InputStream body() throws IOException {
+            return this.make().body();
+        }
+        /**
+         * Make a response.
+         * @return Response just made
+         * @throws IOException If fails
+         */
+        private Response make() throws IOException {
+            synchronized (this.zipped) {
+                if (this.zipped.isEmpty()) {
+                    final String etag = TkGzip.Cached.etag(this.origin);
+                    if (etag.isEmpty()) {
+                        this.zipped.add(new RsGzip(this.origin));
+                    } else {
+                        this.zipped.add(this.cached(etag));
+                    }
+                }
+            }
+            return this.zipped.get(0);
+        }
+        /**
+         * Make a response with the body from cache.
+         * @param etag Strong ETag of the original response
+         * @return Response
+         * @throws IOException If fails
+         */
+        private Response cached(final String etag) throws IOException {
+            final String key = String.format("%s %s", this.uri, etag);
+            byte[] bytes = this.cache.get(key);
+            if (bytes == null) {
+                bytes = RsGzip.gzip(
+                    this.origin.body(), Deflater.DEFAULT_COMPRESSION
+                );
+                this.cache.put(key, bytes, (long) bytes.length);
+            } else {
+                this.origin.body().close();
+            }
+            return new RsWithBody(
+                new RsWithHeaders(
+                    new RsWithoutHeader(
+                        new RsWithoutHeader(this.origin, "ETag"),
+                        "Accept-Ranges"
+                    ),
+                    "Content-Encoding: gzip",
+                    String.format("ETag: W/%s", etag)
+                ),
+                bytes
+            );
+        }
+        /**
+         * Strong ETag of a successful response, which is not encoded yet.
+         * @param res Response
+         * @return ETag or empty string if there is none
+         * @throws IOException If fails
+         */
+        private static String etag(final Response res) throws IOException {
+            final Iterator<String> head = res.head().iterator();
+            String etag = "";
+            if (head.hasNext() && head.next().matches("HTTP/[\\d.]+ 200 .*")) {
+                while (head.hasNext()) {
+                    final String line = head.next();
+                    final String lower = line.toLowerCase(Locale.ENGLISH);
+                    if (lower.startsWith("content-encoding:")) {
+                        etag = "";
+                        break;
+                    }
+                    if (lower.startsWith("etag:")) {
+                        etag = line.substring(line.indexOf(':') + 1).trim();
+                    }
+                }
+            }
+            if (!etag.startsWith("\"")) {
+                etag = "";
+            }
+            return etag;
+        }
+    }
+
 }
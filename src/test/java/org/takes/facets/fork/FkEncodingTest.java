@@ -66,4 +66,31 @@ public final class FkEncodingTest {
         );
     }
 
+    /**
+     * FkEncoding can respect quality values.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void respectsQualityValues() throws IOException {
+        final String header = "Accept-Encoding";
+        MatcherAssert.assertThat(
+            new FkEncoding("gzip", new RsEmpty()).route(
+                new RqWithHeader(new RqFake(), header, "br, gzip;q=0.5")
+            ).has(),
+            Matchers.is(true)
+        );
+        MatcherAssert.assertThat(
+            new FkEncoding("gzip", new RsEmpty()).route(
+                new RqWithHeader(new RqFake(), header, "*, gzip;q=0")
+            ).has(),
+            Matchers.is(false)
+        );
+        MatcherAssert.assertThat(
+            new FkEncoding("deflate", new RsEmpty()).route(
+                new RqWithHeader(new RqFake(), header, "gzip, *;q=0.1")
+            ).has(),
+            Matchers.is(true)
+        );
+    }
+
 }
@@ -0,0 +1,133 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.takes.facets.fork;
+
+import java.io.IOException;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.takes.Response;
+import org.takes.rq.RqFake;
+import org.takes.rs.RsPrint;
+import org.takes.rs.RsText;
+import org.takes.tk.TkEmpty;
+
+/**
+ * Test case for {@link FkTree}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class FkTreeTest {
+
+    /**
+     * FkTree can route by literal and parameterised paths.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void routesByPaths() throws IOException {
+        final Fork fork = FkTreeTest.tree();
+        MatcherAssert.assertThat(
+            FkTreeTest.body(fork, "/"),
+            Matchers.equalTo("home")
+        );
+        MatcherAssert.assertThat(
+            FkTreeTest.body(fork, "/Account/"),
+            Matchers.equalTo("account")
+        );
+        MatcherAssert.assertThat(
+            FkTreeTest.body(fork, "/user/jeff?x=1"),
+            Matchers.equalTo("user jeff")
+        );
+        MatcherAssert.assertThat(
+            FkTreeTest.body(fork, "/files/a/b.txt"),
+            Matchers.equalTo("any")
+        );
+    }
+
+    /**
+     * FkTree can respect the order of declaration.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void respectsOrderOfRoutes() throws IOException {
+        MatcherAssert.assertThat(
+            FkTreeTest.body(FkTreeTest.tree(), "/user/admin"),
+            Matchers.equalTo("user admin")
+        );
+    }
+
+    /**
+     * FkTree can return nothing if no route matches.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void returnsEmptyWhenNothingMatches() throws IOException {
+        MatcherAssert.assertThat(
+            new FkTree(
+                new FkRegex("/a", new TkEmpty()),
+                new FkRegex("/b/[0-9]+", new TkEmpty())
+            ).route(new RqFake("GET", "/b/x")).has(),
+            Matchers.is(false)
+        );
+    }
+
+    /**
+     * Make a tree with a few routes.
+     * @return Fork
+     */
+    private static Fork tree() {
+        return new FkTree(
+            new FkRegex("/", "home"),
+            new FkRegex("/account", "account"),
+            new FkRegex(
+                "/user/([a-z]+)",
+                new TkRegex() {
+                    @Override
+                    public Response act(final RqRegex req) {
+                        return new RsText(
+                            String.format("user %s", req.matcher().group(1))
+                        );
+                    }
+                }
+            ),
+            new FkRegex("/user/admin", "admin"),
+            new FkRegex("/.*", "any")
+        );
+    }
+
+    /**
+     * Route the path and print the body of the response.
+     * @param fork Fork
+     * @param path Path
+     * @return Body
+     * @throws IOException If some problem inside
+     */
+    private static String body(final Fork fork, final String path)
+        throws IOException {
+        return new RsPrint(fork.route(new RqFake("GET", path)).get())
+            .printBody();
+    }
+
+}
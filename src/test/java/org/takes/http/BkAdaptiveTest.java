@@ -0,0 +1,136 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.takes.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link BkAdaptive}.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class BkAdaptiveTest {
+
+    /**
+     * BkAdaptive can reject sockets over the limit.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void rejectsSocketsOverLimit() throws Exception {
+        final CountDownLatch busy = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(1);
+        final BkAdaptive back = new BkAdaptive(
+            new Back() {
+                @Override
+                public void accept(final Socket socket) {
+                    busy.countDown();
+                    try {
+                        done.await();
+                    } catch (final InterruptedException ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                }
+            },
+            // @checkstyle MagicNumber (1 line)
+            1000L, 1, 1, 10, 0.5d
+        );
+        final Thread thread = new Thread(
+            new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        back.accept(BkAdaptiveTest.socket());
+                    } catch (final IOException ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                }
+            }
+        );
+        thread.start();
+        busy.await(1L, TimeUnit.MINUTES);
+        final MkSocket socket = BkAdaptiveTest.socket();
+        back.accept(socket);
+        MatcherAssert.assertThat(back.inflight(), Matchers.equalTo(1));
+        done.countDown();
+        thread.join();
+        MatcherAssert.assertThat(
+            socket.bufferedOutput().toString(),
+            Matchers.startsWith("HTTP/1.1 503")
+        );
+        MatcherAssert.assertThat(back.rejected(), Matchers.equalTo(1L));
+        MatcherAssert.assertThat(back.inflight(), Matchers.equalTo(0));
+    }
+
+    /**
+     * BkAdaptive can raise the limit while fast and cut it on failure.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void adaptsLimit() throws Exception {
+        final BkAdaptive back = new BkAdaptive(
+            new Back() {
+                private int count;
+                @Override
+                public void accept(final Socket socket) throws IOException {
+                    ++this.count;
+                    // @checkstyle MagicNumber (1 line)
+                    if (this.count > 3) {
+                        throw new IOException("broken");
+                    }
+                }
+            },
+            // @checkstyle MagicNumber (1 line)
+            60000L, 2, 1, 10, 0.5d
+        );
+        // @checkstyle MagicNumber (1 line)
+        for (int idx = 0; idx < 3; ++idx) {
+            back.accept(BkAdaptiveTest.socket());
+        }
+        MatcherAssert.assertThat(back.limit(), Matchers.equalTo(3));
+        try {
+            back.accept(BkAdaptiveTest.socket());
+        } catch (final IOException ex) {
+            assert ex != null;
+        }
+        MatcherAssert.assertThat(back.limit(), Matchers.equalTo(1));
+    }
+
+    /**
+     * Make a socket.
+     * @return Socket
+     */
+    private static MkSocket socket() {
+        return new MkSocket(new ByteArrayInputStream(new byte[0]));
+    }
+}
@@ -47,7 +47,13 @@ import org.takes.Take;
 import org.takes.facets.fork.FkRegex;
 import org.takes.facets.fork.TkFork;
 import org.takes.rq.RqHeaders;
+import org.takes.rq.RqRequestLine;
 import org.takes.rq.RqSocket;
+import org.takes.rs.Encoder;
+import org.takes.rs.RsText;
+import org.takes.rs.RsWithoutHeader;
+import org.takes.tk.TkEncoded;
+import org.takes.tk.TkFixed;
 import org.takes.tk.TkText;
 
 /**
@@ -98,6 +104,341 @@ public final class BkBasicTest {
         );
     }
 
+    /**
+     * BkBasic can send an encoded body to HTTP/1.0 clients without chunks.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void sendsEncodedBodyToOldClientsWithoutChunks()
+        throws IOException {
+        final MkSocket socket = new MkSocket(
+            new ByteArrayInputStream(
+                Joiner.on(BkBasicTest.CRLF).join(
+                    "GET / HTTP/1.0",
+                    "Accept-Encoding: gzip",
+                    "",
+                    ""
+                ).getBytes()
+            )
+        );
+        final ByteArrayOutputStream baos = socket.bufferedOutput();
+        new BkBasic(
+            new TkEncoded(new TkText("Hello Old Client"), new Encoder.Gzip())
+        ).accept(socket);
+        final String response = baos.toString("ISO-8859-1");
+        MatcherAssert.assertThat(
+            response,
+            Matchers.allOf(
+                Matchers.containsString("Content-Encoding: gzip"),
+                Matchers.not(Matchers.containsString("Transfer-Encoding")),
+                Matchers.containsString("\r\n\r\n\u001f\u008b")
+            )
+        );
+    }
+
+    /**
+     * BkBasic can send a body of unknown length in chunks.
+     *
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void chunksBodyOfUnknownLength() throws IOException {
+        final MkSocket socket = BkBasicTest.createMockSocket();
+        final ByteArrayOutputStream baos = socket.bufferedOutput();
+        new BkBasic(
+            new TkFixed(
+                new RsWithoutHeader(
+                    new RsText("Hello Chunks"), "Content-Length"
+                )
+            )
+        ).accept(socket);
+        MatcherAssert.assertThat(
+            baos.toString(),
+            Matchers.allOf(
+                Matchers.containsString("Transfer-Encoding: chunked\r\n"),
+                Matchers.not(Matchers.containsString("Content-Length")),
+                Matchers.endsWith("\r\n\r\nc\r\nHello Chunks\r\n0\r\n\r\n")
+            )
+        );
+    }
+
+    /**
+     * BkBasic can reject a request with a too long body, without
+     * reading it.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void rejectsTooLongBody() throws IOException {
+        final MkSocket socket = BkBasicTest.createMockSocket();
+        final ByteArrayOutputStream baos = socket.bufferedOutput();
+        new BkBasic(
+            new TkText("never"),
+            // @checkstyle MagicNumber (1 line)
+            new Limits(1024, 10, 256, 1L)
+        ).accept(socket);
+        MatcherAssert.assertThat(
+            baos.toString(),
+            Matchers.allOf(
+                Matchers.startsWith("HTTP/1.1 413 "),
+                Matchers.containsString("Connection: close\r\n"),
+                Matchers.not(Matchers.containsString("never"))
+            )
+        );
+    }
+
+    /**
+     * BkBasic can reject a request with too many headers.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void rejectsTooManyHeaders() throws IOException {
+        final MkSocket socket = BkBasicTest.createMockSocket();
+        final ByteArrayOutputStream baos = socket.bufferedOutput();
+        new BkBasic(
+            new TkText("never"),
+            // @checkstyle MagicNumber (1 line)
+            new Limits(1024, 1, 256, 1024L)
+        ).accept(socket);
+        MatcherAssert.assertThat(
+            baos.toString(),
+            Matchers.startsWith("HTTP/1.1 431 ")
+        );
+    }
+
+    /**
+     * BkBasic can answer pipelined requests in order, skipping bodies
+     * the take doesn't read, until the client asks to close.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void answersPipelinedRequests() throws IOException {
+        final MkSocket socket = new MkSocket(
+            new ByteArrayInputStream(
+                Joiner.on(BkBasicTest.CRLF).join(
+                    "POST /first HTTP/1.1",
+                    BkBasicTest.HOST,
+                    "Content-Length: 9",
+                    "",
+                    "ignored",
+                    "GET /second HTTP/1.1",
+                    BkBasicTest.HOST,
+                    "Transfer-Encoding: chunked",
+                    "",
+                    "3",
+                    "abc",
+                    "0",
+                    "",
+                    "GET /third HTTP/1.1",
+                    "Connection: close",
+                    "",
+                    "GET /never HTTP/1.1",
+                    "",
+                    ""
+                ).getBytes()
+            )
+        );
+        final ByteArrayOutputStream baos = socket.bufferedOutput();
+        new BkBasic(BkBasicTest.uri()).accept(socket);
+        final String output = baos.toString();
+        MatcherAssert.assertThat(
+            output,
+            RegexMatchers.containsPattern(
+                "(?s)^HTTP/1.1 200 .*/first.*/second.*/third$"
+            )
+        );
+        MatcherAssert.assertThat(
+            output.split("Connection: close").length,
+            Matchers.equalTo(2)
+        );
+        MatcherAssert.assertThat(
+            output,
+            Matchers.not(Matchers.containsString("/never"))
+        );
+    }
+
+    /**
+     * BkBasic can answer HEAD without body on a persistent connection.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void answersHeadWithoutBody() throws IOException {
+        final MkSocket socket = new MkSocket(
+            new ByteArrayInputStream(
+                Joiner.on(BkBasicTest.CRLF).join(
+                    "HEAD / HTTP/1.1",
+                    BkBasicTest.HOST,
+                    "",
+                    "GET / HTTP/1.1",
+                    BkBasicTest.HOST,
+                    "Connection: close",
+                    "",
+                    ""
+                ).getBytes()
+            )
+        );
+        final ByteArrayOutputStream baos = socket.bufferedOutput();
+        new BkBasic(new TkText("hello-body")).accept(socket);
+        final String output = baos.toString();
+        MatcherAssert.assertThat(
+            output.split("hello-body", -1).length,
+            Matchers.equalTo(2)
+        );
+        MatcherAssert.assertThat(
+            output,
+            Matchers.containsString("\r\n\r\nHTTP/1.1 200 OK")
+        );
+    }
+
+    /**
+     * BkBasic can close the connection after the given number of
+     * requests.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void closesConnectionAfterTooManyRequests() throws IOException {
+        final MkSocket socket = new MkSocket(
+            new ByteArrayInputStream(
+                Joiner.on(BkBasicTest.CRLF).join(
+                    "GET /a HTTP/1.1",
+                    "",
+                    "GET /b HTTP/1.0",
+                    "Connection: keep-alive",
+                    "",
+                    "GET /c HTTP/1.1",
+                    "",
+                    ""
+                ).getBytes()
+            )
+        );
+        final ByteArrayOutputStream baos = socket.bufferedOutput();
+        new BkBasic(
+            BkBasicTest.uri(),
+            new Limits(),
+            // @checkstyle MagicNumber (1 line)
+            new KeepAlive(1000, 2)
+        ).accept(socket);
+        MatcherAssert.assertThat(
+            baos.toString(),
+            Matchers.allOf(
+                Matchers.containsString("/a"),
+                Matchers.containsString("Connection: close\r\n"),
+                Matchers.endsWith("/b"),
+                Matchers.not(Matchers.containsString("/c"))
+            )
+        );
+    }
+
+    /**
+     * BkBasic can close the connection when the client sends nothing
+     * for a while.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void closesIdleConnection() throws Exception {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ServerSocket server = new ServerSocket(0)) {
+            new Thread(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            new BkBasic(
+                                new TkText("Idle"),
+                                new Limits(),
+                                // @checkstyle MagicNumber (1 line)
+                                new KeepAlive(100, 10)
+                            ).accept(server.accept());
+                        } catch (final IOException exception) {
+                            throw new IllegalStateException(exception);
+                        }
+                    }
+                }
+            ).start();
+            try (Socket socket = new Socket(
+                server.getInetAddress(),
+                server.getLocalPort()
+                )
+            ) {
+                socket.getOutputStream().write(
+                    Joiner.on(BkBasicTest.CRLF).join(
+                        "GET / HTTP/1.1",
+                        BkBasicTest.HOST,
+                        "",
+                        ""
+                    ).getBytes()
+                );
+                final InputStream input = socket.getInputStream();
+                // @checkstyle MagicNumber (1 line)
+                final byte[] buffer = new byte[4096];
+                for (int count = input.read(buffer); count != -1;
+                    count = input.read(buffer)) {
+                    output.write(buffer, 0, count);
+                }
+            }
+        }
+        MatcherAssert.assertThat(
+            output.toString(),
+            Matchers.allOf(
+                Matchers.startsWith("HTTP/1.1 200 OK"),
+                Matchers.not(Matchers.containsString("Connection")),
+                Matchers.endsWith("Idle")
+            )
+        );
+    }
+
+    /**
+     * BkBasic can close the connection without waiting for new requests,
+     * when it has no keep-alive.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void doesNotWaitForNewRequestsByDefault() throws Exception {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ServerSocket server = new ServerSocket(0)) {
+            new Thread(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            new BkBasic(new TkText("Once")).accept(
+                                server.accept()
+                            );
+                        } catch (final IOException exception) {
+                            throw new IllegalStateException(exception);
+                        }
+                    }
+                }
+            ).start();
+            try (Socket socket = new Socket(
+                server.getInetAddress(),
+                server.getLocalPort()
+                )
+            ) {
+                // @checkstyle MagicNumber (1 line)
+                socket.setSoTimeout(5000);
+                socket.getOutputStream().write(
+                    Joiner.on(BkBasicTest.CRLF).join(
+                        "GET / HTTP/1.1",
+                        BkBasicTest.HOST,
+                        "",
+                        ""
+                    ).getBytes()
+                );
+                final InputStream input = socket.getInputStream();
+                // @checkstyle MagicNumber (1 line)
+                final byte[] buffer = new byte[4096];
+                for (int count = input.read(buffer); count != -1;
+                    count = input.read(buffer)) {
+                    output.write(buffer, 0, count);
+                }
+            }
+        }
+        MatcherAssert.assertThat(
+            output.toString(),
+            Matchers.containsString("Once")
+        );
+    }
+
     /**
      * BkBasic can return HTTP status 404 when accessing invalid URL.
      *
@@ -221,6 +562,7 @@ public final class BkBasicTest {
                         BkBasicTest.POST,
                         BkBasicTest.HOST,
                         "Content-Length: 12",
+                        "Connection: close",
                         "",
                         "Hello Second"
                     ).getBytes()
@@ -301,7 +643,6 @@ public final class BkBasicTest {
      *
      * @throws Exception If some problem inside
      */
-    @Ignore
     @Test
     public void acceptsNoContentLengthOnClosedConnection() throws Exception {
         final String text = "Close Test";
@@ -351,6 +692,19 @@ public final class BkBasicTest {
         );
     }
 
+    /**
+     * Take that answers with the URI of the request.
+     * @return Take
+     */
+    private static Take uri() {
+        return new Take() {
+            @Override
+            public Response act(final Request req) throws IOException {
+                return new RsText(new RqRequestLine.Base(req).uri());
+            }
+        };
+    }
+
     /**
      * Creates Socket mock for reuse.
      *
@@ -0,0 +1,170 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.takes.http;
+
+import com.google.common.base.Joiner;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.takes.http.h2.H2Connection;
+import org.takes.tk.TkText;
+
+/**
+ * Test case for {@link BkH2c}.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class BkH2cTest {
+
+    /**
+     * Carriage return constant.
+     */
+    private static final String CRLF = "\r\n";
+
+    /**
+     * BkH2c can serve HTTP/2 with prior knowledge.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void servesPriorKnowledge() throws IOException {
+        final ByteArrayOutputStream client = BkH2cTest.preface();
+        BkH2cTest.frame(
+            client, 0x1, 0x5, 1,
+            new byte[] {
+                (byte) 0x82, (byte) 0x86, (byte) 0x84, 0x41, 0x09,
+                'l', 'o', 'c', 'a', 'l', 'h', 'o', 's', 't',
+            }
+        );
+        MatcherAssert.assertThat(
+            BkH2cTest.accept(client.toByteArray()),
+            Matchers.containsString("prior knowledge")
+        );
+    }
+
+    /**
+     * BkH2c can upgrade HTTP/1.1 connection to HTTP/2.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void upgradesConnection() throws IOException {
+        final ByteArrayOutputStream client = new ByteArrayOutputStream();
+        client.write(
+            Joiner.on(BkH2cTest.CRLF).join(
+                "GET / HTTP/1.1",
+                "Host: localhost",
+                "Connection: Upgrade, HTTP2-Settings",
+                "Upgrade: h2c",
+                "HTTP2-Settings: ",
+                "",
+                ""
+            ).getBytes(StandardCharsets.US_ASCII)
+        );
+        client.write(BkH2cTest.preface().toByteArray());
+        final String server = BkH2cTest.accept(client.toByteArray());
+        MatcherAssert.assertThat(
+            server,
+            Matchers.startsWith("HTTP/1.1 101 Switching Protocols")
+        );
+        MatcherAssert.assertThat(
+            server,
+            Matchers.containsString("prior knowledge")
+        );
+    }
+
+    /**
+     * BkH2c can serve HTTP/1.1 as usual.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void fallsBackToHttpOne() throws IOException {
+        MatcherAssert.assertThat(
+            BkH2cTest.accept(
+                Joiner.on(BkH2cTest.CRLF).join(
+                    "GET / HTTP/1.1",
+                    "Host: localhost",
+                    "Connection: close",
+                    "",
+                    ""
+                ).getBytes(StandardCharsets.US_ASCII)
+            ),
+            Matchers.startsWith("HTTP/1.1 200 OK")
+        );
+    }
+
+    /**
+     * Accept the connection.
+     * @param client What the client sends
+     * @return What the server sends
+     * @throws IOException If fails
+     */
+    private static String accept(final byte[] client) throws IOException {
+        final MkSocket socket = new MkSocket(new ByteArrayInputStream(client));
+        new BkH2c(new TkText("prior knowledge")).accept(socket);
+        return new String(
+            socket.bufferedOutput().toByteArray(), StandardCharsets.ISO_8859_1
+        );
+    }
+
+    /**
+     * Connection preface of the client and its SETTINGS.
+     * @return Bytes
+     * @throws IOException If fails
+     */
+    private static ByteArrayOutputStream preface() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(H2Connection.PREFACE.getBytes(StandardCharsets.US_ASCII));
+        BkH2cTest.frame(out, 0x4, 0x0, 0, new byte[0]);
+        return out;
+    }
+
+    /**
+     * Write a frame.
+     * @param out Where to write it
+     * @param type Type
+     * @param flags Flags
+     * @param stream Stream
+     * @param payload Payload
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    private static void frame(final ByteArrayOutputStream out, final int type,
+        final int flags, final int stream, final byte[] payload) {
+        out.write(payload.length >>> 16);
+        out.write(payload.length >>> 8);
+        out.write(payload.length);
+        out.write(type);
+        out.write(flags);
+        out.write(stream >>> 24);
+        out.write(stream >>> 16);
+        out.write(stream >>> 8);
+        out.write(stream);
+        out.write(payload, 0, payload.length);
+    }
+}
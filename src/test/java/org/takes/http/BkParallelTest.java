@@ -25,9 +25,11 @@ package org.takes.http;
 
 import com.jcabi.http.request.JdkRequest;
 import com.jcabi.http.response.RestResponse;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.ServerSocket;
+import java.net.Socket;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import org.hamcrest.MatcherAssert;
@@ -131,4 +133,46 @@ public final class BkParallelTest {
         MatcherAssert.assertThat(started.getCount(), Matchers.equalTo(0L));
         MatcherAssert.assertThat(completed.getCount(), Matchers.equalTo(0L));
     }
+
+    /**
+     * BkParallel can answer with 503 when the queue is full.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void shedsLoadWhenQueueIsFull() throws Exception {
+        final CountDownLatch busy = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(1);
+        final BkParallel back = new BkParallel(
+            new Back() {
+                @Override
+                public void accept(final Socket socket) {
+                    busy.countDown();
+                    try {
+                        done.await();
+                    } catch (final InterruptedException ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                }
+            },
+            1, 0, Overload.UNAVAILABLE
+        );
+        back.accept(new MkSocket(new ByteArrayInputStream(new byte[0])));
+        busy.await(1L, TimeUnit.MINUTES);
+        final MkSocket socket = new MkSocket(
+            new ByteArrayInputStream(
+                "GET / HTTP/1.1\r\n\r\n".getBytes()
+            )
+        );
+        back.accept(socket);
+        done.countDown();
+        MatcherAssert.assertThat(
+            socket.bufferedOutput().toString(),
+            Matchers.allOf(
+                Matchers.startsWith("HTTP/1.1 503 Service Unavailable"),
+                Matchers.containsString("Retry-After: 1")
+            )
+        );
+        MatcherAssert.assertThat(back.rejected(), Matchers.equalTo(1L));
+        MatcherAssert.assertThat(back.dispatched(), Matchers.equalTo(1L));
+    }
 }
@@ -32,6 +32,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import org.apache.commons.io.FileUtils;
+import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.junit.Rule;
 import org.junit.Test;
@@ -39,6 +40,7 @@ import org.junit.rules.TemporaryFolder;
 import org.takes.Request;
 import org.takes.Response;
 import org.takes.Take;
+import org.takes.rq.RqHeaders;
 import org.takes.rs.RsText;
 
 /**
@@ -63,28 +65,78 @@ public final class BkTimeableTest {
      */
     @Test
     public void stopsLongRunningBack() throws Exception {
-        final String response = "interrupted";
-        final CountDownLatch ready = new CountDownLatch(1);
-        final Exit exit = new Exit() {
-            @Override
-            public boolean ready() {
-                ready.countDown();
-                return false;
-            }
-        };
         final Take take = new Take() {
             @Override
             public Response act(final Request req) {
-                Response rsp;
                 try {
                     // @checkstyle MagicNumberCheck (1 line)
                     TimeUnit.SECONDS.sleep(10L);
-                    rsp = new RsText("finish");
                 } catch (final InterruptedException ex) {
                     Thread.currentThread().interrupt();
-                    rsp = new RsText(response);
+                    throw new IllegalStateException(ex);
                 }
-                return rsp;
+                return new RsText("finish");
+            }
+        };
+        final long start = System.currentTimeMillis();
+        boolean failed = false;
+        try {
+            this.fetch(take, "--max-latency=100");
+        } catch (final IOException ex) {
+            failed = true;
+        }
+        MatcherAssert.assertThat(failed, Matchers.is(true));
+        MatcherAssert.assertThat(
+            System.currentTimeMillis() - start,
+            // @checkstyle MagicNumberCheck (1 line)
+            Matchers.lessThan(5000L)
+        );
+    }
+
+    /**
+     * BkTimeable can tell the take its deadline.
+     * @throws java.lang.Exception If some problem inside
+     */
+    @Test
+    public void passesDeadlineToTake() throws Exception {
+        final long start = System.currentTimeMillis();
+        final String body = this.fetch(
+            new Take() {
+                @Override
+                public Response act(final Request req) throws IOException {
+                    return new RsText(
+                        new RqHeaders.Smart(new RqHeaders.Base(req))
+                            .single("X-Takes-Deadline")
+                    );
+                }
+            },
+            "--max-latency=60000"
+        );
+        MatcherAssert.assertThat(
+            Long.parseLong(body),
+            Matchers.allOf(
+                // @checkstyle MagicNumberCheck (2 lines)
+                Matchers.greaterThanOrEqualTo(start + 60000L),
+                Matchers.lessThan(System.currentTimeMillis() + 60000L)
+            )
+        );
+    }
+
+    /**
+     * Start FtCli with the take and fetch a page from it.
+     * @param take Take
+     * @param latency Option of max latency
+     * @return Body of the page
+     * @throws Exception If fails
+     */
+    private String fetch(final Take take, final String latency)
+        throws Exception {
+        final CountDownLatch ready = new CountDownLatch(1);
+        final Exit exit = new Exit() {
+            @Override
+            public boolean ready() {
+                ready.countDown();
+                return false;
             }
         };
         final File file = this.temp.newFile();
@@ -97,9 +149,9 @@ public final class BkTimeableTest {
                         new FtCli(
                             take,
                             String.format("--port=%s", file.getAbsoluteFile()),
-                            "--threads=1",
-                            "--lifetime=4000",
-                            "--max-latency=100"
+                            "--threads=2",
+                            "--lifetime=2000",
+                            latency
                         ).start(exit);
                     } catch (final IOException ex) {
                         throw new IllegalStateException(ex);
@@ -112,16 +164,14 @@ public final class BkTimeableTest {
         final int port = Integer.parseInt(
             FileUtils.readFileToString(file, StandardCharsets.UTF_8)
         );
-        new JdkRequest(String.format("http://localhost:%d", port))
-            .fetch()
-            .as(RestResponse.class)
-            .assertStatus(HttpURLConnection.HTTP_OK)
-            .assertBody(Matchers.startsWith(response));
         try {
+            return new JdkRequest(String.format("http://localhost:%d", port))
+                .fetch()
+                .as(RestResponse.class)
+                .assertStatus(HttpURLConnection.HTTP_OK)
+                .body();
+        } finally {
             thread.join();
-        } catch (final InterruptedException ex) {
-            Thread.currentThread().interrupt();
-            throw new IllegalStateException(ex);
         }
     }
 }
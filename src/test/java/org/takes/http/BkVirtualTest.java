@@ -0,0 +1,110 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.takes.http;
+
+import java.net.Socket;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link BkVirtual}.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class BkVirtualTest {
+
+    /**
+     * BkVirtual can process sockets in parallel.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void processesSocketsInParallel() throws Exception {
+        // @checkstyle MagicNumberCheck (1 line)
+        final int count = 3;
+        final CountDownLatch started = new CountDownLatch(count);
+        final Back back = new BkVirtual(
+            new Back() {
+                @Override
+                public void accept(final Socket socket) {
+                    started.countDown();
+                    try {
+                        started.await();
+                    } catch (final InterruptedException ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                }
+            }
+        );
+        for (int idx = 0; idx < count; ++idx) {
+            back.accept(new Socket());
+        }
+        MatcherAssert.assertThat(
+            started.await(1L, TimeUnit.MINUTES),
+            Matchers.is(true)
+        );
+    }
+
+    /**
+     * BkVirtual can limit the number of sockets processed concurrently.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void limitsConcurrency() throws Exception {
+        // @checkstyle MagicNumberCheck (1 line)
+        final int count = 5;
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger max = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(count);
+        final Back back = new BkVirtual(
+            new Back() {
+                @Override
+                public void accept(final Socket socket) {
+                    max.accumulateAndGet(
+                        running.incrementAndGet(), Math::max
+                    );
+                    try {
+                        // @checkstyle MagicNumberCheck (1 line)
+                        TimeUnit.MILLISECONDS.sleep(50L);
+                    } catch (final InterruptedException ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                    running.decrementAndGet();
+                    done.countDown();
+                }
+            },
+            2
+        );
+        for (int idx = 0; idx < count; ++idx) {
+            back.accept(new Socket());
+        }
+        done.await(1L, TimeUnit.MINUTES);
+        MatcherAssert.assertThat(max.get(), Matchers.lessThanOrEqualTo(2));
+    }
+}
@@ -0,0 +1,160 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.takes.http;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link Deadlines}.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class DeadlinesTest {
+
+    /**
+     * Deadlines can run a task when its time is out.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void runsTaskOnTime() throws Exception {
+        final Deadlines wheel = new Deadlines();
+        final Thread thread = DeadlinesTest.start(wheel);
+        final CountDownLatch latch = new CountDownLatch(1);
+        final long start = System.nanoTime();
+        wheel.schedule(
+            // @checkstyle MagicNumber (1 line)
+            50L,
+            new Runnable() {
+                @Override
+                public void run() {
+                    latch.countDown();
+                }
+            }
+        );
+        MatcherAssert.assertThat(
+            latch.await(1L, TimeUnit.MINUTES),
+            Matchers.is(true)
+        );
+        MatcherAssert.assertThat(
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+            // @checkstyle MagicNumber (1 line)
+            Matchers.greaterThanOrEqualTo(49L)
+        );
+        thread.interrupt();
+    }
+
+    /**
+     * Deadlines can cancel a task.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void cancelsTask() throws Exception {
+        final Deadlines wheel = new Deadlines(1L, 4);
+        final Thread thread = DeadlinesTest.start(wheel);
+        final CountDownLatch cancelled = new CountDownLatch(1);
+        final CountDownLatch other = new CountDownLatch(1);
+        wheel.schedule(
+            // @checkstyle MagicNumber (1 line)
+            10L,
+            new Runnable() {
+                @Override
+                public void run() {
+                    cancelled.countDown();
+                }
+            }
+        ).cancel();
+        wheel.schedule(
+            // @checkstyle MagicNumber (1 line)
+            30L,
+            new Runnable() {
+                @Override
+                public void run() {
+                    other.countDown();
+                }
+            }
+        );
+        MatcherAssert.assertThat(
+            other.await(1L, TimeUnit.MINUTES),
+            Matchers.is(true)
+        );
+        MatcherAssert.assertThat(cancelled.getCount(), Matchers.is(1L));
+        thread.interrupt();
+    }
+
+    /**
+     * Deadlines can keep a task without a deadline forever.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void neverRunsEndlessTask() throws Exception {
+        final Deadlines wheel = new Deadlines();
+        final Thread thread = DeadlinesTest.start(wheel);
+        final CountDownLatch endless = new CountDownLatch(1);
+        final CountDownLatch other = new CountDownLatch(1);
+        wheel.schedule(
+            Long.MAX_VALUE,
+            new Runnable() {
+                @Override
+                public void run() {
+                    endless.countDown();
+                }
+            }
+        );
+        wheel.schedule(
+            // @checkstyle MagicNumber (1 line)
+            30L,
+            new Runnable() {
+                @Override
+                public void run() {
+                    other.countDown();
+                }
+            }
+        );
+        MatcherAssert.assertThat(
+            other.await(1L, TimeUnit.MINUTES),
+            Matchers.is(true)
+        );
+        MatcherAssert.assertThat(endless.getCount(), Matchers.is(1L));
+        thread.interrupt();
+    }
+
+    /**
+     * Start the wheel in a thread.
+     * @param wheel Wheel
+     * @return Thread
+     */
+    private static Thread start(final Deadlines wheel) {
+        final Thread thread = new Thread(wheel);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+}
@@ -26,6 +26,7 @@ package org.takes.http;
 import com.jcabi.http.request.JdkRequest;
 import com.jcabi.http.response.RestResponse;
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.ServerSocket;
@@ -33,11 +34,16 @@ import java.net.Socket;
 import java.net.SocketException;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.apache.commons.io.IOUtils;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.junit.Ignore;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
@@ -53,6 +59,7 @@ import org.takes.rq.RqMethod;
 import org.takes.rq.RqPrint;
 import org.takes.rs.RsHtml;
 import org.takes.rs.RsText;
+import org.takes.rs.RsWithBody;
 import org.takes.tk.TkFailure;
 import org.takes.tk.TkText;
 
@@ -71,6 +78,13 @@ public final class FtBasicTest {
      */
     private static final String ROOT_PATH = "/";
 
+    /**
+     * Temp directory.
+     * @checkstyle VisibilityModifierCheck (5 lines)
+     */
+    @Rule
+    public final transient TemporaryFolder temp = new TemporaryFolder();
+
     /**
      * FtBasic can work.
      * @throws Exception If some problem inside
@@ -214,6 +228,53 @@ public final class FtBasicTest {
         );
     }
 
+    /**
+     * FtBasic can accept sockets with channels, to send files through.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void sendsFilesThroughSocketChannels() throws Exception {
+        final File file = this.temp.newFile("zeros.txt");
+        // @checkstyle MagicNumber (1 line)
+        final byte[] content = new byte[100000];
+        Arrays.fill(content, (byte) '0');
+        Files.write(file.toPath(), content);
+        final AtomicBoolean channel = new AtomicBoolean();
+        final Back back = new BkBasic(
+            new Take() {
+                @Override
+                public Response act(final Request req) throws IOException {
+                    return new RsWithBody(file.toPath());
+                }
+            }
+        );
+        new FtRemote(
+            new Back() {
+                @Override
+                public void accept(final Socket socket) throws IOException {
+                    channel.set(socket.getChannel() != null);
+                    back.accept(socket);
+                }
+            }
+        ).exec(
+            new FtRemote.Script() {
+                @Override
+                public void exec(final URI home) throws IOException {
+                    new JdkRequest(home)
+                        .fetch()
+                        .as(RestResponse.class)
+                        .assertStatus(HttpURLConnection.HTTP_OK)
+                        .assertBody(
+                            Matchers.equalTo(
+                                new String(content, StandardCharsets.UTF_8)
+                            )
+                        );
+                }
+            }
+        );
+        MatcherAssert.assertThat(channel.get(), Matchers.is(true));
+    }
+
     /**
      * FtBasic can consume twice the input stream in case of a RsText.
      * @throws IOException If some problem inside
@@ -30,13 +30,18 @@ import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.nio.charset.StandardCharsets;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import org.apache.commons.io.FileUtils;
 import org.hamcrest.Matchers;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
+import org.takes.Request;
+import org.takes.Response;
+import org.takes.Take;
 import org.takes.facets.fork.FkRegex;
 import org.takes.facets.fork.TkFork;
+import org.takes.rs.RsText;
 
 /**
  * Test case for {@link FtCli}.
@@ -105,4 +110,62 @@ public final class FtCliTest {
         }
     }
 
+    /**
+     * FtCLI can serve a slow take with default options.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void servesSlowTakeWithDefaults() throws Exception {
+        final CountDownLatch ready = new CountDownLatch(1);
+        final Exit exit = new Exit() {
+            @Override
+            public boolean ready() {
+                ready.countDown();
+                return false;
+            }
+        };
+        final File file = this.temp.newFile();
+        file.delete();
+        final Thread thread = new Thread(
+            new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        new FtCli(
+                            new Take() {
+                                @Override
+                                public Response act(final Request req)
+                                    throws IOException {
+                                    try {
+                                        // @checkstyle MagicNumber (1 line)
+                                        TimeUnit.MILLISECONDS.sleep(50L);
+                                    } catch (final InterruptedException ex) {
+                                        Thread.currentThread().interrupt();
+                                        throw new IOException(ex);
+                                    }
+                                    return new RsText("hello");
+                                }
+                            },
+                            String.format("--port=%s", file.getAbsoluteFile()),
+                            "--lifetime=2000"
+                        ).start(exit);
+                    } catch (final IOException ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                }
+            }
+        );
+        thread.start();
+        ready.await();
+        final int port = Integer.parseInt(
+            FileUtils.readFileToString(file, StandardCharsets.UTF_8)
+        );
+        new JdkRequest(String.format("http://localhost:%d", port))
+            .fetch()
+            .as(RestResponse.class)
+            .assertStatus(HttpURLConnection.HTTP_OK)
+            .assertBody(Matchers.equalTo("hello"));
+        thread.join();
+    }
+
 }
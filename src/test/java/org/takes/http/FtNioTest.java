@@ -0,0 +1,411 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.takes.http;
+
+import com.google.common.base.Joiner;
+import com.jcabi.aspects.Tv;
+import com.jcabi.http.request.JdkRequest;
+import com.jcabi.http.response.RestResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.takes.Request;
+import org.takes.Response;
+import org.takes.Take;
+import org.takes.rq.RqPrint;
+import org.takes.rs.RsText;
+import org.takes.tk.TkText;
+
+/**
+ * Test case for {@link FtNio}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class FtNioTest {
+
+    /**
+     * FtNio can serve a request.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void servesRequests() throws Exception {
+        final ServerSocketChannel channel = FtNioTest.channel();
+        final AtomicBoolean stop = new AtomicBoolean();
+        final Thread thread = FtNioTest.start(
+            new TkText("hello, nio!"), channel, stop, new KeepAlive()
+        );
+        try {
+            new JdkRequest(
+                String.format(
+                    "http://localhost:%d/", channel.socket().getLocalPort()
+                )
+            )
+                .fetch()
+                .as(RestResponse.class)
+                .assertStatus(HttpURLConnection.HTTP_OK)
+                .assertBody(Matchers.startsWith("hello"));
+        } finally {
+            stop.set(true);
+            thread.join();
+        }
+    }
+
+    /**
+     * FtNio can serve several requests through one connection,
+     * including pipelined ones.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void keepsConnectionsAlive() throws Exception {
+        final ServerSocketChannel channel = FtNioTest.channel();
+        final AtomicBoolean stop = new AtomicBoolean();
+        final Thread thread = FtNioTest.start(
+            new TkText("alive"), channel, stop, new KeepAlive()
+        );
+        try (Socket socket = new Socket(
+            "localhost", channel.socket().getLocalPort()
+        )) {
+            final OutputStream output = socket.getOutputStream();
+            output.write(
+                "POST / HTTP/1.1\r\nContent-Length: 3\r\n\r\nabc"
+                    .getBytes(StandardCharsets.UTF_8)
+            );
+            output.flush();
+            // @checkstyle MagicNumber (1 line)
+            Thread.sleep(100L);
+            output.write(
+                Joiner.on("").join(
+                    "GET / HTTP/1.1\r\n\r\n",
+                    "GET / HTTP/1.1\r\nConnection: close\r\n\r\n"
+                ).getBytes(StandardCharsets.UTF_8)
+            );
+            output.flush();
+            final InputStream input = socket.getInputStream();
+            final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            // @checkstyle MagicNumber (1 line)
+            final byte[] buf = new byte[1024];
+            while (true) {
+                final int len = input.read(buf);
+                if (len < 0) {
+                    break;
+                }
+                baos.write(buf, 0, len);
+            }
+            MatcherAssert.assertThat(
+                new String(baos.toByteArray(), StandardCharsets.UTF_8)
+                    .split("HTTP/1.1 200 OK"),
+                Matchers.arrayWithSize(Tv.FOUR)
+            );
+        } finally {
+            stop.set(true);
+            thread.join();
+        }
+    }
+
+    /**
+     * FtNio can answer a request with invalid Content-Length.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void rejectsInvalidContentLength() throws Exception {
+        final ServerSocketChannel channel = FtNioTest.channel();
+        final AtomicBoolean stop = new AtomicBoolean();
+        final Thread thread = FtNioTest.start(
+            new TkText("never"), channel, stop, new KeepAlive()
+        );
+        try {
+            MatcherAssert.assertThat(
+                FtNioTest.exchange(
+                    channel,
+                    "POST / HTTP/1.1\r\nContent-Length: 1e3\r\n\r\n"
+                ),
+                Matchers.allOf(
+                    Matchers.startsWith("HTTP/1.1 400 "),
+                    Matchers.containsString("Connection: close")
+                )
+            );
+        } finally {
+            stop.set(true);
+            thread.join();
+        }
+    }
+
+    /**
+     * FtNio can stop waiting for a body which doesn't come.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void givesUpWaitingForBody() throws Exception {
+        final ServerSocketChannel channel = FtNioTest.channel();
+        final AtomicBoolean stop = new AtomicBoolean();
+        final Thread thread = FtNioTest.start(
+            new Take() {
+                @Override
+                public Response act(final Request req) throws IOException {
+                    return new RsText(new RqPrint(req).printBody());
+                }
+            },
+            // @checkstyle MagicNumber (1 line)
+            channel, stop, new KeepAlive(200, 100)
+        );
+        try {
+            MatcherAssert.assertThat(
+                FtNioTest.exchange(
+                    channel,
+                    "POST / HTTP/1.1\r\nContent-Length: 10\r\n\r\nabc"
+                ),
+                Matchers.not(Matchers.containsString("200 OK"))
+            );
+        } finally {
+            stop.set(true);
+            thread.join();
+        }
+    }
+
+    /**
+     * FtNio can close a connection which doesn't send a complete head.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void closesIdleConnections() throws Exception {
+        final ServerSocketChannel channel = FtNioTest.channel();
+        final AtomicBoolean stop = new AtomicBoolean();
+        final Thread thread = FtNioTest.start(
+            // @checkstyle MagicNumber (1 line)
+            new TkText("late"), channel, stop, new KeepAlive(200, 100)
+        );
+        try {
+            MatcherAssert.assertThat(
+                FtNioTest.exchange(channel, "GET / HTTP/1.1\r\n"),
+                Matchers.isEmptyString()
+            );
+        } finally {
+            stop.set(true);
+            thread.join();
+        }
+    }
+
+    /**
+     * FtNio can answer HEAD without body in a persistent connection.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void answersHeadWithoutBody() throws Exception {
+        final ServerSocketChannel channel = FtNioTest.channel();
+        final AtomicBoolean stop = new AtomicBoolean();
+        final Thread thread = FtNioTest.start(
+            new TkText("nio-body"), channel, stop, new KeepAlive()
+        );
+        try {
+            final String output = FtNioTest.exchange(
+                channel,
+                Joiner.on("").join(
+                    "HEAD / HTTP/1.1\r\n\r\n",
+                    "GET / HTTP/1.1\r\nConnection: close\r\n\r\n"
+                )
+            );
+            MatcherAssert.assertThat(
+                output.split("nio-body", -1).length,
+                Matchers.equalTo(2)
+            );
+            MatcherAssert.assertThat(
+                output,
+                Matchers.containsString("\r\n\r\nHTTP/1.1 200 OK")
+            );
+        } finally {
+            stop.set(true);
+            thread.join();
+        }
+    }
+
+    /**
+     * FtNio can answer a head which is too large, without waiting for
+     * its end. The client sends exactly as many bytes as the head may
+     * take, so that the socket is not reset by unread bytes.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void rejectsTooLargeHead() throws Exception {
+        final ServerSocketChannel channel = FtNioTest.channel();
+        final AtomicBoolean stop = new AtomicBoolean();
+        final Thread thread = FtNioTest.start(
+            new TkText("never"), channel, stop, new KeepAlive(),
+            // @checkstyle MagicNumber (1 line)
+            new Limits(64, 100, 8192, Long.MAX_VALUE)
+        );
+        try {
+            MatcherAssert.assertThat(
+                FtNioTest.exchange(
+                    channel,
+                    String.format("GET / HTTP/1.1\r\nX-Long: %040d", 0)
+                ),
+                Matchers.startsWith("HTTP/1.1 431 ")
+            );
+        } finally {
+            stop.set(true);
+            thread.join();
+        }
+    }
+
+    /**
+     * FtNio can find the end of a chunked body and keep the connection.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void keepsConnectionAfterChunkedBody() throws Exception {
+        final ServerSocketChannel channel = FtNioTest.channel();
+        final AtomicBoolean stop = new AtomicBoolean();
+        final Thread thread = FtNioTest.start(
+            new Take() {
+                @Override
+                public Response act(final Request req) throws IOException {
+                    return new RsText(new RqPrint(req).printBody());
+                }
+            },
+            channel, stop, new KeepAlive()
+        );
+        try {
+            MatcherAssert.assertThat(
+                FtNioTest.exchange(
+                    channel,
+                    Joiner.on("").join(
+                        "POST / HTTP/1.1\r\nTransfer-Encoding: chunked\r\n",
+                        "\r\n3\r\nabc\r\n0\r\n\r\n",
+                        "GET / HTTP/1.1\r\nConnection: close\r\n\r\n"
+                    )
+                ).split("HTTP/1.1 200 OK", -1).length,
+                Matchers.equalTo(3)
+            );
+        } finally {
+            stop.set(true);
+            thread.join();
+        }
+    }
+
+    /**
+     * Send bytes to the front and read what it sends back, till it
+     * closes the connection.
+     * @param channel Channel of the front
+     * @param request What to send
+     * @return What the front sent back
+     * @throws IOException If fails
+     */
+    private static String exchange(final ServerSocketChannel channel,
+        final String request) throws IOException {
+        try (Socket socket = new Socket(
+            "localhost", channel.socket().getLocalPort()
+        )) {
+            // @checkstyle MagicNumber (1 line)
+            socket.setSoTimeout(5000);
+            final OutputStream output = socket.getOutputStream();
+            output.write(request.getBytes(StandardCharsets.UTF_8));
+            output.flush();
+            final InputStream input = socket.getInputStream();
+            final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            // @checkstyle MagicNumber (1 line)
+            final byte[] buf = new byte[1024];
+            for (int len = input.read(buf); len >= 0; len = input.read(buf)) {
+                baos.write(buf, 0, len);
+            }
+            return new String(baos.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Open a server channel on a random port.
+     * @return Channel
+     * @throws IOException If fails
+     */
+    private static ServerSocketChannel channel() throws IOException {
+        final ServerSocketChannel channel = ServerSocketChannel.open();
+        channel.bind(new InetSocketAddress(0));
+        return channel;
+    }
+
+    /**
+     * Start the front in a background thread.
+     * @param take Take
+     * @param channel Channel
+     * @param stop When to stop
+     * @param keep Persistence of connections
+     * @return Thread
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    private static Thread start(final Take take,
+        final ServerSocketChannel channel, final AtomicBoolean stop,
+        final KeepAlive keep) {
+        return FtNioTest.start(take, channel, stop, keep, new Limits());
+    }
+
+    /**
+     * Start the front in a background thread.
+     * @param take Take
+     * @param channel Channel
+     * @param stop When to stop
+     * @param keep Persistence of connections
+     * @param limits Limits of requests
+     * @return Thread
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    private static Thread start(final Take take,
+        final ServerSocketChannel channel, final AtomicBoolean stop,
+        final KeepAlive keep, final Limits limits) {
+        final Thread thread = new Thread(
+            new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        new FtNio(
+                            take, channel, Executors.newFixedThreadPool(2),
+                            keep, limits
+                        ).start(
+                            new Exit() {
+                                @Override
+                                public boolean ready() {
+                                    return stop.get();
+                                }
+                            }
+                        );
+                    } catch (final IOException ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                }
+            }
+        );
+        thread.start();
+        return thread;
+    }
+}
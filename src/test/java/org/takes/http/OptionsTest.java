@@ -54,4 +54,96 @@ public final class OptionsTest {
         );
     }
 
+    /**
+     * Options can understand virtual threads mode.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void understandsVirtualThreads() throws Exception {
+        final Options opts = new Options(
+            "--threads=virtual --concurrency=100".split(" ")
+        );
+        MatcherAssert.assertThat(opts.isVirtual(), Matchers.is(true));
+        MatcherAssert.assertThat(
+            opts.concurrency(),
+            // @checkstyle MagicNumberCheck (1 line)
+            Matchers.is(100)
+        );
+        MatcherAssert.assertThat(
+            opts.threads(),
+            Matchers.greaterThan(0)
+        );
+    }
+
+    /**
+     * Options can understand limits of requests.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void understandsLimits() throws Exception {
+        MatcherAssert.assertThat(
+            new Options(
+                "--max-head=4096 --max-line=512 --max-body=1000000".split(" ")
+            ).limits(),
+            // @checkstyle MagicNumber (1 line)
+            Matchers.equalTo(new Limits(4096, 100, 512, 1000000L))
+        );
+    }
+
+    /**
+     * Options can understand the lifetime of persistent connections.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void understandsKeepAlive() throws Exception {
+        MatcherAssert.assertThat(
+            new Options("--idle-timeout=750").keepAlive(),
+            // @checkstyle MagicNumber (1 line)
+            Matchers.equalTo(new KeepAlive(750, 100))
+        );
+    }
+
+    /**
+     * Options can understand the queue and what to do when it is full.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void understandsOverload() throws Exception {
+        final Options opts = new Options(
+            "--queue=64 --retry-after=3".split(" ")
+        );
+        MatcherAssert.assertThat(
+            opts.queue(),
+            // @checkstyle MagicNumber (1 line)
+            Matchers.is(64)
+        );
+        MatcherAssert.assertThat(
+            opts.overload(),
+            // @checkstyle MagicNumber (1 line)
+            Matchers.<Overload>equalTo(new Overload.Unavailable(3))
+        );
+        MatcherAssert.assertThat(
+            new Options("--overload=caller").overload(),
+            Matchers.is(Overload.CALLER)
+        );
+    }
+
+    /**
+     * Options can reject numbers which don't fit.
+     * @throws Exception If some problem inside
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsTooBigNumbers() throws Exception {
+        new Options("--max-head=4294967296").limits();
+    }
+
+    /**
+     * Options can reject values which are not numbers.
+     * @throws Exception If some problem inside
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonNumericValues() throws Exception {
+        new Options("--idle-timeout=5s").keepAlive();
+    }
+
 }
@@ -0,0 +1,257 @@
+package org.takes.http.h2;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.takes.Request;
+import org.takes.Response;
+import org.takes.Take;
+import org.takes.http.Limits;
+import org.takes.rq.RqPrint;
+import org.takes.rs.RsGzip;
+import org.takes.rs.RsText;
+import org.takes.tk.TkText;
+
+/**
+ * Test case for {@link H2Connection}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+public final class H2ConnectionTest {
+
+    /**
+     * Header block of {@code POST /} to {@code localhost}.
+     */
+    private static final byte[] POST = {
+        (byte) 0x83, (byte) 0x86, (byte) 0x84, 0x41, 0x09,
+        'l', 'o', 'c', 'a', 'l', 'h', 'o', 's', 't',
+    };
+
+    /**
+     * H2Connection can answer a request with body.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void answersRequestWithBody() throws Exception {
+        final ByteArrayOutputStream client = H2ConnectionTest.preface();
+        H2ConnectionTest.frame(client, 0x1, 0x4, 1, H2ConnectionTest.POST);
+        H2ConnectionTest.frame(
+            client, 0x0, 0x1, 1, "hello".getBytes(StandardCharsets.UTF_8)
+        );
+        final byte[] server = H2ConnectionTest.serve(
+            new Take() {
+                @Override
+                public Response act(final Request req) throws IOException {
+                    return new RsText(new RqPrint(req).printBody());
+                }
+            },
+            client
+        );
+        MatcherAssert.assertThat(
+            H2ConnectionTest.payload(server, 0x1, 1)[0],
+            Matchers.equalTo((byte) 0x88)
+        );
+        MatcherAssert.assertThat(
+            new String(
+                H2ConnectionTest.payload(server, 0x0, 1),
+                StandardCharsets.UTF_8
+            ),
+            Matchers.equalTo("hello")
+        );
+    }
+
+    /**
+     * H2Connection can send a streamed gzip body without chunk framing.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void sendsStreamedGzipBody() throws Exception {
+        final String text = "streamed body, streamed body, streamed body";
+        final ByteArrayOutputStream client = H2ConnectionTest.preface();
+        H2ConnectionTest.frame(
+            client, 0x1, 0x5, 1,
+            new byte[] {
+                (byte) 0x82, (byte) 0x86, (byte) 0x84, 0x41, 0x09,
+                'l', 'o', 'c', 'a', 'l', 'h', 'o', 's', 't',
+            }
+        );
+        final byte[] data = H2ConnectionTest.payload(
+            H2ConnectionTest.serve(
+                new Take() {
+                    @Override
+                    public Response act(final Request req) {
+                        return new RsGzip(
+                            new RsText(text), Deflater.BEST_SPEED, 1
+                        );
+                    }
+                },
+                client
+            ),
+            0x0, 1
+        );
+        MatcherAssert.assertThat(
+            new String(
+                H2ConnectionTest.gunzip(data), StandardCharsets.UTF_8
+            ),
+            Matchers.equalTo(text)
+        );
+    }
+
+    /**
+     * H2Connection can answer PING.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void answersPing() throws Exception {
+        final ByteArrayOutputStream client = H2ConnectionTest.preface();
+        final byte[] data = {1, 2, 3, 4, 5, 6, 7, 8};
+        H2ConnectionTest.frame(client, 0x6, 0x0, 0, data);
+        MatcherAssert.assertThat(
+            H2ConnectionTest.payload(
+                H2ConnectionTest.serve(new TkText(""), client), 0x6, 0
+            ),
+            Matchers.equalTo(data)
+        );
+    }
+
+    /**
+     * H2Connection can reset a stream of malformed request.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void resetsMalformedStream() throws Exception {
+        final ByteArrayOutputStream client = H2ConnectionTest.preface();
+        H2ConnectionTest.frame(
+            client, 0x1, 0x5, 1, new byte[] {(byte) 0x82, (byte) 0x86}
+        );
+        final byte[] server = H2ConnectionTest.serve(new TkText(""), client);
+        MatcherAssert.assertThat(
+            H2ConnectionTest.payload(server, 0x3, 1),
+            Matchers.equalTo(new byte[] {0, 0, 0, 1})
+        );
+        MatcherAssert.assertThat(
+            H2ConnectionTest.payload(server, 0x1, 1).length,
+            Matchers.equalTo(0)
+        );
+    }
+
+    /**
+     * H2Connection can close the connection with a wrong preface.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void rejectsWrongPreface() throws Exception {
+        final ByteArrayOutputStream client = new ByteArrayOutputStream();
+        client.write(
+            "PRI * HTTP/2.0\r\n\r\nXX\r\n\r\n".getBytes(StandardCharsets.UTF_8)
+        );
+        final byte[] away = H2ConnectionTest.payload(
+            H2ConnectionTest.serve(new TkText(""), client), 0x7, 0
+        );
+        MatcherAssert.assertThat(away[7], Matchers.equalTo((byte) 1));
+    }
+
+    /**
+     * Serve the connection.
+     * @param take Take
+     * @param client What the client sends
+     * @return What the server sends
+     * @throws IOException If fails
+     */
+    private static byte[] serve(final Take take,
+        final ByteArrayOutputStream client) throws IOException {
+        final ByteArrayOutputStream server = new ByteArrayOutputStream();
+        new H2Connection(
+            take,
+            new Limits(),
+            new ByteArrayInputStream(client.toByteArray()),
+            server
+        ).serve();
+        return server.toByteArray();
+    }
+
+    /**
+     * Connection preface of the client and its SETTINGS.
+     * @return Bytes
+     * @throws IOException If fails
+     */
+    private static ByteArrayOutputStream preface() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(H2Connection.PREFACE.getBytes(StandardCharsets.US_ASCII));
+        H2ConnectionTest.frame(out, 0x4, 0x0, 0, new byte[0]);
+        return out;
+    }
+
+    /**
+     * Write a frame.
+     * @param out Where to write it
+     * @param type Type
+     * @param flags Flags
+     * @param stream Stream
+     * @param payload Payload
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    private static void frame(final ByteArrayOutputStream out, final int type,
+        final int flags, final int stream, final byte[] payload) {
+        out.write(payload.length >>> 16);
+        out.write(payload.length >>> 8);
+        out.write(payload.length);
+        out.write(type);
+        out.write(flags);
+        out.write(stream >>> 24);
+        out.write(stream >>> 16);
+        out.write(stream >>> 8);
+        out.write(stream);
+        out.write(payload, 0, payload.length);
+    }
+
+    /**
+     * Decompress gzip bytes.
+     * @param zipped Compressed bytes
+     * @return Decompressed bytes
+     * @throws IOException If they are not gzip
+     */
+    private static byte[] gunzip(final byte[] zipped) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (final InputStream input = new GZIPInputStream(
+            new ByteArrayInputStream(zipped)
+        )) {
+            final byte[] buf = new byte[1024];
+            for (int len = input.read(buf); len >= 0; len = input.read(buf)) {
+                out.write(buf, 0, len);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Payload of all frames of the type and stream.
+     * @param frames Frames
+     * @param type Type
+     * @param stream Stream
+     * @return Payload
+     */
+    private static byte[] payload(final byte[] frames, final int type,
+        final int stream) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int pos = 0;
+        while (pos + 9 <= frames.length) {
+            final int len = (frames[pos] & 0xff) << 16
+                | (frames[pos + 1] & 0xff) << 8 | frames[pos + 2] & 0xff;
+            if (frames[pos + 3] == type && frames[pos + 8] == stream) {
+                out.write(frames, pos + 9, len);
+            }
+            pos += 9 + len;
+        }
+        return out.toByteArray();
+    }
+}
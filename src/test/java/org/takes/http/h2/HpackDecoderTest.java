@@ -0,0 +1,86 @@
+package org.takes.http.h2;
+
+import java.util.List;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link HpackDecoder}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class HpackDecoderTest {
+
+    /**
+     * HpackDecoder can decode requests of RFC 7541 appendix C.4, which
+     * share the dynamic table.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void decodesRequestsWithHuffman() throws Exception {
+        final HpackDecoder decoder = new HpackDecoder(4096);
+        decoder.decode(
+            HpackDecoderTest.bytes(
+                "828684418cf1e3c2e5f23a6ba0ab90f4ff"
+            )
+        );
+        decoder.decode(HpackDecoderTest.bytes("828684be5886a8eb10649cbf"));
+        final List<String[]> fields = decoder.decode(
+            HpackDecoderTest.bytes(
+                "828785bf408825a849e95ba97d7f8925a849e95bb8e8b4bf"
+            )
+        );
+        MatcherAssert.assertThat(fields, Matchers.hasSize(5));
+        MatcherAssert.assertThat(
+            fields.get(2),
+            Matchers.arrayContaining(":path", "/index.html")
+        );
+        MatcherAssert.assertThat(
+            fields.get(3),
+            Matchers.arrayContaining(":authority", "www.example.com")
+        );
+        MatcherAssert.assertThat(
+            fields.get(4),
+            Matchers.arrayContaining("custom-key", "custom-value")
+        );
+    }
+
+    /**
+     * HpackDecoder can evict old fields from a small table.
+     * @throws Exception If some problem inside
+     */
+    @Test(expected = H2Exception.class)
+    public void evictsOldFields() throws Exception {
+        final HpackDecoder decoder = new HpackDecoder(64);
+        decoder.decode(
+            HpackDecoderTest.bytes("400161016140016201624001630163")
+        );
+        decoder.decode(HpackDecoderTest.bytes("c0"));
+    }
+
+    /**
+     * HpackDecoder can reject table size bigger than the limit.
+     * @throws Exception If some problem inside
+     */
+    @Test(expected = H2Exception.class)
+    public void rejectsTooBigTable() throws Exception {
+        new HpackDecoder(4096).decode(HpackDecoderTest.bytes("3fe21f"));
+    }
+
+    /**
+     * Bytes from hex.
+     * @param hex Hex
+     * @return Bytes
+     */
+    private static byte[] bytes(final String hex) {
+        final byte[] bytes = new byte[hex.length() / 2];
+        for (int idx = 0; idx < bytes.length; ++idx) {
+            bytes[idx] = (byte) Integer.parseInt(
+                hex.substring(idx << 1, (idx << 1) + 2), 16
+            );
+        }
+        return bytes;
+    }
+}
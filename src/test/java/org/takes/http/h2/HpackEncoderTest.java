@@ -0,0 +1,72 @@
+package org.takes.http.h2;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.List;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link HpackEncoder}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class HpackEncoderTest {
+
+    /**
+     * HpackEncoder can encode fields, which the decoder reads back.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void encodesFields() throws Exception {
+        final HpackEncoder encoder = new HpackEncoder(4096);
+        final HpackDecoder decoder = new HpackDecoder(4096);
+        final List<String[]> fields = Arrays.asList(
+            new String[] {":status", "200"},
+            new String[] {"content-type", "text/plain"},
+            new String[] {"set-cookie", "id=42"},
+            new String[] {"x-empty", ""}
+        );
+        final ByteArrayOutputStream first = new ByteArrayOutputStream();
+        encoder.encode(fields, first);
+        final ByteArrayOutputStream second = new ByteArrayOutputStream();
+        encoder.encode(fields, second);
+        decoder.decode(first.toByteArray());
+        final List<String[]> decoded = decoder.decode(second.toByteArray());
+        for (int idx = 0; idx < fields.size(); ++idx) {
+            MatcherAssert.assertThat(
+                decoded.get(idx),
+                Matchers.equalTo(fields.get(idx))
+            );
+        }
+        MatcherAssert.assertThat(
+            second.size(),
+            Matchers.lessThan(first.size())
+        );
+    }
+
+    /**
+     * HpackEncoder can shrink the table when the decoder asks for it.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void shrinksTable() throws Exception {
+        final HpackEncoder encoder = new HpackEncoder(4096);
+        final List<String[]> fields = Arrays.<String[]>asList(
+            new String[] {"x-name", "value"}
+        );
+        encoder.encode(fields, new ByteArrayOutputStream());
+        encoder.limit(0);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encoder.encode(fields, out);
+        MatcherAssert.assertThat(
+            out.toByteArray()[0], Matchers.is((byte) 0x20)
+        );
+        MatcherAssert.assertThat(
+            new HpackDecoder(4096).decode(out.toByteArray()).get(0),
+            Matchers.equalTo(fields.get(0))
+        );
+    }
+}
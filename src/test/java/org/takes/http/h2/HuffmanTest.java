@@ -0,0 +1,83 @@
+package org.takes.http.h2;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link Huffman}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class HuffmanTest {
+
+    /**
+     * Huffman can encode strings, as RFC 7541 appendix C.4 does.
+     */
+    @Test
+    public void encodesStrings() {
+        final String[][] cases = {
+            {"www.example.com", "f1e3c2e5f23a6ba0ab90f4ff"},
+            {"no-cache", "a8eb10649cbf"},
+            {"custom-value", "25a849e95bb8e8b4bf"},
+            {"302", "6402"},
+        };
+        for (final String[] pair : cases) {
+            final byte[] octets = pair[0].getBytes(StandardCharsets.US_ASCII);
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            new Huffman().encode(octets, out);
+            MatcherAssert.assertThat(
+                HuffmanTest.hex(out.toByteArray()),
+                Matchers.equalTo(pair[1])
+            );
+            MatcherAssert.assertThat(
+                new Huffman().length(octets),
+                Matchers.equalTo(pair[1].length() / 2)
+            );
+        }
+    }
+
+    /**
+     * Huffman can decode all octets back.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void decodesAllOctets() throws Exception {
+        final byte[] octets = new byte[256];
+        for (int idx = 0; idx < octets.length; ++idx) {
+            octets[idx] = (byte) idx;
+        }
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new Huffman().encode(octets, out);
+        final byte[] code = out.toByteArray();
+        MatcherAssert.assertThat(
+            new Huffman().decode(code, 0, code.length),
+            Matchers.equalTo(octets)
+        );
+    }
+
+    /**
+     * Huffman can reject padding which is not a prefix of EOS.
+     * @throws Exception If some problem inside
+     */
+    @Test(expected = H2Exception.class)
+    public void rejectsBrokenPadding() throws Exception {
+        new Huffman().decode(new byte[] {0x18}, 0, 1);
+    }
+
+    /**
+     * Bytes as hex.
+     * @param bytes Bytes
+     * @return Hex
+     */
+    private static String hex(final byte[] bytes) {
+        return String.format(
+            "%0".concat(Integer.toString(bytes.length << 1)).concat("x"),
+            new BigInteger(1, bytes)
+        );
+    }
+}
@@ -0,0 +1,8 @@
+/**
+ * HTTP/2, tests.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+package org.takes.http.h2;
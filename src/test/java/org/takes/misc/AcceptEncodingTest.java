@@ -0,0 +1,112 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.takes.misc;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link AcceptEncoding}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class AcceptEncodingTest {
+
+    /**
+     * AcceptEncoding can parse quality values.
+     */
+    @Test
+    public void parsesQualityValues() {
+        final AcceptEncoding accept = new AcceptEncoding(
+            Arrays.asList("gzip;q=0.5, deflate", "BR ; Q=0.25")
+        );
+        MatcherAssert.assertThat(
+            accept.quality("gzip"),
+            Matchers.equalTo(500)
+        );
+        MatcherAssert.assertThat(
+            accept.quality("deflate"),
+            Matchers.equalTo(1000)
+        );
+        MatcherAssert.assertThat(
+            accept.quality("br"),
+            Matchers.equalTo(250)
+        );
+        MatcherAssert.assertThat(
+            accept.accepts("zstd"),
+            Matchers.is(false)
+        );
+    }
+
+    /**
+     * AcceptEncoding can match all codings by asterisk, except
+     * the ones excluded.
+     */
+    @Test
+    public void matchesByAsterisk() {
+        final AcceptEncoding accept = new AcceptEncoding(
+            Collections.singletonList("*;q=0.1, gzip;q=0, identity;q=0")
+        );
+        MatcherAssert.assertThat(
+            accept.quality("deflate"),
+            Matchers.equalTo(100)
+        );
+        MatcherAssert.assertThat(
+            accept.accepts("gzip"),
+            Matchers.is(false)
+        );
+        MatcherAssert.assertThat(
+            accept.accepts("identity"),
+            Matchers.is(false)
+        );
+    }
+
+    /**
+     * AcceptEncoding can ignore broken quality values.
+     */
+    @Test
+    public void ignoresBrokenQualityValues() {
+        final AcceptEncoding accept = new AcceptEncoding(
+            Collections.singletonList("gzip;q=2, deflate;q=abc, x-gzip;q=0.3")
+        );
+        MatcherAssert.assertThat(
+            accept.quality("gzip"),
+            Matchers.equalTo(300)
+        );
+        MatcherAssert.assertThat(
+            accept.accepts("deflate"),
+            Matchers.is(false)
+        );
+        MatcherAssert.assertThat(
+            new AcceptEncoding(Collections.<String>emptyList())
+                .accepts("identity"),
+            Matchers.is(true)
+        );
+    }
+
+}
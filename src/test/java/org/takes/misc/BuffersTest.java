@@ -0,0 +1,124 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.takes.misc;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link Buffers}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class BuffersTest {
+
+    /**
+     * Buffers can give the buffer back to the same thread.
+     */
+    @Test
+    public void reusesBufferOfThread() {
+        final Buffers buffers = new Buffers(16, 1);
+        final byte[] first = buffers.take();
+        MatcherAssert.assertThat(first.length, Matchers.equalTo(16));
+        MatcherAssert.assertThat(
+            buffers.take(),
+            Matchers.not(Matchers.sameInstance(first))
+        );
+        buffers.give(first);
+        MatcherAssert.assertThat(
+            buffers.take(),
+            Matchers.sameInstance(first)
+        );
+    }
+
+    /**
+     * Buffers can share buffers between threads.
+     * @throws Exception If some problem inside
+     */
+    @Test
+    public void sharesBuffersBetweenThreads() throws Exception {
+        final Buffers buffers = new Buffers(16, 1);
+        final byte[] first = buffers.take();
+        final byte[] second = buffers.take();
+        buffers.give(first);
+        buffers.give(second);
+        final ExecutorService service = Executors.newSingleThreadExecutor();
+        try {
+            MatcherAssert.assertThat(
+                service.submit(
+                    new Callable<byte[]>() {
+                        @Override
+                        public byte[] call() {
+                            return buffers.take();
+                        }
+                    }
+                ).get(),
+                Matchers.sameInstance(second)
+            );
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    /**
+     * Buffers can ignore buffers of other sizes and buffers
+     * that don't fit into the pool.
+     */
+    @Test
+    public void ignoresExtraBuffers() {
+        final Buffers buffers = new Buffers(16, 1);
+        final byte[] first = buffers.take();
+        final byte[] second = buffers.take();
+        final byte[] third = buffers.take();
+        buffers.give(new byte[8]);
+        buffers.give(first);
+        buffers.give(second);
+        buffers.give(third);
+        MatcherAssert.assertThat(
+            buffers.take(),
+            Matchers.sameInstance(first)
+        );
+        MatcherAssert.assertThat(
+            buffers.take(),
+            Matchers.sameInstance(second)
+        );
+        MatcherAssert.assertThat(
+            buffers.take(),
+            Matchers.not(
+                Matchers.anyOf(
+                    Matchers.sameInstance(third),
+                    Matchers.sameInstance(first),
+                    Matchers.sameInstance(second)
+                )
+            )
+        );
+    }
+
+}
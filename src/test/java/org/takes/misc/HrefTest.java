@@ -140,4 +140,39 @@ public final class HrefTest {
             Matchers.equalTo("http://example.com/#hello")
         );
     }
+
+    /**
+     * Href can slice a path out of the link without parsing it.
+     */
+    @Test
+    public void slicesPath() {
+        MatcherAssert.assertThat(
+            new Href("http://example.com/a/b-c?x=1#top").path(),
+            Matchers.equalTo("/a/b-c")
+        );
+        MatcherAssert.assertThat(
+            new Href("/a/%D0%B0?x=2").path(),
+            Matchers.equalTo("/a/\u0430")
+        );
+        MatcherAssert.assertThat(
+            new Href("//example.com").path(),
+            Matchers.equalTo("")
+        );
+    }
+
+    /**
+     * Href can decode query params only when they are requested.
+     */
+    @Test
+    public void decodesParamsLazily() {
+        final Href href = new Href("/p?a=%zz&b=%20&b=2");
+        MatcherAssert.assertThat(
+            href.path(),
+            Matchers.equalTo("/p")
+        );
+        MatcherAssert.assertThat(
+            href.param("b"),
+            Matchers.contains(" ", "2")
+        );
+    }
 }
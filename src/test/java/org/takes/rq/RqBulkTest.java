@@ -0,0 +1,272 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.takes.rq;
+
+import com.google.common.base.Joiner;
+import com.jcabi.aspects.Tv;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.takes.HttpException;
+import org.takes.Request;
+import org.takes.misc.PerformanceTests;
+
+/**
+ * Test case for {@link RqBulk}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class RqBulkTest {
+
+    /**
+     * RqBulk can build a request.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void buildsHttpRequest() throws IOException {
+        final Request req = new RqBulk(
+            new ByteArrayInputStream(
+                this.joiner().join(
+                    "GET / HTTP/1.1",
+                    "Host:e",
+                    "Content-Length: 5",
+                    "",
+                    "hello"
+                ).getBytes()
+            )
+        );
+        MatcherAssert.assertThat(
+            new RqHeaders.Base(req).header("host"),
+            Matchers.hasItem("e")
+        );
+        MatcherAssert.assertThat(
+            new RqPrint(req).printBody(),
+            Matchers.equalTo("hello")
+        );
+    }
+
+    /**
+     * RqBulk can support multi-line headers.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void supportMultiLineHeaders() throws IOException {
+        final Request req = new RqBulk(
+            new ByteArrayInputStream(
+                this.joiner().join(
+                    "GET /multiline HTTP/1.1",
+                    "X-Foo: this is a test",
+                    " header for you",
+                    "",
+                    "hello multi part"
+                ).getBytes()
+            )
+        );
+        MatcherAssert.assertThat(
+            new RqHeaders.Base(req).header("X-Foo"),
+            Matchers.hasItem("this is a test header for you")
+        );
+    }
+
+    /**
+     * RqBulk can leave the next request in the stream untouched.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void leavesNextRequestInStream() throws IOException {
+        final InputStream input = new ByteArrayInputStream(
+            this.joiner().join(
+                "GET /first HTTP/1.1",
+                "",
+                "GET /second HTTP/1.1",
+                "Host: www.example.com",
+                "",
+                ""
+            ).getBytes()
+        );
+        MatcherAssert.assertThat(
+            new RqBulk(input).head(),
+            Matchers.contains("GET /first HTTP/1.1")
+        );
+        MatcherAssert.assertThat(
+            new RqBulk(input).head(),
+            Matchers.contains("GET /second HTTP/1.1", "Host: www.example.com")
+        );
+    }
+
+    /**
+     * RqBulk can fail when request is broken.
+     * @throws IOException If some problem inside
+     */
+    @Test(expected = IOException.class)
+    public void failsOnBrokenHttpRequest() throws IOException {
+        new RqBulk(
+            new ByteArrayInputStream(
+                "GET /test HTTP/1.1\r\nHost: \u20ac"
+                    .getBytes(StandardCharsets.UTF_8)
+            )
+        );
+    }
+
+    /**
+     * RqBulk can fail when request is broken.
+     * @throws IOException If some problem inside
+     */
+    @Test(expected = IOException.class)
+    public void failsOnInvalidCrLfInRequest() throws IOException {
+        new RqBulk(
+            new ByteArrayInputStream(
+                "GET /test HTTP/1.1\rHost: localhost".getBytes()
+            )
+        );
+    }
+
+    /**
+     * RqBulk can reject a head with too many headers.
+     * @throws IOException If some problem inside
+     */
+    @Test(expected = HttpException.class)
+    public void rejectsTooManyHeaders() throws IOException {
+        new RqBulk(
+            new ByteArrayInputStream(
+                this.joiner().join(
+                    "GET / HTTP/1.1",
+                    "Host: www.example.com",
+                    "Accept: text/plain",
+                    "",
+                    ""
+                ).getBytes(StandardCharsets.UTF_8)
+            ),
+            // @checkstyle MagicNumber (1 line)
+            1024, 1, 256
+        );
+    }
+
+    /**
+     * RqBulk can reject a too long line, without reading the whole head.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void rejectsTooLongLine() throws IOException {
+        final StringBuilder line = new StringBuilder("X-Long: ");
+        for (int idx = 0; idx < Tv.THOUSAND; ++idx) {
+            line.append('x');
+        }
+        try {
+            new RqBulk(
+                new ByteArrayInputStream(
+                    this.joiner().join(
+                        "GET / HTTP/1.1", line, "", ""
+                    ).getBytes(StandardCharsets.UTF_8)
+                ),
+                // @checkstyle MagicNumber (1 line)
+                1024, Tv.TEN, 256
+            );
+            Assert.fail("the line is too long");
+        } catch (final HttpException ex) {
+            MatcherAssert.assertThat(
+                ex.code(),
+                // @checkstyle MagicNumber (1 line)
+                Matchers.equalTo(431)
+            );
+        }
+    }
+
+    /**
+     * RqBulk can parse heads faster than RqLive, to the same lines.
+     *
+     * <p>Both are warmed up first and then measured in turns, so that
+     * neither pays for the cold JVM alone.
+     *
+     * @throws IOException If some problem inside
+     */
+    @Test
+    @Category(PerformanceTests.class)
+    public void parsesFasterThanLive() throws IOException {
+        final byte[] bytes = this.joiner().join(
+            "GET /some/path?x=1 HTTP/1.1",
+            "Host: www.example.com",
+            "User-Agent: Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36",
+            "Accept: text/html,application/xhtml+xml,application/xml",
+            "Accept-Encoding: gzip, deflate",
+            "Cookie: PSID=a1b2c3d4; lang=en; theme=dark",
+            "Connection: keep-alive",
+            "",
+            ""
+        ).getBytes();
+        MatcherAssert.assertThat(
+            new RqBulk(new ByteArrayInputStream(bytes)).head(),
+            Matchers.equalTo(
+                new RqLive(new ByteArrayInputStream(bytes)).head()
+            )
+        );
+        final int total = 20000;
+        RqBulkTest.elapsed(bytes, total, false);
+        RqBulkTest.elapsed(bytes, total, true);
+        long live = 0L;
+        long bulk = 0L;
+        for (int round = 0; round < Tv.FIVE; ++round) {
+            live += RqBulkTest.elapsed(bytes, total, false);
+            bulk += RqBulkTest.elapsed(bytes, total, true);
+        }
+        MatcherAssert.assertThat(bulk, Matchers.lessThan(live));
+    }
+
+    /**
+     * Time to parse the same head many times.
+     * @param bytes The head
+     * @param total How many times to parse it
+     * @param bulk Parse with RqBulk, otherwise with RqLive
+     * @return Nanoseconds
+     * @throws IOException If fails
+     */
+    private static long elapsed(final byte[] bytes, final int total,
+        final boolean bulk) throws IOException {
+        final long start = System.nanoTime();
+        for (int idx = 0; idx < total; ++idx) {
+            if (bulk) {
+                new RqBulk(new ByteArrayInputStream(bytes)).head();
+            } else {
+                new RqLive(new ByteArrayInputStream(bytes)).head();
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Create a joiner for a header.
+     * @return Joiner
+     */
+    private Joiner joiner() {
+        return Joiner.on("\r\n");
+    }
+
+}
@@ -0,0 +1,163 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.takes.rq;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.apache.commons.io.IOUtils;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.takes.HttpException;
+import org.takes.Request;
+
+/**
+ * Test case for {@link RqFramed}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class RqFramedTest {
+
+    /**
+     * RqFramed can end the body where Content-Length says.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void endsBodyByLength() throws IOException {
+        final InputStream input = RqFramedTest.stream(
+            "POST / HTTP/1.1\r\nContent-Length: 5\r\n\r\nhelloGET /"
+        );
+        MatcherAssert.assertThat(
+            IOUtils.toString(
+                new RqFramed(new RqBulk(input)).body(),
+                StandardCharsets.UTF_8
+            ),
+            Matchers.equalTo("hello")
+        );
+        MatcherAssert.assertThat(
+            IOUtils.toString(input, StandardCharsets.UTF_8),
+            Matchers.equalTo("GET /")
+        );
+    }
+
+    /**
+     * RqFramed can end the chunked body after its trailer, without
+     * decoding the chunks.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void endsChunkedBody() throws IOException {
+        final String body = "5;x=y\r\nhello\r\n0\r\nX-Sum: 1\r\n\r\n";
+        final InputStream input = RqFramedTest.stream(
+            String.format(
+                "PUT / HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n%sNEXT",
+                body
+            )
+        );
+        final Request req = new RqFramed(new RqBulk(input));
+        MatcherAssert.assertThat(
+            IOUtils.toString(req.body(), StandardCharsets.UTF_8),
+            Matchers.equalTo(body)
+        );
+        MatcherAssert.assertThat(
+            IOUtils.toString(input, StandardCharsets.UTF_8),
+            Matchers.equalTo("NEXT")
+        );
+    }
+
+    /**
+     * RqFramed can make the body empty, when its length is unknown.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void endsBodyOfUnknownLength() throws IOException {
+        MatcherAssert.assertThat(
+            new RqPrint(
+                new RqFramed(
+                    new RqFake(
+                        Arrays.asList("GET / HTTP/1.1", "Host: a"),
+                        "GET /next HTTP/1.1"
+                    )
+                )
+            ).printBody(),
+            Matchers.equalTo("")
+        );
+    }
+
+    /**
+     * RqFramed can reject a request with both Transfer-Encoding and
+     * Content-Length.
+     * @throws IOException If some problem inside
+     */
+    @Test(expected = HttpException.class)
+    public void rejectsAmbiguousLength() throws IOException {
+        new RqFramed(
+            new RqFake(
+                Arrays.asList(
+                    "POST / HTTP/1.1",
+                    "Content-Length: 3",
+                    "Transfer-Encoding: chunked"
+                ),
+                "0\r\n\r\n"
+            )
+        );
+    }
+
+    /**
+     * RqFramed can reject a chunk with invalid size.
+     * @throws IOException If some problem inside
+     */
+    @Test(expected = HttpException.class)
+    public void rejectsBrokenChunk() throws IOException {
+        IOUtils.toString(
+            new RqFramed(
+                new RqFake(
+                    Arrays.asList(
+                        "POST / HTTP/1.1",
+                        "Transfer-Encoding: chunked"
+                    ),
+                    "zz\r\nhello\r\n0\r\n\r\n"
+                )
+            ).body(),
+            StandardCharsets.UTF_8
+        );
+    }
+
+    /**
+     * Make a stream of the text.
+     * @param text Text
+     * @return Stream
+     */
+    private static InputStream stream(final String text) {
+        return new BufferedInputStream(
+            new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8))
+        );
+    }
+}
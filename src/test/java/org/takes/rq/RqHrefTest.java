@@ -30,6 +30,7 @@ import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.junit.Test;
 import org.takes.HttpException;
+import org.takes.Request;
 
 /**
  * Test case for {@link RqHref.Base}.
@@ -239,4 +240,25 @@ public final class RqHrefTest {
             Matchers.startsWith("def-")
         );
     }
+
+    /**
+     * RqHref.Base can parse HREF of an indexed request only once.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void reusesHrefOfIndexedRequest() throws IOException {
+        final Request req = new RqIndexed(
+            new RqFake(
+                Arrays.asList(
+                    "GET /idx?b=7",
+                    "Host: i.example.com"
+                ),
+                ""
+            )
+        );
+        MatcherAssert.assertThat(
+            new RqHref.Base(req).href(),
+            Matchers.sameInstance(new RqHref.Base(req).href())
+        );
+    }
 }
@@ -0,0 +1,121 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.takes.rq;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.takes.Request;
+
+/**
+ * Test case for {@link RqIndexed}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class RqIndexedTest {
+
+    /**
+     * RqIndexed can read the head of the original request only once.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void readsHeadOnlyOnce() throws IOException {
+        final AtomicInteger reads = new AtomicInteger();
+        final Request origin = new RqFake(
+            Arrays.asList(
+                "GET /i?a=1",
+                "Host: www.example.com",
+                "Accept: text/xml",
+                "Accept: text/html"
+            ),
+            ""
+        );
+        final Request req = new RqIndexed(
+            new Request() {
+                @Override
+                public Iterable<String> head() throws IOException {
+                    reads.incrementAndGet();
+                    return origin.head();
+                }
+                @Override
+                public InputStream body() throws IOException {
+                    return origin.body();
+                }
+            }
+        );
+        MatcherAssert.assertThat(
+            new RqHeaders.Base(req).header("accept"),
+            Matchers.contains("text/xml", "text/html")
+        );
+        MatcherAssert.assertThat(
+            new RqHeaders.Base(req).header("HOST"),
+            Matchers.contains("www.example.com")
+        );
+        MatcherAssert.assertThat(
+            new RqHref.Base(req).href().path(),
+            Matchers.equalTo("/i")
+        );
+        MatcherAssert.assertThat(reads.get(), Matchers.equalTo(1));
+    }
+
+    /**
+     * RqIndexed can be decorated with new headers.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void seesHeadersAddedLater() throws IOException {
+        MatcherAssert.assertThat(
+            new RqHeaders.Base(
+                new RqWithHeader(
+                    new RqIndexed(
+                        new RqFake(
+                            Arrays.asList("GET /", "Host: www.example.com"),
+                            ""
+                        )
+                    ),
+                    "X-Extra: yes"
+                )
+            ).names(),
+            Matchers.containsInAnyOrder("host", "x-extra")
+        );
+    }
+
+    /**
+     * RqIndexed can reject broken headers.
+     * @throws IOException If some problem inside
+     */
+    @Test(expected = IOException.class)
+    public void rejectsBrokenHeaders() throws IOException {
+        new RqHeaders.Base(
+            new RqIndexed(
+                new RqFake(Arrays.asList("GET /", "broken header"), "")
+            )
+        ).header("host");
+    }
+}
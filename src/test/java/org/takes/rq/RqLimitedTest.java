@@ -0,0 +1,85 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.takes.rq;
+
+import java.io.IOException;
+import java.util.Arrays;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.takes.HttpException;
+
+/**
+ * Test case for {@link RqLimited}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class RqLimitedTest {
+
+    /**
+     * RqLimited can pass a short body through.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void passesShortBody() throws IOException {
+        MatcherAssert.assertThat(
+            new RqPrint(
+                new RqLimited(new RqFake("POST", "/", "hello"), 5L)
+            ).printBody(),
+            Matchers.equalTo("hello")
+        );
+    }
+
+    /**
+     * RqLimited can reject a long body before reading it.
+     * @throws IOException If some problem inside
+     */
+    @Test(expected = HttpException.class)
+    public void rejectsDeclaredLongBody() throws IOException {
+        new RqLimited(
+            new RqFake(
+                Arrays.asList(
+                    "POST /upload HTTP/1.1",
+                    "Host: www.example.com",
+                    "Content-Length: 10000000000"
+                ),
+                ""
+            ),
+            // @checkstyle MagicNumber (1 line)
+            1024L
+        );
+    }
+
+    /**
+     * RqLimited can stop reading a body, which is longer than declared.
+     * @throws IOException If some problem inside
+     */
+    @Test(expected = HttpException.class)
+    public void stopsReadingLongBody() throws IOException {
+        new RqPrint(
+            new RqLimited(new RqFake("POST", "/", "hello, world"), 5L)
+        ).printBody();
+    }
+}
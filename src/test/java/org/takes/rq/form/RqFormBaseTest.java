@@ -28,6 +28,8 @@ import java.util.Arrays;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.junit.Test;
+import org.takes.HttpException;
+import org.takes.Request;
 import org.takes.rq.RqBuffered;
 import org.takes.rq.RqFake;
 import org.takes.rq.RqForm;
@@ -100,4 +102,65 @@ public final class RqFormBaseTest {
             Matchers.is(Boolean.TRUE)
         );
     }
+
+    /**
+     * RqFormBase can decode UTF-8 and repeated params.
+     * @throws IOException if fails
+     */
+    @Test
+    public void decodesRepeatedParams() throws IOException {
+        final RqForm req = new RqFormBase(
+            RqFormBaseTest.request(
+                "Name=%D0%BF%D1%80%D0%B8%D0%B2%D0%B5%D1%82&&name= x+y &q=a=b&"
+            )
+        );
+        MatcherAssert.assertThat(
+            req.param("name"),
+            Matchers.contains("\u043f\u0440\u0438\u0432\u0435\u0442", "x y")
+        );
+        MatcherAssert.assertThat(
+            req.param("q"),
+            Matchers.contains("a=b")
+        );
+    }
+
+    /**
+     * RqFormBase can reject a body, which is too long.
+     * @throws IOException if fails
+     */
+    @Test(expected = HttpException.class)
+    public void rejectsTooLongBody() throws IOException {
+        new RqFormBase(
+            RqFormBaseTest.request("alpha=1234567890&beta=1234567890"),
+            20L, 10
+        ).names();
+    }
+
+    /**
+     * RqFormBase can reject a body with too many fields.
+     * @throws IOException if fails
+     */
+    @Test(expected = HttpException.class)
+    public void rejectsTooManyFields() throws IOException {
+        new RqFormBase(
+            RqFormBaseTest.request("a=1&b=2&c=3&d=4"),
+            100L, 3
+        ).names();
+    }
+
+    /**
+     * Make a request with the body.
+     * @param body Body
+     * @return Request
+     */
+    private static Request request(final String body) {
+        return new RqFake(
+            Arrays.asList(
+                "POST /form",
+                "Host: www.example.com",
+                String.format(RqFormBaseTest.HEADER, body.getBytes().length)
+            ),
+            body
+        );
+    }
 }
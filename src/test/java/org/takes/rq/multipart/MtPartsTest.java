@@ -0,0 +1,335 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.takes.rq.multipart;
+
+import com.google.common.base.Joiner;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import org.apache.commons.io.IOUtils;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.takes.Request;
+import org.takes.facets.hamcrest.HmHeader;
+import org.takes.misc.PerformanceTests;
+import org.takes.rq.RqFake;
+
+/**
+ * Test case for {@link MtParts}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ * @checkstyle MultipleStringLiteralsCheck (500 lines)
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+public final class MtPartsTest {
+
+    /**
+     * Carriage return constant.
+     */
+    private static final String CRLF = "\r\n";
+
+    /**
+     * MtParts can read parts one by one.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void readsPartsOneByOne() throws IOException {
+        final Iterator<Request> parts = new MtParts(
+            MtPartsTest.request(
+                "preamble",
+                "--b",
+                "Content-Disposition: form-data; name=\"first\"",
+                "",
+                "Hello, world!",
+                "--b  ",
+                "Content-Disposition: form-data; name=\"second\"",
+                "Content-Type: text/plain",
+                "",
+                "",
+                "--b--",
+                "epilogue"
+            )
+        );
+        final Request first = parts.next();
+        MatcherAssert.assertThat(
+            first,
+            new HmHeader<>("Content-Disposition", "form-data; name=\"first\"")
+        );
+        MatcherAssert.assertThat(
+            IOUtils.toString(first.body(), StandardCharsets.UTF_8),
+            Matchers.equalTo("Hello, world!")
+        );
+        final Request second = parts.next();
+        MatcherAssert.assertThat(
+            second,
+            new HmHeader<>("Content-Type", "text/plain")
+        );
+        MatcherAssert.assertThat(
+            IOUtils.toString(second.body(), StandardCharsets.UTF_8),
+            Matchers.equalTo("")
+        );
+        MatcherAssert.assertThat(parts.hasNext(), Matchers.is(false));
+    }
+
+    /**
+     * MtParts can skip the parts that were not read.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void skipsUnreadParts() throws IOException {
+        final Iterator<Request> parts = new MtParts(
+            MtPartsTest.request(
+                "--b",
+                "Content-Disposition: form-data; name=\"a\"",
+                "",
+                "some content, which is not read",
+                "--b",
+                "Content-Disposition: form-data; name=\"b\"",
+                "",
+                "text",
+                "--b--"
+            )
+        );
+        final Request first = parts.next();
+        final Request second = parts.next();
+        MatcherAssert.assertThat(
+            IOUtils.toString(second.body(), StandardCharsets.UTF_8),
+            Matchers.equalTo("text")
+        );
+        MatcherAssert.assertThat(
+            first.body().read(),
+            Matchers.equalTo(-1)
+        );
+        MatcherAssert.assertThat(parts.hasNext(), Matchers.is(false));
+    }
+
+    /**
+     * MtParts can fail when the closing boundary is absent.
+     * @throws IOException If some problem inside
+     */
+    @Test(expected = IOException.class)
+    public void failsOnTruncatedBody() throws IOException {
+        IOUtils.toString(
+            new MtParts(
+                MtPartsTest.request(
+                    "--b",
+                    "Content-Disposition: form-data; name=\"c\"",
+                    "",
+                    "the body ends here"
+                )
+            ).next().body(),
+            StandardCharsets.UTF_8
+        );
+    }
+
+    /**
+     * MtParts can find boundaries in random bodies, where the content of
+     * parts is full of fragments of the delimiter.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void findsBoundariesInRandomBodies() throws IOException {
+        final Random random = new Random(0L);
+        for (int attempt = 0; attempt < 1000; ++attempt) {
+            final List<String> contents = new ArrayList<>(4);
+            final StringBuilder text = new StringBuilder(0);
+            final int count = 1 + random.nextInt(4);
+            for (int idx = 0; idx < count; ++idx) {
+                final String content;
+                if (attempt % 10 == 0) {
+                    content = MtPartsTest.content(random, 20000);
+                } else {
+                    content = MtPartsTest.content(random, 50);
+                }
+                contents.add(content);
+                text.append("--b-b\r\n")
+                    .append("Content-Disposition: form-data; name=\"p\"\r\n")
+                    .append(MtPartsTest.CRLF)
+                    .append(content)
+                    .append(MtPartsTest.CRLF);
+            }
+            final Iterator<Request> parts = new MtParts(
+                MtPartsTest.request("b-b", text.append("--b-b--").toString())
+            );
+            final List<String> bodies = new ArrayList<>(count);
+            while (parts.hasNext()) {
+                bodies.add(
+                    IOUtils.toString(
+                        parts.next().body(), StandardCharsets.UTF_8
+                    )
+                );
+            }
+            MatcherAssert.assertThat(bodies, Matchers.equalTo(contents));
+        }
+    }
+
+    /**
+     * MtParts can read a big part in an acceptable time.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    @Category(PerformanceTests.class)
+    public void readsBigPartInTime() throws IOException {
+        final long length = 100L * 1024L * 1024L;
+        final byte[] head = Joiner.on(MtPartsTest.CRLF).join(
+            "--b",
+            "Content-Disposition: form-data; name=\"file\"",
+            "",
+            ""
+        ).getBytes(StandardCharsets.UTF_8);
+        final byte[] tail = "\r\n--b--".getBytes(StandardCharsets.UTF_8);
+        final InputStream body = new SequenceInputStream(
+            new ByteArrayInputStream(head),
+            new SequenceInputStream(
+                new MtPartsTest.Repeated(length),
+                new ByteArrayInputStream(tail)
+            )
+        );
+        final long start = System.currentTimeMillis();
+        final InputStream part = new MtParts(
+            new RqFake(
+                Arrays.asList(
+                    "POST /upload HTTP/1.1",
+                    "Host: www.example.com",
+                    String.format(
+                        "Content-Length: %d",
+                        (long) head.length + length + (long) tail.length
+                    ),
+                    "Content-Type: multipart/form-data; boundary=b"
+                ),
+                body
+            )
+        ).next().body();
+        final byte[] buf = new byte[65536];
+        long total = 0L;
+        for (int read = part.read(buf); read >= 0; read = part.read(buf)) {
+            total += read;
+        }
+        MatcherAssert.assertThat(total, Matchers.equalTo(length));
+        MatcherAssert.assertThat(
+            System.currentTimeMillis() - start,
+            Matchers.lessThan(3000L)
+        );
+    }
+
+    /**
+     * Make a random content of a part, without the delimiter inside.
+     * @param random Random
+     * @param max Maximum length
+     * @return Content
+     */
+    private static String content(final Random random, final int max) {
+        final String alphabet = "\r\n-b";
+        final StringBuilder text = new StringBuilder(max);
+        final int length = random.nextInt(max);
+        for (int idx = 0; idx < length; ++idx) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        String content = text.toString();
+        while (MtPartsTest.CRLF.concat(content).contains("\r\n--b-b")) {
+            content = content.replace("--b-b", "");
+        }
+        return content;
+    }
+
+    /**
+     * Make a multipart request.
+     * @param lines Lines of the body
+     * @return Request
+     */
+    private static Request request(final String... lines) {
+        return MtPartsTest.request(
+            "b", Joiner.on(MtPartsTest.CRLF).join(lines)
+        );
+    }
+
+    /**
+     * Make a multipart request.
+     * @param boundary Boundary
+     * @param body Body
+     * @return Request
+     */
+    private static Request request(final String boundary, final String body) {
+        return new RqFake(
+            Arrays.asList(
+                "POST /upload HTTP/1.1",
+                "Host: www.example.com",
+                String.format("Content-Length: %d", body.getBytes().length),
+                String.format(
+                    "Content-Type: multipart/form-data; boundary=%s", boundary
+                )
+            ),
+            body
+        );
+    }
+
+    /**
+     * The same byte, many times.
+     */
+    private static final class Repeated extends InputStream {
+        /**
+         * How many bytes are left.
+         */
+        private long left;
+        /**
+         * Ctor.
+         * @param length Total length
+         */
+        Repeated(final long length) {
+            super();
+            this.left = length;
+        }
+        @Override
+        public int read() {
+            final byte[] one = new byte[1];
+            final int read;
+            if (this.read(one, 0, 1) < 0) {
+                read = -1;
+            } else {
+                read = one[0];
+            }
+            return read;
+        }
+        @Override
+        public int read(final byte[] bytes, final int off, final int len) {
+            int read = -1;
+            if (this.left > 0L) {
+                read = (int) Math.min((long) len, this.left);
+                Arrays.fill(bytes, off, off + read, (byte) 'X');
+                this.left -= (long) read;
+            }
+            return read;
+        }
+    }
+}
@@ -133,7 +133,9 @@ public final class RqMtSmartTest {
 
     /**
      * RqMtSmart can identify the boundary even if the last content to
-     * read before the pattern is an empty line.
+     * read before the pattern is an empty line. Only the CRLF right in
+     * front of the delimiter belongs to it, the line break that ends
+     * the content stays in the part (RFC 2046, section 5.1.1).
      * @throws IOException If some problem inside
      */
     @Test
@@ -166,7 +168,7 @@ public final class RqMtSmartTest {
         try {
             MatcherAssert.assertThat(
                 regsmart.single(part).body().available(),
-                Matchers.equalTo(length)
+                Matchers.equalTo(length + RqMtSmartTest.CRLF.length())
             );
         } finally {
             req.body().close();
@@ -68,7 +68,7 @@ public final class BodyTest {
             new Utf8String("ByteArray returnsCorrectLength!").bytes();
         MatcherAssert.assertThat(
             new Body.ByteArray(bytes).length(),
-            Matchers.equalTo(bytes.length)
+            Matchers.equalTo((long) bytes.length)
         );
     }
 
@@ -98,7 +98,7 @@ public final class BodyTest {
             new Utf8String("Stream returnsCorrectLength!").bytes();
         MatcherAssert.assertThat(
             new Body.Stream(new ByteArrayInputStream(bytes)).length(),
-            Matchers.equalTo(bytes.length)
+            Matchers.equalTo((long) bytes.length)
         );
     }
 
@@ -128,7 +128,7 @@ public final class BodyTest {
             new Utf8String("TempFile returnsCorrectLength!").bytes();
         MatcherAssert.assertThat(
             new Body.TempFile(new Body.ByteArray(bytes)).length(),
-            Matchers.equalTo(bytes.length)
+            Matchers.equalTo((long) bytes.length)
         );
     }
 
@@ -172,7 +172,34 @@ public final class BodyTest {
             }
             MatcherAssert.assertThat(
                 new Body.Url(file.toUri().toURL()).length(),
-                Matchers.equalTo(bytes.length)
+                Matchers.equalTo((long) bytes.length)
+            );
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Body.Path can provide the expected input and length.
+     * @throws Exception If some problem inside.
+     */
+    @Test
+    public void returnsCorrectInputAndLengthWithPath() throws Exception {
+        final Path file = BodyTest.createTempFile();
+        try {
+            final byte[] bytes =
+                new Utf8String("Path returnsCorrectInput!").bytes();
+            Files.write(file, bytes);
+            final Body body = new Body.Path(file);
+            try (final InputStream input = body.input()) {
+                MatcherAssert.assertThat(
+                    ByteStreams.toByteArray(input),
+                    Matchers.equalTo(bytes)
+                );
+            }
+            MatcherAssert.assertThat(
+                body.length(),
+                Matchers.equalTo((long) bytes.length)
             );
         } finally {
             Files.deleteIfExists(file);
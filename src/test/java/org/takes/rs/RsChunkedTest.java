@@ -0,0 +1,91 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.takes.rs;
+
+import java.io.IOException;
+import java.io.SequenceInputStream;
+import org.apache.commons.io.IOUtils;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.takes.Response;
+
+/**
+ * Test case for {@link RsChunked}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class RsChunkedTest {
+
+    /**
+     * RsChunked can send a body in chunks, without Content-Length.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void sendsBodyInChunks() throws IOException {
+        final Response response = new RsChunked(
+            new RsWithBody(
+                new SequenceInputStream(
+                    IOUtils.toInputStream("first,", "UTF-8"),
+                    IOUtils.toInputStream("second", "UTF-8")
+                )
+            )
+        );
+        MatcherAssert.assertThat(
+            new RsPrint(response).print(),
+            Matchers.equalTo(
+                String.join(
+                    "\r\n",
+                    "HTTP/1.1 200 OK",
+                    "Transfer-Encoding: chunked",
+                    "",
+                    "6",
+                    "first,",
+                    "6",
+                    "second",
+                    "0",
+                    "",
+                    ""
+                )
+            )
+        );
+    }
+
+    /**
+     * RsChunked can leave a response without body as it is.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void leavesNoContentResponse() throws IOException {
+        MatcherAssert.assertThat(
+            new RsPrint(
+                // @checkstyle MagicNumber (1 line)
+                new RsChunked(new RsWithStatus(204))
+            ).print(),
+            Matchers.equalTo("HTTP/1.1 204 No Content\r\n\r\n")
+        );
+    }
+
+}
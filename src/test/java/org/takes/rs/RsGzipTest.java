@@ -23,12 +23,14 @@
  */
 package org.takes.rs;
 
+import com.jcabi.aspects.Tv;
 import java.awt.image.BufferedImage;
 import java.awt.image.RenderedImage;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPInputStream;
 import javax.imageio.ImageIO;
 import org.apache.commons.io.IOUtils;
@@ -111,4 +113,62 @@ public final class RsGzipTest {
         );
     }
 
+    /**
+     * RsGzip can compress a body on the fly, without Content-Length.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void streamsCompressedBody() throws IOException {
+        final StringBuilder text = new StringBuilder(0);
+        for (int idx = 0; idx < Tv.TEN * Tv.THOUSAND; ++idx) {
+            text.append(idx).append(' ');
+        }
+        final Response response = new RsGzip(
+            new RsText(text.toString()), Deflater.BEST_SPEED, Tv.HUNDRED
+        );
+        MatcherAssert.assertThat(
+            response.head(),
+            Matchers.allOf(
+                Matchers.hasItem("Content-Encoding: gzip"),
+                Matchers.not(
+                    Matchers.hasItem(Matchers.startsWith("Content-Length"))
+                ),
+                Matchers.not(
+                    Matchers.hasItem(Matchers.startsWith("Transfer-Encoding"))
+                )
+            )
+        );
+        MatcherAssert.assertThat(
+            IOUtils.toString(
+                new GZIPInputStream(response.body()),
+                StandardCharsets.UTF_8
+            ),
+            Matchers.equalTo(text.toString())
+        );
+    }
+
+    /**
+     * RsGzip can leave short bodies uncompressed, when streaming.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void skipsShortBodiesWhenStreaming() throws IOException {
+        final Response response = new RsGzip(
+            new RsText("short"), Deflater.DEFAULT_COMPRESSION, Tv.HUNDRED
+        );
+        MatcherAssert.assertThat(
+            response.head(),
+            Matchers.allOf(
+                Matchers.hasItem("Content-Length: 5"),
+                Matchers.not(
+                    Matchers.hasItem(Matchers.startsWith("Content-Encoding"))
+                )
+            )
+        );
+        MatcherAssert.assertThat(
+            IOUtils.toString(response.body(), StandardCharsets.UTF_8),
+            Matchers.equalTo("short")
+        );
+    }
+
 }
@@ -24,12 +24,18 @@
 package org.takes.rs;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
 import javax.json.Json;
 import javax.json.JsonArrayBuilder;
 import javax.json.JsonStructure;
+import javax.json.JsonValue;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.junit.Test;
+import org.takes.Response;
 
 /**
  * Test case for {@link RsJson}.
@@ -78,4 +84,78 @@ public final class RsJsonTest {
         );
     }
 
+    /**
+     * RsJSON can generate a JSON array while it's being read.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void generatesJsonArray() throws IOException {
+        final int size = 100000;
+        final List<JsonValue> items = new LinkedList<>();
+        for (int idx = 0; idx < size; ++idx) {
+            items.add(Json.createObjectBuilder().add("id", idx).build());
+        }
+        final Response response = new RsJson(new RsJson.Array(items));
+        MatcherAssert.assertThat(
+            response.head(),
+            Matchers.allOf(
+                Matchers.hasItem("Content-Type: application/json"),
+                Matchers.not(
+                    Matchers.hasItem(Matchers.startsWith("Content-Length"))
+                )
+            )
+        );
+        MatcherAssert.assertThat(
+            Json.createReader(response.body()).readArray()
+                .getJsonObject(size - 1).getInt("id"),
+            Matchers.equalTo(size - 1)
+        );
+    }
+
+    /**
+     * RsJSON can generate a JSON array again for every body.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void generatesJsonArrayTwice() throws IOException {
+        final Response response = new RsJson(
+            new RsJson.Array(
+                Arrays.<JsonValue>asList(
+                    Json.createObjectBuilder().add("id", 1).build(),
+                    Json.createObjectBuilder().add("id", 2).build()
+                )
+            )
+        );
+        Json.createReader(response.body()).readArray();
+        MatcherAssert.assertThat(
+            Json.createReader(response.body()).readArray().size(),
+            Matchers.equalTo(2)
+        );
+    }
+
+    /**
+     * RsJSON can generate a JSON array for two bodies read at once.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void generatesJsonArrayForTwoBodies() throws IOException {
+        final Response response = new RsJson(
+            new RsJson.Array(
+                Arrays.<JsonValue>asList(
+                    Json.createObjectBuilder().add("id", 1).build()
+                )
+            )
+        );
+        final InputStream first = response.body();
+        final InputStream second = response.body();
+        MatcherAssert.assertThat(
+            Json.createReader(second).readArray().size(),
+            Matchers.equalTo(1)
+        );
+        MatcherAssert.assertThat(
+            Json.createReader(first).readArray().size(),
+            Matchers.equalTo(1)
+        );
+    }
+
 }
@@ -23,13 +23,23 @@
  */
 package org.takes.rs;
 
+import com.jcabi.aspects.Tv;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.Writer;
+import java.net.HttpURLConnection;
+import java.nio.channels.Channels;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
 
 /**
  * Test case for {@link RsPrint}.
@@ -39,6 +49,12 @@ import org.junit.Test;
  */
 public final class RsPrintTest {
 
+    /**
+     * Temp directory.
+     */
+    @Rule
+    public final transient TemporaryFolder temp = new TemporaryFolder();
+
     /**
      * RsPrint can fail on invalid chars.
      * @throws IOException If some problem inside
@@ -48,6 +64,82 @@ public final class RsPrintTest {
         new RsPrint(new RsWithHeader("name", "\n\n\n")).print();
     }
 
+    /**
+     * RsPrint can fail on invalid status line.
+     * @throws IOException If some problem inside
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void failsOnInvalidStatusLine() throws IOException {
+        new RsPrint(new RsWithStatus(
+                new RsEmpty(), HttpURLConnection.HTTP_OK, "OK!"
+            )).print();
+    }
+
+    /**
+     * RsPrint can print head and small body in one write.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void printsSmallResponseInOneWrite() throws IOException {
+        final OutputStream output = Mockito.mock(OutputStream.class);
+        new RsPrint(new RsText("{\"small\":true}")).print(output);
+        Mockito.verify(output).write(
+            Mockito.any(byte[].class), Mockito.eq(0), Mockito.anyInt()
+        );
+        Mockito.verify(output).flush();
+        Mockito.verifyNoMoreInteractions(output);
+    }
+
+    /**
+     * RsPrint can print a body bigger than its buffer.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void printsLargeBody() throws IOException {
+        final byte[] body = new byte[Tv.HUNDRED * Tv.THOUSAND];
+        Arrays.fill(body, (byte) 'x');
+        MatcherAssert.assertThat(
+            new RsPrint(new RsWithBody(body)).print(),
+            Matchers.allOf(
+                Matchers.startsWith("HTTP/1.1 200 OK\r\n"),
+                Matchers.endsWith(
+                    String.format(
+                        "\r\n\r\n%s", new String(body, StandardCharsets.UTF_8)
+                    )
+                )
+            )
+        );
+    }
+
+    /**
+     * RsPrint can send a file body through a channel.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void printsFileThroughChannel() throws IOException {
+        final byte[] content = new byte[Tv.HUNDRED * Tv.THOUSAND];
+        Arrays.fill(content, (byte) 'f');
+        final File file = this.temp.newFile("body.bin");
+        Files.write(file.toPath(), content);
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new RsPrint(new RsWithBody(file.toPath())).print(
+            output, Channels.newChannel(output)
+        );
+        MatcherAssert.assertThat(
+            new String(output.toByteArray(), StandardCharsets.UTF_8),
+            Matchers.allOf(
+                Matchers.startsWith("HTTP/1.1 200 OK\r\n"),
+                Matchers.containsString("Content-Length: 100000\r\n"),
+                Matchers.endsWith(
+                    String.format(
+                        "\r\n\r\n%s",
+                        new String(content, StandardCharsets.UTF_8)
+                    )
+                )
+            )
+        );
+    }
+
     /**
      * RsPrint can flush body contents even when exception happens.
      * @throws IOException If some problem inside
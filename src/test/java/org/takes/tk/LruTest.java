@@ -0,0 +1,65 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.takes.tk;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link Lru}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class LruTest {
+
+    /**
+     * Lru can evict the least recently used values.
+     */
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        final Lru<String> lru = new Lru<>(2L);
+        lru.put("a", "first", 1L);
+        lru.put("b", "second", 1L);
+        MatcherAssert.assertThat(lru.get("a"), Matchers.equalTo("first"));
+        lru.put("c", "third", 1L);
+        MatcherAssert.assertThat(lru.get("b"), Matchers.nullValue());
+        MatcherAssert.assertThat(lru.get("a"), Matchers.equalTo("first"));
+        MatcherAssert.assertThat(lru.get("c"), Matchers.equalTo("third"));
+    }
+
+    /**
+     * Lru can ignore values bigger than the cache.
+     */
+    @Test
+    public void ignoresTooBigValues() {
+        final Lru<String> lru = new Lru<>(2L);
+        lru.put("x", "small", 1L);
+        lru.put("y", "big", 3L);
+        MatcherAssert.assertThat(lru.get("y"), Matchers.nullValue());
+        MatcherAssert.assertThat(lru.get("x"), Matchers.equalTo("small"));
+    }
+
+}
@@ -0,0 +1,162 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.takes.tk;
+
+import java.io.IOException;
+import java.util.Arrays;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.takes.HttpException;
+import org.takes.rq.RqFake;
+import org.takes.rs.RsPrint;
+
+/**
+ * Test case for {@link TkCachedClasspath}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+public final class TkCachedClasspathTest {
+
+    /**
+     * TkCachedClasspath can read a resource only once.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void readsResourceOnce() throws IOException {
+        final TkCachedClasspath take = new TkCachedClasspath();
+        final String first = new RsPrint(
+            take.act(new RqFake("GET", "/org/takes/Take.class?a", ""))
+        ).printBody();
+        MatcherAssert.assertThat(
+            new RsPrint(
+                take.act(new RqFake("GET", "/org/takes/Take.class?b", ""))
+            ).printBody(),
+            Matchers.equalTo(first)
+        );
+        MatcherAssert.assertThat(take.misses(), Matchers.equalTo(1L));
+        MatcherAssert.assertThat(take.hits(), Matchers.equalTo(1L));
+    }
+
+    /**
+     * TkCachedClasspath can serve the same content as TkClasspath.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void servesSameContentAsClasspath() throws IOException {
+        MatcherAssert.assertThat(
+            new RsPrint(
+                new TkCachedClasspath("/org/takes").act(
+                    new RqFake("GET", "/Request.class", "")
+                )
+            ).print(),
+            Matchers.equalTo(
+                new RsPrint(
+                    new TkClasspath("/org/takes").act(
+                        new RqFake("GET", "/Request.class", "")
+                    )
+                ).print()
+            )
+        );
+    }
+
+    /**
+     * TkCachedClasspath can send a compressed copy.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void sendsCompressedCopy() throws IOException {
+        MatcherAssert.assertThat(
+            new RsPrint(
+                new TkCachedClasspath("", Long.MAX_VALUE, true).act(
+                    new RqFake(
+                        Arrays.asList(
+                            "GET /org/takes/Take.class",
+                            "Accept-Encoding: gzip"
+                        ),
+                        ""
+                    )
+                )
+            ).printHead(),
+            Matchers.allOf(
+                Matchers.containsString("Content-Encoding: gzip"),
+                Matchers.containsString("Vary: Accept-Encoding")
+            )
+        );
+    }
+
+    /**
+     * TkCachedClasspath can count the compressed copy in the size of
+     * a resource.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void doesNotCacheResourceWithCopyBiggerThanCache()
+        throws IOException {
+        final TkCachedClasspath take = new TkCachedClasspath(
+            "",
+            TkCachedClasspathTest.class.getResource("/org/takes/Take.class")
+                .openConnection().getContentLengthLong(),
+            true
+        );
+        take.act(new RqFake("GET", "/org/takes/Take.class", ""));
+        take.act(new RqFake("GET", "/org/takes/Take.class", ""));
+        MatcherAssert.assertThat(take.hits(), Matchers.equalTo(0L));
+    }
+
+    /**
+     * TkCachedClasspath can serve resources bigger than the cache.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void servesResourceBiggerThanCache() throws IOException {
+        final TkCachedClasspath take = new TkCachedClasspath("", 1L, true);
+        final String expected = new RsPrint(
+            new TkClasspath().act(new RqFake("GET", "/org/takes/Take.class"))
+        ).printBody();
+        for (int idx = 0; idx < 2; ++idx) {
+            MatcherAssert.assertThat(
+                new RsPrint(
+                    take.act(new RqFake("GET", "/org/takes/Take.class"))
+                ).printBody(),
+                Matchers.equalTo(expected)
+            );
+        }
+        MatcherAssert.assertThat(take.hits(), Matchers.equalTo(0L));
+    }
+
+    /**
+     * TkCachedClasspath can throw when resource not found.
+     * @throws IOException If some problem inside
+     */
+    @Test(expected = HttpException.class)
+    public void throwsWhenResourceNotFound() throws IOException {
+        new TkCachedClasspath().act(
+            new RqFake("GET", "/something-else", "")
+        );
+    }
+
+}
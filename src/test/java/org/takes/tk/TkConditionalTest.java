@@ -0,0 +1,211 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.takes.tk;
+
+import java.io.IOException;
+import java.util.Arrays;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.takes.Take;
+import org.takes.rq.RqFake;
+import org.takes.rs.RsPrint;
+import org.takes.rs.RsWithBody;
+import org.takes.rs.RsWithValidators;
+
+/**
+ * Test case for {@link TkConditional}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+public final class TkConditionalTest {
+
+    /**
+     * Time of modification of the resource.
+     */
+    private static final long MODIFIED = 784111777000L;
+
+    /**
+     * TkConditional can answer with full content and accept ranges.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void acceptsRanges() throws IOException {
+        MatcherAssert.assertThat(
+            TkConditionalTest.print(),
+            Matchers.allOf(
+                Matchers.startsWith("HTTP/1.1 200 OK"),
+                Matchers.containsString("Accept-Ranges: bytes"),
+                Matchers.containsString(
+                    "Last-Modified: Sun, 06 Nov 1994 08:49:37 GMT"
+                ),
+                Matchers.containsString("ETag: \"a-b690b434e8\""),
+                Matchers.endsWith("0123456789")
+            )
+        );
+    }
+
+    /**
+     * TkConditional can answer with 304 to matching If-None-Match.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void answersNotModifiedByEtag() throws IOException {
+        MatcherAssert.assertThat(
+            TkConditionalTest.print("If-None-Match: \"x\", W/\"a-b690b434e8\""),
+            Matchers.allOf(
+                Matchers.startsWith("HTTP/1.1 304 Not Modified"),
+                Matchers.containsString("ETag: \"a-b690b434e8\""),
+                Matchers.not(Matchers.containsString("Content-Length")),
+                Matchers.endsWith("\r\n\r\n")
+            )
+        );
+    }
+
+    /**
+     * TkConditional can answer with 304 to If-Modified-Since.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void answersNotModifiedByDate() throws IOException {
+        MatcherAssert.assertThat(
+            TkConditionalTest.print(
+                "If-Modified-Since: Sun, 06 Nov 1994 08:49:37 GMT"
+            ),
+            Matchers.startsWith("HTTP/1.1 304 Not Modified")
+        );
+        MatcherAssert.assertThat(
+            TkConditionalTest.print(
+                "If-Modified-Since: Sat, 05 Nov 1994 08:49:37 GMT"
+            ),
+            Matchers.startsWith("HTTP/1.1 200 OK")
+        );
+    }
+
+    /**
+     * TkConditional can answer with a single range.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void answersWithRange() throws IOException {
+        MatcherAssert.assertThat(
+            TkConditionalTest.print("Range: bytes=2-4"),
+            Matchers.allOf(
+                Matchers.startsWith("HTTP/1.1 206 Partial Content"),
+                Matchers.containsString("Content-Range: bytes 2-4/10\r\n"),
+                Matchers.containsString("Content-Length: 3\r\n"),
+                Matchers.endsWith("\r\n\r\n234")
+            )
+        );
+        MatcherAssert.assertThat(
+            TkConditionalTest.print("Range: bytes=-3"),
+            Matchers.endsWith("\r\n\r\n789")
+        );
+    }
+
+    /**
+     * TkConditional can answer with many ranges.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void answersWithManyRanges() throws IOException {
+        MatcherAssert.assertThat(
+            TkConditionalTest.print("Range: bytes=8-,0-1"),
+            Matchers.allOf(
+                Matchers.containsString(
+                    "Content-Type: multipart/byteranges; boundary="
+                ),
+                Matchers.containsString(
+                    "Content-Range: bytes 0-1/10\r\n\r\n01\r\n--"
+                ),
+                Matchers.containsString(
+                    "Content-Range: bytes 8-9/10\r\n\r\n89\r\n--"
+                )
+            )
+        );
+    }
+
+    /**
+     * TkConditional can reject ranges beyond the body.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void rejectsUnsatisfiableRange() throws IOException {
+        MatcherAssert.assertThat(
+            TkConditionalTest.print("Range: bytes=10-"),
+            Matchers.allOf(
+                Matchers.startsWith("HTTP/1.1 416 Range Not Satisfiable"),
+                Matchers.containsString("Content-Range: bytes */10")
+            )
+        );
+    }
+
+    /**
+     * TkConditional can ignore range of a changed resource.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void ignoresRangeOfChangedResource() throws IOException {
+        MatcherAssert.assertThat(
+            TkConditionalTest.print(
+                "Range: bytes=0-1", "If-Range: \"a-b690b434e7\""
+            ),
+            Matchers.startsWith("HTTP/1.1 200 OK")
+        );
+        MatcherAssert.assertThat(
+            TkConditionalTest.print(
+                "Range: bytes=0-1",
+                "If-Range: Sun, 06 Nov 1994 08:49:37 GMT"
+            ),
+            Matchers.startsWith("HTTP/1.1 206 Partial Content")
+        );
+    }
+
+    /**
+     * Print the response to GET request.
+     * @param headers Headers of the request
+     * @return Response
+     * @throws IOException If fails
+     */
+    private static String print(final String... headers) throws IOException {
+        final Take take = new TkConditional(
+            new TkFixed(
+                new RsWithValidators(
+                    new RsWithBody("0123456789"),
+                    // @checkstyle MagicNumber (1 line)
+                    10L, TkConditionalTest.MODIFIED
+                )
+            )
+        );
+        final String[] head = new String[headers.length + 2];
+        head[0] = "GET /file.txt";
+        head[1] = "Host: www.example.com";
+        System.arraycopy(headers, 0, head, 2, headers.length);
+        return new RsPrint(
+            take.act(new RqFake(Arrays.asList(head), ""))
+        ).print();
+    }
+}
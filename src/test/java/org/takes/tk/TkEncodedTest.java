@@ -0,0 +1,195 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2014-2018 Yegor Bugayenko
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.takes.tk;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.InflaterInputStream;
+import org.apache.commons.io.IOUtils;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.takes.Response;
+import org.takes.rq.RqFake;
+import org.takes.rs.Encoder;
+import org.takes.rs.RsText;
+import org.takes.rs.RsWithHeader;
+import org.takes.rs.RsWithStatus;
+
+/**
+ * Test case for {@link TkEncoded}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 2.0
+ */
+public final class TkEncodedTest {
+
+    /**
+     * TkEncoded can pick the coding with the highest quality.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void picksCodingWithHighestQuality() throws IOException {
+        final Response response = new TkEncoded(
+            new TkText("hello, world!"),
+            new Encoder.Gzip(), new Encoder.Deflate()
+        ).act(TkEncodedTest.request("gzip;q=0.5, deflate"));
+        MatcherAssert.assertThat(
+            response.head(),
+            Matchers.hasItems(
+                "Content-Encoding: deflate",
+                "Vary: Accept-Encoding"
+            )
+        );
+        MatcherAssert.assertThat(
+            IOUtils.toString(
+                new InflaterInputStream(response.body()),
+                "UTF-8"
+            ),
+            Matchers.equalTo("hello, world!")
+        );
+    }
+
+    /**
+     * TkEncoded can leave the response as is, if nothing is acceptable.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void leavesResponseWhenNothingIsAcceptable() throws IOException {
+        final Response response = new TkEncoded(
+            new TkText("plain")
+        ).act(TkEncodedTest.request("gzip;q=0, exi"));
+        MatcherAssert.assertThat(
+            response.head(),
+            Matchers.allOf(
+                Matchers.hasItems("Content-Length: 5", "Vary: Accept-Encoding"),
+                Matchers.not(
+                    Matchers.hasItem(Matchers.startsWith("Content-Encoding"))
+                )
+            )
+        );
+    }
+
+    /**
+     * TkEncoded can prefer identity, if the client does.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void prefersIdentityWhenClientDoes() throws IOException {
+        MatcherAssert.assertThat(
+            new TkEncoded(
+                new TkText("as is"), new Encoder.Gzip()
+            ).act(TkEncodedTest.request("gzip;q=0.1, identity;q=1")).head(),
+            Matchers.allOf(
+                Matchers.hasItem("Content-Length: 5"),
+                Matchers.not(
+                    Matchers.hasItem(Matchers.startsWith("Content-Encoding"))
+                )
+            )
+        );
+    }
+
+    /**
+     * TkEncoded can leave responses without body as they are.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void leavesNotModifiedResponse() throws IOException {
+        MatcherAssert.assertThat(
+            new TkEncoded(
+                new TkFixed(
+                    // @checkstyle MagicNumber (1 line)
+                    new RsWithStatus(new RsText(""), 304)
+                )
+            ).act(TkEncodedTest.request("gzip")).head(),
+            Matchers.not(
+                Matchers.hasItem(Matchers.startsWith("Content-Encoding"))
+            )
+        );
+    }
+
+    /**
+     * TkEncoded can leave partial responses as they are.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void leavesPartialResponse() throws IOException {
+        MatcherAssert.assertThat(
+            new TkEncoded(
+                new TkFixed(
+                    new RsWithHeader(
+                        // @checkstyle MagicNumber (1 line)
+                        new RsWithStatus(new RsText("bc"), 206),
+                        "Content-Range: bytes 1-2/3"
+                    )
+                )
+            ).act(TkEncodedTest.request("gzip")).head(),
+            Matchers.allOf(
+                Matchers.hasItem("Content-Length: 2"),
+                Matchers.not(
+                    Matchers.hasItem(Matchers.startsWith("Content-Encoding"))
+                )
+            )
+        );
+    }
+
+    /**
+     * TkEncoded can drop Accept-Ranges from encoded responses.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void dropsAcceptRanges() throws IOException {
+        MatcherAssert.assertThat(
+            new TkEncoded(
+                new TkFixed(
+                    new RsWithHeader(new RsText("abc"), "Accept-Ranges: bytes")
+                ),
+                new Encoder.Gzip()
+            ).act(TkEncodedTest.request("gzip")).head(),
+            Matchers.allOf(
+                Matchers.hasItem("Content-Encoding: gzip"),
+                Matchers.not(
+                    Matchers.hasItem(Matchers.startsWith("Accept-Ranges"))
+                )
+            )
+        );
+    }
+
+    /**
+     * Make a request.
+     * @param accept Value of Accept-Encoding header
+     * @return Request
+     */
+    private static RqFake request(final String accept) {
+        return new RqFake(
+            Arrays.asList(
+                "GET / HTTP/1.1",
+                "Host: www.example.com",
+                String.format("Accept-Encoding: %s", accept)
+            ),
+            ""
+        );
+    }
+
+}
@@ -25,6 +25,7 @@ package org.takes.tk;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import org.apache.commons.io.FileUtils;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
@@ -70,6 +71,104 @@ public final class TkFilesTest {
         );
     }
 
+    /**
+     * TkFiles can take length of the file from the file system.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void setsContentLength() throws IOException {
+        FileUtils.write(
+            this.temp.newFile("b.txt"), "twelve bytes", StandardCharsets.UTF_8
+        );
+        MatcherAssert.assertThat(
+            new RsPrint(
+                new TkFiles(this.temp.getRoot()).act(
+                    new RqFake("GET", "/b.txt", "")
+                )
+            ).printHead(),
+            Matchers.containsString("Content-Length: 12\r\n")
+        );
+    }
+
+    /**
+     * TkFiles can send a precompressed sibling of the file.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void sendsPrecompressedSibling() throws IOException {
+        FileUtils.write(
+            this.temp.newFile("c.txt"), "plain text", StandardCharsets.UTF_8
+        );
+        FileUtils.write(
+            this.temp.newFile("c.txt.gz"), "gzipped", StandardCharsets.UTF_8
+        );
+        MatcherAssert.assertThat(
+            new RsPrint(
+                new TkFiles(this.temp.getRoot(), true).act(
+                    new RqFake(
+                        Arrays.asList(
+                            "GET /c.txt HTTP/1.1",
+                            "Host: localhost",
+                            "Accept-Encoding: gzip, deflate"
+                        ),
+                        ""
+                    )
+                )
+            ).print(),
+            Matchers.allOf(
+                Matchers.containsString("Content-Encoding: gzip\r\n"),
+                Matchers.containsString("Vary: Accept-Encoding\r\n"),
+                Matchers.endsWith("\r\n\r\ngzipped")
+            )
+        );
+        MatcherAssert.assertThat(
+            new RsPrint(
+                new TkFiles(this.temp.getRoot(), true).act(
+                    new RqFake("GET", "/c.txt", "")
+                )
+            ).print(),
+            Matchers.allOf(
+                Matchers.not(Matchers.containsString("Content-Encoding")),
+                Matchers.endsWith("\r\n\r\nplain text")
+            )
+        );
+    }
+
+    /**
+     * TkFiles can pick the precompressed sibling by quality.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void picksPrecompressedSiblingByQuality() throws IOException {
+        FileUtils.write(
+            this.temp.newFile("d.txt"), "plain", StandardCharsets.UTF_8
+        );
+        FileUtils.write(
+            this.temp.newFile("d.txt.gz"), "gzipped", StandardCharsets.UTF_8
+        );
+        FileUtils.write(
+            this.temp.newFile("d.txt.br"), "brotli", StandardCharsets.UTF_8
+        );
+        MatcherAssert.assertThat(
+            new RsPrint(
+                new TkFiles(this.temp.getRoot(), true).act(
+                    new RqFake(
+                        Arrays.asList(
+                            "GET /d.txt HTTP/1.1",
+                            "Host: localhost",
+                            "Accept-Encoding: br;q=0.5, gzip"
+                        ),
+                        ""
+                    )
+                )
+            ).print(),
+            Matchers.allOf(
+                Matchers.containsString("Content-Encoding: gzip\r\n"),
+                Matchers.endsWith("\r\n\r\ngzipped")
+            )
+        );
+    }
+
     /**
      * TkFiles can throw when file not found.
      * @throws IOException If some problem inside
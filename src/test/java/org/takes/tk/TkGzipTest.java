@@ -23,13 +23,23 @@
  */
 package org.takes.tk;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import org.apache.commons.io.IOUtils;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.junit.Test;
+import org.takes.Request;
+import org.takes.Response;
+import org.takes.Take;
 import org.takes.rq.RqFake;
+import org.takes.rq.RqHeaders;
 import org.takes.rs.RsPrint;
+import org.takes.rs.RsText;
+import org.takes.rs.RsWithHeader;
 
 /**
  * Test case for {@link TkGzip}.
@@ -84,4 +94,95 @@ public final class TkGzipTest {
         );
     }
 
+    /**
+     * TkGzip can keep compressed bodies and find them by ETag.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void reusesCompressedBodyWithSameEtag() throws IOException {
+        final Take take = new TkGzip(
+            new Take() {
+                @Override
+                public Response act(final Request req) throws IOException {
+                    return new RsWithHeader(
+                        new RsText(
+                            new RqHeaders.Smart(req).single("X-Text")
+                        ),
+                        "ETag", "\"abc\""
+                    );
+                }
+            },
+            // @checkstyle MagicNumber (1 line)
+            1024L
+        );
+        final Response first = take.act(TkGzipTest.request("first"));
+        MatcherAssert.assertThat(
+            IOUtils.toString(new GZIPInputStream(first.body()), "UTF-8"),
+            Matchers.equalTo("first")
+        );
+        final Response second = take.act(TkGzipTest.request("second"));
+        MatcherAssert.assertThat(
+            second.head(),
+            Matchers.hasItems(
+                "Content-Encoding: gzip",
+                "ETag: W/\"abc\"",
+                "Vary: Accept-Encoding"
+            )
+        );
+        MatcherAssert.assertThat(
+            IOUtils.toString(new GZIPInputStream(second.body()), "UTF-8"),
+            Matchers.equalTo("first")
+        );
+    }
+
+    /**
+     * TkGzip can close the original body when the compressed one is
+     * found in the cache.
+     * @throws IOException If some problem inside
+     */
+    @Test
+    public void closesOriginalBodyOnCacheHit() throws IOException {
+        final AtomicInteger closed = new AtomicInteger();
+        final Take take = new TkGzip(
+            new Take() {
+                @Override
+                public Response act(final Request req) {
+                    return new RsWithHeader(
+                        new RsText(
+                            new ByteArrayInputStream(new byte[] {'x'}) {
+                                @Override
+                                public void close() {
+                                    closed.incrementAndGet();
+                                }
+                            }
+                        ),
+                        "ETag", "\"xyz\""
+                    );
+                }
+            },
+            // @checkstyle MagicNumber (1 line)
+            1024L
+        );
+        take.act(TkGzipTest.request("")).body().close();
+        take.act(TkGzipTest.request("")).body().close();
+        MatcherAssert.assertThat(closed.get(), Matchers.equalTo(2));
+    }
+
+    /**
+     * Make a request accepting GZIP.
+     * @param text Text to respond with
+     * @return Request
+     */
+    private static Request request(final String text) {
+        return new RqFake(
+            Arrays.asList(
+                "GET /text HTTP/1.1",
+                "Host: www.example.com",
+                "Accept-Encoding: gzip",
+                String.format("X-Text: %s", text)
+            ),
+            ""
+        );
+    }
+
 }